@@ -0,0 +1,16 @@
+-- 订单、退货申请列表查询索引
+-- 列表查询使用 create_time >= ? AND create_time < ? 的半开区间条件，以下组合索引可覆盖常用的筛选方式
+
+-- 订单列表：按状态 + 提交时间筛选
+ALTER TABLE oms_order ADD INDEX idx_delete_status_status_create_time (delete_status, `status`, create_time);
+-- 订单列表：仅按提交时间筛选
+ALTER TABLE oms_order ADD INDEX idx_delete_status_create_time (delete_status, create_time);
+-- 订单列表：按订单编号精确查询
+ALTER TABLE oms_order ADD INDEX idx_order_sn (order_sn);
+
+-- 退货申请列表：按状态 + 申请时间筛选
+ALTER TABLE oms_order_return_apply ADD INDEX idx_status_create_time (`status`, create_time);
+-- 退货申请列表：仅按申请时间筛选
+ALTER TABLE oms_order_return_apply ADD INDEX idx_create_time (create_time);
+-- 退货申请列表：按处理时间筛选
+ALTER TABLE oms_order_return_apply ADD INDEX idx_handle_time (handle_time);
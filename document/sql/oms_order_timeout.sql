@@ -0,0 +1,6 @@
+-- 订单超时处理
+-- 待付款、已发货的订单记录下一次超时处理的时间，由后台按时间轮到期处理（自动关闭、自动确认收货），
+-- 不需要定时按状态和时间全表扫描订单
+ALTER TABLE oms_order ADD COLUMN `timeout_time` datetime DEFAULT NULL COMMENT '超时处理时间：待付款订单为自动关闭时间，已发货订单为自动确认收货时间；为空表示尚未计算，9999-12-31表示无法计算（订单设置或时间字段为空）';
+-- 按状态 + 超时时间范围加载即将到期的订单，以及查找尚未计算超时时间的订单
+ALTER TABLE oms_order ADD INDEX idx_status_timeout_time (`status`, timeout_time);
@@ -0,0 +1,3 @@
+-- 订单乐观锁版本号
+-- 订单状态流转和信息修改按 (id, status, version) 比较后更新，每次修改版本号加1，并发操作中只有一个能成功
+ALTER TABLE oms_order ADD COLUMN `version` int(11) NOT NULL DEFAULT '0' COMMENT '版本号，每次修改订单时加1';
@@ -0,0 +1,4 @@
+-- 优惠券领取记录由后台按批写入，券码唯一，重复写入同一批记录时通过INSERT IGNORE跳过已写入的记录
+ALTER TABLE sms_coupon_history ADD UNIQUE KEY uk_coupon_code (coupon_code);
+-- 校正优惠券领取数量时按优惠券统计领取记录
+ALTER TABLE sms_coupon_history ADD INDEX idx_coupon_id_member_id (coupon_id, member_id);
@@ -0,0 +1,13 @@
+-- 秒杀库存写回记录
+-- 秒杀库存在Redis中预留和确认，已确认的扣减按批写回 pms_sku_stock 和 sms_flash_promotion_product_relation；
+-- 每批写回与本表记录在同一事务中提交，批次号唯一，重复写回同一批次时不会重复扣减
+CREATE TABLE `sms_flash_stock_flush` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `batch_id` varchar(64) NOT NULL COMMENT '批次号',
+  `relation_id` bigint(20) NOT NULL COMMENT '秒杀商品关系ID',
+  `quantity` int(11) NOT NULL COMMENT '本批扣减的总数量',
+  `create_time` datetime DEFAULT NULL COMMENT '写回时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_batch_id` (`batch_id`),
+  KEY `idx_relation_id` (`relation_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='秒杀库存写回记录';
@@ -0,0 +1,22 @@
+-- 冗余字段异步更新任务
+-- 品牌、商品分类改名后只记录任务，由后台按主键分批更新 pms_product 等表中的冗余名称字段
+CREATE TABLE `sys_denormalize_task` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `target` varchar(64) NOT NULL COMMENT '冗余字段名称，如 pms_product.brand_name',
+  `source_id` bigint(20) NOT NULL COMMENT '来源记录ID，如品牌ID、分类ID',
+  `value` varchar(255) DEFAULT NULL COMMENT '新的字段值',
+  `last_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '已处理到的目标表主键，重启后从此处继续',
+  `updated_count` int(11) NOT NULL DEFAULT '0' COMMENT '已更新行数',
+  `status` int(1) NOT NULL DEFAULT '0' COMMENT '状态：0->待执行；1->执行中；2->已完成；3->已被新任务取代；4->执行失败',
+  `message` varchar(500) DEFAULT NULL COMMENT '失败原因',
+  `create_time` datetime DEFAULT NULL COMMENT '创建时间',
+  `update_time` datetime DEFAULT NULL COMMENT '最近一次执行时间，执行中的任务长时间未更新视为中断',
+  `finish_time` datetime DEFAULT NULL COMMENT '完成时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status` (`status`),
+  KEY `idx_target_source` (`target`, `source_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='冗余字段异步更新任务';
+
+-- 按来源ID和主键顺序分批查找待更新的商品（二级索引包含主键，可直接按id范围扫描）
+ALTER TABLE `pms_product` ADD INDEX `idx_brand_id` (`brand_id`);
+ALTER TABLE `pms_product` ADD INDEX `idx_product_category_id` (`product_category_id`);
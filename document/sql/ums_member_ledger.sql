@@ -0,0 +1,75 @@
+-- 积分、成长值账本
+-- 积分、成长值变化记录只追加不修改，按批写入；事件幂等键唯一，重复写入同一事件时被跳过（历史记录的幂等键为NULL，不受影响）
+ALTER TABLE `ums_integration_change_history`
+  ADD COLUMN `event_key` varchar(64) DEFAULT NULL COMMENT '事件幂等键',
+  ADD UNIQUE KEY `uk_event_key` (`event_key`),
+  ADD KEY `idx_member_id` (`member_id`, `id`);
+ALTER TABLE `ums_growth_change_history`
+  ADD COLUMN `event_key` varchar(64) DEFAULT NULL COMMENT '事件幂等键',
+  ADD UNIQUE KEY `uk_event_key` (`event_key`),
+  ADD KEY `idx_member_id` (`member_id`, `id`);
+
+-- 会员余额快照：余额 = 快照余额 + 该会员last_history_id之后的变化记录
+CREATE TABLE `ums_member_ledger_snapshot` (
+  `member_id` bigint(20) NOT NULL,
+  `ledger_type` int(1) NOT NULL COMMENT '账本类型：0->积分；1->成长值',
+  `balance` bigint(20) NOT NULL DEFAULT '0' COMMENT '快照余额',
+  `last_history_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '快照已包含的最后一条变化记录ID',
+  `update_time` datetime DEFAULT NULL COMMENT '快照时间',
+  PRIMARY KEY (`member_id`, `ledger_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='会员积分、成长值余额快照';
+
+-- 快照进度：变化记录按ID顺序合并到快照，只合并上一次快照时已存在的记录，避免跳过ID较小但提交较晚的记录
+CREATE TABLE `ums_member_ledger_cursor` (
+  `ledger_type` int(1) NOT NULL COMMENT '账本类型：0->积分；1->成长值',
+  `last_history_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '已合并到快照的最后一条变化记录ID',
+  `horizon_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '上一次快照时的最大变化记录ID，下一次快照合并到此处',
+  `update_time` datetime DEFAULT NULL COMMENT '快照时间',
+  PRIMARY KEY (`ledger_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='会员积分、成长值快照进度';
+
+-- 批量发放任务：按会员ID顺序分批写入变化记录，每批与进度在同一事务中提交，重启后从记录的进度继续
+CREATE TABLE `ums_member_ledger_grant` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `ledger_type` int(1) NOT NULL COMMENT '账本类型：0->积分；1->成长值',
+  `change_count` int(11) NOT NULL COMMENT '每个会员发放的数量',
+  `member_level_id` bigint(20) DEFAULT NULL COMMENT '只发放给该等级的会员，为空时发放给全部会员',
+  `operate_man` varchar(100) DEFAULT NULL COMMENT '操作人员',
+  `operate_note` varchar(200) DEFAULT NULL COMMENT '操作备注',
+  `last_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '已处理到的会员ID，重启后从此处继续',
+  `granted_count` int(11) NOT NULL DEFAULT '0' COMMENT '已发放的会员数',
+  `status` int(1) NOT NULL DEFAULT '0' COMMENT '状态：0->待执行；1->执行中；2->已完成；4->执行失败',
+  `message` varchar(500) DEFAULT NULL COMMENT '失败原因',
+  `create_time` datetime DEFAULT NULL COMMENT '创建时间',
+  `update_time` datetime DEFAULT NULL COMMENT '最近一次执行时间，执行中的任务长时间未更新视为中断',
+  `finish_time` datetime DEFAULT NULL COMMENT '完成时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='会员积分、成长值批量发放任务';
+
+-- 以 ums_member 中现有的积分、成长值作为初始快照，快照进度从当前最大的变化记录ID开始
+INSERT INTO ums_member_ledger_cursor (ledger_type, last_history_id, horizon_id, update_time)
+SELECT 0, IFNULL(MAX(id), 0), IFNULL(MAX(id), 0), NOW() FROM ums_integration_change_history;
+INSERT INTO ums_member_ledger_cursor (ledger_type, last_history_id, horizon_id, update_time)
+SELECT 1, IFNULL(MAX(id), 0), IFNULL(MAX(id), 0), NOW() FROM ums_growth_change_history;
+INSERT INTO ums_member_ledger_snapshot (member_id, ledger_type, balance, last_history_id, update_time)
+SELECT m.id, 0, IFNULL(m.integration, 0), c.last_history_id, NOW()
+FROM ums_member m JOIN ums_member_ledger_cursor c ON c.ledger_type = 0;
+INSERT INTO ums_member_ledger_snapshot (member_id, ledger_type, balance, last_history_id, update_time)
+SELECT m.id, 1, IFNULL(m.growth, 0), c.last_history_id, NOW()
+FROM ums_member m JOIN ums_member_ledger_cursor c ON c.ledger_type = 1;
+
+-- 变化记录发件箱：在业务事务中追加的变化记录与业务数据一起写入，由定时任务按ID顺序写入历史表后删除
+CREATE TABLE `ums_member_ledger_outbox` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `ledger_type` int(1) NOT NULL COMMENT '账本类型：0->积分；1->成长值',
+  `member_id` bigint(20) NOT NULL,
+  `create_time` datetime DEFAULT NULL,
+  `change_type` int(1) DEFAULT NULL COMMENT '改变类型：0->增加；1->减少',
+  `change_count` int(11) DEFAULT NULL,
+  `operate_man` varchar(100) DEFAULT NULL,
+  `operate_note` varchar(200) DEFAULT NULL,
+  `source_type` int(1) DEFAULT NULL,
+  `event_key` varchar(64) DEFAULT NULL COMMENT '事件幂等键',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='会员积分、成长值变化记录发件箱';
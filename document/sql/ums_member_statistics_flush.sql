@@ -0,0 +1,53 @@
+-- 会员统计信息按批累加写入：每个会员一行，写入时 INSERT ... ON DUPLICATE KEY UPDATE x = x + VALUES(x)
+-- 加唯一键前先合并同一会员的多行：各项统计累加到ID最小的一行，最近下单时间取最大值，再删除其余行
+UPDATE ums_member_statistics_info s
+JOIN (
+  SELECT member_id, MIN(id) AS keep_id,
+         SUM(IFNULL(consume_amount, 0)) AS consume_amount,
+         SUM(IFNULL(order_count, 0)) AS order_count,
+         SUM(IFNULL(coupon_count, 0)) AS coupon_count,
+         SUM(IFNULL(comment_count, 0)) AS comment_count,
+         SUM(IFNULL(return_order_count, 0)) AS return_order_count,
+         SUM(IFNULL(login_count, 0)) AS login_count,
+         SUM(IFNULL(attend_count, 0)) AS attend_count,
+         SUM(IFNULL(fans_count, 0)) AS fans_count,
+         SUM(IFNULL(collect_product_count, 0)) AS collect_product_count,
+         SUM(IFNULL(collect_subject_count, 0)) AS collect_subject_count,
+         SUM(IFNULL(collect_topic_count, 0)) AS collect_topic_count,
+         SUM(IFNULL(collect_comment_count, 0)) AS collect_comment_count,
+         SUM(IFNULL(invite_friend_count, 0)) AS invite_friend_count,
+         MAX(recent_order_time) AS recent_order_time
+  FROM ums_member_statistics_info
+  GROUP BY member_id
+  HAVING COUNT(*) > 1
+) d ON s.id = d.keep_id
+SET s.consume_amount = d.consume_amount,
+    s.order_count = d.order_count,
+    s.coupon_count = d.coupon_count,
+    s.comment_count = d.comment_count,
+    s.return_order_count = d.return_order_count,
+    s.login_count = d.login_count,
+    s.attend_count = d.attend_count,
+    s.fans_count = d.fans_count,
+    s.collect_product_count = d.collect_product_count,
+    s.collect_subject_count = d.collect_subject_count,
+    s.collect_topic_count = d.collect_topic_count,
+    s.collect_comment_count = d.collect_comment_count,
+    s.invite_friend_count = d.invite_friend_count,
+    s.recent_order_time = d.recent_order_time;
+
+DELETE s FROM ums_member_statistics_info s
+JOIN ums_member_statistics_info k ON k.member_id = s.member_id AND k.id < s.id;
+
+ALTER TABLE ums_member_statistics_info ADD UNIQUE KEY uk_member_id (member_id);
+
+-- 会员统计增量写入记录
+-- 增量在记录时累加到Redis中的批次，每个批次与本表记录在同一事务中写入；批次号唯一，重放未删除的批次时不会重复累加
+CREATE TABLE `ums_member_statistics_flush` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `batch_id` varchar(64) NOT NULL COMMENT '批次号',
+  `member_count` int(11) NOT NULL COMMENT '本批涉及的会员数',
+  `create_time` datetime DEFAULT NULL COMMENT '写入时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_batch_id` (`batch_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='会员统计增量写入记录';
@@ -0,0 +1,133 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.model.SmsCoupon;
+import com.lzy.mall.model.SmsCouponProductCategoryRelation;
+import com.lzy.mall.model.SmsCouponProductRelation;
+
+import java.util.*;
+
+/**
+ * 优惠券适用范围索引
+ * 由未过期的优惠券及其商品、分类关系构建，构建后不再修改。
+ * 优惠券按ID排序后以下标表示，商品ID、分类ID分别对应一个适用优惠券的位图，全场通用的优惠券单独保存一个位图；
+ * 一个商品适用的优惠券为 全场通用 | 商品位图 | 分类位图，再与当前有效的优惠券位图取交集。
+ * 有效期的开始、结束时间保存在有序集合中，只在到达下一个边界时重新计算有效的优惠券。
+ */
+public class CouponApplicabilityIndex {
+    /**
+     * 使用类型：全场通用
+     */
+    private static final int USE_TYPE_ALL = 0;
+    /**
+     * 使用类型：指定分类
+     */
+    private static final int USE_TYPE_CATEGORY = 1;
+    /**
+     * 使用类型：指定商品
+     */
+    private static final int USE_TYPE_PRODUCT = 2;
+
+    private final List<SmsCoupon> couponList;
+    private final BitSet globalBits = new BitSet();
+    private final Map<Long, BitSet> productBits = new HashMap<>();
+    private final Map<Long, BitSet> categoryBits = new HashMap<>();
+    private final NavigableSet<Long> boundaries = new TreeSet<>();
+
+    public CouponApplicabilityIndex(List<SmsCoupon> couponList, List<SmsCouponProductRelation> productRelationList,
+                                    List<SmsCouponProductCategoryRelation> categoryRelationList) {
+        List<SmsCoupon> sortedList = new ArrayList<>(couponList);
+        sortedList.sort(Comparator.comparing(SmsCoupon::getId));
+        this.couponList = Collections.unmodifiableList(sortedList);
+        Map<Long, Integer> indexMap = new HashMap<>();
+        for (int i = 0; i < sortedList.size(); i++) {
+            SmsCoupon coupon = sortedList.get(i);
+            indexMap.put(coupon.getId(), i);
+            if (hasUseType(coupon, USE_TYPE_ALL)) {
+                globalBits.set(i);
+            }
+            if (coupon.getStartTime() != null) {
+                boundaries.add(coupon.getStartTime().getTime());
+            }
+            if (coupon.getEndTime() != null) {
+                boundaries.add(coupon.getEndTime().getTime());
+            }
+        }
+        for (SmsCouponProductRelation relation : productRelationList) {
+            Integer index = indexMap.get(relation.getCouponId());
+            if (index != null && hasUseType(sortedList.get(index), USE_TYPE_PRODUCT)) {
+                productBits.computeIfAbsent(relation.getProductId(), key -> new BitSet()).set(index);
+            }
+        }
+        for (SmsCouponProductCategoryRelation relation : categoryRelationList) {
+            Integer index = indexMap.get(relation.getCouponId());
+            if (index != null && hasUseType(sortedList.get(index), USE_TYPE_CATEGORY)) {
+                categoryBits.computeIfAbsent(relation.getProductCategoryId(), key -> new BitSet()).set(index);
+            }
+        }
+    }
+
+    private static boolean hasUseType(SmsCoupon coupon, int useType) {
+        return coupon.getUseType() != null && coupon.getUseType() == useType;
+    }
+
+    /**
+     * 获取now时处于有效期内的优惠券位图
+     */
+    public BitSet getValidBits(long now) {
+        BitSet validBits = new BitSet(couponList.size());
+        for (int i = 0; i < couponList.size(); i++) {
+            SmsCoupon coupon = couponList.get(i);
+            if ((coupon.getStartTime() == null || coupon.getStartTime().getTime() <= now)
+                    && (coupon.getEndTime() == null || coupon.getEndTime().getTime() > now)) {
+                validBits.set(i);
+            }
+        }
+        return validBits;
+    }
+
+    /**
+     * 获取now之后第一个优惠券开始或结束的时间，在此之前有效的优惠券不会变化；没有时返回Long.MAX_VALUE
+     */
+    public long getNextBoundary(long now) {
+        Long boundary = boundaries.higher(now);
+        return boundary == null ? Long.MAX_VALUE : boundary;
+    }
+
+    /**
+     * 获取商品适用的优惠券位图（未按有效期过滤），返回新的位图，调用方可以修改
+     */
+    public BitSet resolve(Long productId, Long productCategoryId) {
+        BitSet bits = (BitSet) globalBits.clone();
+        BitSet product = productId == null ? null : productBits.get(productId);
+        if (product != null) {
+            bits.or(product);
+        }
+        BitSet category = productCategoryId == null ? null : categoryBits.get(productCategoryId);
+        if (category != null) {
+            bits.or(category);
+        }
+        return bits;
+    }
+
+    /**
+     * 按位图获取优惠券ID，按ID升序排列
+     */
+    public List<Long> getCouponIds(BitSet bits) {
+        List<Long> couponIds = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            couponIds.add(couponList.get(i).getId());
+        }
+        return couponIds;
+    }
+
+    /**
+     * 按位图获取优惠券，按ID升序排列
+     */
+    public List<SmsCoupon> getCoupons(BitSet bits) {
+        List<SmsCoupon> coupons = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            coupons.add(couponList.get(i));
+        }
+        return coupons;
+    }
+}
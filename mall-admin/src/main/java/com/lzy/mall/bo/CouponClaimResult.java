@@ -0,0 +1,39 @@
+package com.lzy.mall.bo;
+
+/**
+ * 优惠券领取结果，reply与领取脚本的返回值对应，领取成功时脚本返回券码
+ */
+public enum CouponClaimResult {
+    SUCCESS(null, "领取成功"),
+    NOT_PRELOADED("-1", "优惠券未预热"),
+    SOLD_OUT("-2", "优惠券已经领完了"),
+    LIMIT_EXCEEDED("-3", "您已经领取过该优惠券"),
+    NOT_IN_PERIOD("-4", "优惠券不在领取时间内");
+
+    private final String reply;
+    private final String message;
+
+    CouponClaimResult(String reply, String message) {
+        this.reply = reply;
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public static CouponClaimResult of(String reply) {
+        if (reply == null) {
+            throw new IllegalArgumentException("领取脚本没有返回结果");
+        }
+        if (!reply.startsWith("-")) {
+            return SUCCESS;
+        }
+        for (CouponClaimResult result : values()) {
+            if (reply.equals(result.reply)) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("未知的领取结果：" + reply);
+    }
+}
@@ -0,0 +1,48 @@
+package com.lzy.mall.bo;
+
+/**
+ * 冗余字段定义
+ * 描述某张表中依赖其他表的冗余列：当来源记录（如品牌）变化时，按 keyColumn = 来源ID 找到目标行并更新 column。
+ * 表名和列名会直接拼接到SQL中，只能在代码中注册，不能来自请求参数。
+ */
+public class DenormalizeTarget {
+    /**
+     * 注册名称，同时用作任务表中的target字段
+     */
+    private final String name;
+    /**
+     * 目标表，必须有自增主键id
+     */
+    private final String table;
+    /**
+     * 冗余列
+     */
+    private final String column;
+    /**
+     * 关联来源记录的外键列
+     */
+    private final String keyColumn;
+
+    public DenormalizeTarget(String name, String table, String column, String keyColumn) {
+        this.name = name;
+        this.table = table;
+        this.column = column;
+        this.keyColumn = keyColumn;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+}
@@ -0,0 +1,36 @@
+package com.lzy.mall.bo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 冗余字段异步更新任务，对应 sys_denormalize_task 表
+ */
+@Getter
+@Setter
+public class DenormalizeTask implements Serializable {
+    private Long id;
+    @Schema(description = "冗余字段名称，如 pms_product.brand_name")
+    private String target;
+    @Schema(description = "来源记录ID，如品牌ID、分类ID")
+    private Long sourceId;
+    @Schema(description = "新的字段值")
+    private String value;
+    @Schema(description = "已处理到的目标表主键")
+    private Long lastId;
+    @Schema(description = "已更新行数")
+    private Integer updatedCount;
+    @Schema(description = "状态：0->待执行；1->执行中；2->已完成；3->已被新任务取代；4->执行失败")
+    private Integer status;
+    @Schema(description = "失败原因")
+    private String message;
+    private Date createTime;
+    private Date updateTime;
+    private Date finishTime;
+
+    private static final long serialVersionUID = 1L;
+}
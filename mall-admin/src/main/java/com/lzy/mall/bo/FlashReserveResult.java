@@ -0,0 +1,32 @@
+package com.lzy.mall.bo;
+
+/**
+ * 秒杀库存预留结果，code与预留脚本的返回值对应
+ */
+public enum FlashReserveResult {
+    SUCCESS(1, "预留成功"),
+    NOT_PRELOADED(-1, "秒杀商品库存未预热"),
+    SOLD_OUT(-2, "秒杀商品库存不足"),
+    LIMIT_EXCEEDED(-3, "超过每人限购数量");
+
+    private final long code;
+    private final String message;
+
+    FlashReserveResult(long code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public static FlashReserveResult of(Long code) {
+        for (FlashReserveResult result : values()) {
+            if (code != null && result.code == code) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("未知的预留结果：" + code);
+    }
+}
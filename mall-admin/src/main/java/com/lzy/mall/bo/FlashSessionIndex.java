@@ -0,0 +1,150 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+import com.lzy.mall.dto.SmsFlashSessionProduct;
+import com.lzy.mall.model.SmsFlashPromotion;
+import com.lzy.mall.model.SmsFlashPromotionSession;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * 秒杀场次时间索引
+ * 由上线的秒杀活动、启用的场次和场次商品构建，把 活动日期 × 每日场次 展开为[fromDate, toDate]内每一天的具体时间段，
+ * 按开始时间保存在有序Map中，构建后不再修改。
+ * 场次之间不重叠，开始时间不晚于当前时间的最后一个场次就是唯一可能正在进行的场次，查询当前及下一个场次为O(log n)。
+ */
+public class FlashSessionIndex {
+    /**
+     * 开始时间 -> 同一时间开始的场次（不同活动的同一场次）
+     */
+    private final NavigableMap<Long, List<SmsFlashSessionDetail>> startIndex = new TreeMap<>();
+    /**
+     * 索引覆盖范围的结束时间，之后需要重新构建
+     */
+    private final long expireTime;
+
+    public FlashSessionIndex(List<SmsFlashPromotion> promotionList, List<SmsFlashPromotionSession> sessionList,
+                             List<SmsFlashSessionProduct> productList, LocalDate fromDate, LocalDate toDate) {
+        this.expireTime = toEpochMilli(toDate, LocalTime.MIDNIGHT);
+        //活动ID -> 场次ID -> 场次商品
+        Map<Long, Map<Long, List<SmsFlashSessionProduct>>> productMap = new HashMap<>();
+        for (SmsFlashSessionProduct product : productList) {
+            productMap.computeIfAbsent(product.getFlashPromotionId(), key -> new HashMap<>())
+                    .computeIfAbsent(product.getFlashPromotionSessionId(), key -> new ArrayList<>())
+                    .add(product);
+        }
+        for (SmsFlashPromotion promotion : promotionList) {
+            Map<Long, List<SmsFlashSessionProduct>> sessionProductMap = productMap.get(promotion.getId());
+            if (sessionProductMap == null) {
+                continue;
+            }
+            LocalDate firstDate = max(fromDate, toLocalDate(promotion.getStartDate()));
+            LocalDate lastDate = min(toDate.minusDays(1), toLocalDate(promotion.getEndDate()));
+            for (SmsFlashPromotionSession session : sessionList) {
+                List<SmsFlashSessionProduct> sessionProducts = sessionProductMap.get(session.getId());
+                if (sessionProducts == null) {
+                    continue;
+                }
+                //同一场次每天的商品相同，共用一个不可修改的列表
+                List<SmsFlashSessionProduct> sharedProducts = Collections.unmodifiableList(sessionProducts);
+                for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                    add(promotion, session, sharedProducts, date);
+                }
+            }
+        }
+    }
+
+    private void add(SmsFlashPromotion promotion, SmsFlashPromotionSession session,
+                     List<SmsFlashSessionProduct> productList, LocalDate date) {
+        if (session.getStartTime() == null || session.getEndTime() == null) {
+            return;
+        }
+        long startTime = toEpochMilli(date, toLocalTime(session.getStartTime()));
+        long endTime = toEpochMilli(date, toLocalTime(session.getEndTime()));
+        if (endTime <= startTime) {
+            //结束时间不晚于开始时间的场次跨越零点
+            endTime = toEpochMilli(date.plusDays(1), toLocalTime(session.getEndTime()));
+        }
+        SmsFlashSessionDetail detail = new SmsFlashSessionDetail();
+        detail.setFlashPromotionId(promotion.getId());
+        detail.setFlashPromotionTitle(promotion.getTitle());
+        detail.setFlashPromotionSessionId(session.getId());
+        detail.setSessionName(session.getName());
+        detail.setStartTime(new Date(startTime));
+        detail.setEndTime(new Date(endTime));
+        detail.setProductList(productList);
+        startIndex.computeIfAbsent(startTime, key -> new ArrayList<>()).add(detail);
+    }
+
+    /**
+     * 获取now时正在进行的场次，没有时返回null
+     */
+    public SmsFlashSessionDetail getCurrent(long now) {
+        Map.Entry<Long, List<SmsFlashSessionDetail>> entry = startIndex.floorEntry(now);
+        if (entry == null) {
+            return null;
+        }
+        for (SmsFlashSessionDetail detail : entry.getValue()) {
+            if (detail.getEndTime().getTime() > now) {
+                return detail;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取now之后第一个开始的场次，没有时返回null
+     */
+    public SmsFlashSessionDetail getNext(long now) {
+        Map.Entry<Long, List<SmsFlashSessionDetail>> entry = startIndex.higherEntry(now);
+        return entry == null ? null : entry.getValue().get(0);
+    }
+
+    /**
+     * 获取now之后当前场次结束或下一个场次开始的时间，在此之前当前及下一个场次不会变化；
+     * 都没有时返回索引的过期时间
+     */
+    public long getNextBoundary(long now) {
+        long boundary = expireTime;
+        SmsFlashSessionDetail current = getCurrent(now);
+        if (current != null) {
+            boundary = Math.min(boundary, current.getEndTime().getTime());
+        }
+        Long nextStartTime = startIndex.higherKey(now);
+        if (nextStartTime != null) {
+            boundary = Math.min(boundary, nextStartTime);
+        }
+        return boundary;
+    }
+
+    /**
+     * 索引是否已超出覆盖范围
+     */
+    public boolean isExpired(long now) {
+        return now >= expireTime;
+    }
+
+    private static long toEpochMilli(LocalDate date, LocalTime time) {
+        return LocalDateTime.of(date, time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 按毫秒数转换，java.sql.Time、java.sql.Date不支持toInstant()
+     */
+    private static LocalTime toLocalTime(Date time) {
+        return Instant.ofEpochMilli(time.getTime()).atZone(ZoneId.systemDefault()).toLocalTime();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,63 @@
+package com.lzy.mall.bo;
+
+import cn.hutool.crypto.digest.DigestUtil;
+
+/**
+ * 序列化后的首页内容
+ * ETag由内容的SHA-256摘要生成，各节点对相同的内容生成相同的ETag，内容没有变化时重新构建也不会使客户端缓存失效。
+ */
+public class HomeContentDocument {
+    private final byte[] body;
+    private final String contentHash;
+    private final String etag;
+    private final long validUntil;
+
+    /**
+     * @param body       序列化后的JSON，构建后不再修改
+     * @param validUntil 内容保持不变的截止时刻
+     */
+    public HomeContentDocument(byte[] body, long validUntil) {
+        this.body = body;
+        this.contentHash = DigestUtil.sha256Hex(body);
+        this.etag = "\"" + contentHash + "\"";
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * 序列化后的JSON，调用方不能修改
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getValidUntil() {
+        return validUntil;
+    }
+
+    /**
+     * 客户端的If-None-Match是否与当前内容一致，支持多个ETag、弱ETag及 *
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
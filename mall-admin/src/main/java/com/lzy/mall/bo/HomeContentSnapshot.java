@@ -0,0 +1,72 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.SmsHomeContent;
+import com.lzy.mall.dto.SmsHomeProduct;
+import com.lzy.mall.model.CmsSubject;
+import com.lzy.mall.model.PmsBrand;
+import com.lzy.mall.model.SmsHomeAdvertise;
+
+import java.util.*;
+
+/**
+ * 首页内容快照
+ * 由首页各推荐表一次性构建，构建后不再修改；轮播广告包含尚未开始的广告，
+ * 广告开始或结束投放时只需按时间重新筛选，不需要查询数据库。
+ */
+public class HomeContentSnapshot {
+    private final List<SmsHomeAdvertise> advertiseList;
+    private final List<PmsBrand> brandList;
+    private final List<SmsHomeProduct> newProductList;
+    private final List<SmsHomeProduct> hotProductList;
+    private final List<CmsSubject> subjectList;
+    /**
+     * 广告开始及结束投放的时刻
+     */
+    private final TreeSet<Long> boundaries = new TreeSet<>();
+
+    public HomeContentSnapshot(List<SmsHomeAdvertise> advertiseList, List<PmsBrand> brandList,
+                               List<SmsHomeProduct> newProductList, List<SmsHomeProduct> hotProductList,
+                               List<CmsSubject> subjectList) {
+        this.advertiseList = Collections.unmodifiableList(new ArrayList<>(advertiseList));
+        this.brandList = Collections.unmodifiableList(new ArrayList<>(brandList));
+        this.newProductList = Collections.unmodifiableList(new ArrayList<>(newProductList));
+        this.hotProductList = Collections.unmodifiableList(new ArrayList<>(hotProductList));
+        this.subjectList = Collections.unmodifiableList(new ArrayList<>(subjectList));
+        for (SmsHomeAdvertise advertise : advertiseList) {
+            if (advertise.getStartTime() != null) {
+                boundaries.add(advertise.getStartTime().getTime());
+            }
+            if (advertise.getEndTime() != null) {
+                boundaries.add(advertise.getEndTime().getTime());
+            }
+        }
+    }
+
+    /**
+     * 获取now时刻的首页内容
+     */
+    public SmsHomeContent getContent(long now) {
+        List<SmsHomeAdvertise> activeList = new ArrayList<>();
+        for (SmsHomeAdvertise advertise : advertiseList) {
+            if ((advertise.getStartTime() == null || advertise.getStartTime().getTime() <= now)
+                    && (advertise.getEndTime() == null || now < advertise.getEndTime().getTime())) {
+                activeList.add(advertise);
+            }
+        }
+        SmsHomeContent content = new SmsHomeContent();
+        content.setAdvertiseList(activeList);
+        content.setBrandList(brandList);
+        content.setNewProductList(newProductList);
+        content.setHotProductList(hotProductList);
+        content.setSubjectList(subjectList);
+        return content;
+    }
+
+    /**
+     * now之后首页内容下一次发生变化的时刻，没有时返回Long.MAX_VALUE
+     */
+    public long getNextBoundary(long now) {
+        Long boundary = boundaries.higher(now);
+        return boundary == null ? Long.MAX_VALUE : boundary;
+    }
+}
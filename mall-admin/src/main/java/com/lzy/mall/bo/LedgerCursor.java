@@ -0,0 +1,21 @@
+package com.lzy.mall.bo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 快照进度，对应 ums_member_ledger_cursor 表
+ */
+@Getter
+@Setter
+public class LedgerCursor {
+    private Integer ledgerType;
+    /**
+     * 已合并到快照的最后一条变化记录ID
+     */
+    private Long lastHistoryId;
+    /**
+     * 上一次快照时的最大变化记录ID，本次快照合并到此处
+     */
+    private Long horizonId;
+}
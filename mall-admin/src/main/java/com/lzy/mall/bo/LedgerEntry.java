@@ -0,0 +1,35 @@
+package com.lzy.mall.bo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 会员积分、成长值变化记录，写入历史表前保存在发件箱表或以JSON保存在Redis队列中
+ */
+@Getter
+@Setter
+public class LedgerEntry implements Serializable {
+    private LedgerType type;
+    private Long memberId;
+    /**
+     * 改变类型：0->增加；1->减少
+     */
+    private Integer changeType;
+    private Integer changeCount;
+    private String operateMan;
+    private String operateNote;
+    /**
+     * 来源：0->购物；1->管理员修改
+     */
+    private Integer sourceType;
+    /**
+     * 事件幂等键，同一事件重复提交时只写入一次
+     */
+    private String eventKey;
+    private Date createTime;
+
+    private static final long serialVersionUID = 1L;
+}
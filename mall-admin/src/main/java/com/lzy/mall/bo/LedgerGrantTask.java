@@ -0,0 +1,40 @@
+package com.lzy.mall.bo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 会员积分、成长值批量发放任务，对应 ums_member_ledger_grant 表
+ */
+@Getter
+@Setter
+public class LedgerGrantTask implements Serializable {
+    private Long id;
+    @Schema(description = "账本类型：0->积分；1->成长值")
+    private Integer ledgerType;
+    @Schema(description = "每个会员发放的数量")
+    private Integer changeCount;
+    @Schema(description = "只发放给该等级的会员，为空时发放给全部会员")
+    private Long memberLevelId;
+    @Schema(description = "操作人员")
+    private String operateMan;
+    @Schema(description = "操作备注")
+    private String operateNote;
+    @Schema(description = "已处理到的会员ID")
+    private Long lastId;
+    @Schema(description = "已发放的会员数")
+    private Integer grantedCount;
+    @Schema(description = "状态：0->待执行；1->执行中；2->已完成；4->执行失败")
+    private Integer status;
+    @Schema(description = "失败原因")
+    private String message;
+    private Date createTime;
+    private Date updateTime;
+    private Date finishTime;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,22 @@
+package com.lzy.mall.bo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 会员余额快照，对应 ums_member_ledger_snapshot 表
+ */
+@Getter
+@Setter
+public class LedgerSnapshot {
+    private Long memberId;
+    private Integer ledgerType;
+    private Long balance;
+    /**
+     * 快照已包含的最后一条变化记录ID
+     */
+    private Long lastHistoryId;
+    private Date updateTime;
+}
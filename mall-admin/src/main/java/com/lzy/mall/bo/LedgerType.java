@@ -0,0 +1,44 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.common.exception.Asserts;
+
+/**
+ * 会员账本类型
+ * 每种账本的变化记录保存在各自的历史表中，余额以快照的形式同步到 ums_member 的对应列
+ */
+public enum LedgerType {
+    INTEGRATION(0, "ums_integration_change_history", "integration"),
+    GROWTH(1, "ums_growth_change_history", "growth");
+
+    private final int code;
+    private final String table;
+    private final String column;
+
+    LedgerType(int code, String table, String column) {
+        this.code = code;
+        this.table = table;
+        this.column = column;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static LedgerType of(Integer code) {
+        for (LedgerType type : values()) {
+            if (code != null && type.code == code) {
+                return type;
+            }
+        }
+        Asserts.fail("账本类型不存在");
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.lzy.mall.bo;
+
+import java.util.List;
+
+/**
+ * 一个会员的统计增量，values与MemberStatisticsField的顺序一致
+ */
+public class MemberStatisticsDelta {
+    private final Long memberId;
+    private final List<Number> values;
+
+    public MemberStatisticsDelta(Long memberId, List<Number> values) {
+        this.memberId = memberId;
+        this.values = values;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public List<Number> getValues() {
+        return values;
+    }
+}
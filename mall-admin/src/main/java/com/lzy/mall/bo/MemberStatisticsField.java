@@ -0,0 +1,50 @@
+package com.lzy.mall.bo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 可累加的会员统计字段
+ * 金额字段以分为单位累加，写入数据库时按scale换算
+ */
+public enum MemberStatisticsField {
+    CONSUME_AMOUNT("consume_amount", 2),
+    ORDER_COUNT("order_count", 0),
+    COUPON_COUNT("coupon_count", 0),
+    COMMENT_COUNT("comment_count", 0),
+    RETURN_ORDER_COUNT("return_order_count", 0),
+    LOGIN_COUNT("login_count", 0),
+    ATTEND_COUNT("attend_count", 0),
+    FANS_COUNT("fans_count", 0),
+    COLLECT_PRODUCT_COUNT("collect_product_count", 0),
+    COLLECT_SUBJECT_COUNT("collect_subject_count", 0),
+    COLLECT_TOPIC_COUNT("collect_topic_count", 0),
+    COLLECT_COMMENT_COUNT("collect_comment_count", 0),
+    INVITE_FRIEND_COUNT("invite_friend_count", 0);
+
+    private final String column;
+    private final int scale;
+
+    MemberStatisticsField(String column, int scale) {
+        this.column = column;
+        this.scale = scale;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * 把数值换算为累加单位，如金额换算为分
+     */
+    public long toUnits(BigDecimal value) {
+        return value.setScale(scale, RoundingMode.HALF_UP).movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * 把累加单位换算为写入数据库的值
+     */
+    public Number fromUnits(long units) {
+        return scale == 0 ? units : BigDecimal.valueOf(units, scale);
+    }
+}
@@ -0,0 +1,15 @@
+package com.lzy.mall.bo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 订单当前状态及版本号，作为比较后更新的期望值
+ */
+@Getter
+@Setter
+public class OmsOrderState {
+    private Long id;
+    private Integer status;
+    private Integer version;
+}
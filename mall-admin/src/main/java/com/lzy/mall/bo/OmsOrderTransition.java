@@ -0,0 +1,68 @@
+package com.lzy.mall.bo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 订单状态机：定义后台对订单的每种操作允许在哪些状态下执行，以及执行后的状态
+ * 订单状态：0->待付款；1->待发货；2->已发货；3->已完成；4->已关闭；5->无效订单
+ */
+public enum OmsOrderTransition {
+    /**
+     * 关闭未付款的订单
+     */
+    CLOSE("关闭订单", 4, 0),
+    /**
+     * 删除已结束的订单，只修改删除状态
+     */
+    DELETE("删除订单", null, 3, 4, 5),
+    /**
+     * 发货后不能再修改收货人信息
+     */
+    UPDATE_RECEIVER_INFO("修改收货人信息", null, 0, 1),
+    /**
+     * 付款后不能再修改运费和折扣
+     */
+    UPDATE_MONEY_INFO("修改费用信息", null, 0),
+    UPDATE_NOTE("修改备注信息", null, 0, 1, 2, 3, 4, 5),
+    DELIVER("完成发货", 2, 1),
+    TIMEOUT_CLOSE("超时未付款，自动关闭订单", 4, 0),
+    TIMEOUT_CONFIRM("超时未确认收货，自动确认收货", 3, 2);
+
+    private final String name;
+    /**
+     * 执行后的状态，为空时状态不变
+     */
+    private final Integer toStatus;
+    private final Set<Integer> fromStatus;
+
+    OmsOrderTransition(String name, Integer toStatus, Integer... fromStatus) {
+        this.name = name;
+        this.toStatus = toStatus;
+        this.fromStatus = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(fromStatus)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getToStatus() {
+        return toStatus;
+    }
+
+    /**
+     * 订单处于status时是否允许执行
+     */
+    public boolean allowFrom(Integer status) {
+        return fromStatus.contains(status);
+    }
+
+    /**
+     * 从status执行后的状态
+     */
+    public Integer targetStatus(Integer status) {
+        return toStatus != null ? toStatus : status;
+    }
+}
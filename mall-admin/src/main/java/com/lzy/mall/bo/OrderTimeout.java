@@ -0,0 +1,52 @@
+package com.lzy.mall.bo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * 订单超时处理项，对应 oms_order 表中的状态和超时处理时间
+ */
+@Getter
+@Setter
+public class OrderTimeout {
+    /**
+     * 待付款订单超时自动关闭
+     */
+    public static final int STATUS_UNPAID = 0;
+    /**
+     * 已发货订单超时自动确认收货
+     */
+    public static final int STATUS_DELIVERED = 2;
+    /**
+     * 无法计算超时时间（订单设置或下单、发货时间为空）的订单写入该时间，不会到期，也不会被反复选出；
+     * 订单设置修改后与其他订单一起清空重新计算
+     */
+    public static final Date NEVER = Date.from(LocalDateTime.of(9999, 12, 31, 0, 0).atZone(ZoneId.systemDefault()).toInstant());
+
+    private Long orderId;
+    /**
+     * 计算超时时间时订单所处的状态，处理时订单仍为该状态才会生效
+     */
+    private Integer status;
+    private Date timeoutTime;
+
+    public OrderTimeout() {
+    }
+
+    public OrderTimeout(Long orderId, Integer status, Date timeoutTime) {
+        this.orderId = orderId;
+        this.status = status;
+        this.timeoutTime = timeoutTime;
+    }
+
+    /**
+     * 是否为无法计算超时时间的订单
+     */
+    public boolean isNever() {
+        return NEVER.equals(timeoutTime);
+    }
+}
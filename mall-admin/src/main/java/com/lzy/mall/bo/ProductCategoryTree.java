@@ -0,0 +1,112 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.PmsProductCategoryWithChildrenItem;
+import com.lzy.mall.model.PmsProductCategory;
+import org.springframework.beans.BeanUtils;
+
+import java.util.*;
+
+/**
+ * 商品分类树快照
+ * 由全部商品分类一次性构建，构建后不再修改，可以被多个线程同时读取；
+ * 分类发生修改时整体替换为新的快照。
+ * 除层级结构外还预先计算了每个分类的祖先ID和子树ID，查询子树时不需要递归SQL。
+ */
+public class ProductCategoryTree {
+    /**
+     * 顶级分类的parentId
+     */
+    private static final Long ROOT_PARENT_ID = 0L;
+
+    private final Map<Long, PmsProductCategory> categoryMap;
+    /**
+     * 分类ID -> 从顶级分类到父分类的ID列表
+     */
+    private final Map<Long, List<Long>> ancestorMap;
+    /**
+     * 分类ID -> 自身及所有子孙分类的ID
+     */
+    private final Map<Long, Set<Long>> subtreeMap;
+    private final List<PmsProductCategoryWithChildrenItem> roots;
+
+    /**
+     * @param categoryList 全部商品分类，子分类按列表中的顺序排列
+     */
+    public ProductCategoryTree(List<PmsProductCategory> categoryList) {
+        Map<Long, PmsProductCategory> categoryMap = new HashMap<>();
+        Map<Long, List<PmsProductCategory>> childrenMap = new HashMap<>();
+        for (PmsProductCategory category : categoryList) {
+            categoryMap.put(category.getId(), category);
+            childrenMap.computeIfAbsent(category.getParentId(), key -> new ArrayList<>()).add(category);
+        }
+        Map<Long, List<Long>> ancestorMap = new HashMap<>();
+        Map<Long, Set<Long>> subtreeMap = new HashMap<>();
+        this.roots = buildChildren(ROOT_PARENT_ID, Collections.emptyList(), childrenMap, ancestorMap, subtreeMap);
+        this.categoryMap = Collections.unmodifiableMap(categoryMap);
+        this.ancestorMap = Collections.unmodifiableMap(ancestorMap);
+        this.subtreeMap = Collections.unmodifiableMap(subtreeMap);
+    }
+
+    /**
+     * 从上到下构建parentId的子分类，每个分类只访问一次；父分类不存在的分类不会出现在树中
+     */
+    private List<PmsProductCategoryWithChildrenItem> buildChildren(Long parentId, List<Long> ancestors,
+                                                                   Map<Long, List<PmsProductCategory>> childrenMap,
+                                                                   Map<Long, List<Long>> ancestorMap,
+                                                                   Map<Long, Set<Long>> subtreeMap) {
+        List<PmsProductCategory> children = childrenMap.getOrDefault(parentId, Collections.emptyList());
+        List<PmsProductCategoryWithChildrenItem> items = new ArrayList<>(children.size());
+        for (PmsProductCategory category : children) {
+            //数据异常形成环时跳过已访问的分类
+            if (ancestorMap.containsKey(category.getId())) {
+                continue;
+            }
+            ancestorMap.put(category.getId(), ancestors);
+            List<Long> childAncestors = new ArrayList<>(ancestors.size() + 1);
+            childAncestors.addAll(ancestors);
+            childAncestors.add(category.getId());
+            List<PmsProductCategoryWithChildrenItem> grandChildren = buildChildren(category.getId(),
+                    Collections.unmodifiableList(childAncestors), childrenMap, ancestorMap, subtreeMap);
+            Set<Long> subtree = new HashSet<>();
+            subtree.add(category.getId());
+            for (PmsProductCategoryWithChildrenItem child : grandChildren) {
+                subtree.addAll(subtreeMap.get(child.getId()));
+            }
+            subtreeMap.put(category.getId(), Collections.unmodifiableSet(subtree));
+
+            PmsProductCategoryWithChildrenItem item = new PmsProductCategoryWithChildrenItem();
+            BeanUtils.copyProperties(category, item);
+            item.setChildren(Collections.unmodifiableList(grandChildren));
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * 以层级形式返回全部分类，子分类的children中同样包含下级分类
+     */
+    public List<PmsProductCategoryWithChildrenItem> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * 根据ID获取分类，不存在时返回null
+     */
+    public PmsProductCategory getCategory(Long id) {
+        return categoryMap.get(id);
+    }
+
+    /**
+     * 获取从顶级分类到父分类的ID列表，分类不在树中时返回空列表
+     */
+    public List<Long> getAncestorIds(Long id) {
+        return ancestorMap.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * 获取分类自身及所有子孙分类的ID，分类不在树中时返回空集合
+     */
+    public Set<Long> getSubtreeIds(Long id) {
+        return subtreeMap.getOrDefault(id, Collections.emptySet());
+    }
+}
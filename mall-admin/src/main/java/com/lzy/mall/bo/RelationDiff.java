@@ -0,0 +1,54 @@
+package com.lzy.mall.bo;
+
+import java.util.*;
+
+/**
+ * 关联关系差异
+ * 比较当前关联的ID和目标ID，得出需要新增和删除的ID，只对发生变化的关系执行写操作
+ */
+public class RelationDiff {
+    private final Set<Long> toAdd;
+    private final Set<Long> toRemove;
+
+    private RelationDiff(Set<Long> toAdd, Set<Long> toRemove) {
+        this.toAdd = toAdd;
+        this.toRemove = toRemove;
+    }
+
+    /**
+     * @param current 当前关联的ID
+     * @param target  目标ID，为null时表示清空，重复的ID会被忽略
+     */
+    public static RelationDiff of(Collection<Long> current, Collection<Long> target) {
+        Set<Long> currentSet = new HashSet<>(current);
+        Set<Long> targetSet = target == null ? Collections.emptySet() : new LinkedHashSet<>(target);
+        Set<Long> toAdd = new LinkedHashSet<>();
+        for (Long id : targetSet) {
+            if (id != null && !currentSet.contains(id)) {
+                toAdd.add(id);
+            }
+        }
+        Set<Long> toRemove = new LinkedHashSet<>();
+        for (Long id : currentSet) {
+            if (!targetSet.contains(id)) {
+                toRemove.add(id);
+            }
+        }
+        return new RelationDiff(toAdd, toRemove);
+    }
+
+    public Set<Long> getToAdd() {
+        return toAdd;
+    }
+
+    public Set<Long> getToRemove() {
+        return toRemove;
+    }
+
+    /**
+     * 关联关系没有变化
+     */
+    public boolean isEmpty() {
+        return toAdd.isEmpty() && toRemove.isEmpty();
+    }
+}
@@ -0,0 +1,148 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.UmsMenuNode;
+import com.lzy.mall.model.UmsMenu;
+import com.lzy.mall.model.UmsRole;
+import com.lzy.mall.model.UmsRoleMenuRelation;
+import org.springframework.beans.BeanUtils;
+
+import java.util.*;
+
+/**
+ * 后台菜单及角色菜单快照
+ * 由全部菜单、角色和角色菜单关系一次性构建，构建后不再修改。
+ * 每个角色的菜单列表和菜单树预先计算好，获取用户菜单时只需合并其角色的菜单列表；
+ * 用户角色关系按用户单独缓存，修改用户的角色时不需要重建快照。
+ */
+public class RoleMenuSnapshot {
+    /**
+     * 顶级菜单的parentId
+     */
+    private static final Long ROOT_PARENT_ID = 0L;
+
+    private final List<UmsMenuNode> menuTree;
+    private final Map<Long, UmsRole> roleMap;
+    /**
+     * 角色ID -> 按ID排序的菜单列表
+     */
+    private final Map<Long, List<UmsMenu>> roleMenuMap;
+    /**
+     * 角色ID -> 菜单树
+     */
+    private final Map<Long, List<UmsMenuNode>> roleMenuTreeMap;
+
+    public RoleMenuSnapshot(List<UmsMenu> menuList, List<UmsRole> roleList,
+                            List<UmsRoleMenuRelation> roleMenuRelationList) {
+        Map<Long, UmsMenu> menuMap = new HashMap<>();
+        for (UmsMenu menu : menuList) {
+            menuMap.put(menu.getId(), menu);
+        }
+        this.menuTree = buildTree(menuList);
+
+        Map<Long, UmsRole> roleMap = new HashMap<>();
+        for (UmsRole role : roleList) {
+            roleMap.put(role.getId(), role);
+        }
+        this.roleMap = Collections.unmodifiableMap(roleMap);
+
+        Map<Long, SortedMap<Long, UmsMenu>> roleMenus = new HashMap<>();
+        for (UmsRoleMenuRelation relation : roleMenuRelationList) {
+            UmsMenu menu = menuMap.get(relation.getMenuId());
+            if (menu != null) {
+                roleMenus.computeIfAbsent(relation.getRoleId(), key -> new TreeMap<>()).put(menu.getId(), menu);
+            }
+        }
+        Map<Long, List<UmsMenu>> roleMenuMap = new HashMap<>();
+        Map<Long, List<UmsMenuNode>> roleMenuTreeMap = new HashMap<>();
+        roleMenus.forEach((roleId, menus) -> {
+            List<UmsMenu> roleMenuList = Collections.unmodifiableList(new ArrayList<>(menus.values()));
+            roleMenuMap.put(roleId, roleMenuList);
+            roleMenuTreeMap.put(roleId, buildTree(roleMenuList));
+        });
+        this.roleMenuMap = Collections.unmodifiableMap(roleMenuMap);
+        this.roleMenuTreeMap = Collections.unmodifiableMap(roleMenuTreeMap);
+    }
+
+    /**
+     * 将扁平的菜单列表转换为树形结构
+     * 先按parentId建立子菜单索引，再从顶级菜单向下构建，每个菜单只访问一次；
+     * 父菜单不在列表中的菜单不会出现在树中
+     */
+    public static List<UmsMenuNode> buildTree(Collection<UmsMenu> menuList) {
+        Map<Long, List<UmsMenu>> childrenMap = new HashMap<>();
+        for (UmsMenu menu : menuList) {
+            childrenMap.computeIfAbsent(menu.getParentId(), key -> new ArrayList<>()).add(menu);
+        }
+        return buildChildren(ROOT_PARENT_ID, childrenMap, new HashSet<>());
+    }
+
+    private static List<UmsMenuNode> buildChildren(Long parentId, Map<Long, List<UmsMenu>> childrenMap, Set<Long> visited) {
+        List<UmsMenu> children = childrenMap.getOrDefault(parentId, Collections.emptyList());
+        List<UmsMenuNode> nodes = new ArrayList<>(children.size());
+        for (UmsMenu menu : children) {
+            //数据异常形成环时跳过已访问的菜单
+            if (!visited.add(menu.getId())) {
+                continue;
+            }
+            UmsMenuNode node = new UmsMenuNode();
+            BeanUtils.copyProperties(menu, node);
+            node.setChildren(buildChildren(menu.getId(), childrenMap, visited));
+            nodes.add(node);
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * 获取全部菜单的树形结构
+     */
+    public List<UmsMenuNode> getMenuTree() {
+        return menuTree;
+    }
+
+    /**
+     * 获取角色的菜单列表
+     */
+    public List<UmsMenu> getRoleMenuList(Long roleId) {
+        return roleMenuMap.getOrDefault(roleId, Collections.emptyList());
+    }
+
+    /**
+     * 获取角色的菜单树
+     */
+    public List<UmsMenuNode> getRoleMenuTree(Long roleId) {
+        return roleMenuTreeMap.getOrDefault(roleId, Collections.emptyList());
+    }
+
+    /**
+     * 获取用户拥有的角色，已删除的角色会被忽略
+     * @param roleIds 用户的角色ID列表
+     */
+    public List<UmsRole> getRoleList(Collection<Long> roleIds) {
+        List<UmsRole> roleList = new ArrayList<>();
+        for (Long roleId : roleIds) {
+            UmsRole role = roleMap.get(roleId);
+            if (role != null) {
+                roleList.add(role);
+            }
+        }
+        return roleList;
+    }
+
+    /**
+     * 合并用户所有角色的菜单，按菜单ID排序并去重，已删除的角色会被忽略
+     * @param roleIds 用户的角色ID列表
+     */
+    public List<UmsMenu> getMenuList(Collection<Long> roleIds) {
+        List<UmsRole> roleList = getRoleList(roleIds);
+        if (roleList.size() == 1) {
+            return getRoleMenuList(roleList.get(0).getId());
+        }
+        SortedMap<Long, UmsMenu> menus = new TreeMap<>();
+        for (UmsRole role : roleList) {
+            for (UmsMenu menu : getRoleMenuList(role.getId())) {
+                menus.put(menu.getId(), menu);
+            }
+        }
+        return new ArrayList<>(menus.values());
+    }
+}
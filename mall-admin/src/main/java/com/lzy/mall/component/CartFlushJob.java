@@ -0,0 +1,49 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.OmsCartService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 购物车写入
+ * 每隔flushInterval毫秒把有修改的会员购物车写入数据库，通过数据库锁保证同一时间只有一个节点执行。
+ */
+@Component
+public class CartFlushJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartFlushJob.class);
+    private static final String LOCK_NAME = "mall:cartFlush";
+
+    @Autowired
+    private DatabaseLockFactory databaseLockFactory;
+    @Autowired
+    private OmsCartService cartService;
+
+    private DatabaseLock lock;
+
+    @PostConstruct
+    public void init() {
+        lock = databaseLockFactory.create(LOCK_NAME);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.flushInterval:1000}")
+    public void run() {
+        if (!lock.tryAcquire()) {
+            return;
+        }
+        try {
+            cartService.flush();
+        } catch (Exception e) {
+            LOGGER.error("购物车写入失败，等待下次重试", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        lock.release();
+    }
+}
@@ -0,0 +1,227 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.common.util.TransactionUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计数增量缓冲区
+ * 商品增删、状态变更等操作只记录计数列的增量，由定时任务合并后批量写入数据库，
+ * 避免每次写操作都去更新同一个分类行或执行COUNT(*)。
+ * 每个记录ID对应一个LongAdder，高并发累加时不会争用同一个变量。
+ * 增量按批次累加并记录批次中最早、最晚的记录时间；设置分界时间后，分界时间前后记录的增量不会进入同一个批次，
+ * 校正计数时据此丢弃已包含在校正结果中的增量。
+ */
+@Component
+public class CountDeltaBuffer {
+
+    /**
+     * 需要维护的计数列
+     */
+    public enum Counter {
+        /**
+         * 商品分类下的商品数量
+         */
+        PRODUCT_CATEGORY_PRODUCT_COUNT("pms_product_category", "product_count"),
+        /**
+         * 商品属性分类下的规格数量
+         */
+        ATTRIBUTE_CATEGORY_ATTRIBUTE_COUNT("pms_product_attribute_category", "attribute_count"),
+        /**
+         * 商品属性分类下的参数数量
+         */
+        ATTRIBUTE_CATEGORY_PARAM_COUNT("pms_product_attribute_category", "param_count");
+
+        private final String table;
+        private final String column;
+
+        Counter(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    private volatile Generation current = new Generation(Long.MAX_VALUE);
+    /**
+     * 已切换、尚未取出的批次
+     */
+    private final List<Generation> sealedList = new ArrayList<>();
+    /**
+     * 放回的批次，下一次取出时优先返回
+     */
+    private final List<Batch> restoredList = new ArrayList<>();
+
+    /**
+     * 记录计数增量，当前存在事务时在事务提交后才记录，回滚的操作不会产生增量
+     */
+    public void add(Counter counter, Long id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> accumulate(counter, id, delta));
+    }
+
+    /**
+     * 批量记录计数增量
+     */
+    public void addAll(Counter counter, Map<Long, Long> deltas) {
+        deltas.forEach((id, delta) -> add(counter, id, delta));
+    }
+
+    /**
+     * 设置分界时间，分界时间之前和之后记录的增量进入不同的批次；分界时间已过时不生效
+     */
+    public synchronized void splitAt(long time) {
+        if (time <= System.currentTimeMillis() || time == current.until) {
+            return;
+        }
+        sealedList.add(current);
+        current = new Generation(time);
+    }
+
+    /**
+     * 切换到新的批次，取出所有未写入的批次，不包含没有增量的批次
+     */
+    public synchronized List<Batch> drain() {
+        Generation drained = current;
+        sealedList.add(drained);
+        current = new Generation(drained.until > System.currentTimeMillis() ? drained.until : Long.MAX_VALUE);
+        List<Batch> batchList = new ArrayList<>(restoredList);
+        restoredList.clear();
+        for (Generation generation : sealedList) {
+            //等待切换前已进入该批次的累加完成
+            while (generation.writers.sum() != 0) {
+                Thread.yield();
+            }
+            Batch batch = generation.toBatch();
+            if (batch != null) {
+                batchList.add(batch);
+            }
+        }
+        sealedList.clear();
+        return batchList;
+    }
+
+    /**
+     * 写入数据库失败或暂不写入时放回批次，等待下一次写入
+     */
+    public synchronized void restore(Batch batch) {
+        restoredList.add(batch);
+    }
+
+    /**
+     * 先登记进入当前批次再确认批次没有被切换，到达批次的分界时间后切换到新的批次
+     */
+    private void accumulate(Counter counter, Long id, long delta) {
+        while (true) {
+            Generation generation = current;
+            generation.writers.increment();
+            try {
+                long now = System.currentTimeMillis();
+                if (generation == current && now < generation.until) {
+                    generation.deltaMap.get(counter).computeIfAbsent(id, key -> new LongAdder()).add(delta);
+                    generation.firstRecordTime.accumulate(now);
+                    generation.lastRecordTime.accumulate(now);
+                    return;
+                }
+            } finally {
+                generation.writers.decrement();
+            }
+            rotate(generation);
+        }
+    }
+
+    private synchronized void rotate(Generation generation) {
+        if (generation == current) {
+            sealedList.add(generation);
+            current = new Generation(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 已取出的一批增量
+     */
+    public static class Batch {
+        private final Map<Counter, Map<Long, Long>> deltaMap;
+        private final long firstRecordTime;
+        private final long lastRecordTime;
+
+        private Batch(Map<Counter, Map<Long, Long>> deltaMap, long firstRecordTime, long lastRecordTime) {
+            this.deltaMap = deltaMap;
+            this.firstRecordTime = firstRecordTime;
+            this.lastRecordTime = lastRecordTime;
+        }
+
+        /**
+         * 计数列 -> 记录ID -> 增量，只包含不为0的增量，写入成功的计数列可以直接移除
+         */
+        public Map<Counter, Map<Long, Long>> getDeltaMap() {
+            return deltaMap;
+        }
+
+        /**
+         * 批次中最早的记录时间
+         */
+        public long getFirstRecordTime() {
+            return firstRecordTime;
+        }
+
+        /**
+         * 批次中最晚的记录时间
+         */
+        public long getLastRecordTime() {
+            return lastRecordTime;
+        }
+    }
+
+    private static class Generation {
+        private final Map<Counter, ConcurrentHashMap<Long, LongAdder>> deltaMap = new EnumMap<>(Counter.class);
+        /**
+         * 记录时间不早于该时间的增量不再进入本批次
+         */
+        private final long until;
+        private final LongAccumulator firstRecordTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastRecordTime = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        /**
+         * 正在写入本批次的累加数
+         */
+        private final LongAdder writers = new LongAdder();
+
+        private Generation(long until) {
+            this.until = until;
+            for (Counter counter : Counter.values()) {
+                deltaMap.put(counter, new ConcurrentHashMap<>());
+            }
+        }
+
+        private Batch toBatch() {
+            Map<Counter, Map<Long, Long>> batchDeltaMap = new EnumMap<>(Counter.class);
+            deltaMap.forEach((counter, adders) -> {
+                Map<Long, Long> deltas = new HashMap<>();
+                adders.forEach((id, adder) -> {
+                    long delta = adder.sum();
+                    if (delta != 0) {
+                        deltas.put(id, delta);
+                    }
+                });
+                if (!deltas.isEmpty()) {
+                    batchDeltaMap.put(counter, deltas);
+                }
+            });
+            return batchDeltaMap.isEmpty() ? null
+                    : new Batch(batchDeltaMap, firstRecordTime.get(), lastRecordTime.get());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.CouponApplicabilityIndex;
+import com.lzy.mall.mapper.SmsCouponMapper;
+import com.lzy.mall.mapper.SmsCouponProductCategoryRelationMapper;
+import com.lzy.mall.mapper.SmsCouponProductRelationMapper;
+import com.lzy.mall.model.SmsCoupon;
+import com.lzy.mall.model.SmsCouponExample;
+import com.lzy.mall.model.SmsCouponProductCategoryRelation;
+import com.lzy.mall.model.SmsCouponProductCategoryRelationExample;
+import com.lzy.mall.model.SmsCouponProductRelation;
+import com.lzy.mall.model.SmsCouponProductRelationExample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 优惠券适用范围索引持有者
+ * 索引包含加载时尚未过期的优惠券，优惠券或关系修改后重新构建；
+ * 有效期的变化不需要重新构建，当前有效的优惠券按有效期边界缓存。
+ */
+@Component
+public class CouponApplicabilityHolder extends VersionedSnapshotHolder<CouponApplicabilityIndex> {
+    @Autowired
+    private SmsCouponMapper couponMapper;
+    @Autowired
+    private SmsCouponProductRelationMapper productRelationMapper;
+    @Autowired
+    private SmsCouponProductCategoryRelationMapper productCategoryRelationMapper;
+    @Value("${redis.key.couponApplicability}")
+    private String cacheKey;
+    @Value("${couponApplicability.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+
+    private final TimedView<BitSet> validCoupons = timedView(CouponApplicabilityIndex::getValidBits,
+            CouponApplicabilityIndex::getNextBoundary);
+
+    /**
+     * 获取当前的适用范围索引
+     */
+    public CouponApplicabilityIndex getIndex() {
+        return get();
+    }
+
+    /**
+     * 获取索引中当前有效的优惠券位图，调用方不能修改
+     */
+    public BitSet getValidBits(CouponApplicabilityIndex index) {
+        return validCoupons.get(index);
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    protected CouponApplicabilityIndex load() {
+        Date now = new Date();
+        SmsCouponExample couponExample = new SmsCouponExample();
+        couponExample.or().andEndTimeGreaterThan(now);
+        couponExample.or().andEndTimeIsNull();
+        List<SmsCoupon> couponList = couponMapper.selectByExample(couponExample);
+        List<SmsCouponProductRelation> productRelationList = new ArrayList<>();
+        List<SmsCouponProductCategoryRelation> categoryRelationList = new ArrayList<>();
+        if (!couponList.isEmpty()) {
+            List<Long> couponIds = couponList.stream().map(SmsCoupon::getId).collect(Collectors.toList());
+            SmsCouponProductRelationExample productRelationExample = new SmsCouponProductRelationExample();
+            productRelationExample.createCriteria().andCouponIdIn(couponIds);
+            productRelationList = productRelationMapper.selectByExample(productRelationExample);
+            SmsCouponProductCategoryRelationExample categoryRelationExample = new SmsCouponProductCategoryRelationExample();
+            categoryRelationExample.createCriteria().andCouponIdIn(couponIds);
+            categoryRelationList = productCategoryRelationMapper.selectByExample(categoryRelationExample);
+        }
+        return new CouponApplicabilityIndex(couponList, productRelationList, categoryRelationList);
+    }
+
+    @Override
+    protected long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+
+}
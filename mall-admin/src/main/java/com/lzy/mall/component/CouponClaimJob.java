@@ -0,0 +1,63 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.SmsCouponClaimService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 优惠券领取记录写入及校正
+ * 每隔flushInterval毫秒把队列中的领取记录写入数据库，每隔reconcileInterval毫秒校正一次剩余数量和领取数量；
+ * 写入和校正在同一个调度方法中执行，通过数据库锁保证同一时间只有一个节点执行。
+ */
+@Component
+public class CouponClaimJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CouponClaimJob.class);
+    private static final String LOCK_NAME = "mall:couponClaim";
+
+    @Autowired
+    private DatabaseLockFactory databaseLockFactory;
+    @Autowired
+    private SmsCouponClaimService couponClaimService;
+    @Value("${couponClaim.reconcileInterval:60000}")
+    private long reconcileInterval;
+
+    private DatabaseLock lock;
+    private long lastReconcileTime;
+
+    @PostConstruct
+    public void init() {
+        lock = databaseLockFactory.create(LOCK_NAME);
+    }
+
+    @Scheduled(fixedDelayString = "${couponClaim.flushInterval:1000}")
+    public void run() {
+        if (!lock.tryAcquire()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastReconcileTime >= reconcileInterval) {
+                lastReconcileTime = now;
+                int count = couponClaimService.reconcile();
+                if (count > 0) {
+                    LOGGER.info("校正优惠券剩余数量，优惠券数：{}", count);
+                }
+            } else {
+                couponClaimService.flush();
+            }
+        } catch (Exception e) {
+            LOGGER.error("优惠券领取记录写入失败，等待下次重试", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        lock.release();
+    }
+}
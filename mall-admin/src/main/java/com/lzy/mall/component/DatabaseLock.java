@@ -0,0 +1,85 @@
+package com.lzy.mall.component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 基于MySQL GET_LOCK的节点互斥锁，用于保证某个后台任务同一时间只在一个节点上执行
+ * 锁与获取它的数据库连接绑定，持有期间独占该连接；节点宕机或连接断开时由数据库自动释放，
+ * 不需要像带过期时间的锁那样续期，也不会因为续期不及时出现两个节点同时执行。
+ * 通过DatabaseLockFactory创建，连接来自锁专用的连接池。
+ */
+public class DatabaseLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseLock.class);
+    private final DataSource dataSource;
+    private final String name;
+    private Connection connection;
+
+    DatabaseLock(DataSource dataSource, String name) {
+        this.dataSource = dataSource;
+        this.name = name;
+    }
+
+    /**
+     * 尝试获取锁，不等待；已持有时检查连接上的锁是否仍然有效
+     * @return 当前节点是否持有锁
+     */
+    public synchronized boolean tryAcquire() {
+        if (connection != null) {
+            if (queryFlag("SELECT IS_USED_LOCK(?) = CONNECTION_ID()")) {
+                return true;
+            }
+            LOGGER.warn("数据库锁{}已失效", name);
+            closeConnection();
+        }
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            LOGGER.warn("获取数据库锁{}的连接失败：{}", name, e.getMessage());
+            return false;
+        }
+        if (queryFlag("SELECT GET_LOCK(?, 0)")) {
+            return true;
+        }
+        closeConnection();
+        return false;
+    }
+
+    /**
+     * 释放锁并归还连接
+     */
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        queryFlag("SELECT RELEASE_LOCK(?)");
+        closeConnection();
+    }
+
+    private boolean queryFlag(String sql) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("执行数据库锁{}的语句失败：{}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.warn("关闭数据库锁{}的连接失败：{}", name, e.getMessage());
+        }
+        connection = null;
+    }
+}
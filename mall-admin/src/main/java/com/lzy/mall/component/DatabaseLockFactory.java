@@ -0,0 +1,68 @@
+package com.lzy.mall.component;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.druid.pool.DruidDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 数据库锁工厂
+ * 数据库锁持有期间独占一个连接，所有锁的连接来自独立的小连接池，不占用页面请求和批量任务的连接池；
+ * 连接池参数沿用 spring.datasource 配置，最大连接数需要不少于使用数据库锁的任务数，首次获取锁时才建立连接。
+ */
+@Component
+public class DatabaseLockFactory {
+    @Autowired
+    private DataSourceProperties properties;
+    @Autowired
+    private Environment environment;
+    @Value("${databaseLock.maxActive:8}")
+    private int maxActive;
+    @Value("${databaseLock.maxWait:1000}")
+    private long maxWait;
+
+    private DruidDataSource dataSource;
+
+    @PostConstruct
+    public void init() {
+        if (maxActive <= 0) {
+            throw new IllegalArgumentException("databaseLock.maxActive必须大于0");
+        }
+        dataSource = new DruidDataSource();
+        Binder.get(environment).bind("spring.datasource.druid", Bindable.ofInstance(dataSource));
+        if (StrUtil.isNotEmpty(properties.getDriverClassName())) {
+            dataSource.setDriverClassName(properties.getDriverClassName());
+        }
+        dataSource.setUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setName("databaseLock");
+        dataSource.setInitialSize(0);
+        dataSource.setMinIdle(0);
+        dataSource.setMaxActive(maxActive);
+        //连接池占满时不长时间等待，本次调度视为未获取到锁
+        dataSource.setMaxWait(maxWait);
+    }
+
+    /**
+     * 创建指定名称的数据库锁
+     */
+    public DatabaseLock create(String name) {
+        return new DatabaseLock(dataSource, name);
+    }
+
+    /**
+     * 使用数据库锁的任务先于工厂销毁并释放锁，之后关闭连接池
+     */
+    @PreDestroy
+    public void destroy() {
+        dataSource.close();
+    }
+}
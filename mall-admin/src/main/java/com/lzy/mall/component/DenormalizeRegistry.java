@@ -0,0 +1,49 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.DenormalizeTarget;
+import com.lzy.mall.common.exception.Asserts;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 冗余字段注册表
+ * 需要异步更新的冗余列在这里注册，之后通过 DenormalizeService.submit 按注册名称提交更新任务
+ */
+@Component
+public class DenormalizeRegistry {
+    /**
+     * 商品表中的品牌名称
+     */
+    public static final String PRODUCT_BRAND_NAME = "pms_product.brand_name";
+    /**
+     * 商品表中的商品分类名称
+     */
+    public static final String PRODUCT_CATEGORY_NAME = "pms_product.product_category_name";
+
+    private final Map<String, DenormalizeTarget> targets = new ConcurrentHashMap<>();
+
+    public DenormalizeRegistry() {
+        register(new DenormalizeTarget(PRODUCT_BRAND_NAME, "pms_product", "brand_name", "brand_id"));
+        register(new DenormalizeTarget(PRODUCT_CATEGORY_NAME, "pms_product", "product_category_name", "product_category_id"));
+    }
+
+    /**
+     * 注册冗余字段，名称重复时覆盖
+     */
+    public void register(DenormalizeTarget target) {
+        targets.put(target.getName(), target);
+    }
+
+    /**
+     * 根据注册名称获取冗余字段定义
+     */
+    public DenormalizeTarget get(String name) {
+        DenormalizeTarget target = targets.get(name);
+        if (target == null) {
+            Asserts.fail("冗余字段[" + name + "]未注册");
+        }
+        return target;
+    }
+}
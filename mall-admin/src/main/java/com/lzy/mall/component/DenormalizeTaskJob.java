@@ -0,0 +1,28 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.DenormalizeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 冗余字段更新任务定时领取
+ * 只领取任务并提交到冗余字段更新线程池，限速休眠在线程池中进行，不占用定时任务线程
+ */
+@Component
+public class DenormalizeTaskJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DenormalizeTaskJob.class);
+    @Autowired
+    private DenormalizeService denormalizeService;
+
+    @Scheduled(fixedDelayString = "${denormalize.pollInterval:2000}")
+    public void run() {
+        try {
+            denormalizeService.runPendingTasks();
+        } catch (Exception e) {
+            LOGGER.error("执行冗余字段更新任务出错", e);
+        }
+    }
+}
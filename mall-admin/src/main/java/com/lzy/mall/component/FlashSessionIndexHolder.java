@@ -0,0 +1,114 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.FlashSessionIndex;
+import com.lzy.mall.dao.SmsFlashSessionDao;
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+import com.lzy.mall.dto.SmsFlashSessionProduct;
+import com.lzy.mall.mapper.SmsFlashPromotionMapper;
+import com.lzy.mall.mapper.SmsFlashPromotionSessionMapper;
+import com.lzy.mall.model.SmsFlashPromotion;
+import com.lzy.mall.model.SmsFlashPromotionExample;
+import com.lzy.mall.model.SmsFlashPromotionSessionExample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀场次时间索引持有者
+ * 索引覆盖昨天（跨越零点的场次）到未来indexDays天，超出范围或活动修改后重新构建。
+ * 当前及下一个场次按场次开始或结束的时刻缓存，场次切换时在内存索引中重新查找，不需要查询数据库。
+ */
+@Component
+public class FlashSessionIndexHolder extends VersionedSnapshotHolder<FlashSessionIndex> {
+    @Autowired
+    private SmsFlashPromotionMapper flashPromotionMapper;
+    @Autowired
+    private SmsFlashPromotionSessionMapper flashPromotionSessionMapper;
+    @Autowired
+    private SmsFlashSessionDao flashSessionDao;
+    @Value("${redis.key.flashSession}")
+    private String cacheKey;
+    @Value("${flashSession.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+    @Value("${flashSession.indexDays:2}")
+    private int indexDays;
+
+    private final TimedView<ActiveSessions> activeSessions = timedView(ActiveSessions::new,
+            FlashSessionIndex::getNextBoundary);
+
+    /**
+     * 获取正在进行的场次，没有时返回null
+     */
+    public SmsFlashSessionDetail getCurrent() {
+        return activeSessions.get().current;
+    }
+
+    /**
+     * 获取下一个开始的场次，没有时返回null
+     */
+    public SmsFlashSessionDetail getNext() {
+        return activeSessions.get().next;
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    protected FlashSessionIndex load() {
+        LocalDate today = LocalDate.now();
+        LocalDate fromDate = today.minusDays(1);
+        LocalDate toDate = today.plusDays(indexDays);
+        SmsFlashPromotionExample promotionExample = new SmsFlashPromotionExample();
+        promotionExample.createCriteria()
+                .andStatusEqualTo(1)
+                .andStartDateLessThan(toDate(toDate))
+                .andEndDateGreaterThanOrEqualTo(toDate(fromDate));
+        List<SmsFlashPromotion> promotionList = flashPromotionMapper.selectByExample(promotionExample);
+        SmsFlashPromotionSessionExample sessionExample = new SmsFlashPromotionSessionExample();
+        sessionExample.createCriteria().andStatusEqualTo(1);
+        sessionExample.setOrderByClause("start_time asc");
+        List<SmsFlashSessionProduct> productList = new ArrayList<>();
+        if (!promotionList.isEmpty()) {
+            productList = flashSessionDao.selectProducts(promotionList.stream()
+                    .map(SmsFlashPromotion::getId).collect(Collectors.toList()));
+        }
+        return new FlashSessionIndex(promotionList, flashPromotionSessionMapper.selectByExample(sessionExample),
+                productList, fromDate, toDate);
+    }
+
+    @Override
+    protected long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+
+    @Override
+    protected boolean isExpired(FlashSessionIndex snapshot) {
+        return snapshot.isExpired(System.currentTimeMillis());
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 某一时刻的当前及下一个场次
+     */
+    private static class ActiveSessions {
+        private final SmsFlashSessionDetail current;
+        private final SmsFlashSessionDetail next;
+
+        private ActiveSessions(FlashSessionIndex index, long now) {
+            this.current = index.getCurrent(now);
+            this.next = index.getNext(now);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.SmsFlashStockService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 秒杀库存写回及校正
+ * 每隔flushInterval毫秒把已确认的扣减写回数据库，每隔reconcileInterval毫秒校正一次Redis中的剩余数量；
+ * 写回和校正在同一个调度方法中执行，通过数据库锁保证同一时间只有一个节点执行。
+ */
+@Component
+public class FlashStockJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlashStockJob.class);
+    private static final String LOCK_NAME = "mall:flashStock";
+
+    @Autowired
+    private DatabaseLockFactory databaseLockFactory;
+    @Autowired
+    private SmsFlashStockService flashStockService;
+    @Value("${flashStock.reconcileInterval:60000}")
+    private long reconcileInterval;
+
+    private DatabaseLock lock;
+    private long lastReconcileTime;
+
+    @PostConstruct
+    public void init() {
+        lock = databaseLockFactory.create(LOCK_NAME);
+    }
+
+    @Scheduled(fixedDelayString = "${flashStock.flushInterval:1000}")
+    public void run() {
+        if (!lock.tryAcquire()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastReconcileTime >= reconcileInterval) {
+                lastReconcileTime = now;
+                int count = flashStockService.reconcile();
+                if (count > 0) {
+                    LOGGER.info("校正秒杀库存，商品数：{}", count);
+                }
+            } else {
+                flashStockService.flush();
+            }
+        } catch (Exception e) {
+            LOGGER.error("秒杀库存写回失败，等待下次重试", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        lock.release();
+    }
+}
@@ -0,0 +1,77 @@
+package com.lzy.mall.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lzy.mall.bo.HomeContentDocument;
+import com.lzy.mall.bo.HomeContentSnapshot;
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dao.SmsHomeContentDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * 首页内容快照持有者
+ * 首页各推荐表修改后重新加载快照；序列化后的首页内容按广告开始或结束投放的时刻缓存，
+ * 到达该时刻后按快照重新生成，不需要查询数据库。
+ */
+@Component
+public class HomeContentHolder extends VersionedSnapshotHolder<HomeContentSnapshot> {
+    private static final String NEW_PRODUCT_TABLE = "sms_home_new_product";
+    private static final String RECOMMEND_PRODUCT_TABLE = "sms_home_recommend_product";
+
+    @Autowired
+    private SmsHomeContentDao homeContentDao;
+    @Value("${redis.key.homeContent}")
+    private String cacheKey;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${homeContent.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+    @Value("${homeContent.listSize:20}")
+    private int listSize;
+
+    private final TimedView<HomeContentDocument> document = timedView(this::serialize,
+            HomeContentSnapshot::getNextBoundary);
+
+    /**
+     * 获取当前的首页内容
+     */
+    public HomeContentDocument getDocument() {
+        return document.get();
+    }
+
+    /**
+     * 按接口的统一返回格式序列化，响应时直接输出
+     */
+    private HomeContentDocument serialize(HomeContentSnapshot snapshot, long now) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(CommonResult.success(snapshot.getContent(now)));
+            return new HomeContentDocument(body, snapshot.getNextBoundary(now));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("首页内容序列化失败", e);
+        }
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    protected HomeContentSnapshot load() {
+        return new HomeContentSnapshot(homeContentDao.selectAdvertises(new Date()),
+                homeContentDao.selectBrands(listSize),
+                homeContentDao.selectProducts(NEW_PRODUCT_TABLE, listSize),
+                homeContentDao.selectProducts(RECOMMEND_PRODUCT_TABLE, listSize),
+                homeContentDao.selectSubjects(listSize));
+    }
+
+    @Override
+    protected long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.UmsMemberLedgerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会员积分、成长值账本定时任务
+ * 每隔flushInterval毫秒把队列中的变化记录写入数据库，每隔snapshotInterval毫秒合并一次余额快照，
+ * 写入和快照通过数据库锁保证同一时间只有一个节点执行；批量发放任务由各节点领取后提交到发放线程池执行。
+ */
+@Component
+public class MemberLedgerJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemberLedgerJob.class);
+    private static final String LOCK_NAME = "mall:memberLedger";
+
+    @Autowired
+    private DatabaseLockFactory databaseLockFactory;
+    @Autowired
+    private UmsMemberLedgerService memberLedgerService;
+    @Value("${memberLedger.snapshotInterval:300000}")
+    private long snapshotInterval;
+
+    private DatabaseLock lock;
+    private long lastSnapshotTime;
+
+    @PostConstruct
+    public void init() {
+        lock = databaseLockFactory.create(LOCK_NAME);
+    }
+
+    @Scheduled(fixedDelayString = "${memberLedger.flushInterval:1000}")
+    public void run() {
+        if (!lock.tryAcquire()) {
+            return;
+        }
+        try {
+            memberLedgerService.flush();
+            long now = System.currentTimeMillis();
+            if (now - lastSnapshotTime >= snapshotInterval) {
+                lastSnapshotTime = now;
+                int merged = memberLedgerService.snapshot();
+                if (merged > 0) {
+                    LOGGER.info("合并会员余额快照，变化记录ID范围：{}", merged);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("会员积分、成长值变化记录写入失败，等待下次重试", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${memberLedger.grantPollInterval:2000}")
+    public void runGrants() {
+        try {
+            memberLedgerService.runPendingGrants();
+        } catch (Exception e) {
+            LOGGER.error("执行批量发放任务出错", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        lock.release();
+    }
+}
@@ -0,0 +1,141 @@
+package com.lzy.mall.component;
+
+import cn.hutool.core.util.IdUtil;
+import com.lzy.mall.bo.MemberStatisticsField;
+import com.lzy.mall.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会员统计增量缓冲区
+ * 增量在记录时直接累加到Redis中当前批次的hash（字段为"会员ID:统计项序号"），节点异常退出不会丢失已记录的增量；
+ * 批次第一次写入时登记到批次列表（zset，分值为登记时间），写入数据库时整体切换到新的批次，旧批次在已进入的累加完成后读取。
+ * 只有业务事务提交后、累加到Redis之前节点退出，或者Redis不可用导致累加失败时，增量才会丢失，累加失败时输出错误日志。
+ */
+@Component
+public class MemberStatisticsBuffer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemberStatisticsBuffer.class);
+    private static final int FIELD_COUNT = MemberStatisticsField.values().length;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.memberStatistics}")
+    private String REDIS_KEY_MEMBER_STATISTICS;
+
+    private volatile Generation current = new Generation();
+
+    /**
+     * 记录统计增量，当前存在事务时在事务提交后才记录，回滚的操作不会产生增量
+     */
+    public void add(Long memberId, MemberStatisticsField field, long delta) {
+        if (memberId == null || delta == 0) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            try {
+                accumulate(memberId, field.ordinal(), delta);
+            } catch (Exception e) {
+                LOGGER.error("会员统计增量记录失败：memberId={}，{}={}", memberId, field, delta, e);
+            }
+        });
+    }
+
+    /**
+     * 切换到新的批次，返回切换前的批次号，切换前的批次没有增量时返回null
+     */
+    public synchronized String drain() {
+        Generation drained = current;
+        current = new Generation();
+        //等待切换前已进入旧批次的累加完成
+        while (drained.writers.sum() != 0) {
+            Thread.yield();
+        }
+        return drained.registered ? drained.id : null;
+    }
+
+    /**
+     * 读取批次中的增量，数组按MemberStatisticsField的顺序排列
+     */
+    public Map<Long, long[]> load(String generationId) {
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        Map<Long, long[]> deltas = new HashMap<>();
+        hashOperations.entries(getGenerationKey(generationId)).forEach((key, value) -> {
+            int separator = key.indexOf(':');
+            int fieldIndex = Integer.parseInt(key.substring(separator + 1));
+            if (fieldIndex < FIELD_COUNT) {
+                deltas.computeIfAbsent(Long.valueOf(key.substring(0, separator)), memberId -> new long[FIELD_COUNT])[fieldIndex]
+                        = Long.parseLong(value);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * 获取登记时间不晚于指定时间的批次号
+     */
+    public Set<String> listRegisteredBefore(long time) {
+        return stringRedisTemplate.opsForZSet().rangeByScore(getGenerationsKey(), 0, time);
+    }
+
+    /**
+     * 批次写入数据库后删除批次
+     */
+    public void remove(String generationId) {
+        stringRedisTemplate.delete(getGenerationKey(generationId));
+        stringRedisTemplate.opsForZSet().remove(getGenerationsKey(), generationId);
+    }
+
+    /**
+     * 先登记进入当前批次再确认批次没有被切换，切换后进入的累加重新写入新的批次
+     */
+    private void accumulate(Long memberId, int fieldIndex, long delta) {
+        while (true) {
+            Generation generation = current;
+            generation.writers.increment();
+            try {
+                if (generation == current) {
+                    if (!generation.registered) {
+                        stringRedisTemplate.opsForZSet().addIfAbsent(getGenerationsKey(), generation.id, System.currentTimeMillis());
+                        generation.registered = true;
+                    }
+                    stringRedisTemplate.opsForHash().increment(getGenerationKey(generation.id), memberId + ":" + fieldIndex, delta);
+                    return;
+                }
+            } finally {
+                generation.writers.decrement();
+            }
+        }
+    }
+
+    private String getGenerationsKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_MEMBER_STATISTICS + ":generations";
+    }
+
+    private String getGenerationKey(String generationId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_MEMBER_STATISTICS + ":generation:" + generationId;
+    }
+
+    private static class Generation {
+        private final String id = IdUtil.simpleUUID();
+        /**
+         * 是否已登记到批次列表
+         */
+        private volatile boolean registered;
+        /**
+         * 正在写入本批次的累加数
+         */
+        private final LongAdder writers = new LongAdder();
+    }
+}
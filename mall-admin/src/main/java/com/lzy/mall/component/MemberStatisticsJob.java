@@ -0,0 +1,56 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.UmsMemberStatisticsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会员统计增量写入
+ * 每个节点定时写入本节点当前批次的增量，停止时写入剩余的增量；
+ * 写入间隔不超过MAX_FLUSH_INTERVAL，正常运行的节点的批次不会存在到被其他节点当作异常退出留下的批次重放
+ */
+@Component
+public class MemberStatisticsJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemberStatisticsJob.class);
+    /**
+     * 写入间隔上限（毫秒），需要小于重放等待时间memberStatistics.replayDelay
+     */
+    private static final long MAX_FLUSH_INTERVAL = 10000;
+
+    @Autowired
+    private UmsMemberStatisticsService memberStatisticsService;
+    @Value("${memberStatistics.flushInterval:1000}")
+    private long flushInterval;
+    @Value("${memberStatistics.replayDelay:60}")
+    private long replayDelay;
+
+    @PostConstruct
+    public void init() {
+        if (flushInterval <= 0 || flushInterval > MAX_FLUSH_INTERVAL) {
+            throw new IllegalArgumentException("memberStatistics.flushInterval必须在1~" + MAX_FLUSH_INTERVAL + "毫秒之间");
+        }
+        if (replayDelay * 1000 <= flushInterval) {
+            throw new IllegalArgumentException("memberStatistics.replayDelay必须大于写入间隔");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${memberStatistics.flushInterval:1000}")
+    public void flush() {
+        try {
+            memberStatisticsService.flush();
+        } catch (Exception e) {
+            LOGGER.error("会员统计增量写入失败，等待重放", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+}
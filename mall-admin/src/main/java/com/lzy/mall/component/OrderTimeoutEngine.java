@@ -0,0 +1,248 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.OrderTimeout;
+import com.lzy.mall.common.util.TimingWheel;
+import com.lzy.mall.service.OmsOrderTimeoutService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 订单超时处理
+ * 订单的超时处理时间保存在 oms_order.timeout_time 中，数据库是唯一的依据；内存中的时间轮只保存未来loadAhead秒内到期的订单，
+ * 按(超时时间, ID)游标增量加载，到期后按状态分批处理，不需要定时按状态和时间扫描订单表。
+ * 通过数据库锁保证同一时间只有一个节点执行；节点重启或切换时从最早的未处理订单重新加载，已过期的订单立即处理。
+ * 处理时会再次确认订单状态和超时时间，重复加载或处理同一订单不会产生影响；
+ * 处理失败或未进入时间轮的过期订单由每隔sweepInterval秒的补漏查询处理。
+ * 调度线程只负责提交，加载和处理在独立的单线程中执行，上一次未完成时跳过本次，重启后处理积压订单不会占用定时任务线程。
+ * 需要先执行 document/sql/oms_order_timeout.sql，默认不开启。
+ */
+@Component
+public class OrderTimeoutEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderTimeoutEngine.class);
+    private static final String LOCK_NAME = "mall:orderTimeout";
+    private static final List<Integer> STATUS_LIST = Arrays.asList(OrderTimeout.STATUS_UNPAID, OrderTimeout.STATUS_DELIVERED);
+    /**
+     * 每次调度最多计算超时时间的批数
+     */
+    private static final int MAX_SCHEDULE_BATCHES = 10;
+
+    @Autowired
+    private DatabaseLockFactory databaseLockFactory;
+    @Autowired
+    private OmsOrderTimeoutService orderTimeoutService;
+    @Autowired
+    @Qualifier("orderTimeoutExecutor")
+    private Executor orderTimeoutExecutor;
+    @Value("${orderTimeout.enabled:false}")
+    private boolean enabled;
+    @Value("${orderTimeout.tickMs:1000}")
+    private long tickMs;
+    @Value("${orderTimeout.wheelSize:60}")
+    private int wheelSize;
+    @Value("${orderTimeout.loadAhead:600}")
+    private long loadAhead;
+    @Value("${orderTimeout.maxPending:100000}")
+    private int maxPending;
+    @Value("${orderTimeout.batchSize:500}")
+    private int batchSize;
+    @Value("${orderTimeout.sweepInterval:60}")
+    private long sweepInterval;
+
+    private DatabaseLock lock;
+    /**
+     * 是否有提交到处理线程的任务未完成
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TimingWheel<OrderTimeout> wheel;
+    /**
+     * 状态 -> 最后一个加载到时间轮的订单
+     */
+    private final Map<Integer, OrderTimeout> loadCursorMap = new HashMap<>();
+    /**
+     * 状态 -> 超时时间不晚于该时间的订单都已加载
+     */
+    private final Map<Integer, Date> loadedToMap = new HashMap<>();
+    private long lastSweepTime;
+
+    @PostConstruct
+    public void init() {
+        lock = databaseLockFactory.create(LOCK_NAME);
+    }
+
+    @Scheduled(fixedDelayString = "${orderTimeout.tickInterval:1000}")
+    public void tick() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            orderTimeoutExecutor.execute(() -> {
+                try {
+                    process();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            LOGGER.warn("订单超时处理提交失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在处理线程中执行，时间轮和加载游标只在该线程中访问
+     */
+    private void process() {
+        if (!lock.tryAcquire()) {
+            if (wheel != null) {
+                LOGGER.info("订单超时处理已转移到其他节点");
+                reset();
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (wheel == null) {
+            LOGGER.info("开始在当前节点执行订单超时处理");
+            wheel = new TimingWheel<>(tickMs, wheelSize, now);
+            lastSweepTime = now;
+        }
+        try {
+            schedule();
+            load(now);
+            expire(wheel.advance(now));
+            if (now - lastSweepTime >= sweepInterval * 1000) {
+                sweep(now);
+                lastSweepTime = now;
+            }
+        } catch (Exception e) {
+            LOGGER.error("订单超时处理出错", e);
+        }
+    }
+
+    /**
+     * 为新订单和新发货的订单计算超时时间，超时时间落在已加载范围内的直接放入时间轮
+     */
+    private void schedule() {
+        List<OrderTimeout> expired = new ArrayList<>();
+        for (int i = 0; i < MAX_SCHEDULE_BATCHES; i++) {
+            List<OrderTimeout> timeoutList = orderTimeoutService.schedule(batchSize);
+            for (OrderTimeout timeout : timeoutList) {
+                if (timeout.isNever()) {
+                    continue;
+                }
+                Date loadedTo = loadedToMap.get(timeout.getStatus());
+                if (loadedTo != null && !timeout.getTimeoutTime().after(loadedTo)
+                        && !wheel.add(timeout.getTimeoutTime().getTime(), timeout)) {
+                    expired.add(timeout);
+                }
+            }
+            if (timeoutList.size() < batchSize) {
+                break;
+            }
+        }
+        expire(expired);
+    }
+
+    /**
+     * 从上次的位置继续加载未来loadAhead秒内到期的订单，时间轮中的订单数达到maxPending时暂停加载
+     */
+    private void load(long now) {
+        Date toTime = new Date(now + loadAhead * 1000);
+        for (Integer status : STATUS_LIST) {
+            while (wheel.size() < maxPending) {
+                OrderTimeout cursor = loadCursorMap.get(status);
+                List<OrderTimeout> timeoutList = orderTimeoutService.listDue(status,
+                        cursor == null ? null : cursor.getTimeoutTime(),
+                        cursor == null ? null : cursor.getOrderId(), toTime, batchSize);
+                List<OrderTimeout> expired = new ArrayList<>();
+                for (OrderTimeout timeout : timeoutList) {
+                    if (!wheel.add(timeout.getTimeoutTime().getTime(), timeout)) {
+                        expired.add(timeout);
+                    }
+                }
+                if (!timeoutList.isEmpty()) {
+                    OrderTimeout last = timeoutList.get(timeoutList.size() - 1);
+                    loadCursorMap.put(status, last);
+                    loadedToMap.put(status, last.getTimeoutTime());
+                }
+                //重启后首次加载的积压订单已过期，边加载边处理
+                expire(expired);
+                if (timeoutList.size() < batchSize) {
+                    loadedToMap.put(status, toTime);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 补漏：处理已过期但仍未处理的订单
+     */
+    private void sweep(long now) {
+        Date toTime = new Date(now);
+        for (Integer status : STATUS_LIST) {
+            OrderTimeout cursor = null;
+            while (true) {
+                List<OrderTimeout> timeoutList = orderTimeoutService.listDue(status,
+                        cursor == null ? null : cursor.getTimeoutTime(),
+                        cursor == null ? null : cursor.getOrderId(), toTime, batchSize);
+                if (timeoutList.isEmpty()) {
+                    break;
+                }
+                expire(timeoutList);
+                if (timeoutList.size() < batchSize) {
+                    break;
+                }
+                cursor = timeoutList.get(timeoutList.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * 按状态分批处理到期的订单，单批失败不影响其他批次，失败的订单由补漏查询重新处理
+     */
+    private void expire(List<OrderTimeout> expired) {
+        if (expired.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Long>> statusMap = new HashMap<>();
+        for (OrderTimeout timeout : expired) {
+            statusMap.computeIfAbsent(timeout.getStatus(), key -> new ArrayList<>()).add(timeout.getOrderId());
+        }
+        statusMap.forEach((status, orderIds) -> {
+            for (int from = 0; from < orderIds.size(); from += batchSize) {
+                List<Long> ids = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+                try {
+                    int count = orderTimeoutService.expire(status, ids);
+                    if (count > 0) {
+                        LOGGER.info("订单超时处理：状态{}，处理{}个订单", status, count);
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("订单超时处理失败：状态{}，订单{}", status, ids, e);
+                }
+            }
+        });
+    }
+
+    private void reset() {
+        wheel = null;
+        loadCursorMap.clear();
+        loadedToMap.clear();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        lock.release();
+    }
+}
@@ -0,0 +1,41 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.service.PmsCounterService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品计数定时写入和校正
+ */
+@Component
+public class PmsCounterJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PmsCounterJob.class);
+    @Autowired
+    private PmsCounterService counterService;
+
+    @Scheduled(fixedDelayString = "${counter.flushInterval:1000}")
+    public void flush() {
+        counterService.flush();
+    }
+
+    @Scheduled(cron = "${counter.reconcileCron:0 30 3 * * ?}")
+    public void reconcile() {
+        try {
+            counterService.reconcile();
+        } catch (Exception e) {
+            LOGGER.error("商品计数校正出错", e);
+        }
+    }
+
+    /**
+     * 应用关闭前写入剩余的增量
+     */
+    @PreDestroy
+    public void destroy() {
+        counterService.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.ProductCategoryTree;
+import com.lzy.mall.mapper.PmsProductCategoryMapper;
+import com.lzy.mall.model.PmsProductCategoryExample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品分类树快照持有者
+ */
+@Component
+public class ProductCategoryTreeHolder extends VersionedSnapshotHolder<ProductCategoryTree> {
+    @Autowired
+    private PmsProductCategoryMapper productCategoryMapper;
+    @Value("${redis.key.productCategoryTree}")
+    private String cacheKey;
+    @Value("${productCategory.tree.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+
+    /**
+     * 获取当前的分类树快照
+     */
+    public ProductCategoryTree getTree() {
+        return get();
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    protected ProductCategoryTree load() {
+        PmsProductCategoryExample example = new PmsProductCategoryExample();
+        example.setOrderByClause("sort desc, id asc");
+        return new ProductCategoryTree(productCategoryMapper.selectByExample(example));
+    }
+
+    @Override
+    protected long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+}
@@ -0,0 +1,90 @@
+package com.lzy.mall.component;
+
+import cn.hutool.core.date.DateUtil;
+import com.lzy.mall.dao.OmsOrderDao;
+import com.lzy.mall.dao.OmsOrderReturnApplyDao;
+import com.lzy.mall.dao.TableStatusDao;
+import com.lzy.mall.dto.OmsOrderQueryParam;
+import com.lzy.mall.dto.OmsReturnApplyQueryParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 列表查询执行计划检查
+ * 应用启动后确认 document/sql/oms_list_index.sql 中的索引已经创建，缺少索引时启动失败；
+ * 再对订单、退货申请列表的典型查询条件执行EXPLAIN，未命中索引时输出告警日志（执行计划与数据量有关，不作为启动条件）
+ */
+@Component
+@ConditionalOnProperty(prefix = "queryPlan.check", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanChecker implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryPlanChecker.class);
+    /**
+     * 表名 -> 列表查询依赖的索引
+     */
+    private static final Map<String, List<String>> REQUIRED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        REQUIRED_INDEXES.put("oms_order", Arrays.asList(
+                "idx_delete_status_status_create_time", "idx_delete_status_create_time", "idx_order_sn"));
+        REQUIRED_INDEXES.put("oms_order_return_apply", Arrays.asList(
+                "idx_status_create_time", "idx_create_time", "idx_handle_time"));
+    }
+
+    @Autowired
+    private OmsOrderDao orderDao;
+    @Autowired
+    private OmsOrderReturnApplyDao returnApplyDao;
+    @Autowired
+    private TableStatusDao tableStatusDao;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        checkIndexes();
+        String today = DateUtil.formatDate(new Date());
+
+        // 按日期和状态筛选订单
+        OmsOrderQueryParam orderQueryParam = new OmsOrderQueryParam();
+        orderQueryParam.setCreateTime(today);
+        orderQueryParam.setStatus(1);
+        check("oms_order", orderDao.explainList(orderQueryParam));
+
+        // 按申请时间和状态筛选退货申请
+        OmsReturnApplyQueryParam returnApplyQueryParam = new OmsReturnApplyQueryParam();
+        returnApplyQueryParam.setCreateTime(today);
+        returnApplyQueryParam.setStatus(0);
+        check("oms_order_return_apply", returnApplyDao.explainList(returnApplyQueryParam));
+    }
+
+    private void checkIndexes() {
+        List<String> missingList = new ArrayList<>();
+        REQUIRED_INDEXES.forEach((table, indexes) -> {
+            List<String> indexNames = tableStatusDao.getIndexNames(table);
+            for (String index : indexes) {
+                if (!indexNames.contains(index)) {
+                    missingList.add(table + "." + index);
+                }
+            }
+        });
+        if (!missingList.isEmpty()) {
+            throw new IllegalStateException("列表查询缺少索引" + missingList + "，请先执行document/sql/oms_list_index.sql");
+        }
+    }
+
+    private void check(String table, List<Map<String, Object>> planList) {
+        for (Map<String, Object> plan : planList) {
+            Object key = plan.get("key");
+            if (key == null || "ALL".equals(plan.get("type"))) {
+                LOGGER.warn("列表查询未使用索引，table:{}，执行计划:{}", table, plan);
+            } else {
+                LOGGER.info("列表查询使用索引，table:{}，key:{}，rows:{}", table, key, plan.get("rows"));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.bo.RoleMenuSnapshot;
+import com.lzy.mall.mapper.UmsMenuMapper;
+import com.lzy.mall.mapper.UmsRoleMapper;
+import com.lzy.mall.mapper.UmsRoleMenuRelationMapper;
+import com.lzy.mall.model.UmsMenuExample;
+import com.lzy.mall.model.UmsRoleExample;
+import com.lzy.mall.model.UmsRoleMenuRelationExample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 后台菜单及角色菜单快照持有者
+ */
+@Component
+public class RoleMenuSnapshotHolder extends VersionedSnapshotHolder<RoleMenuSnapshot> {
+    @Autowired
+    private UmsMenuMapper menuMapper;
+    @Autowired
+    private UmsRoleMapper roleMapper;
+    @Autowired
+    private UmsRoleMenuRelationMapper roleMenuRelationMapper;
+    @Value("${redis.key.roleMenu}")
+    private String cacheKey;
+    @Value("${roleMenu.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+
+    /**
+     * 获取当前的菜单快照
+     */
+    public RoleMenuSnapshot getSnapshot() {
+        return get();
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return cacheKey;
+    }
+
+    @Override
+    protected RoleMenuSnapshot load() {
+        UmsMenuExample menuExample = new UmsMenuExample();
+        menuExample.setOrderByClause("id asc");
+        return new RoleMenuSnapshot(menuMapper.selectByExample(menuExample),
+                roleMapper.selectByExample(new UmsRoleExample()),
+                roleMenuRelationMapper.selectByExample(new UmsRoleMenuRelationExample()));
+    }
+
+    @Override
+    protected long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+}
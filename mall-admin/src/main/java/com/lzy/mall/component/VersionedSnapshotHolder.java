@@ -0,0 +1,164 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.common.util.TransactionUtil;
+import com.lzy.mall.datasource.DataSourceContextHolder;
+import com.lzy.mall.service.SnapshotVersionCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.BiFunction;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * 带版本号的内存快照持有者
+ * 每个节点在内存中保存一份只读快照，最多每隔versionCheckInterval毫秒比对一次共享的版本号（保存在Redis中），
+ * 版本号变化（任意节点修改了数据）时重新加载；本节点修改数据后立即丢弃本地快照。
+ * 版本号按子类提供的缓存key区分；共享版本号不可用时沿用现有快照；快照自身过期（如只覆盖一段时间的数据）时不论版本号都重新加载。
+ * 只随时间变化的派生结果（如当前有效的优惠券、当前场次）通过TimedView连同下一个时间边界一起缓存，不需要重新加载快照。
+ */
+public abstract class VersionedSnapshotHolder<T> {
+    @Autowired
+    private SnapshotVersionCacheService snapshotVersionCacheService;
+
+    private volatile T snapshot;
+    private volatile long snapshotVersion;
+    private volatile long lastCheckTime;
+
+    /**
+     * 快照的缓存key，共享的版本号保存在该key下
+     */
+    protected abstract String getCacheKey();
+
+    /**
+     * 从数据库加载快照，在主库上执行
+     */
+    protected abstract T load();
+
+    /**
+     * 检查版本号的最小间隔（毫秒）
+     */
+    protected abstract long getVersionCheckInterval();
+
+    /**
+     * 快照是否已过期，默认不过期
+     */
+    protected boolean isExpired(T snapshot) {
+        return false;
+    }
+
+    /**
+     * 获取当前快照
+     */
+    public T get() {
+        T current = snapshot;
+        if (current != null && !isExpired(current) && System.currentTimeMillis() - lastCheckTime < getVersionCheckInterval()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && isExpired(current)) {
+                current = null;
+            }
+            if (current != null && System.currentTimeMillis() - lastCheckTime < getVersionCheckInterval()) {
+                return current;
+            }
+            //先读版本号再加载数据，加载期间发生的修改会使版本号变大，下次检查时重新加载
+            //Redis不可用时缓存切面返回null，沿用现有快照
+            Long version = snapshotVersionCacheService.getVersion(getCacheKey());
+            lastCheckTime = System.currentTimeMillis();
+            if (current != null && (version == null || version == snapshotVersion)) {
+                return current;
+            }
+            current = loadFromPrimary();
+            snapshot = current;
+            snapshotVersion = version == null ? -1 : version;
+            return current;
+        }
+    }
+
+    /**
+     * 创建按时间边界缓存的派生结果
+     * @param compute 按快照计算某一时刻的结果
+     * @param nextBoundary 快照中该时刻之后结果下一次可能变化的时刻
+     */
+    protected <V> TimedView<V> timedView(BiFunction<T, Long, V> compute, ToLongBiFunction<T, Long> nextBoundary) {
+        return new TimedView<>(compute, nextBoundary);
+    }
+
+    /**
+     * 数据修改后调用，在事务提交后递增版本号并丢弃本地快照
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(this::doInvalidate);
+    }
+
+    private void doInvalidate() {
+        snapshotVersionCacheService.incrVersion(getCacheKey());
+        synchronized (this) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * 从主库加载，避免从库延迟导致新版本号对应旧数据
+     */
+    private T loadFromPrimary() {
+        Boolean readOnly = DataSourceContextHolder.getReadOnly();
+        DataSourceContextHolder.setReadOnly(false);
+        try {
+            return load();
+        } finally {
+            DataSourceContextHolder.setReadOnly(readOnly);
+        }
+    }
+
+    /**
+     * 按时间边界缓存的派生结果
+     * 派生结果连同它下一次可能变化的时刻一起缓存，快照不变且未到达该时刻时直接返回，
+     * 快照重新加载或到达该时刻后的第一次获取按快照重新计算，不需要查询数据库。
+     */
+    protected final class TimedView<V> {
+        private final BiFunction<T, Long, V> compute;
+        private final ToLongBiFunction<T, Long> nextBoundary;
+        private volatile Entry<T, V> entry;
+
+        private TimedView(BiFunction<T, Long, V> compute, ToLongBiFunction<T, Long> nextBoundary) {
+            this.compute = compute;
+            this.nextBoundary = nextBoundary;
+        }
+
+        /**
+         * 按当前快照获取
+         */
+        public V get() {
+            return get(VersionedSnapshotHolder.this.get());
+        }
+
+        /**
+         * 按调用方已获取的快照获取，与该快照的其他数据保持一致
+         */
+        public V get(T snapshot) {
+            long now = System.currentTimeMillis();
+            Entry<T, V> current = entry;
+            if (current == null || current.snapshot != snapshot || now >= current.validUntil) {
+                current = new Entry<>(snapshot, compute.apply(snapshot, now), nextBoundary.applyAsLong(snapshot, now));
+                entry = current;
+            }
+            return current.value;
+        }
+    }
+
+    /**
+     * 某一快照在validUntil之前的派生结果
+     */
+    private static class Entry<T, V> {
+        private final T snapshot;
+        private final V value;
+        private final long validUntil;
+
+        private Entry(T snapshot, V value, long validUntil) {
+            this.snapshot = snapshot;
+            this.value = value;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.lzy.mall.config;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.lzy.mall.datasource.*;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据源配置
+ * 开启读写分离（datasource.routing.enabled）或连接池分区（datasource.partition.enabled）后替换Druid自动配置的单连接池：
+ * 主库沿用 spring.datasource 配置，可按分区拆分为多个连接池；从库按 datasource.routing.replicas 创建，
+ * 并输出各连接池的监控指标
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceRoutingProperties.class, DataSourcePartitionProperties.class})
+@ConditionalOnExpression("${datasource.routing.enabled:false} or ${datasource.partition.enabled:false}")
+public class DataSourceConfig {
+
+    /**
+     * 路由数据源，持有主库（或主库分区）和所有从库连接池
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties,
+                                                        DataSourceRoutingProperties routingProperties,
+                                                        DataSourcePartitionProperties partitionProperties,
+                                                        Environment environment) throws SQLException {
+        //以主库配置为模板，分区和从库连接池未配置的参数都沿用模板
+        DruidDataSource template = new DruidDataSource();
+        Binder.get(environment).bind("spring.datasource.druid", Bindable.ofInstance(template));
+        if (StrUtil.isNotEmpty(properties.getDriverClassName())) {
+            template.setDriverClassName(properties.getDriverClassName());
+        }
+        template.setUrl(properties.getUrl());
+        template.setUsername(properties.getUsername());
+        template.setPassword(properties.getPassword());
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        if (routingProperties.isEnabled()) {
+            List<DataSourceRoutingProperties.Replica> replicaList = routingProperties.getReplicas();
+            for (int i = 0; i < replicaList.size(); i++) {
+                DataSourceRoutingProperties.Replica config = replicaList.get(i);
+                String name = StrUtil.blankToDefault(config.getName(), "replica" + (i + 1));
+                //从库首次获取连接时才初始化，从库不可用不影响应用启动
+                DruidDataSource replica = template.cloneDruidDataSource();
+                replica.setName(name);
+                replica.setUrl(config.getUrl());
+                if (config.getUsername() != null) {
+                    replica.setUsername(config.getUsername());
+                }
+                if (config.getPassword() != null) {
+                    replica.setPassword(config.getPassword());
+                }
+                applyPoolSize(replica, config.getInitialSize(), config.getMinIdle(), config.getMaxActive(), config.getMaxWait());
+                replicas.put(name, replica);
+            }
+        }
+
+        DataSource primary;
+        if (partitionProperties.isEnabled()) {
+            Map<String, DataSource> partitions = new LinkedHashMap<>();
+            for (Map.Entry<String, DataSourcePartitionProperties.Pool> entry : partitionProperties.getPools().entrySet()) {
+                DataSourcePartitionProperties.Pool config = entry.getValue();
+                DruidDataSource partition = template.cloneDruidDataSource();
+                partition.setName(entry.getKey());
+                applyPoolSize(partition, config.getInitialSize(), config.getMinIdle(), config.getMaxActive(), config.getMaxWait());
+                partition.init();
+                partitions.put(entry.getKey(), partition);
+            }
+            primary = new PartitionedDataSource(partitions, partitionProperties.getDefaultPartition());
+        } else {
+            template.setName(ReadWriteRoutingDataSource.PRIMARY);
+            template.init();
+            primary = template;
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, routingProperties.getReplicaRetryInterval() * 1000);
+    }
+
+    /**
+     * 对外暴露的数据源，延迟到第一条SQL执行时再获取连接，此时只读事务、@ReadOnly等路由条件都已确定
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public DataSourceRouteAspect dataSourceRouteAspect() {
+        return new DataSourceRouteAspect();
+    }
+
+    @Bean
+    public WriteTrackingInterceptor writeTrackingInterceptor() {
+        return new WriteTrackingInterceptor();
+    }
+
+    @Bean
+    public FilterRegistrationBean<DataSourceRouteFilter> dataSourceRouteFilter() {
+        FilterRegistrationBean<DataSourceRouteFilter> registration = new FilterRegistrationBean<>(new DataSourceRouteFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 各连接池监控指标，通过 /actuator/metrics 查看：
+     * mall.datasource.* 的 pool 标签区分主库和从库，mall.datasource.partition.* 的 partition 标签区分主库分区
+     */
+    @Bean
+    public MeterBinder dataSourceRoutingMetrics(ReadWriteRoutingDataSource routingDataSource) {
+        return registry -> {
+            Map<String, DataSource> pools = routingDataSource.getPools();
+            routingDataSource.getStats().forEach((name, stats) ->
+                    bindPoolMetrics(registry, "mall.datasource", "pool", name, stats, pools.get(name)));
+            if (pools.get(ReadWriteRoutingDataSource.PRIMARY) instanceof PartitionedDataSource partitioned) {
+                Map<String, DataSource> partitions = partitioned.getPartitions();
+                partitioned.getStats().forEach((name, stats) ->
+                        bindPoolMetrics(registry, "mall.datasource.partition", "partition", name, stats, partitions.get(name)));
+            }
+        };
+    }
+
+    private void bindPoolMetrics(MeterRegistry registry, String prefix, String tag, String name,
+                                 PoolStats stats, DataSource dataSource) {
+        FunctionCounter.builder(prefix + ".connections", stats, PoolStats::getAcquired)
+                .description("成功获取的连接数").tag(tag, name).register(registry);
+        FunctionCounter.builder(prefix + ".failures", stats, PoolStats::getFailures)
+                .description("获取连接失败（含等待超时）次数").tag(tag, name).register(registry);
+        FunctionCounter.builder(prefix + ".acquire.time", stats, PoolStats::getAcquireMillis)
+                .description("获取连接累计耗时（毫秒）").tag(tag, name).register(registry);
+        if (ReadWriteRoutingDataSource.PRIMARY.equals(name)) {
+            FunctionCounter.builder(prefix + ".fallbacks", stats, PoolStats::getFallbacks)
+                    .description("从库不可用回退到主库的次数").tag(tag, name).register(registry);
+        }
+        if (dataSource instanceof DruidDataSource druid) {
+            Gauge.builder(prefix + ".active", druid, DruidDataSource::getActiveCount)
+                    .description("正在使用的连接数").tag(tag, name).register(registry);
+            Gauge.builder(prefix + ".idle", druid, DruidDataSource::getPoolingCount)
+                    .description("空闲连接数").tag(tag, name).register(registry);
+            Gauge.builder(prefix + ".max", druid, DruidDataSource::getMaxActive)
+                    .description("最大连接数").tag(tag, name).register(registry);
+            Gauge.builder(prefix + ".waiting", druid, DruidDataSource::getWaitThreadCount)
+                    .description("等待获取连接的线程数").tag(tag, name).register(registry);
+            Gauge.builder(prefix + ".usage", druid, pool -> pool.getMaxActive() == 0 ? 0 : (double) pool.getActiveCount() / pool.getMaxActive())
+                    .description("连接池饱和度（使用中/最大连接数）").tag(tag, name).register(registry);
+        }
+    }
+
+    private void applyPoolSize(DruidDataSource dataSource, Integer initialSize, Integer minIdle, Integer maxActive, Long maxWait) {
+        if (maxActive != null) {
+            dataSource.setMaxActive(maxActive);
+        }
+        if (initialSize != null) {
+            dataSource.setInitialSize(initialSize);
+        }
+        if (minIdle != null) {
+            dataSource.setMinIdle(minIdle);
+        }
+        //模板中的初始和最小空闲连接数可能超过分区的最大连接数，需要收敛到最大连接数以内
+        if (dataSource.getInitialSize() > dataSource.getMaxActive()) {
+            dataSource.setInitialSize(dataSource.getMaxActive());
+        }
+        if (dataSource.getMinIdle() > dataSource.getMaxActive()) {
+            dataSource.setMinIdle(dataSource.getMaxActive());
+        }
+        if (maxWait != null) {
+            dataSource.setMaxWait(maxWait);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lzy.mall.config;
+
+import com.lzy.mall.datasource.PoolPartition;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 连接池分区配置
+ * 从配置文件中读取前缀为 "datasource.partition" 的属性，每个分区是一个独立的主库连接池，
+ * 未配置的连接池参数沿用 spring.datasource.druid 配置
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.partition")
+public class DataSourcePartitionProperties {
+
+    /**
+     * 是否开启连接池分区
+     */
+    private boolean enabled = false;
+
+    /**
+     * 未标注@PoolPartition的调用使用的分区
+     */
+    private String defaultPartition = PoolPartition.INTERACTIVE;
+
+    /**
+     * 分区连接池，key为分区名称
+     */
+    private Map<String, Pool> pools = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private Integer initialSize;
+        private Integer minIdle;
+        private Integer maxActive;
+        /**
+         * 获取连接的最大等待时间（毫秒），超时后抛出异常而不是一直排队
+         */
+        private Long maxWait;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lzy.mall.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置
+ * 从配置文件中读取前缀为 "datasource.routing" 的属性，从库未配置的连接池参数沿用主库的 spring.datasource.druid 配置
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * 是否开启读写分离
+     */
+    private boolean enabled = false;
+
+    /**
+     * 从库获取连接失败后暂停使用的时间（秒）
+     */
+    private long replicaRetryInterval = 30;
+
+    /**
+     * 从库列表
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        /**
+         * 连接池名称，用于监控指标
+         */
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private Integer initialSize;
+        private Integer minIdle;
+        private Integer maxActive;
+        /**
+         * 获取连接的最大等待时间（毫秒）
+         */
+        private Long maxWait;
+    }
+}
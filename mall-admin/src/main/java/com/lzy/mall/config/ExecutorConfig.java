@@ -0,0 +1,124 @@
+package com.lzy.mall.config;
+
+import com.lzy.mall.datasource.DataSourceContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置类
+ * 为需要并行访问数据库的业务提供有界线程池，避免无限制占用连接池中的连接
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * 商品编辑信息加载线程池
+     * 用于按子表并行查询商品的阶梯价格、满减、会员价、SKU、属性值等信息。
+     * 队列满时由调用线程自己执行，保证任务不会被丢弃。
+     */
+    @Bean("productLoadExecutor")
+    public ThreadPoolTaskExecutor productLoadExecutor(@Value("${product.updateInfo.poolSize:4}") int poolSize,
+                                                      @Value("${product.updateInfo.queueCapacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-load-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        //子任务沿用调用线程的读写分离路由
+        executor.setTaskDecorator(DataSourceContextHolder::wrap);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 商品批量导入任务线程池
+     * 每个导入任务占用一个线程，任务数超过线程数和队列长度时拒绝提交，避免大量导入同时写库。
+     */
+    @Bean("productImportExecutor")
+    public ThreadPoolTaskExecutor productImportExecutor(@Value("${product.import.poolSize:2}") int poolSize,
+                                                        @Value("${product.import.queueCapacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 商品导入数据校验线程池
+     * 校验只访问内存中的字典，不占用数据库连接；队列满时由导入线程自己执行。
+     */
+    @Bean("productValidateExecutor")
+    public ThreadPoolTaskExecutor productValidateExecutor(@Value("${product.import.validateThreads:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1024);
+        executor.setThreadNamePrefix("product-validate-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 冗余字段更新任务线程池
+     * 每个任务占用一个线程，按最大更新速率分批更新并在批与批之间休眠，不占用定时任务线程；
+     * 领取任务前先确认有空闲线程，任务沿用领取时的连接池分区。
+     */
+    @Bean("denormalizeExecutor")
+    public ThreadPoolTaskExecutor denormalizeExecutor(@Value("${denormalize.poolSize:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize);
+        executor.setThreadNamePrefix("denormalize-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(DataSourceContextHolder::wrap);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 积分、成长值批量发放任务线程池
+     * 每个发放任务占用一个线程，按最大发放速率分批发放并在批与批之间休眠，不占用定时任务线程；
+     * 领取任务前先确认有空闲线程，任务沿用领取时的连接池分区。
+     */
+    @Bean("ledgerGrantExecutor")
+    public ThreadPoolTaskExecutor ledgerGrantExecutor(@Value("${memberLedger.grantPoolSize:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize);
+        executor.setThreadNamePrefix("ledger-grant-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(DataSourceContextHolder::wrap);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 订单超时处理线程池
+     * 只有一个线程，时间轮的推进、加载和到期处理都在该线程中执行，不占用定时任务线程；
+     * 上一次处理未完成时不会提交新的任务。
+     */
+    @Bean("orderTimeoutExecutor")
+    public ThreadPoolTaskExecutor orderTimeoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("order-timeout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(DataSourceContextHolder::wrap);
+        executor.initialize();
+        return executor;
+    }
+}
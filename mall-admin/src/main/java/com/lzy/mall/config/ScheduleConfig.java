@@ -0,0 +1,13 @@
+package com.lzy.mall.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类
+ * 线程数通过spring.task.scheduling.pool.size配置
+ */
+@Configuration
+@EnableScheduling
+public class ScheduleConfig {
+}
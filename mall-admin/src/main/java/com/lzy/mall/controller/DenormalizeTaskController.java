@@ -0,0 +1,45 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.bo.DenormalizeTask;
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.service.DenormalizeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 冗余字段更新任务管理Controller
+ */
+@Controller
+@Tag(name = "DenormalizeTaskController", description = "冗余字段更新任务管理")
+@RequestMapping("/denormalizeTask")
+public class DenormalizeTaskController {
+    @Autowired
+    private DenormalizeService denormalizeService;
+
+    @Operation(summary = "分页查询更新任务及进度")
+    @RequestMapping(value = "/list", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonPage<DenormalizeTask>> list(@RequestParam(value = "status", required = false) Integer status,
+                                                          @RequestParam(value = "pageSize", defaultValue = "5") Integer pageSize,
+                                                          @RequestParam(value = "pageNum", defaultValue = "1") Integer pageNum) {
+        List<DenormalizeTask> taskList = denormalizeService.list(status, pageSize, pageNum);
+        return CommonResult.success(CommonPage.restPage(taskList));
+    }
+
+    @Operation(summary = "重试失败的任务")
+    @RequestMapping(value = "/retry/{id}", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult retry(@PathVariable Long id) {
+        int count = denormalizeService.retry(id);
+        if (count > 0) {
+            return CommonResult.success(count);
+        }
+        return CommonResult.failed();
+    }
+}
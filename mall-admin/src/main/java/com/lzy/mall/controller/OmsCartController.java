@@ -0,0 +1,96 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.model.OmsCartItem;
+import com.lzy.mall.service.OmsCartService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 购物车管理Controller
+ */
+@Controller
+@Tag(name = "OmsCartController", description = "购物车管理")
+@RequestMapping("/cart")
+public class OmsCartController {
+    @Autowired
+    private OmsCartService cartService;
+
+    @Operation(summary = "获取会员购物车")
+    @RequestMapping(value = "/list/{memberId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<OmsCartItem>> list(@PathVariable Long memberId) {
+        List<OmsCartItem> cartItemList = cartService.list(memberId);
+        return CommonResult.success(cartItemList);
+    }
+
+    @Operation(summary = "添加商品到会员购物车")
+    @RequestMapping(value = "/add", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult add(@RequestParam Long memberId,
+                            @RequestParam(required = false) String memberNickname,
+                            @RequestParam Long productSkuId,
+                            @RequestParam(defaultValue = "1") Integer quantity) {
+        cartService.add(memberId, memberNickname, productSkuId, quantity);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "修改会员购物车中商品的数量")
+    @RequestMapping(value = "/update/quantity", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult updateQuantity(@RequestParam Long memberId,
+                                       @RequestParam Long productSkuId,
+                                       @RequestParam Integer quantity) {
+        cartService.updateQuantity(memberId, productSkuId, quantity);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "删除会员购物车中的商品")
+    @RequestMapping(value = "/delete", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult delete(@RequestParam Long memberId, @RequestParam("productSkuIds") List<Long> productSkuIds) {
+        cartService.delete(memberId, productSkuIds);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "清空会员购物车")
+    @RequestMapping(value = "/clear/{memberId}", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult clear(@PathVariable Long memberId) {
+        cartService.clear(memberId);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "获取游客购物车")
+    @RequestMapping(value = "/guest/list/{guestId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<OmsCartItem>> listGuest(@PathVariable String guestId) {
+        List<OmsCartItem> cartItemList = cartService.listGuest(guestId);
+        return CommonResult.success(cartItemList);
+    }
+
+    @Operation(summary = "添加商品到游客购物车")
+    @RequestMapping(value = "/guest/add", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult addGuest(@RequestParam String guestId,
+                                 @RequestParam Long productSkuId,
+                                 @RequestParam(defaultValue = "1") Integer quantity) {
+        cartService.addGuest(guestId, productSkuId, quantity);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "把游客购物车合并到会员购物车")
+    @RequestMapping(value = "/merge", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult merge(@RequestParam Long memberId,
+                              @RequestParam(required = false) String memberNickname,
+                              @RequestParam String guestId) {
+        cartService.merge(memberId, memberNickname, guestId);
+        return CommonResult.success(null);
+    }
+}
@@ -1,16 +1,26 @@
 package com.lzy.mall.controller;
 
+import cn.hutool.core.date.DateUtil;
 import com.lzy.mall.common.api.CommonPage;
 import com.lzy.mall.common.api.CommonResult;
 import com.lzy.mall.dto.*;
 import com.lzy.mall.model.OmsOrder;
 import com.lzy.mall.service.OmsOrderService;
+import com.lzy.mall.service.OmsOrderShipmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -22,6 +32,8 @@ import java.util.List;
 public class OmsOrderController {
     @Autowired
     private OmsOrderService orderService;
+    @Autowired
+    private OmsOrderShipmentService orderShipmentService;
 
     @Operation(summary = "查询订单")  //测试通过
     @RequestMapping(value = "/list", method = RequestMethod.GET)
@@ -33,6 +45,30 @@ public class OmsOrderController {
         return CommonResult.success(CommonPage.restPage(orderList));
     }
 
+    @Operation(summary = "游标分页查询订单")
+    @RequestMapping(value = "/list/cursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonPage<OmsOrder>> listByCursor(OmsOrderQueryParam queryParam,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "pageSize", defaultValue = "5") Integer pageSize) {
+        return CommonResult.success(orderService.list(queryParam, cursor, pageSize));
+    }
+
+    @Operation(summary = "按查询条件流式导出订单CSV")
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    public void export(OmsOrderQueryParam queryParam,
+                       @RequestParam(value = "includeItems", defaultValue = "false") Boolean includeItems,
+                       HttpServletResponse response) throws IOException {
+        String fileName = "order_" + DateUtil.format(new Date(), "yyyyMMddHHmmss") + ".csv";
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        // 写入BOM，避免Excel打开时中文乱码
+        writer.write('\uFEFF');
+        orderService.export(queryParam, includeItems, writer);
+        writer.flush();
+    }
+
     @Operation(summary = "批量发货") //测试通过
     @RequestMapping(value = "/update/delivery", method = RequestMethod.POST)
     @ResponseBody
@@ -44,26 +80,34 @@ public class OmsOrderController {
         return CommonResult.failed();
     }
 
+    @Operation(summary = "按物流单号文件批量发货")
+    @RequestMapping(value = "/update/delivery/import", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<OmsOrderShipmentResult> importDelivery(@RequestPart("file") MultipartFile file) {
+        OmsOrderShipmentResult result = orderShipmentService.importShipments(file);
+        return CommonResult.success(result);
+    }
+
     @Operation(summary = "批量关闭订单")  //测试通过
     @RequestMapping(value = "/update/close", method = RequestMethod.POST)
     @ResponseBody
-    public CommonResult close(@RequestParam("ids") List<Long> ids, @RequestParam String note) {
-        int count = orderService.close(ids, note);
-        if (count > 0) {
-            return CommonResult.success(count);
+    public CommonResult<OmsOrderTransitionResult> close(@RequestParam("ids") List<Long> ids, @RequestParam String note) {
+        OmsOrderTransitionResult result = orderService.close(ids, note);
+        if (result.getSuccessIds().isEmpty() && !result.getConflicts().isEmpty()) {
+            return CommonResult.failed(result.getConflicts().get(0).getMessage());
         }
-        return CommonResult.failed();
+        return CommonResult.success(result);
     }
 
     @Operation(summary = "批量删除订单")  //测试通过
     @RequestMapping(value = "/delete", method = RequestMethod.POST)
     @ResponseBody
-    public CommonResult delete(@RequestParam("ids") List<Long> ids) {
-        int count = orderService.delete(ids);
-        if (count > 0) {
-            return CommonResult.success(count);
+    public CommonResult<OmsOrderTransitionResult> delete(@RequestParam("ids") List<Long> ids) {
+        OmsOrderTransitionResult result = orderService.delete(ids);
+        if (result.getSuccessIds().isEmpty() && !result.getConflicts().isEmpty()) {
+            return CommonResult.failed(result.getConflicts().get(0).getMessage());
         }
-        return CommonResult.failed();
+        return CommonResult.success(result);
     }
 
     @Operation(summary = "获取订单详情：订单信息、商品信息、操作记录")  //测试通过
@@ -74,6 +118,14 @@ public class OmsOrderController {
         return CommonResult.success(orderDetailResult);
     }
 
+    @Operation(summary = "批量获取订单详情：订单信息、商品信息、操作记录")
+    @RequestMapping(value = "/details", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<OmsOrderDetail>> details(@RequestParam("ids") List<Long> ids) {
+        List<OmsOrderDetail> detailList = orderService.details(ids);
+        return CommonResult.success(detailList);
+    }
+
     @Operation(summary = "修改收货人信息")  //测试通过
     @RequestMapping(value = "/update/receiverInfo", method = RequestMethod.POST)
     @ResponseBody
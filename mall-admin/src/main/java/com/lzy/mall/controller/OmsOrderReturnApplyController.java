@@ -35,6 +35,15 @@ public class OmsOrderReturnApplyController {
         return CommonResult.success(CommonPage.restPage(returnApplyList));
     }
 
+    @Operation(summary = "游标分页查询退货申请")
+    @RequestMapping(value = "/list/cursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonPage<OmsOrderReturnApply>> listByCursor(OmsReturnApplyQueryParam queryParam,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                                      @RequestParam(value = "pageSize", defaultValue = "5") Integer pageSize) {
+        return CommonResult.success(returnApplyService.list(queryParam, cursor, pageSize));
+    }
+
     @Operation(summary = "批量删除退货申请")  //测试通过
     @RequestMapping(value = "/delete", method = RequestMethod.POST)
     @ResponseBody
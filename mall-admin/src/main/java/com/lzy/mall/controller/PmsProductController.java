@@ -2,16 +2,19 @@ package com.lzy.mall.controller;
 
 import com.lzy.mall.common.api.CommonPage;
 import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.PmsProductImportResult;
 import com.lzy.mall.dto.PmsProductParam;
 import com.lzy.mall.dto.PmsProductQueryParam;
 import com.lzy.mall.dto.PmsProductResult;
 import com.lzy.mall.model.PmsProduct;
+import com.lzy.mall.service.PmsProductImportService;
 import com.lzy.mall.service.PmsProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -25,6 +28,8 @@ import java.util.List;
 public class PmsProductController {
         @Autowired
     private PmsProductService productService; // 商品服务接口
+    @Autowired
+    private PmsProductImportService productImportService; // 商品批量导入服务接口
 
     /**
      * 创建新商品
@@ -43,6 +48,32 @@ public class PmsProductController {
         }
     }
 
+    /**
+     * 批量导入商品
+     * @param file CSV（首行为表头）或JSON Lines文件，导入在后台执行
+     * @return 导入任务ID，用于查询进度
+     */
+    @Operation(summary = "批量导入商品")
+    @RequestMapping(value = "/import", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<String> importProducts(@RequestPart("file") MultipartFile file) {
+        String taskId = productImportService.importProducts(file);
+        return CommonResult.success(taskId);
+    }
+
+    /**
+     * 查询商品导入进度
+     * @param taskId 导入任务ID
+     * @return 已处理行数、成功失败数、失败明细及导入速度
+     */
+    @Operation(summary = "查询商品导入进度及失败明细")
+    @RequestMapping(value = "/import/{taskId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<PmsProductImportResult> getImportResult(@PathVariable String taskId) {
+        PmsProductImportResult result = productImportService.getResult(taskId);
+        return CommonResult.success(result);
+    }
+
     /**
      * 获取商品编辑信息
      * @param id 商品ID
@@ -91,6 +122,23 @@ public class PmsProductController {
         return CommonResult.success(CommonPage.restPage(productList));
     }
 
+    /**
+     * 游标分页查询商品列表
+     * 不统计总数，通过上一页返回的游标继续向后翻页，深分页与首页开销相同
+     * @param productQueryParam 商品查询参数
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param pageSize 每页显示条数，默认5条，最多100条
+     * @return 游标分页商品列表
+     */
+    @Operation(summary = "游标分页查询商品")
+    @RequestMapping(value = "/list/cursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonPage<PmsProduct>> getListByCursor(PmsProductQueryParam productQueryParam,
+                                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "pageSize", defaultValue = "5") Integer pageSize) {
+        return CommonResult.success(productService.list(productQueryParam, cursor, pageSize));
+    }
+
     /**
      * 根据关键词模糊查询商品
      * @param keyword 搜索关键词，可匹配商品名称或货号
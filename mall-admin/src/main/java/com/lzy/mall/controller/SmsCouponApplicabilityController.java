@@ -0,0 +1,40 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.SmsCouponApplyItem;
+import com.lzy.mall.dto.SmsCouponApplyResult;
+import com.lzy.mall.service.SmsCouponApplicabilityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 优惠券适用范围Controller
+ */
+@Controller
+@Tag(name = "SmsCouponApplicabilityController", description = "优惠券适用范围")
+@RequestMapping("/couponApplicability")
+public class SmsCouponApplicabilityController {
+    @Autowired
+    private SmsCouponApplicabilityService couponApplicabilityService;
+
+    @Operation(summary = "批量查询商品适用的有效优惠券")
+    @RequestMapping(value = "/resolve", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<SmsCouponApplyResult> resolve(@RequestBody List<SmsCouponApplyItem> itemList) {
+        SmsCouponApplyResult result = couponApplicabilityService.resolve(itemList);
+        return CommonResult.success(result);
+    }
+
+    @Operation(summary = "优惠券修改后重建适用范围索引")
+    @RequestMapping(value = "/refresh", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult refresh() {
+        couponApplicabilityService.refresh();
+        return CommonResult.success(null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.SmsCouponClaimStatus;
+import com.lzy.mall.service.SmsCouponClaimService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 优惠券领取管理Controller
+ */
+@Controller
+@Tag(name = "SmsCouponClaimController", description = "优惠券领取管理")
+@RequestMapping("/couponClaim")
+public class SmsCouponClaimController {
+    @Autowired
+    private SmsCouponClaimService couponClaimService;
+
+    @Operation(summary = "预热优惠券的剩余数量和会员已领数量")
+    @RequestMapping(value = "/preload/{couponId}", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult preload(@PathVariable Long couponId) {
+        couponClaimService.preload(couponId);
+        return CommonResult.success(null);
+    }
+
+    @Operation(summary = "后台赠送优惠券")
+    @RequestMapping(value = "/give", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<String> give(@RequestParam Long couponId, @RequestParam Long memberId,
+                                     @RequestParam(required = false) String memberNickname) {
+        String couponCode = couponClaimService.claim(couponId, memberId, memberNickname, 0);
+        return CommonResult.success(couponCode);
+    }
+
+    @Operation(summary = "查询已预热优惠券的领取状态")
+    @RequestMapping(value = "/list", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<SmsCouponClaimStatus>> list() {
+        List<SmsCouponClaimStatus> statusList = couponClaimService.listStatus();
+        return CommonResult.success(statusList);
+    }
+}
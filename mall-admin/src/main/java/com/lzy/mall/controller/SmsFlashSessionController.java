@@ -0,0 +1,43 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+import com.lzy.mall.service.SmsFlashSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 秒杀场次Controller
+ */
+@Controller
+@Tag(name = "SmsFlashSessionController", description = "秒杀场次")
+@RequestMapping("/flashSession")
+public class SmsFlashSessionController {
+    @Autowired
+    private SmsFlashSessionService flashSessionService;
+
+    @Operation(summary = "获取正在进行的秒杀场次及商品")
+    @RequestMapping(value = "/current", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<SmsFlashSessionDetail> current() {
+        return CommonResult.success(flashSessionService.getCurrent());
+    }
+
+    @Operation(summary = "获取下一个秒杀场次及商品")
+    @RequestMapping(value = "/next", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<SmsFlashSessionDetail> next() {
+        return CommonResult.success(flashSessionService.getNext());
+    }
+
+    @Operation(summary = "秒杀活动修改后重建场次索引")
+    @RequestMapping(value = "/refresh", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult refresh() {
+        flashSessionService.refresh();
+        return CommonResult.success(null);
+    }
+}
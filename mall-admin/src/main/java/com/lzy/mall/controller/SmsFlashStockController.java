@@ -0,0 +1,40 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.SmsFlashStockStatus;
+import com.lzy.mall.service.SmsFlashStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 秒杀库存管理Controller
+ */
+@Controller
+@Tag(name = "SmsFlashStockController", description = "秒杀库存管理")
+@RequestMapping("/flashStock")
+public class SmsFlashStockController {
+    @Autowired
+    private SmsFlashStockService flashStockService;
+
+    @Operation(summary = "预热活动场次下秒杀商品的库存")
+    @RequestMapping(value = "/preload", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<Integer> preload(@RequestParam Long flashPromotionId,
+                                         @RequestParam Long flashPromotionSessionId) {
+        int count = flashStockService.preload(flashPromotionId, flashPromotionSessionId);
+        return CommonResult.success(count);
+    }
+
+    @Operation(summary = "查询已预热秒杀商品的库存状态")
+    @RequestMapping(value = "/list", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<SmsFlashStockStatus>> list() {
+        List<SmsFlashStockStatus> statusList = flashStockService.listStatus();
+        return CommonResult.success(statusList);
+    }
+}
@@ -0,0 +1,54 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.bo.HomeContentDocument;
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.service.SmsHomeContentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 首页内容Controller
+ */
+@Controller
+@Tag(name = "SmsHomeContentController", description = "首页内容")
+@RequestMapping("/homeContent")
+public class SmsHomeContentController {
+    @Autowired
+    private SmsHomeContentService homeContentService;
+
+    @Operation(summary = "获取首页内容，If-None-Match与当前ETag一致时返回304")
+    @RequestMapping(value = "/content", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<byte[]> content(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        HomeContentDocument document = homeContentService.getDocument();
+        //客户端每次都需要带ETag重新验证，内容没有变化时只返回304
+        CacheControl cacheControl = CacheControl.noCache();
+        if (document.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(document.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(document.getEtag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(document.getBody());
+    }
+
+    @Operation(summary = "首页推荐内容修改后重建首页内容快照")
+    @RequestMapping(value = "/refresh", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult refresh() {
+        homeContentService.refresh();
+        return CommonResult.success(null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.lzy.mall.controller;
+
+import com.lzy.mall.bo.LedgerEntry;
+import com.lzy.mall.bo.LedgerGrantTask;
+import com.lzy.mall.bo.LedgerType;
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.UmsLedgerGrantParam;
+import com.lzy.mall.dto.UmsMemberLedgerBalance;
+import com.lzy.mall.dto.UmsMemberLedgerParam;
+import com.lzy.mall.service.UmsMemberLedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 会员积分、成长值管理Controller
+ */
+@Controller
+@Tag(name = "UmsMemberLedgerController", description = "会员积分、成长值管理")
+@RequestMapping("/memberLedger")
+public class UmsMemberLedgerController {
+    /**
+     * 积分来源：管理员修改
+     */
+    private static final int SOURCE_TYPE_ADMIN = 1;
+
+    @Autowired
+    private UmsMemberLedgerService memberLedgerService;
+
+    @Operation(summary = "获取会员积分、成长值余额")
+    @RequestMapping(value = "/balance/{memberId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<UmsMemberLedgerBalance> balance(@PathVariable Long memberId) {
+        return CommonResult.success(memberLedgerService.getBalance(memberId));
+    }
+
+    @Operation(summary = "修改会员积分、成长值，按批写入")
+    @RequestMapping(value = "/change", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult change(@Validated @RequestBody UmsMemberLedgerParam param, Principal principal) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setType(LedgerType.of(param.getLedgerType()));
+        entry.setMemberId(param.getMemberId());
+        entry.setChangeType(param.getChangeType());
+        entry.setChangeCount(param.getChangeCount());
+        entry.setOperateMan(principal == null ? null : principal.getName());
+        entry.setOperateNote(param.getOperateNote());
+        entry.setSourceType(SOURCE_TYPE_ADMIN);
+        entry.setEventKey(param.getEventKey());
+        memberLedgerService.append(Collections.singletonList(entry));
+        return CommonResult.success(entry.getEventKey());
+    }
+
+    @Operation(summary = "创建批量发放任务")
+    @RequestMapping(value = "/grant/create", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<Long> createGrant(@Validated @RequestBody UmsLedgerGrantParam param, Principal principal) {
+        return CommonResult.success(memberLedgerService.createGrant(param, principal == null ? null : principal.getName()));
+    }
+
+    @Operation(summary = "分页查询批量发放任务及进度")
+    @RequestMapping(value = "/grant/list", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonPage<LedgerGrantTask>> listGrants(@RequestParam(value = "status", required = false) Integer status,
+                                                                @RequestParam(value = "pageSize", defaultValue = "5") Integer pageSize,
+                                                                @RequestParam(value = "pageNum", defaultValue = "1") Integer pageNum) {
+        List<LedgerGrantTask> taskList = memberLedgerService.listGrants(status, pageSize, pageNum);
+        return CommonResult.success(CommonPage.restPage(taskList));
+    }
+
+    @Operation(summary = "重试失败的批量发放任务")
+    @RequestMapping(value = "/grant/retry/{id}", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult retryGrant(@PathVariable Long id) {
+        int count = memberLedgerService.retryGrant(id);
+        if (count > 0) {
+            return CommonResult.success(count);
+        }
+        return CommonResult.failed();
+    }
+}
@@ -2,6 +2,7 @@ package com.lzy.mall.controller;
 
 import com.lzy.mall.common.api.CommonPage;
 import com.lzy.mall.common.api.CommonResult;
+import com.lzy.mall.dto.UmsMenuNode;
 import com.lzy.mall.model.*;
 import com.lzy.mall.service.UmsRoleService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -150,6 +151,14 @@ public class UmsRoleController {
         return CommonResult.success(roleList);
     }
 
+    @Operation(summary = "获取角色相关菜单的树形结构")
+    @RequestMapping(value = "/listMenuTree/{roleId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<UmsMenuNode>> listMenuTree(@PathVariable Long roleId) {
+        List<UmsMenuNode> menuTree = roleService.listMenuTree(roleId);
+        return CommonResult.success(menuTree);
+    }
+
     /**
      * 获取角色相关资源
      * @param roleId 角色ID
@@ -0,0 +1,64 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.bo.DenormalizeTarget;
+import com.lzy.mall.bo.DenormalizeTask;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 冗余字段异步更新任务自定义Dao
+ */
+public interface DenormalizeTaskDao {
+    /**
+     * 创建任务
+     */
+    int insert(DenormalizeTask task);
+
+    /**
+     * 将同一来源记录尚未完成的旧任务标记为已被取代，只保留最新的值
+     */
+    int supersede(@Param("target") String target, @Param("sourceId") Long sourceId, @Param("excludeId") Long excludeId);
+
+    /**
+     * 查询可执行的任务：待执行（包括手动重试的失败任务），或执行中但超过staleSeconds未更新（执行节点已中断）
+     */
+    List<DenormalizeTask> selectRunnable(@Param("staleSeconds") int staleSeconds, @Param("limit") int limit);
+
+    /**
+     * 领取任务，多个节点同时领取时只有一个能成功
+     */
+    int claim(@Param("id") Long id, @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 记录执行进度，任务已被取代时返回0
+     */
+    int updateProgress(@Param("id") Long id, @Param("lastId") Long lastId, @Param("count") int count);
+
+    /**
+     * 结束执行中的任务（完成或失败），任务已被取代时返回0
+     */
+    int finish(@Param("id") Long id, @Param("status") Integer status, @Param("message") String message);
+
+    /**
+     * 将失败的任务重置为待执行，从上次的进度继续
+     */
+    int retry(@Param("id") Long id);
+
+    /**
+     * 按状态查询任务
+     */
+    List<DenormalizeTask> getList(@Param("status") Integer status);
+
+    /**
+     * 按主键顺序查找一批需要更新的目标行
+     */
+    List<Long> selectTargetIds(@Param("target") DenormalizeTarget target, @Param("sourceId") Long sourceId,
+                               @Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 更新一批目标行的冗余字段
+     */
+    int updateTargets(@Param("target") DenormalizeTarget target, @Param("sourceId") Long sourceId,
+                      @Param("value") String value, @Param("ids") List<Long> ids);
+}
@@ -0,0 +1,27 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.model.OmsCartItem;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 购物车自定义Dao
+ */
+public interface OmsCartDao {
+    /**
+     * 按SKU批量查询购物车需要展示的商品信息和当前价格，结果中只有商品相关的字段
+     */
+    List<OmsCartItem> selectCartProducts(@Param("skuIds") Collection<Long> skuIds);
+
+    /**
+     * 删除会员购物车中的商品，用于整体写入前清除旧数据
+     */
+    int deleteByMembers(@Param("memberIds") Collection<Long> memberIds);
+
+    /**
+     * 批量写入购物车商品
+     */
+    int insertList(@Param("list") List<OmsCartItem> cartItemList);
+}
@@ -1,12 +1,17 @@
 package com.lzy.mall.dao;
 
+import com.lzy.mall.bo.OmsOrderState;
 import com.lzy.mall.dto.OmsOrderDeliveryParam;
 import com.lzy.mall.dto.OmsOrderDetail;
+import com.lzy.mall.dto.OmsOrderExportRow;
 import com.lzy.mall.dto.OmsOrderQueryParam;
 import com.lzy.mall.model.OmsOrder;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 订单查询自定义Dao
@@ -18,12 +23,64 @@ public interface OmsOrderDao {
     List<OmsOrder> getList(@Param("queryParam") OmsOrderQueryParam queryParam);
 
     /**
-     * 批量发货
+     * 统计符合条件的订单数量
+     */
+    long getCount(@Param("queryParam") OmsOrderQueryParam queryParam);
+
+    /**
+     * 按游标条件查询订单，按ID倒序返回ID小于lastId的记录
+     */
+    List<OmsOrder> getListByCursor(@Param("queryParam") OmsOrderQueryParam queryParam, @Param("lastId") Long lastId);
+
+    /**
+     * 流式导出订单，逐行回调resultHandler，不在内存中保留结果集
+     * @param includeItems 是否联查订单商品，联查时每个商品一行
+     */
+    void exportList(@Param("queryParam") OmsOrderQueryParam queryParam,
+                    @Param("includeItems") boolean includeItems,
+                    ResultHandler<OmsOrderExportRow> resultHandler);
+
+    /**
+     * 按订单ID或订单编号锁定未删除的订单，只返回ID、编号和状态，用于发货前判断订单状态
+     * @param ids      订单ID，为空时按订单编号查询
+     * @param orderSns 订单编号
+     */
+    List<OmsOrder> lockForDelivery(@Param("ids") Collection<Long> ids, @Param("orderSns") Collection<String> orderSns);
+
+    /**
+     * 批量发货，调用方需控制每批的订单数
      */
     int delivery(@Param("list") List<OmsOrderDeliveryParam> deliveryParamList);
 
     /**
-     * 获取订单详情
+     * 查询未删除订单的当前状态和版本号
+     */
+    List<OmsOrderState> selectStates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按 (id, status, version) 比较后批量修改订单状态或删除状态，版本号加1
+     * @param expectedList 每个订单期望的状态和版本号，不一致的订单不会被修改
+     * @param toStatus     新的订单状态，为空时不修改
+     * @param deleteStatus 新的删除状态，为空时不修改
+     * @return 实际修改的订单数
+     */
+    int transition(@Param("list") List<OmsOrderState> expectedList,
+                   @Param("toStatus") Integer toStatus,
+                   @Param("deleteStatus") Integer deleteStatus);
+
+    /**
+     * 按 (id, status, version) 比较后修改订单收货人、费用、备注等信息，只修改不为空的字段，版本号加1
+     */
+    int updateInfo(@Param("order") OmsOrder order, @Param("expected") OmsOrderState expected);
+
+    /**
+     * 获取订单详情（联表查询）
+     * 订单商品与操作记录会相乘，Service层已改为分表批量查询
      */
     OmsOrderDetail getDetail(@Param("id") Long id);
+
+    /**
+     * 获取列表查询的执行计划，用于检查查询条件是否命中索引
+     */
+    List<Map<String, Object>> explainList(@Param("queryParam") OmsOrderQueryParam queryParam);
 }
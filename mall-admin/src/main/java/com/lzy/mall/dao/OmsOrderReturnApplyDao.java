@@ -6,6 +6,7 @@ import com.lzy.mall.model.OmsOrderReturnApply;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 订单退货申请管理自定义Dao
@@ -16,8 +17,18 @@ public interface OmsOrderReturnApplyDao {
      */
     List<OmsOrderReturnApply> getList(@Param("queryParam") OmsReturnApplyQueryParam queryParam);
 
+    /**
+     * 按游标条件查询申请列表，按ID倒序返回ID小于lastId的记录
+     */
+    List<OmsOrderReturnApply> getListByCursor(@Param("queryParam") OmsReturnApplyQueryParam queryParam, @Param("lastId") Long lastId);
+
     /**
      * 获取申请详情
      */
     OmsOrderReturnApplyResult getDetail(@Param("id")Long id);
+
+    /**
+     * 获取列表查询的执行计划，用于检查查询条件是否命中索引
+     */
+    List<Map<String, Object>> explainList(@Param("queryParam") OmsReturnApplyQueryParam queryParam);
 }
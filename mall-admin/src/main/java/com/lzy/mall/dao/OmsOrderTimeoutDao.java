@@ -0,0 +1,59 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.bo.OrderTimeout;
+import com.lzy.mall.model.OmsOrder;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单超时处理自定义Dao
+ */
+public interface OmsOrderTimeoutDao {
+    /**
+     * 查询尚未计算超时时间的待付款、已发货订单
+     */
+    List<OmsOrder> selectUnscheduled(@Param("limit") int limit);
+
+    /**
+     * 批量写入超时时间，只更新仍未计算过的订单
+     */
+    int updateTimeoutTime(@Param("list") List<OrderTimeout> timeoutList);
+
+    /**
+     * 按(超时时间, ID)顺序查询指定状态、超时时间不晚于toTime的订单
+     * @param afterTime 上一批最后一条的超时时间，为空时从最早的开始
+     * @param afterId   上一批最后一条的ID
+     */
+    List<OrderTimeout> selectDue(@Param("status") Integer status,
+                                 @Param("afterTime") Date afterTime,
+                                 @Param("afterId") Long afterId,
+                                 @Param("toTime") Date toTime,
+                                 @Param("limit") int limit);
+
+    /**
+     * 锁定仍处于指定状态且已到超时时间的订单，返回订单ID
+     */
+    List<Long> lockDue(@Param("ids") List<Long> ids, @Param("status") Integer status, @Param("now") Date now);
+
+    /**
+     * 批量关闭待付款订单
+     */
+    int closeUnpaid(@Param("ids") List<Long> ids);
+
+    /**
+     * 批量确认收货
+     */
+    int confirmReceive(@Param("ids") List<Long> ids);
+
+    /**
+     * 按订单商品释放锁定的库存
+     */
+    int releaseStockLock(@Param("orderIds") List<Long> orderIds);
+
+    /**
+     * 清空待付款、已发货订单的超时时间，订单设置修改后按新设置重新计算
+     */
+    int resetTimeoutTime();
+}
@@ -0,0 +1,27 @@
+package com.lzy.mall.dao;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
+
+/**
+ * 商品相关计数列维护自定义Dao
+ */
+public interface PmsCounterDao {
+    /**
+     * 按ID批量累加计数列
+     * @param deltas key为记录ID，value为增量
+     */
+    int addCount(@Param("table") String table, @Param("column") String column,
+                 @Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按未删除的商品重新统计商品分类的商品数量，只更新数量不一致的分类
+     */
+    int reconcileProductCount();
+
+    /**
+     * 按商品属性重新统计属性分类的规格数量和参数数量，只更新数量不一致的分类
+     */
+    int reconcileAttributeCount();
+}
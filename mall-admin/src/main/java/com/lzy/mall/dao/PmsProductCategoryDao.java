@@ -9,7 +9,8 @@ import java.util.List;
  */
 public interface PmsProductCategoryDao {
     /**
-     * 获取商品分类及其子分类
+     * 获取商品分类及其子分类（只联查两级）
+     * Service层已改为从内存中的分类树快照获取，此方法仅保留用于结果对比
      */
     List<PmsProductCategoryWithChildrenItem> listWithChildren();
 }
@@ -1,15 +1,39 @@
 package com.lzy.mall.dao;
 
 import com.lzy.mall.dto.PmsProductResult;
+import com.lzy.mall.model.PmsProduct;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 商品管理自定义Dao
  */
 public interface PmsProductDao {
     /**
-     * 获取商品编辑信息
+     * 获取商品编辑信息（单条SQL联表查询）
+     * 子表之间会产生笛卡尔积，Service层已改为按子表分别查询，此方法仅保留用于结果与性能对比（见PmsProductUpdateInfoLoadTests）
      */
     PmsProductResult getUpdateInfo(@Param("id") Long id);
+
+    /**
+     * 批量插入商品，插入后回填商品ID
+     */
+    int insertList(@Param("list") List<PmsProduct> productList);
+
+    /**
+     * 查询已存在的商品货号
+     */
+    List<String> selectExistProductSn(@Param("productSns") Collection<String> productSns);
+
+    /**
+     * 查询删除状态将发生变化的商品，只返回ID和商品分类ID
+     */
+    List<PmsProduct> selectDeleteStatusChanging(@Param("ids") List<Long> ids, @Param("deleteStatus") Integer deleteStatus);
+
+    /**
+     * 锁定商品并查询分类和删除状态，只返回ID、商品分类ID和删除状态
+     */
+    PmsProduct selectCategoryForUpdate(@Param("id") Long id);
 }
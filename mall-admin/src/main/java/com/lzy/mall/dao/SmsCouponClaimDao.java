@@ -0,0 +1,34 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.model.SmsCouponHistory;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 优惠券领取自定义Dao
+ */
+public interface SmsCouponClaimDao {
+    /**
+     * 按会员统计优惠券的领取数量，每行包含member_id和claim_count
+     */
+    List<Map<String, Object>> selectMemberClaimCounts(@Param("couponId") Long couponId);
+
+    /**
+     * 批量写入领取记录，券码已存在的记录被跳过
+     * @return 实际写入的记录数
+     */
+    int insertList(@Param("list") List<SmsCouponHistory> historyList);
+
+    /**
+     * 写入领取记录后扣减剩余数量并增加领取数量
+     */
+    int deductCount(@Param("couponId") Long couponId, @Param("quantity") int quantity);
+
+    /**
+     * 按领取记录校正领取数量
+     */
+    int reconcileReceiveCount(@Param("couponIds") Collection<Long> couponIds);
+}
@@ -0,0 +1,17 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.dto.SmsFlashSessionProduct;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 秒杀场次自定义Dao
+ */
+public interface SmsFlashSessionDao {
+    /**
+     * 查询秒杀活动下已上架的商品及秒杀价格，按场次、排序排列
+     */
+    List<SmsFlashSessionProduct> selectProducts(@Param("flashPromotionIds") Collection<Long> flashPromotionIds);
+}
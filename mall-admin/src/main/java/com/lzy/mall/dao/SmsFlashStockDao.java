@@ -0,0 +1,37 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.dto.SmsFlashStockStatus;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀库存写回自定义Dao
+ */
+public interface SmsFlashStockDao {
+    /**
+     * 查询秒杀商品的数据库库存状态，指定活动和场次时查询该场次的全部商品，否则按关系ID查询
+     */
+    List<SmsFlashStockStatus> selectStatus(@Param("flashPromotionId") Long flashPromotionId,
+                                           @Param("flashPromotionSessionId") Long flashPromotionSessionId,
+                                           @Param("relationIds") Collection<Long> relationIds);
+
+    /**
+     * 记录写回批次，批次已存在时返回0
+     */
+    int insertFlushLog(@Param("batchId") String batchId, @Param("relationId") Long relationId,
+                       @Param("quantity") long quantity);
+
+    /**
+     * 按SKU批量扣减库存并增加销量
+     * @param deductions SKU ID -> 扣减数量
+     */
+    int deductSkuStock(@Param("deductions") Map<Long, Long> deductions);
+
+    /**
+     * 扣减秒杀数量
+     */
+    int deductPromotionCount(@Param("relationId") Long relationId, @Param("quantity") long quantity);
+}
@@ -0,0 +1,36 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.dto.SmsHomeProduct;
+import com.lzy.mall.model.CmsSubject;
+import com.lzy.mall.model.PmsBrand;
+import com.lzy.mall.model.SmsHomeAdvertise;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 首页内容自定义Dao
+ */
+public interface SmsHomeContentDao {
+    /**
+     * 查询上线且在time之后仍在投放时间内的轮播广告，包括尚未开始的广告
+     */
+    List<SmsHomeAdvertise> selectAdvertises(@Param("time") Date time);
+
+    /**
+     * 查询推荐中且显示的品牌
+     */
+    List<PmsBrand> selectBrands(@Param("limit") int limit);
+
+    /**
+     * 查询推荐中且已上架的商品
+     * @param table 推荐表：sms_home_new_product 或 sms_home_recommend_product
+     */
+    List<SmsHomeProduct> selectProducts(@Param("table") String table, @Param("limit") int limit);
+
+    /**
+     * 查询推荐中且显示的专题，不包含专题内容
+     */
+    List<CmsSubject> selectSubjects(@Param("limit") int limit);
+}
@@ -0,0 +1,20 @@
+package com.lzy.mall.dao;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 数据表统计信息自定义Dao
+ */
+public interface TableStatusDao {
+    /**
+     * 获取表的估算行数（来自information_schema的统计信息，不扫描数据）
+     */
+    Long getTableRows(@Param("tableName") String tableName);
+
+    /**
+     * 获取表上已创建的索引名称
+     */
+    List<String> getIndexNames(@Param("tableName") String tableName);
+}
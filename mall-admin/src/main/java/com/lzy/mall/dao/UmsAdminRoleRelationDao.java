@@ -5,6 +5,7 @@ import com.lzy.mall.model.UmsResource;
 import com.lzy.mall.model.UmsRole;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,4 +42,26 @@ public interface UmsAdminRoleRelationDao {
      * @return 拥有该资源的管理员ID列表
      */
     List<Long> getAdminIdList(@Param("resourceId") Long resourceId);
+
+    /**
+     * 锁定管理员记录，串行化同一管理员的角色分配
+     * @param adminId 管理员ID
+     * @return 管理员存在时返回其ID，否则返回null
+     */
+    Long lockAdmin(@Param("adminId") Long adminId);
+
+    /**
+     * 获取管理员当前的角色ID列表
+     * @param adminId 管理员ID
+     * @return 角色ID列表
+     */
+    List<Long> getRoleIdList(@Param("adminId") Long adminId);
+
+    /**
+     * 批量删除管理员的指定角色关系
+     * @param adminId 管理员ID
+     * @param roleIds 要删除的角色ID
+     * @return 删除的记录数
+     */
+    int deleteList(@Param("adminId") Long adminId, @Param("roleIds") Collection<Long> roleIds);
 }
@@ -0,0 +1,126 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.bo.LedgerCursor;
+import com.lzy.mall.bo.LedgerEntry;
+import com.lzy.mall.bo.LedgerGrantTask;
+import com.lzy.mall.bo.LedgerSnapshot;
+import com.lzy.mall.bo.LedgerType;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 会员积分、成长值账本自定义Dao
+ */
+public interface UmsMemberLedgerDao {
+    /**
+     * 批量写入变化记录，幂等键已存在的记录被跳过
+     * @return 实际写入的记录数
+     */
+    int insertList(@Param("type") LedgerType type, @Param("list") List<LedgerEntry> entryList);
+
+    /**
+     * 在调用方的事务中把变化记录写入发件箱，与业务数据一起提交或回滚
+     */
+    int insertOutbox(@Param("list") List<LedgerEntry> entryList);
+
+    /**
+     * 按ID顺序查询一批发件箱中的记录ID
+     */
+    List<Long> selectOutboxIds(@Param("limit") int limit);
+
+    /**
+     * 把发件箱中指定ID的该类型记录写入历史表，幂等键已存在的记录被跳过
+     * @return 实际写入的记录数
+     */
+    int moveOutbox(@Param("type") LedgerType type, @Param("ids") List<Long> ids);
+
+    /**
+     * 删除发件箱中已写入历史表的记录
+     */
+    int deleteOutbox(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询会员的余额快照，没有快照时返回null
+     */
+    LedgerSnapshot selectSnapshot(@Param("type") LedgerType type, @Param("memberId") Long memberId);
+
+    /**
+     * 累加会员在快照之后的变化记录
+     */
+    Long sumAfter(@Param("type") LedgerType type, @Param("memberId") Long memberId, @Param("afterId") Long afterId);
+
+    /**
+     * 锁定并查询快照进度，没有初始化时返回null
+     */
+    LedgerCursor selectCursorForUpdate(@Param("type") LedgerType type);
+
+    /**
+     * 当前最大的变化记录ID
+     */
+    Long selectMaxHistoryId(@Param("type") LedgerType type);
+
+    /**
+     * 把ID在 (fromId, toId] 范围内的变化记录按会员合并到快照
+     */
+    int mergeSnapshot(@Param("type") LedgerType type, @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * 把ID在 (fromId, toId] 范围内有变化记录的会员的快照余额同步到 ums_member
+     */
+    int syncMember(@Param("type") LedgerType type, @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * 更新快照进度
+     */
+    int updateCursor(@Param("type") LedgerType type, @Param("lastHistoryId") Long lastHistoryId,
+                     @Param("horizonId") Long horizonId);
+
+    /**
+     * 创建批量发放任务
+     */
+    int insertGrant(LedgerGrantTask task);
+
+    /**
+     * 查询可执行的发放任务：待执行（包括手动重试的失败任务），或执行中但超过staleSeconds未更新（执行节点已中断）
+     */
+    List<LedgerGrantTask> selectRunnableGrants(@Param("staleSeconds") int staleSeconds, @Param("limit") int limit);
+
+    /**
+     * 领取发放任务，多个节点同时领取时只有一个能成功
+     */
+    int claimGrant(@Param("id") Long id, @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 记录发放进度
+     */
+    int updateGrantProgress(@Param("id") Long id, @Param("lastId") Long lastId, @Param("count") int count);
+
+    /**
+     * 结束执行中的发放任务（完成或失败）
+     */
+    int finishGrant(@Param("id") Long id, @Param("status") Integer status, @Param("message") String message);
+
+    /**
+     * 将失败的发放任务重置为待执行，从上次的进度继续
+     */
+    int retryGrant(@Param("id") Long id);
+
+    /**
+     * 按状态查询发放任务
+     */
+    List<LedgerGrantTask> getGrantList(@Param("status") Integer status);
+
+    /**
+     * 按会员ID顺序查找一批需要发放的会员
+     */
+    List<Long> selectMemberIds(@Param("memberLevelId") Long memberLevelId, @Param("lastId") Long lastId,
+                               @Param("limit") int limit);
+
+    /**
+     * 为一批会员写入发放记录，幂等键由任务ID和会员ID组成，重复执行同一批时被跳过
+     * @return 实际写入的记录数
+     */
+    int insertGrantList(@Param("type") LedgerType type, @Param("task") LedgerGrantTask task,
+                        @Param("memberIds") List<Long> memberIds);
+}
@@ -0,0 +1,22 @@
+package com.lzy.mall.dao;
+
+import com.lzy.mall.bo.MemberStatisticsDelta;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 会员统计信息自定义Dao
+ */
+public interface UmsMemberStatisticsDao {
+    /**
+     * 记录写入批次，批次已存在时返回0
+     */
+    int insertFlushLog(@Param("batchId") String batchId, @Param("memberCount") int memberCount);
+
+    /**
+     * 批量累加会员统计，会员没有统计记录时以增量作为初始值插入
+     * @param columns 累加的列，与增量的values顺序一致
+     */
+    int increment(@Param("columns") List<String> columns, @Param("list") List<MemberStatisticsDelta> deltaList);
+}
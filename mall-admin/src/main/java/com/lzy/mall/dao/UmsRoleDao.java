@@ -4,6 +4,7 @@ import com.lzy.mall.model.UmsMenu;
 import com.lzy.mall.model.UmsResource;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,6 +16,7 @@ public interface UmsRoleDao {
     /**
      * 根据后台用户ID获取菜单
      * 用于查询指定管理员拥有的所有菜单权限
+     * Service层已改为从内存中的角色菜单快照获取，此方法仅保留用于结果对比
      * @param adminId 管理员ID
      * @return 菜单列表
      */
@@ -23,6 +25,7 @@ public interface UmsRoleDao {
     /**
      * 根据角色ID获取菜单
      * 用于查询指定角色拥有的所有菜单权限
+     * Service层已改为从内存中的角色菜单快照获取，此方法仅保留用于结果对比
      * @param roleId 角色ID
      * @return 菜单列表
      */
@@ -35,4 +38,41 @@ public interface UmsRoleDao {
      * @return 资源列表
      */
     List<UmsResource> getResourceListByRoleId(@Param("roleId") Long roleId);
+
+    /**
+     * 锁定角色记录，串行化同一角色的菜单、资源分配
+     * @param roleId 角色ID
+     * @return 角色存在时返回其ID，否则返回null
+     */
+    Long lockRole(@Param("roleId") Long roleId);
+
+    /**
+     * 获取角色当前的菜单ID列表
+     */
+    List<Long> getMenuIdList(@Param("roleId") Long roleId);
+
+    /**
+     * 批量插入角色菜单关系
+     */
+    int insertMenuRelationList(@Param("roleId") Long roleId, @Param("menuIds") Collection<Long> menuIds);
+
+    /**
+     * 批量删除角色的指定菜单关系
+     */
+    int deleteMenuRelationList(@Param("roleId") Long roleId, @Param("menuIds") Collection<Long> menuIds);
+
+    /**
+     * 获取角色当前的资源ID列表
+     */
+    List<Long> getResourceIdList(@Param("roleId") Long roleId);
+
+    /**
+     * 批量插入角色资源关系
+     */
+    int insertResourceRelationList(@Param("roleId") Long roleId, @Param("resourceIds") Collection<Long> resourceIds);
+
+    /**
+     * 批量删除角色的指定资源关系
+     */
+    int deleteResourceRelationList(@Param("roleId") Long roleId, @Param("resourceIds") Collection<Long> resourceIds);
 }
@@ -0,0 +1,100 @@
+package com.lzy.mall.datasource;
+
+/**
+ * 数据源路由上下文
+ * 以线程为单位记录当前调用是否只读，以及当前请求是否已经执行过写操作。
+ * 写操作之后本次请求内的查询都走主库，保证能读到自己刚写入的数据。
+ * 开启连接池分区后还记录当前调用使用的分区。
+ */
+public final class DataSourceContextHolder {
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> WRITTEN = new ThreadLocal<>();
+    private static final ThreadLocal<String> PARTITION = new ThreadLocal<>();
+
+    private DataSourceContextHolder() {
+    }
+
+    /**
+     * 获取只读标记，未设置时返回null
+     */
+    public static Boolean getReadOnly() {
+        return READ_ONLY.get();
+    }
+
+    /**
+     * 设置只读标记，传入null表示清除
+     */
+    public static void setReadOnly(Boolean readOnly) {
+        set(READ_ONLY, readOnly);
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+
+    /**
+     * 标记当前请求已经执行过写操作
+     */
+    public static void markWritten() {
+        WRITTEN.set(Boolean.TRUE);
+    }
+
+    public static boolean isWritten() {
+        return Boolean.TRUE.equals(WRITTEN.get());
+    }
+
+    /**
+     * 获取连接池分区，未设置时返回null
+     */
+    public static String getPartition() {
+        return PARTITION.get();
+    }
+
+    /**
+     * 设置连接池分区，传入null表示清除
+     */
+    public static void setPartition(String partition) {
+        set(PARTITION, partition);
+    }
+
+    /**
+     * 请求结束时清除上下文
+     */
+    public static void clear() {
+        READ_ONLY.remove();
+        WRITTEN.remove();
+        PARTITION.remove();
+    }
+
+    /**
+     * 把提交线程的路由上下文带到线程池中执行的任务里，任务结束后恢复执行线程原有的上下文
+     */
+    public static Runnable wrap(Runnable task) {
+        Boolean readOnly = READ_ONLY.get();
+        Boolean written = WRITTEN.get();
+        String partition = PARTITION.get();
+        return () -> {
+            Boolean previousReadOnly = READ_ONLY.get();
+            Boolean previousWritten = WRITTEN.get();
+            String previousPartition = PARTITION.get();
+            set(READ_ONLY, readOnly);
+            set(WRITTEN, written);
+            set(PARTITION, partition);
+            try {
+                task.run();
+            } finally {
+                set(READ_ONLY, previousReadOnly);
+                set(WRITTEN, previousWritten);
+                set(PARTITION, previousPartition);
+            }
+        };
+    }
+
+    private static <T> void set(ThreadLocal<T> holder, T value) {
+        if (value == null) {
+            holder.remove();
+        } else {
+            holder.set(value);
+        }
+    }
+}
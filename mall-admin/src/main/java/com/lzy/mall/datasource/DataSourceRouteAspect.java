@@ -0,0 +1,79 @@
+package com.lzy.mall.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据源路由切面
+ * 拦截Service方法，方法或类上（包括实现的接口）标注了@ReadOnly、@PoolPartition时设置对应的路由标记，方法结束后恢复。
+ * 外层方法已经设置过标记时不再覆盖，由最外层的调用决定路由。
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DataSourceRouteAspect {
+    private final Map<Method, Route> routeCache = new ConcurrentHashMap<>();
+
+    @Pointcut("execution(public * com.lzy.mall.service..*.*(..))")
+    public void service() {
+    }
+
+    @Around("service()")
+    public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Route route = routeCache.computeIfAbsent(AopUtils.getMostSpecificMethod(method, targetClass),
+                key -> resolveRoute(key, targetClass));
+        boolean setReadOnly = route.readOnly && DataSourceContextHolder.getReadOnly() == null;
+        boolean setPartition = route.partition != null && DataSourceContextHolder.getPartition() == null;
+        if (!setReadOnly && !setPartition) {
+            return joinPoint.proceed();
+        }
+        if (setReadOnly) {
+            DataSourceContextHolder.setReadOnly(true);
+        }
+        if (setPartition) {
+            DataSourceContextHolder.setPartition(route.partition);
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (setReadOnly) {
+                DataSourceContextHolder.setReadOnly(null);
+            }
+            if (setPartition) {
+                DataSourceContextHolder.setPartition(null);
+            }
+        }
+    }
+
+    private Route resolveRoute(Method method, Class<?> targetClass) {
+        boolean readOnly = AnnotationUtils.findAnnotation(method, ReadOnly.class) != null
+                || AnnotationUtils.findAnnotation(targetClass, ReadOnly.class) != null;
+        PoolPartition partition = AnnotationUtils.findAnnotation(method, PoolPartition.class);
+        if (partition == null) {
+            partition = AnnotationUtils.findAnnotation(targetClass, PoolPartition.class);
+        }
+        return new Route(readOnly, partition != null ? partition.value() : null);
+    }
+
+    private static class Route {
+        private final boolean readOnly;
+        private final String partition;
+
+        private Route(boolean readOnly, String partition) {
+            this.readOnly = readOnly;
+            this.partition = partition;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.lzy.mall.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 数据源路由上下文清理过滤器
+ * 以请求为单位维护“写后读主库”的标记，请求结束后清除，避免线程复用时影响下一个请求
+ */
+public class DataSourceRouteFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        DataSourceContextHolder.clear();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceContextHolder.clear();
+        }
+    }
+}
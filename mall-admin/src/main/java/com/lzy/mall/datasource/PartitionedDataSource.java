@@ -0,0 +1,98 @@
+package com.lzy.mall.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分区连接池数据源
+ * 按当前线程的分区名称选择连接池，每个分区有独立的最大连接数和等待超时，
+ * 某个分区被占满时只影响该分区的调用。未设置分区或分区不存在时使用默认分区。
+ */
+public class PartitionedDataSource extends AbstractDataSource implements AutoCloseable {
+    private final Map<String, DataSource> partitions;
+    private final Map<String, PoolStats> stats = new LinkedHashMap<>();
+    private final String defaultPartition;
+
+    /**
+     * @param partitions       分区连接池，key为分区名称
+     * @param defaultPartition 默认分区名称
+     */
+    public PartitionedDataSource(Map<String, DataSource> partitions, String defaultPartition) {
+        if (!partitions.containsKey(defaultPartition)) {
+            throw new IllegalArgumentException("默认连接池分区[" + defaultPartition + "]未配置");
+        }
+        this.partitions = new LinkedHashMap<>(partitions);
+        this.defaultPartition = defaultPartition;
+        partitions.keySet().forEach(name -> stats.put(name, new PoolStats()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String partition = determinePartition();
+        return open(partition, () -> partitions.get(partition).getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        String partition = determinePartition();
+        return open(partition, () -> partitions.get(partition).getConnection(username, password));
+    }
+
+    private String determinePartition() {
+        String partition = DataSourceContextHolder.getPartition();
+        return partition != null && partitions.containsKey(partition) ? partition : defaultPartition;
+    }
+
+    private Connection open(String partition, ConnectionOpener opener) throws SQLException {
+        PoolStats poolStats = stats.get(partition);
+        long start = System.nanoTime();
+        try {
+            Connection connection = opener.open();
+            poolStats.recordAcquired(start);
+            return connection;
+        } catch (SQLException e) {
+            poolStats.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取所有分区连接池
+     */
+    public Map<String, DataSource> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * 获取各分区的获取连接统计
+     */
+    public Map<String, PoolStats> getStats() {
+        return stats;
+    }
+
+    public String getDefaultPartition() {
+        return defaultPartition;
+    }
+
+    /**
+     * 关闭所有分区连接池
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : partitions.values()) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open() throws SQLException;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lzy.mall.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 连接池分区标记
+ * 标注在Service接口或实现类的方法（或类）上，开启连接池分区后方法内的SQL使用指定分区的连接池，
+ * 避免大批量操作、报表扫描占满连接池导致页面交互请求获取不到连接。
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PoolPartition {
+    /**
+     * 页面交互请求，未标注的方法默认使用此分区
+     */
+    String INTERACTIVE = "interactive";
+    /**
+     * 批量更新、级联更新等耗时写操作
+     */
+    String BULK = "bulk";
+    /**
+     * 大范围扫描、导出等报表类查询
+     */
+    String REPORTING = "reporting";
+
+    /**
+     * 分区名称，需要在 datasource.partition.pools 中配置
+     */
+    String value();
+}
@@ -0,0 +1,54 @@
+package com.lzy.mall.datasource;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池路由统计
+ */
+public class PoolStats {
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder acquireMillis = new LongAdder();
+
+    void recordAcquired(long startNanos) {
+        acquired.increment();
+        acquireMillis.add((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    void recordFallback() {
+        fallbacks.increment();
+    }
+
+    /**
+     * 路由到该连接池并成功获取的连接数
+     */
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * 获取连接失败次数，包括等待超时
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * 从库全部不可用时回退到主库的次数，只在主库上统计
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * 获取连接的累计耗时（毫秒），除以获取次数即为平均等待时间
+     */
+    public long getAcquireMillis() {
+        return acquireMillis.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.lzy.mall.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 只读方法标记
+ * 标注在Service接口或实现类的方法（或类）上，开启读写分离后方法内的查询会路由到从库。
+ * 当前请求已经执行过写操作，或者方法运行在读写事务中时，仍然使用主库。
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
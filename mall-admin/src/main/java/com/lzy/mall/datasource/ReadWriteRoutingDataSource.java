@@ -0,0 +1,150 @@
+package com.lzy.mall.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离路由数据源
+ * 只读调用（@ReadOnly 或只读事务）轮询使用从库，其余调用以及已经写过数据的请求使用主库。
+ * 从库获取连接失败时会在一段时间内跳过该从库，所有从库都不可用时回退到主库。
+ * 需要配合 LazyConnectionDataSourceProxy 使用，使路由发生在第一条SQL执行时而不是事务开始时。
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final PoolStats primaryStats = new PoolStats();
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long retryIntervalMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * @param primary             主库
+     * @param replicas            从库，key为连接池名称
+     * @param retryIntervalMillis 从库获取连接失败后暂停使用的时间
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long retryIntervalMillis) {
+        this.primary = primary;
+        this.retryIntervalMillis = retryIntervalMillis;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * 判断当前调用是否可以使用从库
+     */
+    protected boolean useReplica() {
+        if (replicas.isEmpty() || DataSourceContextHolder.isWritten()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return DataSourceContextHolder.isReadOnly();
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (useReplica()) {
+            int size = replicas.size();
+            int first = Math.floorMod(nextReplica.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((first + i) % size);
+                if (replica.isSuspended()) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    Connection connection = opener.open(replica.dataSource);
+                    replica.stats.recordAcquired(start);
+                    return connection;
+                } catch (SQLException e) {
+                    replica.stats.recordFailure();
+                    replica.suspendedUntil = System.currentTimeMillis() + retryIntervalMillis;
+                    LOGGER.warn("从库[{}]获取连接失败，暂停使用{}ms：{}", replica.name, retryIntervalMillis, e.getMessage());
+                }
+            }
+            primaryStats.recordFallback();
+        }
+        long start = System.nanoTime();
+        try {
+            Connection connection = opener.open(primary);
+            primaryStats.recordAcquired(start);
+            return connection;
+        } catch (SQLException e) {
+            primaryStats.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取所有连接池，主库在前
+     */
+    public Map<String, DataSource> getPools() {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        pools.put(PRIMARY, primary);
+        replicas.forEach(replica -> pools.put(replica.name, replica.dataSource));
+        return pools;
+    }
+
+    /**
+     * 获取各连接池的路由统计
+     */
+    public Map<String, PoolStats> getStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        stats.put(PRIMARY, primaryStats);
+        replicas.forEach(replica -> stats.put(replica.name, replica.stats));
+        return stats;
+    }
+
+    /**
+     * 关闭从库连接池，主库连接池同样由本数据源负责关闭
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : getPools().values()) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final PoolStats stats = new PoolStats();
+        private volatile long suspendedUntil;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private boolean isSuspended() {
+            return System.currentTimeMillis() < suspendedUntil;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.lzy.mall.datasource;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写操作跟踪插件
+ * 拦截MyBatis的insert/update/delete，标记当前请求已经写过数据，之后的查询不再路由到从库
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class WriteTrackingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        DataSourceContextHolder.markWritten();
+        return invocation.proceed();
+    }
+}
@@ -0,0 +1,42 @@
+package com.lzy.mall.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 订单导出行
+ * 只包含导出需要的字段；包含订单商品时每个商品一行，订单字段在各行重复
+ */
+@Getter
+@Setter
+public class OmsOrderExportRow {
+    private Long id;
+    private String orderSn;
+    private Date createTime;
+    private String memberUsername;
+    private BigDecimal totalAmount;
+    private BigDecimal payAmount;
+    private BigDecimal freightAmount;
+    private BigDecimal promotionAmount;
+    private BigDecimal integrationAmount;
+    private BigDecimal couponAmount;
+    private BigDecimal discountAmount;
+    private Integer payType;
+    private Integer sourceType;
+    private Integer status;
+    private Integer orderType;
+    private Date paymentTime;
+    private String deliveryCompany;
+    private String deliverySn;
+    private String receiverName;
+    private String receiverPhone;
+    private String productSn;
+    private String productName;
+    private String productSkuCode;
+    private BigDecimal productPrice;
+    private Integer productQuantity;
+    private BigDecimal realAmount;
+}
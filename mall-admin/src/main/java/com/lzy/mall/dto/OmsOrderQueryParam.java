@@ -1,9 +1,12 @@
 package com.lzy.mall.dto;
 
+import com.lzy.mall.common.util.DateRangeUtil;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Date;
+
 /**
  * 订单查询参数
  */
@@ -22,4 +25,20 @@ public class OmsOrderQueryParam {
     private Integer sourceType;
     @Schema(description = "订单提交时间")
     private String createTime;
+
+    /**
+     * 订单提交时间区间开始（包含），由createTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getCreateTimeBegin() {
+        return DateRangeUtil.getPrefixBegin(createTime);
+    }
+
+    /**
+     * 订单提交时间区间结束（不包含），由createTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getCreateTimeEnd() {
+        return DateRangeUtil.getPrefixEnd(createTime);
+    }
 }
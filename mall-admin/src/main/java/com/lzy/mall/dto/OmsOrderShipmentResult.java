@@ -0,0 +1,63 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 物流单号文件批量发货结果
+ */
+@Getter
+@Setter
+public class OmsOrderShipmentResult {
+    @Schema(description = "文件名")
+    private String fileName;
+    @Schema(description = "已读取行数")
+    private Integer total;
+    @Schema(description = "发货成功数")
+    private Integer shippedCount;
+    @Schema(description = "订单状态不是待发货而跳过的数量")
+    private Integer skippedCount;
+    @Schema(description = "订单不存在的数量")
+    private Integer notFoundCount;
+    @Schema(description = "数据不完整或写入失败的数量")
+    private Integer failCount;
+    @Schema(description = "按顺序排列的每行处理结果")
+    private List<Item> items;
+    @Schema(description = "分批处理的批数")
+    private Integer chunkCount;
+    @Schema(description = "耗时（毫秒）")
+    private Long elapsedMillis;
+    @Schema(description = "处理速度（行/秒）")
+    private Double rowsPerSecond;
+
+    /**
+     * 单行处理结果
+     */
+    @Getter
+    @Setter
+    public static class Item {
+        public static final int RESULT_SHIPPED = 0;
+        public static final int RESULT_SKIPPED = 1;
+        public static final int RESULT_NOT_FOUND = 2;
+        public static final int RESULT_FAILED = 3;
+
+        @Schema(description = "文件中的行号")
+        private Long lineNumber;
+        @Schema(description = "订单编号")
+        private String orderSn;
+        @Schema(description = "订单ID，订单不存在时为空")
+        private Long orderId;
+        @Schema(description = "处理结果：0->已发货；1->状态不是待发货，已跳过；2->订单不存在；3->数据不完整或写入失败")
+        private Integer result;
+        @Schema(description = "未发货的原因")
+        private String message;
+
+        public Item(Long lineNumber, String orderSn) {
+            this.lineNumber = lineNumber;
+            this.orderSn = orderSn;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单批量操作结果
+ */
+@Getter
+@Setter
+public class OmsOrderTransitionResult {
+    @Schema(description = "操作成功的订单ID")
+    private List<Long> successIds = new ArrayList<>();
+    @Schema(description = "未能操作的订单及原因")
+    private List<Conflict> conflicts = new ArrayList<>();
+
+    /**
+     * 未能操作的订单
+     */
+    @Getter
+    @Setter
+    public static class Conflict {
+        public static final int REASON_NOT_FOUND = 0;
+        public static final int REASON_ILLEGAL_STATUS = 1;
+        public static final int REASON_CONCURRENT_MODIFIED = 2;
+
+        @Schema(description = "订单ID")
+        private Long orderId;
+        @Schema(description = "订单当前状态，订单不存在时为空")
+        private Integer status;
+        @Schema(description = "原因：0->订单不存在或已删除；1->当前状态不允许该操作；2->已被其他操作修改")
+        private Integer reason;
+        @Schema(description = "原因说明")
+        private String message;
+
+        public Conflict(Long orderId, Integer status, Integer reason, String message) {
+            this.orderId = orderId;
+            this.status = status;
+            this.reason = reason;
+            this.message = message;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.lzy.mall.dto;
 
+import com.lzy.mall.common.util.DateRangeUtil;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Date;
+
 /**
  * 订单退货申请查询参数
  */
@@ -22,4 +25,36 @@ public class OmsReturnApplyQueryParam {
     private String handleMan;
      @Schema(description = "处理时间")
     private String handleTime;
+
+    /**
+     * 申请时间区间开始（包含），由createTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getCreateTimeBegin() {
+        return DateRangeUtil.getPrefixBegin(createTime);
+    }
+
+    /**
+     * 申请时间区间结束（不包含），由createTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getCreateTimeEnd() {
+        return DateRangeUtil.getPrefixEnd(createTime);
+    }
+
+    /**
+     * 处理时间区间开始（包含），由handleTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getHandleTimeBegin() {
+        return DateRangeUtil.getPrefixBegin(handleTime);
+    }
+
+    /**
+     * 处理时间区间结束（不包含），由handleTime前缀换算得到
+     */
+    @Schema(hidden = true)
+    public Date getHandleTimeEnd() {
+        return DateRangeUtil.getPrefixEnd(handleTime);
+    }
 }
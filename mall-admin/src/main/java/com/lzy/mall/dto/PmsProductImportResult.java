@@ -0,0 +1,60 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 商品批量导入进度及结果
+ */
+@Getter
+@Setter
+public class PmsProductImportResult {
+    @Schema(description = "导入任务ID")
+    private String taskId;
+    @Schema(description = "导入文件名")
+    private String fileName;
+    @Schema(description = "任务状态：0->进行中；1->已完成；2->异常终止")
+    private Integer status;
+    @Schema(description = "已读取行数")
+    private Integer total;
+    @Schema(description = "导入成功数")
+    private Integer successCount;
+    @Schema(description = "导入失败数")
+    private Integer failCount;
+    @Schema(description = "失败行明细，最多保留前1000条")
+    private List<RowError> errors;
+    @Schema(description = "任务终止原因")
+    private String message;
+    @Schema(description = "开始时间")
+    private Date startTime;
+    @Schema(description = "结束时间")
+    private Date endTime;
+    @Schema(description = "已耗时（毫秒）")
+    private Long elapsedMillis;
+    @Schema(description = "导入速度（个/秒）")
+    private Double productsPerSecond;
+
+    /**
+     * 导入失败的行
+     */
+    @Getter
+    @Setter
+    public static class RowError {
+        @Schema(description = "文件中的行号")
+        private Long lineNumber;
+        @Schema(description = "商品货号")
+        private String productSn;
+        @Schema(description = "失败原因")
+        private String message;
+
+        public RowError(Long lineNumber, String productSn, String message) {
+            this.lineNumber = lineNumber;
+            this.productSn = productSn;
+            this.message = message;
+        }
+    }
+}
@@ -19,6 +19,8 @@ public class PmsProductQueryParam {
     private String productSn;
     @Schema(description = "商品分类编号")
     private Long productCategoryId;
+    @Schema(description = "商品分类编号，包含该分类下所有子分类的商品")
+    private Long productCategorySubtreeId;
     @Schema(description = "商品品牌编号")
     private Long brandId;
 }
@@ -0,0 +1,17 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 查询适用优惠券的商品
+ */
+@Getter
+@Setter
+public class SmsCouponApplyItem {
+    @Schema(description = "商品ID")
+    private Long productId;
+    @Schema(description = "商品分类ID")
+    private Long productCategoryId;
+}
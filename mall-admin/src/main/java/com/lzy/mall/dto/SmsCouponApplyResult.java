@@ -0,0 +1,35 @@
+package com.lzy.mall.dto;
+
+import com.lzy.mall.model.SmsCoupon;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一组商品适用的优惠券
+ */
+@Getter
+@Setter
+public class SmsCouponApplyResult {
+    @Schema(description = "至少适用于一个商品的优惠券，按ID升序排列")
+    private List<SmsCoupon> couponList = new ArrayList<>();
+    @Schema(description = "每个商品适用的优惠券，与查询的商品顺序相同")
+    private List<Item> itemList = new ArrayList<>();
+
+    /**
+     * 商品适用的优惠券
+     */
+    @Getter
+    @Setter
+    public static class Item {
+        @Schema(description = "商品ID")
+        private Long productId;
+        @Schema(description = "商品分类ID")
+        private Long productCategoryId;
+        @Schema(description = "适用的优惠券ID")
+        private List<Long> couponIds;
+    }
+}
@@ -0,0 +1,27 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 优惠券领取状态
+ */
+@Getter
+@Setter
+public class SmsCouponClaimStatus {
+    @Schema(description = "优惠券ID")
+    private Long couponId;
+    @Schema(description = "优惠券名称")
+    private String name;
+    @Schema(description = "数据库中的剩余数量（已扣除写入的领取记录）")
+    private Integer count;
+    @Schema(description = "数据库中的领取数量")
+    private Integer receiveCount;
+    @Schema(description = "每人限领数量")
+    private Integer perLimit;
+    @Schema(description = "Redis中的剩余数量")
+    private Long stock;
+    @Schema(description = "待写入数据库的领取记录数")
+    private Long queued;
+}
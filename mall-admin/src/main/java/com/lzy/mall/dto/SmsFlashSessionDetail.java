@@ -0,0 +1,30 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 某一天的秒杀场次及其商品
+ */
+@Getter
+@Setter
+public class SmsFlashSessionDetail {
+    @Schema(description = "秒杀活动ID")
+    private Long flashPromotionId;
+    @Schema(description = "秒杀活动标题")
+    private String flashPromotionTitle;
+    @Schema(description = "秒杀场次ID")
+    private Long flashPromotionSessionId;
+    @Schema(description = "场次名称")
+    private String sessionName;
+    @Schema(description = "本场开始时间")
+    private Date startTime;
+    @Schema(description = "本场结束时间")
+    private Date endTime;
+    @Schema(description = "按排序排列的场次商品")
+    private List<SmsFlashSessionProduct> productList;
+}
@@ -0,0 +1,37 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * 秒杀场次中的商品
+ */
+@Getter
+@Setter
+public class SmsFlashSessionProduct {
+    @Schema(description = "秒杀商品关系ID")
+    private Long relationId;
+    @Schema(description = "秒杀活动ID")
+    private Long flashPromotionId;
+    @Schema(description = "秒杀场次ID")
+    private Long flashPromotionSessionId;
+    @Schema(description = "商品ID")
+    private Long productId;
+    @Schema(description = "商品名称")
+    private String productName;
+    @Schema(description = "商品图片")
+    private String productPic;
+    @Schema(description = "商品原价")
+    private BigDecimal productPrice;
+    @Schema(description = "秒杀价格")
+    private BigDecimal flashPromotionPrice;
+    @Schema(description = "秒杀数量")
+    private Integer flashPromotionCount;
+    @Schema(description = "每人限购数量")
+    private Integer flashPromotionLimit;
+    @Schema(description = "排序")
+    private Integer sort;
+}
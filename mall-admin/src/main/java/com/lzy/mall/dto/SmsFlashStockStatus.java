@@ -0,0 +1,33 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 秒杀商品库存状态
+ */
+@Getter
+@Setter
+public class SmsFlashStockStatus {
+    @Schema(description = "秒杀商品关系ID")
+    private Long relationId;
+    @Schema(description = "商品ID")
+    private Long productId;
+    @Schema(description = "数据库中的秒杀数量（已扣除写回的扣减）")
+    private Integer promotionCount;
+    @Schema(description = "每人限购数量")
+    private Integer promotionLimit;
+    @Schema(description = "秒杀活动结束日期")
+    private Date promotionEndDate;
+    @Schema(description = "Redis中剩余可预留数量")
+    private Long stock;
+    @Schema(description = "预留中（未支付）的数量")
+    private Long reserved;
+    @Schema(description = "已确认待写回数据库的数量")
+    private Long pending;
+    @Schema(description = "正在写回数据库的数量")
+    private Long flushing;
+}
@@ -0,0 +1,28 @@
+package com.lzy.mall.dto;
+
+import com.lzy.mall.model.CmsSubject;
+import com.lzy.mall.model.PmsBrand;
+import com.lzy.mall.model.SmsHomeAdvertise;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 首页内容
+ */
+@Getter
+@Setter
+public class SmsHomeContent {
+    @Schema(description = "当前时间在投放时间内的轮播广告")
+    private List<SmsHomeAdvertise> advertiseList;
+    @Schema(description = "推荐品牌")
+    private List<PmsBrand> brandList;
+    @Schema(description = "新品推荐")
+    private List<SmsHomeProduct> newProductList;
+    @Schema(description = "人气推荐")
+    private List<SmsHomeProduct> hotProductList;
+    @Schema(description = "推荐专题")
+    private List<CmsSubject> subjectList;
+}
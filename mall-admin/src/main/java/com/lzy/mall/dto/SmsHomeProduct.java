@@ -0,0 +1,29 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * 首页展示的商品
+ */
+@Getter
+@Setter
+public class SmsHomeProduct {
+    @Schema(description = "商品ID")
+    private Long id;
+    @Schema(description = "商品名称")
+    private String name;
+    @Schema(description = "副标题")
+    private String subTitle;
+    @Schema(description = "商品图片")
+    private String pic;
+    @Schema(description = "价格")
+    private BigDecimal price;
+    @Schema(description = "市场价")
+    private BigDecimal originalPrice;
+    @Schema(description = "销量")
+    private Integer sale;
+}
@@ -0,0 +1,26 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 批量发放积分、成长值参数
+ */
+@Getter
+@Setter
+public class UmsLedgerGrantParam {
+    @NotNull
+    @Schema(description = "账本类型：0->积分；1->成长值")
+    private Integer ledgerType;
+    @NotNull
+    @Min(1)
+    @Schema(description = "每个会员发放的数量")
+    private Integer changeCount;
+    @Schema(description = "只发放给该等级的会员，为空时发放给全部会员")
+    private Long memberLevelId;
+    @Schema(description = "操作备注")
+    private String operateNote;
+}
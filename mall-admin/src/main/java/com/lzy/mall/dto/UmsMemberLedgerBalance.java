@@ -0,0 +1,25 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 会员积分、成长值余额
+ */
+@Getter
+@Setter
+public class UmsMemberLedgerBalance {
+    @Schema(description = "会员ID")
+    private Long memberId;
+    @Schema(description = "积分余额")
+    private Long integration;
+    @Schema(description = "成长值")
+    private Long growth;
+    @Schema(description = "积分快照时间，之后的变化记录在读取时累加")
+    private Date integrationSnapshotTime;
+    @Schema(description = "成长值快照时间，之后的变化记录在读取时累加")
+    private Date growthSnapshotTime;
+}
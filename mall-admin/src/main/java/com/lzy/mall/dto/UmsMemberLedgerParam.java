@@ -0,0 +1,32 @@
+package com.lzy.mall.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 修改会员积分、成长值参数
+ */
+@Getter
+@Setter
+public class UmsMemberLedgerParam {
+    @NotNull
+    @Schema(description = "会员ID")
+    private Long memberId;
+    @NotNull
+    @Schema(description = "账本类型：0->积分；1->成长值")
+    private Integer ledgerType;
+    @NotNull
+    @Schema(description = "改变类型：0->增加；1->减少")
+    private Integer changeType;
+    @NotNull
+    @Min(1)
+    @Schema(description = "改变数量")
+    private Integer changeCount;
+    @Schema(description = "操作备注")
+    private String operateNote;
+    @Schema(description = "事件幂等键，重复提交同一键时只记录一次；为空时自动生成")
+    private String eventKey;
+}
@@ -0,0 +1,36 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.DenormalizeTask;
+import com.lzy.mall.datasource.PoolPartition;
+
+import java.util.List;
+
+/**
+ * 冗余字段异步更新Service
+ */
+public interface DenormalizeService {
+    /**
+     * 提交冗余字段更新任务，应与来源记录的修改在同一个事务中调用
+     * 同一来源记录未完成的旧任务会被取代
+     * @param target   冗余字段注册名称，见 DenormalizeRegistry
+     * @param sourceId 来源记录ID
+     * @param value    新的字段值
+     */
+    void submit(String target, Long sourceId, String value);
+
+    /**
+     * 领取待处理的任务并提交到冗余字段更新线程池执行，由定时任务调用
+     */
+    @PoolPartition(PoolPartition.BULK)
+    void runPendingTasks();
+
+    /**
+     * 分页查询任务及进度
+     */
+    List<DenormalizeTask> list(Integer status, Integer pageSize, Integer pageNum);
+
+    /**
+     * 重试失败的任务
+     */
+    int retry(Long id);
+}
@@ -0,0 +1,60 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.model.OmsCartItem;
+
+import java.util.List;
+
+/**
+ * 购物车Service
+ * 会员购物车保存在Redis的hash中，首次访问时从 oms_cart_item 加载；修改只写Redis并标记待写入，
+ * 由后台把同一会员的多次修改合并为一次整体写入。游客购物车只保存在Redis中，登录后合并到会员购物车。
+ */
+public interface OmsCartService {
+    /**
+     * 获取会员购物车，商品信息和价格为当前值
+     */
+    List<OmsCartItem> list(Long memberId);
+
+    /**
+     * 添加商品到会员购物车，已存在时累加数量
+     */
+    void add(Long memberId, String memberNickname, Long productSkuId, int quantity);
+
+    /**
+     * 修改会员购物车中商品的数量
+     */
+    void updateQuantity(Long memberId, Long productSkuId, int quantity);
+
+    /**
+     * 删除会员购物车中的商品
+     */
+    void delete(Long memberId, List<Long> productSkuIds);
+
+    /**
+     * 清空会员购物车
+     */
+    void clear(Long memberId);
+
+    /**
+     * 获取游客购物车
+     */
+    List<OmsCartItem> listGuest(String guestId);
+
+    /**
+     * 添加商品到游客购物车，已存在时累加数量
+     */
+    void addGuest(String guestId, Long productSkuId, int quantity);
+
+    /**
+     * 游客登录后把游客购物车合并到会员购物车，相同商品的数量累加，合并后删除游客购物车
+     */
+    void merge(Long memberId, String memberNickname, String guestId);
+
+    /**
+     * 把有修改的会员购物车写入数据库
+     * @return 写入的会员数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int flush();
+}
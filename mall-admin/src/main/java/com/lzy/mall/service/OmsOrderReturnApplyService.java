@@ -1,5 +1,7 @@
 package com.lzy.mall.service;
 
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.datasource.ReadOnly;
 import com.lzy.mall.dto.OmsOrderReturnApplyResult;
 import com.lzy.mall.dto.OmsReturnApplyQueryParam;
 import com.lzy.mall.dto.OmsUpdateStatusParam;
@@ -14,8 +16,15 @@ public interface OmsOrderReturnApplyService {
     /**
      * 分页查询申请
      */
+    @ReadOnly
     List<OmsOrderReturnApply> list(OmsReturnApplyQueryParam queryParam, Integer pageSize, Integer pageNum);
 
+    /**
+     * 游标分页查询申请（按ID倒序，不统计总数）
+     */
+    @ReadOnly
+    CommonPage<OmsOrderReturnApply> list(OmsReturnApplyQueryParam queryParam, String cursor, Integer pageSize);
+
     /**
      * 批量删除申请
      */
@@ -29,5 +38,6 @@ public interface OmsOrderReturnApplyService {
     /**
      * 获取指定申请详情
      */
+    @ReadOnly
     OmsOrderReturnApplyResult getItem(Long id);
 }
@@ -1,9 +1,13 @@
 package com.lzy.mall.service;
 
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.datasource.ReadOnly;
 import com.lzy.mall.dto.*;
 import com.lzy.mall.model.OmsOrder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -13,44 +17,72 @@ public interface OmsOrderService {
     /**
      * 分页查询订单
      */
+    @ReadOnly
     List<OmsOrder> list(OmsOrderQueryParam queryParam, Integer pageSize, Integer pageNum);
 
+    /**
+     * 游标分页查询订单（按ID倒序，不统计总数）
+     */
+    @ReadOnly
+    CommonPage<OmsOrder> list(OmsOrderQueryParam queryParam, String cursor, Integer pageSize);
+
+    /**
+     * 按查询条件流式导出订单CSV
+     * @param includeItems 是否包含订单商品，包含时每个商品一行
+     * @param writer       输出目标，方法内只刷新不关闭
+     */
+    @ReadOnly
+    @PoolPartition(PoolPartition.REPORTING)
+    void export(OmsOrderQueryParam queryParam, boolean includeItems, Writer writer);
+
     /**
      * 批量发货
      */
     @Transactional
+    @PoolPartition(PoolPartition.BULK)
     int delivery(List<OmsOrderDeliveryParam> deliveryParamList);
 
     /**
-     * 批量关闭订单
+     * 批量关闭订单，只有待付款的订单可以关闭
+     * 不加锁读取订单状态后按 (id, status, version) 比较后更新，被其他操作修改的订单作为冲突返回
      */
-    @Transactional
-    int close(List<Long> ids, String note);
+    @PoolPartition(PoolPartition.BULK)
+    OmsOrderTransitionResult close(List<Long> ids, String note);
 
     /**
-     * 批量删除订单
+     * 批量删除订单，只有已完成、已关闭、无效的订单可以删除
      */
-    int delete(List<Long> ids);
+    @PoolPartition(PoolPartition.BULK)
+    OmsOrderTransitionResult delete(List<Long> ids);
 
     /**
      * 获取指定订单详情
      */
+    @ReadOnly
     OmsOrderDetail detail(Long id);
 
     /**
-     * 修改订单收货人信息
+     * 批量获取订单详情
+     */
+    @ReadOnly
+    List<OmsOrderDetail> details(List<Long> ids);
+
+    /**
+     * 修改订单收货人信息，发货后不能修改
+     * 参数中的订单状态不为空时必须与当前状态一致，订单已被其他操作修改时提示刷新
      */
     @Transactional
     int updateReceiverInfo(OmsReceiverInfoParam receiverInfoParam);
 
     /**
-     * 修改订单费用信息
+     * 修改订单费用信息，付款后不能修改
      */
     @Transactional
     int updateMoneyInfo(OmsMoneyInfoParam moneyInfoParam);
 
     /**
      * 修改订单备注
+     * @param status 调用方看到的订单状态，不为空时必须与当前状态一致
      */
     @Transactional
     int updateNote(Long id, String note, Integer status);
@@ -0,0 +1,29 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.dto.OmsOrderDeliveryParam;
+import com.lzy.mall.dto.OmsOrderShipmentResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * 订单发货Service
+ * 按固定大小分批锁定订单、更新待发货的订单并批量记录操作历史，单条SQL的长度不随发货数量增长
+ */
+public interface OmsOrderShipmentService {
+    /**
+     * 批量发货，在调用方的事务中执行，只处理待发货的订单
+     * @return 实际发货的订单数
+     */
+    int delivery(List<OmsOrderDeliveryParam> deliveryParamList);
+
+    /**
+     * 按物流公司提供的CSV文件批量发货
+     * 文件首行为表头，包含orderSn（订单编号）、deliveryCompany（物流公司）、deliverySn（物流单号）三列，
+     * 边读取边按批处理，每批一个事务，单批失败不影响其他批次
+     * @return 每行的处理结果及处理速度
+     */
+    @PoolPartition(PoolPartition.BULK)
+    OmsOrderShipmentResult importShipments(MultipartFile file);
+}
@@ -0,0 +1,38 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.OrderTimeout;
+import com.lzy.mall.datasource.PoolPartition;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 订单超时处理Service
+ * 按订单设置计算待付款订单的自动关闭时间和已发货订单的自动确认收货时间，并批量处理到期的订单
+ */
+public interface OmsOrderTimeoutService {
+    /**
+     * 为尚未计算超时时间的订单计算并写入超时时间，无法计算的订单写入 OrderTimeout.NEVER
+     * @return 本次写入的超时处理项，数量与选出的订单数一致
+     */
+    @PoolPartition(PoolPartition.BULK)
+    List<OrderTimeout> schedule(int limit);
+
+    /**
+     * 按(超时时间, ID)顺序查询指定状态、超时时间不晚于toTime的订单，afterTime为空时从最早的开始
+     */
+    List<OrderTimeout> listDue(Integer status, Date afterTime, Long afterId, Date toTime, int limit);
+
+    /**
+     * 处理到期的订单：待付款订单自动关闭并释放锁定库存，已发货订单自动确认收货，并批量记录操作历史
+     * 订单状态已变化或超时时间未到的订单会被跳过，重复处理同一订单不会产生影响
+     * @return 实际处理的订单数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int expire(Integer status, List<Long> orderIds);
+
+    /**
+     * 订单设置修改后清空未处理订单的超时时间，按新设置重新计算
+     */
+    int reschedule();
+}
@@ -0,0 +1,23 @@
+package com.lzy.mall.service;
+
+/**
+ * 分页总数缓存管理Service
+ */
+public interface PageCountCacheService {
+    /**
+     * 获取缓存的分页总数
+     * @param table 查询的数据表
+     * @param filterKey 规范化后的查询条件
+     */
+    Long getCount(String table, String filterKey);
+
+    /**
+     * 设置缓存的分页总数
+     */
+    void setCount(String table, String filterKey, long count);
+
+    /**
+     * 数据表发生写操作时使该表所有分页总数缓存失效
+     */
+    void delCount(String table);
+}
@@ -0,0 +1,26 @@
+package com.lzy.mall.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数Service
+ * 配合 PageHelper.startPage(pageNum, pageSize, false) 使用，用缓存或表统计信息代替每次翻页时的COUNT(*)
+ */
+public interface PageCountService {
+    /**
+     * 为不带count查询的分页结果填充总条数
+     * @param pageList 关闭count后PageHelper返回的分页结果
+     * @param table 查询的数据表
+     * @param filter 查询参数对象，空值字段会被忽略
+     * @param counter 缓存未命中时执行的精确计数查询
+     * @return 已填充总条数的分页结果
+     */
+    <T> List<T> fillTotal(List<T> pageList, String table, Object filter, Supplier<Long> counter);
+
+    /**
+     * 数据表发生写操作后调用，使该表的分页总数缓存失效
+     * 在事务中调用时于事务提交后才失效
+     */
+    void evict(String table);
+}
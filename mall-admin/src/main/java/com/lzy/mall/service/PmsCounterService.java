@@ -0,0 +1,22 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.datasource.PoolPartition;
+
+/**
+ * 商品相关计数列维护Service
+ * 商品分类的商品数量、属性分类的规格和参数数量由写操作产生增量并定时批量写入，再定期按实际数据校正
+ */
+public interface PmsCounterService {
+    /**
+     * 将缓冲区中的计数增量批量写入数据库
+     */
+    void flush();
+
+    /**
+     * 按实际数据重新统计计数列，校正增量丢失（如节点宕机）导致的偏差
+     * 同一时间只有一个节点执行，各节点在统计之前记录的增量不会再写入
+     * @return 被校正的记录数，其他节点正在校正时返回0
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int reconcile();
+}
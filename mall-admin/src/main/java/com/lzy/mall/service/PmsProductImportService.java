@@ -0,0 +1,21 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.dto.PmsProductImportResult;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 商品批量导入Service
+ */
+public interface PmsProductImportService {
+    /**
+     * 提交导入任务，文件在后台逐行读取、并行校验、分批写入
+     * 支持CSV（首行为表头，列名为商品字段名，只包含商品基本信息）和JSON Lines（每行一个与创建商品参数相同的JSON）
+     * @return 导入任务ID
+     */
+    String importProducts(MultipartFile file);
+
+    /**
+     * 获取导入任务的进度及失败明细
+     */
+    PmsProductImportResult getResult(String taskId);
+}
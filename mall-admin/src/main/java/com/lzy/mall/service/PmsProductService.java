@@ -1,5 +1,8 @@
 package com.lzy.mall.service;
 
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.datasource.ReadOnly;
 import com.lzy.mall.dto.PmsProductParam;
 import com.lzy.mall.dto.PmsProductQueryParam;
 import com.lzy.mall.dto.PmsProductResult;
@@ -24,6 +27,7 @@ public interface PmsProductService {
     /**
      * 根据商品ID获取商品信息（用于更新商品）
      */
+    @ReadOnly
     PmsProductResult getUpdateInfo(Long id);
 
     /**
@@ -35,8 +39,15 @@ public interface PmsProductService {
     /**
      * 分页查询商品
      */
+    @ReadOnly
     List<PmsProduct> list(PmsProductQueryParam productQueryParam, Integer pageSize, Integer pageNum);
 
+    /**
+     * 游标分页查询商品（按ID倒序，不统计总数）
+     */
+    @ReadOnly
+    CommonPage<PmsProduct> list(PmsProductQueryParam productQueryParam, String cursor, Integer pageSize);
+
     /**
      * 批量修改审核状态
      * @param ids 商品ID列表
@@ -44,30 +55,38 @@ public interface PmsProductService {
      * @param detail 审核详情
      */
     @Transactional
+    @PoolPartition(PoolPartition.BULK)
     int updateVerifyStatus(List<Long> ids, Integer verifyStatus, String detail);
 
     /**
      * 批量修改商品上架状态
      */
+    @PoolPartition(PoolPartition.BULK)
     int updatePublishStatus(List<Long> ids, Integer publishStatus);
 
     /**
      * 批量修改商品推荐状态
      */
+    @PoolPartition(PoolPartition.BULK)
     int updateRecommendStatus(List<Long> ids, Integer recommendStatus);
 
     /**
      * 批量修改新品状态
      */
+    @PoolPartition(PoolPartition.BULK)
     int updateNewStatus(List<Long> ids, Integer newStatus);
 
     /**
      * 批量删除商品
      */
+    @Transactional
+    @PoolPartition(PoolPartition.BULK)
     int updateDeleteStatus(List<Long> ids, Integer deleteStatus);
 
     /**
      * 根据商品名称或者货号模糊查询
      */
+    @ReadOnly
+    @PoolPartition(PoolPartition.REPORTING)
     List<PmsProduct> list(String keyword);
 }
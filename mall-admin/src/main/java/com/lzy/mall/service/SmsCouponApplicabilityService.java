@@ -0,0 +1,22 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.dto.SmsCouponApplyItem;
+import com.lzy.mall.dto.SmsCouponApplyResult;
+
+import java.util.List;
+
+/**
+ * 优惠券适用范围Service
+ * 适用的优惠券从内存中的适用范围索引计算，不查询数据库
+ */
+public interface SmsCouponApplicabilityService {
+    /**
+     * 计算一组商品（如购物车中的商品）各自适用的有效优惠券
+     */
+    SmsCouponApplyResult resolve(List<SmsCouponApplyItem> itemList);
+
+    /**
+     * 优惠券或其商品、分类关系修改后调用，使所有节点重建适用范围索引
+     */
+    void refresh();
+}
@@ -0,0 +1,44 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.dto.SmsCouponClaimStatus;
+
+import java.util.List;
+
+/**
+ * 优惠券领取Service
+ * 优惠券的剩余数量和会员已领数量预热到Redis后，领取由Lua脚本在Redis中原子执行，不访问数据库；
+ * 领取记录先追加到Redis中的队列，由后台按批写入 sms_coupon_history 并扣减 sms_coupon 的剩余数量
+ */
+public interface SmsCouponClaimService {
+    /**
+     * 预热优惠券的剩余数量和会员已领数量，已预热的优惠券只更新限领数量和领取时间
+     */
+    void preload(Long couponId);
+
+    /**
+     * 领取优惠券，失败时抛出异常
+     * @param getType 获取类型：0->后台赠送；1->主动获取
+     * @return 券码
+     */
+    String claim(Long couponId, Long memberId, String memberNickname, Integer getType);
+
+    /**
+     * 把队列中的领取记录按批写入数据库
+     * @return 写入的记录数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int flush();
+
+    /**
+     * 按数据库校正Redis中的剩余数量和数据库中的领取数量，清理已过期优惠券的预热数据
+     * @return 校正了剩余数量的优惠券数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int reconcile();
+
+    /**
+     * 查询已预热优惠券在数据库和Redis中的领取状态
+     */
+    List<SmsCouponClaimStatus> listStatus();
+}
@@ -0,0 +1,24 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+
+/**
+ * 秒杀场次Service
+ * 当前及下一个场次从内存中的场次时间索引获取，不查询数据库
+ */
+public interface SmsFlashSessionService {
+    /**
+     * 获取正在进行的秒杀场次及其商品，没有时返回null
+     */
+    SmsFlashSessionDetail getCurrent();
+
+    /**
+     * 获取下一个开始的秒杀场次及其商品，没有时返回null
+     */
+    SmsFlashSessionDetail getNext();
+
+    /**
+     * 秒杀活动、场次或场次商品修改后调用，使所有节点重建场次索引
+     */
+    void refresh();
+}
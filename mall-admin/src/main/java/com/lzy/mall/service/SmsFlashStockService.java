@@ -0,0 +1,57 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.FlashReserveResult;
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.dto.SmsFlashStockStatus;
+
+import java.util.List;
+
+/**
+ * 秒杀库存Service
+ * 秒杀数量预热到Redis后，预留、释放、确认都由Lua脚本在Redis中原子执行，不访问数据库；
+ * 已确认的扣减由后台按批写回 pms_sku_stock 和 sms_flash_promotion_product_relation
+ */
+public interface SmsFlashStockService {
+    /**
+     * 预热活动场次下全部秒杀商品的库存和限购数量，已预热的商品只更新限购数量
+     * @return 预热的商品数
+     */
+    int preload(Long flashPromotionId, Long flashPromotionSessionId);
+
+    /**
+     * 预留秒杀库存，同一预留标识重复调用只预留一次
+     * @param reservationId 预留标识，如订单编号
+     */
+    FlashReserveResult reserve(Long relationId, Long skuId, Long memberId, int quantity, String reservationId);
+
+    /**
+     * 释放预留（订单取消或超时），库存和会员已购数量归还
+     * @return 预留不存在（已释放或已确认）时返回false
+     */
+    boolean release(Long relationId, String reservationId);
+
+    /**
+     * 确认预留（订单已支付），转为待写回数据库的扣减
+     * @return 预留不存在（已释放或已确认）时返回false
+     */
+    boolean confirm(Long relationId, String reservationId);
+
+    /**
+     * 把已确认的扣减按批写回数据库
+     * @return 写回的扣减数量
+     */
+    @PoolPartition(PoolPartition.BULK)
+    long flush();
+
+    /**
+     * 按数据库中的秒杀数量校正Redis中的剩余数量，释放超时未确认的预留，清理已结束活动的库存
+     * @return 校正的商品数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int reconcile();
+
+    /**
+     * 查询已预热的秒杀商品在数据库和Redis中的库存状态
+     */
+    List<SmsFlashStockStatus> listStatus();
+}
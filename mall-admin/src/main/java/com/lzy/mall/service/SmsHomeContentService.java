@@ -0,0 +1,19 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.HomeContentDocument;
+
+/**
+ * 首页内容Service
+ * 首页内容从内存中的快照获取，不查询数据库
+ */
+public interface SmsHomeContentService {
+    /**
+     * 获取序列化后的首页内容及其ETag
+     */
+    HomeContentDocument getDocument();
+
+    /**
+     * 首页推荐内容修改后调用，使所有节点重建首页内容快照
+     */
+    void refresh();
+}
@@ -0,0 +1,20 @@
+package com.lzy.mall.service;
+
+/**
+ * 内存快照版本号缓存管理Service
+ * 各节点在本地内存中保存只读快照（商品分类树、菜单、秒杀场次、优惠券适用范围、首页内容等），
+ * 通过Redis中以快照缓存key区分的版本号判断是否需要重建
+ */
+public interface SnapshotVersionCacheService {
+    /**
+     * 获取快照的版本号，从未修改过时返回0
+     * @param cacheKey 快照的缓存key，如redis.key.productCategoryTree
+     */
+    Long getVersion(String cacheKey);
+
+    /**
+     * 快照的数据发生修改时递增版本号，使所有节点的该快照失效
+     * @param cacheKey 快照的缓存key
+     */
+    void incrVersion(String cacheKey);
+}
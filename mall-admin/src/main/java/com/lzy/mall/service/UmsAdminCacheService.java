@@ -19,6 +19,11 @@ public interface UmsAdminCacheService {
      */
     void delResourceList(Long adminId);
 
+    /**
+     * 用户角色关系改变时删除该用户的角色ID列表和资源列表缓存
+     */
+    void delRoleIdList(Long adminId);
+
     /**
      * 当角色相关资源信息改变时删除相关后台用户缓存
      */
@@ -44,6 +49,16 @@ public interface UmsAdminCacheService {
      */
     void setAdmin(UmsAdmin admin);
 
+    /**
+     * 获取缓存后台用户角色ID列表
+     */
+    List<Long> getRoleIdList(Long adminId);
+
+    /**
+     * 设置缓存后台用户角色ID列表
+     */
+    void setRoleIdList(Long adminId, List<Long> roleIds);
+
     /**
      * 获取缓存后台用户资源列表
      */
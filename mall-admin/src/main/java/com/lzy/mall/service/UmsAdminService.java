@@ -70,6 +70,11 @@ public interface UmsAdminService {
      */
     List<UmsRole> getRoleList(Long adminId);
 
+    /**
+     * 获取用户对应的角色ID列表，优先从缓存获取
+     */
+    List<Long> getRoleIdList(Long adminId);
+
     /**
      * 获取指定用户的可访问资源
      */
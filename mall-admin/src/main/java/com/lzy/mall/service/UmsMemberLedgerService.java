@@ -0,0 +1,59 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.LedgerEntry;
+import com.lzy.mall.bo.LedgerGrantTask;
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.dto.UmsLedgerGrantParam;
+import com.lzy.mall.dto.UmsMemberLedgerBalance;
+
+import java.util.List;
+
+/**
+ * 会员积分、成长值账本Service
+ */
+public interface UmsMemberLedgerService {
+    /**
+     * 追加变化记录，当前存在事务时在同一事务中写入发件箱表，否则直接加入Redis写入队列
+     * 没有指定事件幂等键时自动生成，同一幂等键的记录只写入一次
+     */
+    void append(List<LedgerEntry> entryList);
+
+    /**
+     * 把发件箱和队列中的变化记录按批写入数据库，由定时任务调用
+     * @return 处理的记录数
+     */
+    int flush();
+
+    /**
+     * 获取会员余额：快照余额加上快照之后的变化记录，尚在发件箱或队列中的记录不计入
+     */
+    UmsMemberLedgerBalance getBalance(Long memberId);
+
+    /**
+     * 把上一次快照之前已写入的变化记录合并到会员余额快照，并同步到 ums_member，由定时任务调用
+     * @return 合并的变化记录ID范围大小
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int snapshot();
+
+    /**
+     * 创建批量发放任务，由定时任务按会员ID顺序分批执行
+     */
+    Long createGrant(UmsLedgerGrantParam param, String operateMan);
+
+    /**
+     * 领取待处理的发放任务并提交到发放线程池执行，由定时任务调用
+     */
+    @PoolPartition(PoolPartition.BULK)
+    void runPendingGrants();
+
+    /**
+     * 分页查询发放任务及进度
+     */
+    List<LedgerGrantTask> listGrants(Integer status, Integer pageSize, Integer pageNum);
+
+    /**
+     * 重试失败的发放任务
+     */
+    int retryGrant(Long id);
+}
@@ -0,0 +1,30 @@
+package com.lzy.mall.service;
+
+import com.lzy.mall.bo.MemberStatisticsField;
+import com.lzy.mall.datasource.PoolPartition;
+
+import java.math.BigDecimal;
+
+/**
+ * 会员统计信息Service
+ * 订单支付、评论、登录、领券等事件的增量在记录时累加到Redis中的当前批次，由后台按批累加到 ums_member_statistics_info；
+ * 节点异常退出时未写入的批次由其他节点的后续写入重放，只有Redis不可用时记录的增量会丢失
+ */
+public interface UmsMemberStatisticsService {
+    /**
+     * 记录计数类统计的增量
+     */
+    void record(Long memberId, MemberStatisticsField field, long delta);
+
+    /**
+     * 记录金额类统计的增量
+     */
+    void recordAmount(Long memberId, MemberStatisticsField field, BigDecimal amount);
+
+    /**
+     * 重放未完成的批次，并把本节点当前批次的增量写入数据库
+     * @return 本批写入的会员数
+     */
+    @PoolPartition(PoolPartition.BULK)
+    int flush();
+}
@@ -1,5 +1,6 @@
 package com.lzy.mall.service;
 
+import com.lzy.mall.dto.UmsMenuNode;
 import com.lzy.mall.model.UmsMenu;
 import com.lzy.mall.model.UmsResource;
 import com.lzy.mall.model.UmsRole;
@@ -65,6 +66,13 @@ public interface UmsRoleService {
      */
     List<UmsMenu> listMenu(Long roleId);
 
+    /**
+     * 获取角色相关菜单的树形结构
+     * @param roleId 角色ID
+     * @return 菜单树
+     */
+    List<UmsMenuNode> listMenuTree(Long roleId);
+
     /**
      * 获取角色相关资源
      * @param roleId 角色ID
@@ -0,0 +1,170 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.pagehelper.PageHelper;
+import com.lzy.mall.bo.DenormalizeTarget;
+import com.lzy.mall.bo.DenormalizeTask;
+import com.lzy.mall.component.DenormalizeRegistry;
+import com.lzy.mall.dao.DenormalizeTaskDao;
+import com.lzy.mall.service.DenormalizeService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 冗余字段异步更新Service实现类
+ * 按目标表主键顺序每次更新一小批行，每批与任务进度在同一事务中提交，重启后从记录的进度继续；
+ * 批与批之间按最大更新速率休眠，避免长时间占用行锁和数据库资源。
+ * 定时任务只负责领取任务，任务在denormalizeExecutor中执行，只领取线程池有空闲线程执行的任务数
+ */
+@Service
+public class DenormalizeServiceImpl implements DenormalizeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DenormalizeServiceImpl.class);
+    private static final int STATUS_FINISHED = 2;
+    private static final int STATUS_FAILED = 4;
+    /**
+     * 每次调度最多领取的任务数
+     */
+    private static final int MAX_TASKS_PER_RUN = 10;
+
+    @Autowired
+    private DenormalizeTaskDao taskDao;
+    @Autowired
+    private DenormalizeRegistry registry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    @Qualifier("denormalizeExecutor")
+    private ThreadPoolTaskExecutor denormalizeExecutor;
+    @Value("${denormalize.chunkSize:500}")
+    private int chunkSize;
+    @Value("${denormalize.maxRowsPerSecond:2000}")
+    private int maxRowsPerSecond;
+    @Value("${denormalize.staleSeconds:60}")
+    private int staleSeconds;
+    /**
+     * 线程池的空闲线程数，领取任务前获取，任务执行完成后释放
+     */
+    private Semaphore idleThreads;
+
+    @PostConstruct
+    public void init() {
+        if (chunkSize <= 0 || maxRowsPerSecond <= 0) {
+            throw new IllegalArgumentException("denormalize.chunkSize、denormalize.maxRowsPerSecond必须大于0");
+        }
+        idleThreads = new Semaphore(denormalizeExecutor.getMaxPoolSize());
+    }
+
+    @Override
+    public void submit(String target, Long sourceId, String value) {
+        registry.get(target);
+        DenormalizeTask task = new DenormalizeTask();
+        task.setTarget(target);
+        task.setSourceId(sourceId);
+        task.setValue(value);
+        taskDao.insert(task);
+        taskDao.supersede(target, sourceId, task.getId());
+    }
+
+    @Override
+    public void runPendingTasks() {
+        int limit = Math.min(idleThreads.availablePermits(), MAX_TASKS_PER_RUN);
+        if (limit == 0) {
+            return;
+        }
+        for (DenormalizeTask task : taskDao.selectRunnable(staleSeconds, limit)) {
+            if (!idleThreads.tryAcquire()) {
+                return;
+            }
+            // 其他节点已经领取
+            if (taskDao.claim(task.getId(), staleSeconds) == 0) {
+                idleThreads.release();
+                continue;
+            }
+            try {
+                denormalizeExecutor.execute(() -> {
+                    try {
+                        propagate(task);
+                    } finally {
+                        idleThreads.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 已领取的任务超过staleSeconds后由任意节点重新领取
+                idleThreads.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 从任务记录的进度开始分批更新，直到没有剩余的目标行
+     */
+    private void propagate(DenormalizeTask task) {
+        try {
+            DenormalizeTarget target = registry.get(task.getTarget());
+            long lastId = task.getLastId();
+            while (true) {
+                long start = System.currentTimeMillis();
+                List<Long> ids = taskDao.selectTargetIds(target, task.getSourceId(), lastId, chunkSize);
+                if (ids.isEmpty()) {
+                    if (taskDao.finish(task.getId(), STATUS_FINISHED, null) > 0) {
+                        LOGGER.info("冗余字段[{}]更新完成：来源ID={}，任务ID={}", task.getTarget(), task.getSourceId(), task.getId());
+                    }
+                    return;
+                }
+                long chunkLastId = ids.get(ids.size() - 1);
+                Boolean active = transactionTemplate.execute(status -> {
+                    int count = taskDao.updateTargets(target, task.getSourceId(), task.getValue(), ids);
+                    // 任务已被新任务取代时回滚本批，避免旧值覆盖新值
+                    if (taskDao.updateProgress(task.getId(), chunkLastId, count) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(active)) {
+                    LOGGER.info("冗余字段[{}]更新任务已被取代：任务ID={}", task.getTarget(), task.getId());
+                    return;
+                }
+                lastId = chunkLastId;
+                throttle(ids.size(), System.currentTimeMillis() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.error("冗余字段[{}]更新失败：任务ID={}", task.getTarget(), task.getId(), e);
+            taskDao.finish(task.getId(), STATUS_FAILED, StrUtil.maxLength(e.getMessage(), 480));
+        }
+    }
+
+    /**
+     * 按最大更新速率计算本批应占用的时间，执行过快时休眠补足
+     */
+    private void throttle(int rows, long elapsedMillis) throws InterruptedException {
+        long expectedMillis = rows * 1000L / maxRowsPerSecond;
+        if (expectedMillis > elapsedMillis) {
+            Thread.sleep(expectedMillis - elapsedMillis);
+        }
+    }
+
+    @Override
+    public List<DenormalizeTask> list(Integer status, Integer pageSize, Integer pageNum) {
+        PageHelper.startPage(pageNum, pageSize);
+        return taskDao.getList(status);
+    }
+
+    @Override
+    public int retry(Long id) {
+        return taskDao.retry(id);
+    }
+}
@@ -0,0 +1,393 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.json.JSONUtil;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.common.util.RedisScriptUtil;
+import com.lzy.mall.dao.OmsCartDao;
+import com.lzy.mall.mapper.OmsCartItemMapper;
+import com.lzy.mall.model.OmsCartItem;
+import com.lzy.mall.model.OmsCartItemExample;
+import com.lzy.mall.service.OmsCartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 购物车Service实现类
+ * 每个购物车是一个hash：i:SKU ID 保存加入时的商品信息（JSON），q:SKU ID 保存数量，数量单独保存以便用HINCRBY原子累加；
+ * 会员购物车另有 _ 字段标记已从数据库加载，加入商品、修改数量、删除商品时在脚本中检查该标记，购物车在加载后过期时重新加载，
+ * 不会创建没有标记的购物车。修改后在待写入hash中递增会员的版本号，
+ * 后台写入时按会员整体替换数据库中的购物车，写入期间再次修改的会员保留待写入标记。
+ */
+@Service
+public class OmsCartServiceImpl implements OmsCartService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OmsCartServiceImpl.class);
+    private static final RedisScript<Long> LOAD_SCRIPT = RedisScriptUtil.load("lua/cart_load.lua", Long.class);
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScriptUtil.load("lua/cart_add.lua", Long.class);
+    private static final RedisScript<Long> QUANTITY_SCRIPT = RedisScriptUtil.load("lua/cart_quantity.lua", Long.class);
+    private static final RedisScript<Long> DELETE_SCRIPT = RedisScriptUtil.load("lua/cart_delete.lua", Long.class);
+    private static final RedisScript<Long> CLEAR_SCRIPT = RedisScriptUtil.load("lua/cart_clear.lua", Long.class);
+    private static final RedisScript<Long> DIRTY_CLEAR_SCRIPT = RedisScriptUtil.load("lua/cart_dirty_clear.lua", Long.class);
+    private static final String LOADED_FIELD = "_";
+    private static final String ITEM_PREFIX = "i:";
+    private static final String QUANTITY_PREFIX = "q:";
+    /**
+     * 每次写入最多处理的批数，剩余的留到下一次
+     */
+    private static final int MAX_FLUSH_BATCHES = 10;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private OmsCartItemMapper cartItemMapper;
+    @Autowired
+    private OmsCartDao cartDao;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.cart}")
+    private String REDIS_KEY_CART;
+    @Value("${cart.expire:604800}")
+    private long expire;
+    @Value("${cart.flushBatchSize:200}")
+    private int flushBatchSize;
+
+    @Override
+    public List<OmsCartItem> list(Long memberId) {
+        String key = getMemberKey(memberId);
+        ensureLoaded(memberId, key);
+        return listItems(key);
+    }
+
+    @Override
+    public void add(Long memberId, String memberNickname, Long productSkuId, int quantity) {
+        String key = getMemberKey(memberId);
+        ensureLoaded(memberId, key);
+        addItem(key, memberId, memberNickname, productSkuId, quantity);
+        markDirty(memberId);
+    }
+
+    @Override
+    public void updateQuantity(Long memberId, Long productSkuId, int quantity) {
+        if (quantity <= 0) {
+            Asserts.fail("商品数量必须大于0");
+        }
+        long result = executeLoaded(memberId, QUANTITY_SCRIPT,
+                String.valueOf(expire), String.valueOf(productSkuId), String.valueOf(quantity));
+        if (result == 0) {
+            Asserts.fail("购物车中没有该商品");
+        }
+        markDirty(memberId);
+    }
+
+    @Override
+    public void delete(Long memberId, List<Long> productSkuIds) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(expire));
+        for (Long productSkuId : productSkuIds) {
+            args.add(String.valueOf(productSkuId));
+        }
+        executeLoaded(memberId, DELETE_SCRIPT, args.toArray());
+        markDirty(memberId);
+    }
+
+    @Override
+    public void clear(Long memberId) {
+        stringRedisTemplate.execute(CLEAR_SCRIPT, Collections.singletonList(getMemberKey(memberId)),
+                String.valueOf(expire));
+        markDirty(memberId);
+    }
+
+    @Override
+    public List<OmsCartItem> listGuest(String guestId) {
+        return listItems(getGuestKey(guestId));
+    }
+
+    @Override
+    public void addGuest(String guestId, Long productSkuId, int quantity) {
+        addItem(getGuestKey(guestId), null, null, productSkuId, quantity);
+    }
+
+    @Override
+    public void merge(Long memberId, String memberNickname, String guestId) {
+        String guestKey = getGuestKey(guestId);
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        Map<String, String> guestCart = hashOperations.entries(guestKey);
+        if (guestCart.isEmpty()) {
+            return;
+        }
+        String key = getMemberKey(memberId);
+        ensureLoaded(memberId, key);
+        List<String> args = new ArrayList<>();
+        for (OmsCartItem item : toItems(guestCart)) {
+            item.setMemberId(memberId);
+            item.setMemberNickname(memberNickname);
+            int quantity = getQuantity(guestCart, item);
+            item.setQuantity(null);
+            Collections.addAll(args, String.valueOf(item.getProductSkuId()), JSONUtil.toJsonStr(item), String.valueOf(quantity));
+        }
+        addItems(memberId, key, args);
+        markDirty(memberId);
+        //合并完成后再删除游客购物车，中断时重新合并只会多累加数量，不会丢失商品
+        stringRedisTemplate.delete(guestKey);
+    }
+
+    @Override
+    public synchronized int flush() {
+        int total = 0;
+        for (int i = 0; i < MAX_FLUSH_BATCHES; i++) {
+            Map<Long, String> versions = scanDirty();
+            if (versions.isEmpty()) {
+                break;
+            }
+            try {
+                flush(versions);
+            } catch (Exception e) {
+                LOGGER.warn("购物车写入失败，等待下次重试", e);
+                break;
+            }
+            total += versions.size();
+            if (versions.size() < flushBatchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 一批会员的购物车在一个事务中整体替换，提交后清除写入期间没有再次修改的会员的待写入标记
+     */
+    private void flush(Map<Long, String> versions) {
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        List<Long> memberIds = new ArrayList<>();
+        List<OmsCartItem> itemList = new ArrayList<>();
+        for (Long memberId : versions.keySet()) {
+            Map<String, String> cart = hashOperations.entries(getMemberKey(memberId));
+            if (!cart.containsKey(LOADED_FIELD)) {
+                //购物车已过期，数据库中保留最后一次写入的内容
+                continue;
+            }
+            memberIds.add(memberId);
+            for (OmsCartItem item : toItems(cart)) {
+                item.setMemberId(memberId);
+                itemList.add(item);
+            }
+        }
+        if (!memberIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                cartDao.deleteByMembers(memberIds);
+                if (!itemList.isEmpty()) {
+                    cartDao.insertList(itemList);
+                }
+            });
+        }
+        String dirtyKey = getDirtyKey();
+        versions.forEach((memberId, version) -> stringRedisTemplate.execute(DIRTY_CLEAR_SCRIPT,
+                Collections.singletonList(dirtyKey), String.valueOf(memberId), version));
+    }
+
+    /**
+     * 取出最多flushBatchSize个待写入的会员及其版本号
+     */
+    private Map<Long, String> scanDirty() {
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        Map<Long, String> versions = new LinkedHashMap<>();
+        ScanOptions options = ScanOptions.scanOptions().count(flushBatchSize).build();
+        try (Cursor<Map.Entry<String, String>> cursor = hashOperations.scan(getDirtyKey(), options)) {
+            while (cursor.hasNext() && versions.size() < flushBatchSize) {
+                Map.Entry<String, String> entry = cursor.next();
+                versions.put(Long.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * 会员购物车不在Redis中时从数据库加载
+     */
+    private void ensureLoaded(Long memberId, String key) {
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return;
+        }
+        OmsCartItemExample example = new OmsCartItemExample();
+        example.createCriteria().andMemberIdEqualTo(memberId).andDeleteStatusEqualTo(0);
+        example.setOrderByClause("id asc");
+        Map<Long, OmsCartItem> itemMap = new LinkedHashMap<>();
+        Map<Long, Integer> quantityMap = new HashMap<>();
+        for (OmsCartItem item : cartItemMapper.selectByExample(example)) {
+            if (item.getProductSkuId() == null || item.getQuantity() == null) {
+                continue;
+            }
+            //同一SKU有多行时合并数量
+            quantityMap.merge(item.getProductSkuId(), item.getQuantity(), Integer::sum);
+            itemMap.putIfAbsent(item.getProductSkuId(), item);
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(expire));
+        itemMap.forEach((productSkuId, item) -> {
+            item.setId(null);
+            item.setQuantity(null);
+            args.add(ITEM_PREFIX + productSkuId);
+            args.add(JSONUtil.toJsonStr(item));
+            args.add(QUANTITY_PREFIX + productSkuId);
+            args.add(String.valueOf(quantityMap.get(productSkuId)));
+        });
+        stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(key), args.toArray());
+    }
+
+    private void addItem(String key, Long memberId, String memberNickname, Long productSkuId, int quantity) {
+        if (productSkuId == null) {
+            Asserts.fail("请选择商品规格");
+        }
+        if (quantity <= 0) {
+            Asserts.fail("商品数量必须大于0");
+        }
+        List<OmsCartItem> products = cartDao.selectCartProducts(Collections.singletonList(productSkuId));
+        if (products.isEmpty()) {
+            Asserts.fail("商品不存在");
+        }
+        OmsCartItem item = products.get(0);
+        Date now = new Date();
+        item.setMemberId(memberId);
+        item.setMemberNickname(memberNickname);
+        item.setCreateDate(now);
+        item.setModifyDate(now);
+        item.setDeleteStatus(0);
+        List<String> args = new ArrayList<>();
+        Collections.addAll(args, String.valueOf(productSkuId), JSONUtil.toJsonStr(item), String.valueOf(quantity));
+        addItems(memberId, key, args);
+    }
+
+    /**
+     * 在脚本中检查已加载标记并加入商品；会员购物车在检查后过期时重新加载后再加入
+     * @param memberId 会员ID，游客购物车为null
+     * @param items SKU ID、商品信息、数量依次排列
+     */
+    private void addItems(Long memberId, String key, List<String> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(items.size() + 2);
+        args.add(String.valueOf(expire));
+        args.add(memberId == null ? "0" : "1");
+        args.addAll(items);
+        Long result = stringRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(key), args.toArray());
+        if (memberId != null && Long.valueOf(0).equals(result)) {
+            ensureLoaded(memberId, key);
+            result = stringRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(key), args.toArray());
+        }
+        if (!Long.valueOf(1).equals(result)) {
+            Asserts.fail("购物车加载失败，请重试");
+        }
+    }
+
+    /**
+     * 执行检查已加载标记的会员购物车脚本，脚本返回-1（检查后购物车过期）时重新加载后再执行一次
+     * @return 脚本的返回值，不会小于0
+     */
+    private long executeLoaded(Long memberId, RedisScript<Long> script, Object... args) {
+        String key = getMemberKey(memberId);
+        ensureLoaded(memberId, key);
+        Long result = stringRedisTemplate.execute(script, Collections.singletonList(key), args);
+        if (result != null && result < 0) {
+            ensureLoaded(memberId, key);
+            result = stringRedisTemplate.execute(script, Collections.singletonList(key), args);
+        }
+        if (result == null || result < 0) {
+            Asserts.fail("购物车加载失败，请重试");
+        }
+        return result;
+    }
+
+    /**
+     * 读取购物车并一次性批量查询所有商品的当前信息和价格，已删除的商品保留加入时的信息
+     */
+    private List<OmsCartItem> listItems(String key) {
+        Map<String, String> cart = stringRedisTemplate.<String, String>opsForHash().entries(key);
+        List<OmsCartItem> itemList = toItems(cart);
+        if (itemList.isEmpty()) {
+            return itemList;
+        }
+        touch(key);
+        Map<Long, OmsCartItem> productMap = cartDao.selectCartProducts(itemList.stream()
+                        .map(OmsCartItem::getProductSkuId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(OmsCartItem::getProductSkuId, Function.identity()));
+        for (OmsCartItem item : itemList) {
+            OmsCartItem product = productMap.get(item.getProductSkuId());
+            if (product == null) {
+                continue;
+            }
+            item.setProductId(product.getProductId());
+            item.setPrice(product.getPrice());
+            item.setProductPic(product.getProductPic());
+            item.setProductName(product.getProductName());
+            item.setProductSubTitle(product.getProductSubTitle());
+            item.setProductSkuCode(product.getProductSkuCode());
+            item.setProductCategoryId(product.getProductCategoryId());
+            item.setProductBrand(product.getProductBrand());
+            item.setProductSn(product.getProductSn());
+            item.setProductAttr(product.getProductAttr());
+        }
+        return itemList;
+    }
+
+    /**
+     * 把购物车hash转换为商品列表，按加入时间排序；没有数量的商品（并发删除留下的）被忽略
+     */
+    private List<OmsCartItem> toItems(Map<String, String> cart) {
+        List<OmsCartItem> itemList = new ArrayList<>();
+        for (Map.Entry<String, String> entry : cart.entrySet()) {
+            if (!entry.getKey().startsWith(ITEM_PREFIX)) {
+                continue;
+            }
+            OmsCartItem item = JSONUtil.toBean(entry.getValue(), OmsCartItem.class);
+            int quantity = getQuantity(cart, item);
+            if (quantity <= 0) {
+                continue;
+            }
+            item.setQuantity(quantity);
+            itemList.add(item);
+        }
+        itemList.sort(Comparator.comparing(OmsCartItem::getCreateDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return itemList;
+    }
+
+    private int getQuantity(Map<String, String> cart, OmsCartItem item) {
+        String quantity = cart.get(QUANTITY_PREFIX + item.getProductSkuId());
+        return quantity == null ? 0 : Integer.parseInt(quantity);
+    }
+
+    private void markDirty(Long memberId) {
+        stringRedisTemplate.opsForHash().increment(getDirtyKey(), String.valueOf(memberId), 1);
+    }
+
+    private void touch(String key) {
+        stringRedisTemplate.expire(key, expire, TimeUnit.SECONDS);
+    }
+
+    private String getMemberKey(Long memberId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_CART + ":member:" + memberId;
+    }
+
+    private String getGuestKey(String guestId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_CART + ":guest:" + guestId;
+    }
+
+    private String getDirtyKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_CART + ":dirty";
+    }
+}
@@ -1,14 +1,19 @@
 package com.lzy.mall.service.impl;
 
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.bo.MemberStatisticsField;
+import com.lzy.mall.common.api.CommonPage;
 import com.lzy.mall.dao.OmsOrderReturnApplyDao;
 import com.lzy.mall.dto.OmsOrderReturnApplyResult;
 import com.lzy.mall.dto.OmsReturnApplyQueryParam;
 import com.lzy.mall.dto.OmsUpdateStatusParam;
+import com.lzy.mall.mapper.OmsOrderMapper;
 import com.lzy.mall.mapper.OmsOrderReturnApplyMapper;
+import com.lzy.mall.model.OmsOrder;
 import com.lzy.mall.model.OmsOrderReturnApply;
 import com.lzy.mall.model.OmsOrderReturnApplyExample;
 import com.lzy.mall.service.OmsOrderReturnApplyService;
+import com.lzy.mall.service.UmsMemberStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +31,12 @@ public class OmsOrderReturnApplyServiceImpl implements OmsOrderReturnApplyServic
     
     @Autowired
     private OmsOrderReturnApplyMapper returnApplyMapper;  // 订单退货申请基础Mapper
+
+    @Autowired
+    private OmsOrderMapper orderMapper;  // 订单基础Mapper
+
+    @Autowired
+    private UmsMemberStatisticsService memberStatisticsService;  // 会员统计Service
     @Override
     public List<OmsOrderReturnApply> list(OmsReturnApplyQueryParam queryParam, Integer pageSize, Integer pageNum) {
         // 使用PageHelper进行分页查询
@@ -34,6 +45,16 @@ public class OmsOrderReturnApplyServiceImpl implements OmsOrderReturnApplyServic
         return returnApplyDao.getList(queryParam);
     }
 
+    @Override
+    public CommonPage<OmsOrderReturnApply> list(OmsReturnApplyQueryParam queryParam, String cursor, Integer pageSize) {
+        CommonPage.checkCursorPageSize(pageSize);
+        Long lastId = CommonPage.decodeCursor(cursor);
+        // 多取一条用于判断是否有下一页，并关闭count查询
+        PageHelper.startPage(1, pageSize + 1, false);
+        List<OmsOrderReturnApply> returnApplyList = returnApplyDao.getListByCursor(queryParam, lastId);
+        return CommonPage.restCursorPage(returnApplyList, pageSize, OmsOrderReturnApply::getId);
+    }
+
     @Override
     public int delete(List<Long> ids) {
         // 创建查询条件：ID在指定列表中且状态为已拒绝(3)的退货申请
@@ -68,6 +89,14 @@ public class OmsOrderReturnApplyServiceImpl implements OmsOrderReturnApplyServic
             returnApply.setReceiveTime(new Date());  // 设置收货时间
             returnApply.setReceiveMan(statusParam.getReceiveMan());  // 设置收货人
             returnApply.setReceiveNote(statusParam.getReceiveNote());  // 设置收货备注
+            // 只更新未完成的申请，重复提交不会重复计入会员的退货数
+            OmsOrderReturnApplyExample example = new OmsOrderReturnApplyExample();
+            example.createCriteria().andIdEqualTo(id).andStatusNotEqualTo(2);
+            int count = returnApplyMapper.updateByExampleSelective(returnApply, example);
+            if (count > 0) {
+                recordReturnOrder(id);
+            }
+            return count;
         } else if (status.equals(3)) {
             // 状态3：拒绝退货
             returnApply.setId(id);  // 设置退货申请ID
@@ -84,6 +113,20 @@ public class OmsOrderReturnApplyServiceImpl implements OmsOrderReturnApplyServic
         return returnApplyMapper.updateByPrimaryKeySelective(returnApply);
     }
 
+    /**
+     * 退货完成后累加会员的退货数
+     */
+    private void recordReturnOrder(Long id) {
+        OmsOrderReturnApply returnApply = returnApplyMapper.selectByPrimaryKey(id);
+        if (returnApply == null || returnApply.getOrderId() == null) {
+            return;
+        }
+        OmsOrder order = orderMapper.selectByPrimaryKey(returnApply.getOrderId());
+        if (order != null) {
+            memberStatisticsService.record(order.getMemberId(), MemberStatisticsField.RETURN_ORDER_COUNT, 1);
+        }
+    }
+
     @Override
     public OmsOrderReturnApplyResult getItem(Long id) {
         // 根据ID查询退货申请详情
@@ -1,20 +1,35 @@
 package com.lzy.mall.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.hutool.core.util.ArrayUtil;
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.bo.OmsOrderState;
+import com.lzy.mall.bo.OmsOrderTransition;
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.common.exception.Asserts;
 import com.lzy.mall.dao.OmsOrderDao;
 import com.lzy.mall.dao.OmsOrderOperateHistoryDao;
 import com.lzy.mall.dto.*;
+import com.lzy.mall.mapper.OmsOrderItemMapper;
 import com.lzy.mall.mapper.OmsOrderMapper;
 import com.lzy.mall.mapper.OmsOrderOperateHistoryMapper;
-import com.lzy.mall.model.OmsOrder;
-import com.lzy.mall.model.OmsOrderExample;
-import com.lzy.mall.model.OmsOrderOperateHistory;
+import com.lzy.mall.model.*;
 import com.lzy.mall.service.OmsOrderService;
+import com.lzy.mall.service.OmsOrderShipmentService;
+import com.lzy.mall.service.PageCountService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Date;
-import java.util.List;
+import java.io.Writer;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +38,21 @@ import java.util.stream.Collectors;
  */
 @Service
 public class OmsOrderServiceImpl implements OmsOrderService {
+    /**
+     * 批量获取订单详情时单次允许的最大订单数
+     */
+    private static final int MAX_DETAIL_BATCH_SIZE = 200;
+    /**
+     * 导出订单的表头
+     */
+    private static final String[] EXPORT_HEADER = {"订单ID", "订单编号", "提交时间", "用户帐号", "订单总金额", "应付金额",
+            "运费金额", "促销优惠金额", "积分抵扣金额", "优惠券抵扣金额", "管理员调整折扣", "支付方式", "订单来源", "订单状态",
+            "订单类型", "支付时间", "物流公司", "物流单号", "收货人姓名", "收货人电话"};
+    /**
+     * 包含订单商品时追加的表头
+     */
+    private static final String[] EXPORT_ITEM_HEADER = {"商品货号", "商品名称", "SKU编码", "销售价格", "购买数量", "实际支付金额"};
+
     @Autowired
     private OmsOrderMapper orderMapper;  // 订单基础Mapper
     
@@ -35,94 +65,280 @@ public class OmsOrderServiceImpl implements OmsOrderService {
     @Autowired
     private OmsOrderOperateHistoryMapper orderOperateHistoryMapper;  // 订单操作历史Mapper
 
+    @Autowired
+    private OmsOrderItemMapper orderItemMapper;  // 订单商品Mapper
+
+    @Autowired
+    private PageCountService pageCountService;  // 分页总数Service
+
+    @Autowired
+    private OmsOrderShipmentService orderShipmentService;  // 订单发货Service
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;  // 批量状态流转按批控制事务
+
+    @Value("${order.export.flushSize:1000}")
+    private int exportFlushSize;  // 导出时每写多少行刷新一次输出
+
+    @PostConstruct
+    public void init() {
+        // 导出时按该值取余判断是否刷新输出，必须大于0
+        if (exportFlushSize <= 0) {
+            throw new IllegalArgumentException("order.export.flushSize必须大于0");
+        }
+    }
+
     @Override
     public List<OmsOrder> list(OmsOrderQueryParam queryParam, Integer pageSize, Integer pageNum) {
-        // 使用PageHelper进行分页查询
-        PageHelper.startPage(pageNum, pageSize);
+        // 使用PageHelper进行分页查询，总数由分页总数缓存提供，不在每次翻页时执行COUNT(*)
+        PageHelper.startPage(pageNum, pageSize, false);
         // 调用Dao层获取订单列表
-        return orderDao.getList(queryParam);
+        List<OmsOrder> orderList = orderDao.getList(queryParam);
+        return pageCountService.fillTotal(orderList, "oms_order", queryParam, () -> orderDao.getCount(queryParam));
+    }
+
+    @Override
+    public CommonPage<OmsOrder> list(OmsOrderQueryParam queryParam, String cursor, Integer pageSize) {
+        CommonPage.checkCursorPageSize(pageSize);
+        Long lastId = CommonPage.decodeCursor(cursor);
+        // 多取一条用于判断是否有下一页，并关闭count查询
+        PageHelper.startPage(1, pageSize + 1, false);
+        List<OmsOrder> orderList = orderDao.getListByCursor(queryParam, lastId);
+        return CommonPage.restCursorPage(orderList, pageSize, OmsOrder::getId);
+    }
+
+    @Override
+    public void export(OmsOrderQueryParam queryParam, boolean includeItems, Writer writer) {
+        CsvWriter csvWriter = CsvUtil.getWriter(writer);
+        csvWriter.writeLine(includeItems ? ArrayUtil.append(EXPORT_HEADER, EXPORT_ITEM_HEADER) : EXPORT_HEADER);
+        // 结果集逐行回调并立即写出，按固定行数刷新到响应流，内存占用与导出行数无关
+        orderDao.exportList(queryParam, includeItems, context -> {
+            csvWriter.writeLine(toExportLine(context.getResultObject(), includeItems));
+            if (context.getResultCount() % exportFlushSize == 0) {
+                csvWriter.flush();
+            }
+        });
+        csvWriter.flush();
+    }
+
+    /**
+     * 将导出行转换为CSV字段
+     */
+    private String[] toExportLine(OmsOrderExportRow row, boolean includeItems) {
+        List<Object> values = new ArrayList<>(EXPORT_HEADER.length + EXPORT_ITEM_HEADER.length);
+        Collections.addAll(values, row.getId(), row.getOrderSn(), row.getCreateTime(), row.getMemberUsername(),
+                row.getTotalAmount(), row.getPayAmount(), row.getFreightAmount(), row.getPromotionAmount(),
+                row.getIntegrationAmount(), row.getCouponAmount(), row.getDiscountAmount(), row.getPayType(),
+                row.getSourceType(), row.getStatus(), row.getOrderType(), row.getPaymentTime(),
+                row.getDeliveryCompany(), row.getDeliverySn(), row.getReceiverName(), row.getReceiverPhone());
+        if (includeItems) {
+            Collections.addAll(values, row.getProductSn(), row.getProductName(), row.getProductSkuCode(),
+                    row.getProductPrice(), row.getProductQuantity(), row.getRealAmount());
+        }
+        return values.stream().map(Convert::toStr).toArray(String[]::new);
     }
 
     @Override
     public int delivery(List<OmsOrderDeliveryParam> deliveryParamList) {
-        // 批量更新订单状态为已发货
-        int count = orderDao.delivery(deliveryParamList);
-        
-        // 为每个发货的订单添加操作记录
-        List<OmsOrderOperateHistory> operateHistoryList = deliveryParamList.stream()
-                .map(omsOrderDeliveryParam -> {
-                    OmsOrderOperateHistory history = new OmsOrderOperateHistory();
-                    history.setOrderId(omsOrderDeliveryParam.getOrderId());  // 设置订单ID
-                    history.setCreateTime(new Date());  // 设置操作时间
-                    history.setOperateMan("后台管理员");  // 设置操作人
-                    history.setOrderStatus(2);  // 设置订单状态为2(已发货)
-                    history.setNote("完成发货");  // 设置操作备注
-                    return history;
-                }).collect(Collectors.toList());
-                
-        // 批量插入操作记录
-        orderOperateHistoryDao.insertList(operateHistoryList);
-        return count;  // 返回更新记录数
+        // 分批锁定订单，只为待发货的订单更新物流信息并记录操作历史
+        return orderShipmentService.delivery(deliveryParamList);
     }
 
     @Override
-    public int close(List<Long> ids, String note) {
-        // 创建订单更新对象，设置状态为4(已关闭)
-        OmsOrder record = new OmsOrder();
-        record.setStatus(4);
-        
-        // 创建查询条件：未删除且ID在指定列表中的订单
-        OmsOrderExample example = new OmsOrderExample();
-        example.createCriteria()
-               .andDeleteStatusEqualTo(0)  // 未删除的订单
-               .andIdIn(ids);  // 指定ID列表
-               
-        // 批量更新订单状态为已关闭
-        int count = orderMapper.updateByExampleSelective(record, example);
-        
-        // 为每个关闭的订单生成操作记录
-        List<OmsOrderOperateHistory> historyList = ids.stream().map(orderId -> {
+    public OmsOrderTransitionResult close(List<Long> ids, String note) {
+        return transition(ids, OmsOrderTransition.CLOSE, "订单关闭:" + note);
+    }
+
+    @Override
+    public OmsOrderTransitionResult delete(List<Long> ids) {
+        // 删除订单不记录操作历史
+        return transition(ids, OmsOrderTransition.DELETE, null);
+    }
+
+    /**
+     * 批量执行订单状态流转
+     * 先不加锁读取订单的状态和版本号，按状态机筛选出允许执行的订单，再用一条语句按 (id, status, version) 比较后更新，
+     * 全部命中时在同一事务中批量记录操作历史；有订单在读取后被其他操作修改时回滚整条语句，
+     * 改为逐个订单比较后更新，被修改的订单作为冲突返回
+     * @param note 操作记录备注，为空时不记录
+     */
+    private OmsOrderTransitionResult transition(List<Long> ids, OmsOrderTransition transition, String note) {
+        OmsOrderTransitionResult result = new OmsOrderTransitionResult();
+        List<Long> orderIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (orderIds.isEmpty()) {
+            return result;
+        }
+        Map<Long, OmsOrderState> stateMap = orderDao.selectStates(orderIds).stream()
+                .collect(Collectors.toMap(OmsOrderState::getId, Function.identity()));
+        List<OmsOrderState> expectedList = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            OmsOrderState state = stateMap.get(orderId);
+            if (state == null) {
+                result.getConflicts().add(new OmsOrderTransitionResult.Conflict(orderId, null,
+                        OmsOrderTransitionResult.Conflict.REASON_NOT_FOUND, "订单不存在或已删除"));
+            } else if (!transition.allowFrom(state.getStatus())) {
+                result.getConflicts().add(new OmsOrderTransitionResult.Conflict(orderId, state.getStatus(),
+                        OmsOrderTransitionResult.Conflict.REASON_ILLEGAL_STATUS, "订单当前状态不允许" + transition.getName()));
+            } else {
+                expectedList.add(state);
+            }
+        }
+        if (expectedList.isEmpty()) {
+            return result;
+        }
+        Integer deleteStatus = transition == OmsOrderTransition.DELETE ? 1 : null;
+        Boolean applied = transactionTemplate.execute(status -> {
+            if (orderDao.transition(expectedList, transition.getToStatus(), deleteStatus) != expectedList.size()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            insertHistory(expectedList, transition, note);
+            return true;
+        });
+        if (Boolean.TRUE.equals(applied)) {
+            expectedList.forEach(state -> result.getSuccessIds().add(state.getId()));
+        } else {
+            List<Long> modifiedIds = new ArrayList<>();
+            for (OmsOrderState expected : expectedList) {
+                List<OmsOrderState> singleList = Collections.singletonList(expected);
+                Boolean success = transactionTemplate.execute(status -> {
+                    if (orderDao.transition(singleList, transition.getToStatus(), deleteStatus) == 0) {
+                        return false;
+                    }
+                    insertHistory(singleList, transition, note);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(success)) {
+                    result.getSuccessIds().add(expected.getId());
+                } else {
+                    modifiedIds.add(expected.getId());
+                }
+            }
+            if (!modifiedIds.isEmpty()) {
+                Map<Long, OmsOrderState> currentMap = orderDao.selectStates(modifiedIds).stream()
+                        .collect(Collectors.toMap(OmsOrderState::getId, Function.identity()));
+                for (Long orderId : modifiedIds) {
+                    OmsOrderState current = currentMap.get(orderId);
+                    result.getConflicts().add(new OmsOrderTransitionResult.Conflict(orderId,
+                            current != null ? current.getStatus() : null,
+                            OmsOrderTransitionResult.Conflict.REASON_CONCURRENT_MODIFIED, "订单已被其他操作修改，请刷新后重试"));
+                }
+            }
+        }
+        if (!result.getSuccessIds().isEmpty()) {
+            pageCountService.evict("oms_order");
+        }
+        return result;
+    }
+
+    /**
+     * 修改单个订单的信息：按状态机检查当前状态，再按 (id, status, version) 比较后更新并记录操作历史
+     * @param expectedStatus 调用方看到的订单状态，不为空时必须与当前状态一致
+     */
+    private int updateInfo(Long orderId, Integer expectedStatus, OmsOrder order, OmsOrderTransition transition, String note) {
+        List<OmsOrderState> stateList = orderDao.selectStates(Collections.singletonList(orderId));
+        if (stateList.isEmpty()) {
+            Asserts.fail("订单不存在或已删除");
+        }
+        OmsOrderState state = stateList.get(0);
+        if (expectedStatus != null && !expectedStatus.equals(state.getStatus())) {
+            Asserts.fail("订单状态已变化，请刷新后重试");
+        }
+        if (!transition.allowFrom(state.getStatus())) {
+            Asserts.fail("订单当前状态不允许" + transition.getName());
+        }
+        int count = orderDao.updateInfo(order, state);
+        if (count == 0) {
+            Asserts.fail("订单已被其他操作修改，请刷新后重试");
+        }
+        insertHistory(stateList, transition, note);
+        return count;
+    }
+
+    /**
+     * 批量记录操作历史，订单状态取执行后的实际状态
+     */
+    private void insertHistory(List<OmsOrderState> stateList, OmsOrderTransition transition, String note) {
+        if (note == null) {
+            return;
+        }
+        Date now = new Date();
+        List<OmsOrderOperateHistory> historyList = stateList.stream().map(state -> {
             OmsOrderOperateHistory history = new OmsOrderOperateHistory();
-            history.setOrderId(orderId);  // 设置订单ID
-            history.setCreateTime(new Date());  // 设置操作时间
+            history.setOrderId(state.getId());  // 设置订单ID
+            history.setCreateTime(now);  // 设置操作时间
             history.setOperateMan("后台管理员");  // 设置操作人
-            history.setOrderStatus(4);  // 设置订单状态为4(已关闭)
-            history.setNote("订单关闭:" + note);  // 设置关闭原因
+            history.setOrderStatus(transition.targetStatus(state.getStatus()));  // 设置操作后的订单状态
+            history.setNote(note);  // 设置操作备注
             return history;
         }).collect(Collectors.toList());
-        
-        // 批量插入操作记录
         orderOperateHistoryDao.insertList(historyList);
-        return count;  // 返回更新记录数
     }
 
     @Override
-    public int delete(List<Long> ids) {
-        // 创建订单更新对象，设置删除状态为1(已删除)
-        OmsOrder record = new OmsOrder();
-        record.setDeleteStatus(1);
-        
-        // 创建查询条件：未删除且ID在指定列表中的订单
-        OmsOrderExample example = new OmsOrderExample();
-        example.createCriteria()
-               .andDeleteStatusEqualTo(0)  // 未删除的订单
-               .andIdIn(ids);  // 指定ID列表
-               
-        // 执行逻辑删除操作，返回影响记录数
-        return orderMapper.updateByExampleSelective(record, example);
+    public OmsOrderDetail detail(Long id) {
+        // 复用批量查询，避免订单商品与操作记录联表产生笛卡尔积
+        List<OmsOrderDetail> detailList = details(Collections.singletonList(id));
+        return detailList.isEmpty() ? null : detailList.get(0);
     }
 
     @Override
-    public OmsOrderDetail detail(Long id) {
-        // 根据订单ID查询订单详情
-        return orderDao.getDetail(id);
+    public List<OmsOrderDetail> details(List<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+        // 去重后限制单次查询数量
+        List<Long> orderIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (orderIds.size() > MAX_DETAIL_BATCH_SIZE) {
+            Asserts.fail("单次最多查询" + MAX_DETAIL_BATCH_SIZE + "个订单详情");
+        }
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 1. 批量查询订单
+        OmsOrderExample orderExample = new OmsOrderExample();
+        orderExample.createCriteria().andIdIn(orderIds);
+        Map<Long, OmsOrder> orderMap = orderMapper.selectByExample(orderExample).stream()
+                .collect(Collectors.toMap(OmsOrder::getId, Function.identity()));
+        if (orderMap.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 2. 批量查询订单商品，按订单ID分组
+        OmsOrderItemExample itemExample = new OmsOrderItemExample();
+        itemExample.setOrderByClause("id asc");
+        itemExample.createCriteria().andOrderIdIn(new ArrayList<>(orderMap.keySet()));
+        Map<Long, List<OmsOrderItem>> itemMap = orderItemMapper.selectByExample(itemExample).stream()
+                .collect(Collectors.groupingBy(OmsOrderItem::getOrderId));
+
+        // 3. 批量查询操作记录，按订单ID分组
+        OmsOrderOperateHistoryExample historyExample = new OmsOrderOperateHistoryExample();
+        historyExample.setOrderByClause("create_time desc");
+        historyExample.createCriteria().andOrderIdIn(new ArrayList<>(orderMap.keySet()));
+        Map<Long, List<OmsOrderOperateHistory>> historyMap = orderOperateHistoryMapper.selectByExample(historyExample).stream()
+                .collect(Collectors.groupingBy(OmsOrderOperateHistory::getOrderId));
+
+        // 4. 按请求中的订单顺序在内存中组装详情
+        List<OmsOrderDetail> result = new ArrayList<>(orderMap.size());
+        for (Long orderId : orderIds) {
+            OmsOrder order = orderMap.get(orderId);
+            if (order == null) {
+                continue;
+            }
+            OmsOrderDetail detail = new OmsOrderDetail();
+            BeanUtils.copyProperties(order, detail);
+            detail.setOrderItemList(itemMap.getOrDefault(orderId, new ArrayList<>()));
+            detail.setHistoryList(historyMap.getOrDefault(orderId, new ArrayList<>()));
+            result.add(detail);
+        }
+        return result;
     }
 
     @Override
     public int updateReceiverInfo(OmsReceiverInfoParam receiverInfoParam) {
         // 创建订单更新对象，设置新的收货人信息
         OmsOrder order = new OmsOrder();
-        order.setId(receiverInfoParam.getOrderId());  // 设置订单ID
         order.setReceiverName(receiverInfoParam.getReceiverName());  // 收货人姓名
         order.setReceiverPhone(receiverInfoParam.getReceiverPhone());  // 收货人电话
         order.setReceiverPostCode(receiverInfoParam.getReceiverPostCode());  // 邮政编码
@@ -130,20 +346,11 @@ public class OmsOrderServiceImpl implements OmsOrderService {
         order.setReceiverProvince(receiverInfoParam.getReceiverProvince());  // 省份
         order.setReceiverCity(receiverInfoParam.getReceiverCity());  // 城市
         order.setReceiverRegion(receiverInfoParam.getReceiverRegion());  // 区/县
-        order.setModifyTime(new Date());  // 修改时间
-        
-        // 更新订单收货人信息
-        int count = orderMapper.updateByPrimaryKeySelective(order);
-        
-        // 添加操作记录
-        OmsOrderOperateHistory history = new OmsOrderOperateHistory();
-        history.setOrderId(receiverInfoParam.getOrderId());  // 设置订单ID
-        history.setCreateTime(new Date());  // 设置操作时间
-        history.setOperateMan("后台管理员");  // 设置操作人
-        history.setOrderStatus(receiverInfoParam.getStatus());  // 设置订单状态
-        history.setNote("修改收货人信息");  // 设置操作备注
-        orderOperateHistoryMapper.insert(history);  // 插入操作记录
-        
+
+        // 比较状态和版本号后更新，并添加操作记录
+        int count = updateInfo(receiverInfoParam.getOrderId(), receiverInfoParam.getStatus(), order,
+                OmsOrderTransition.UPDATE_RECEIVER_INFO, "修改收货人信息");
+        pageCountService.evict("oms_order");  // 收货人信息参与列表筛选
         return count;  // 返回更新记录数
     }
 
@@ -151,46 +358,21 @@ public class OmsOrderServiceImpl implements OmsOrderService {
     public int updateMoneyInfo(OmsMoneyInfoParam moneyInfoParam) {
         // 创建订单更新对象，设置费用相关信息
         OmsOrder order = new OmsOrder();
-        order.setId(moneyInfoParam.getOrderId());  // 设置订单ID
         order.setFreightAmount(moneyInfoParam.getFreightAmount());  // 设置运费金额
         order.setDiscountAmount(moneyInfoParam.getDiscountAmount());  // 设置优惠金额
-        order.setModifyTime(new Date());  // 设置修改时间
-        
-        // 更新订单费用信息
-        int count = orderMapper.updateByPrimaryKeySelective(order);
-        
-        // 添加操作记录
-        OmsOrderOperateHistory history = new OmsOrderOperateHistory();
-        history.setOrderId(moneyInfoParam.getOrderId());  // 设置订单ID
-        history.setCreateTime(new Date());  // 设置操作时间
-        history.setOperateMan("后台管理员");  // 设置操作人
-        history.setOrderStatus(moneyInfoParam.getStatus());  // 设置订单状态
-        history.setNote("修改费用信息");  // 设置操作备注
-        orderOperateHistoryMapper.insert(history);  // 插入操作记录
-        
-        return count;  // 返回更新记录数
+
+        // 比较状态和版本号后更新，并添加操作记录
+        return updateInfo(moneyInfoParam.getOrderId(), moneyInfoParam.getStatus(), order,
+                OmsOrderTransition.UPDATE_MONEY_INFO, "修改费用信息");
     }
 
     @Override
     public int updateNote(Long id, String note, Integer status) {
         // 创建订单更新对象，设置备注信息
         OmsOrder order = new OmsOrder();
-        order.setId(id);  // 设置订单ID
         order.setNote(note);  // 设置备注内容
-        order.setModifyTime(new Date());  // 设置修改时间
-        
-        // 更新订单备注信息
-        int count = orderMapper.updateByPrimaryKeySelective(order);
-        
-        // 添加操作记录
-        OmsOrderOperateHistory history = new OmsOrderOperateHistory();
-        history.setOrderId(id);  // 设置订单ID
-        history.setCreateTime(new Date());  // 设置操作时间
-        history.setOperateMan("后台管理员");  // 设置操作人
-        history.setOrderStatus(status);  // 设置订单状态
-        history.setNote("修改备注信息：" + note);  // 设置操作备注，包含修改后的备注内容
-        orderOperateHistoryMapper.insert(history);  // 插入操作记录
-        
-        return count;  // 返回更新记录数
+
+        // 比较状态和版本号后更新，操作备注包含修改后的备注内容
+        return updateInfo(id, status, order, OmsOrderTransition.UPDATE_NOTE, "修改备注信息：" + note);
     }
 }
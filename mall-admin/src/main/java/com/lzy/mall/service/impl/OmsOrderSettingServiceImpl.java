@@ -3,6 +3,7 @@ package com.lzy.mall.service.impl;
 import com.lzy.mall.mapper.OmsOrderSettingMapper;
 import com.lzy.mall.model.OmsOrderSetting;
 import com.lzy.mall.service.OmsOrderSettingService;
+import com.lzy.mall.service.OmsOrderTimeoutService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,8 @@ import org.springframework.stereotype.Service;
 public class OmsOrderSettingServiceImpl implements OmsOrderSettingService {
     @Autowired
     private OmsOrderSettingMapper orderSettingMapper;  // 订单设置信息Mapper
+    @Autowired
+    private OmsOrderTimeoutService orderTimeoutService;  // 订单超时处理Service
 
     @Override
     public OmsOrderSetting getItem(Long id) {
@@ -26,6 +29,9 @@ public class OmsOrderSettingServiceImpl implements OmsOrderSettingService {
         // 设置要更新的订单设置ID
         orderSetting.setId(id);
         // 根据主键更新订单设置信息
-        return orderSettingMapper.updateByPrimaryKey(orderSetting);
+        int count = orderSettingMapper.updateByPrimaryKey(orderSetting);
+        // 未处理订单的超时时间按新设置重新计算
+        orderTimeoutService.reschedule();
+        return count;
     }
 }
@@ -0,0 +1,234 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.text.csv.CsvParser;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.core.util.StrUtil;
+import com.lzy.mall.bo.OmsOrderTransition;
+import com.lzy.mall.common.exception.ApiException;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.dao.OmsOrderDao;
+import com.lzy.mall.dao.OmsOrderOperateHistoryDao;
+import com.lzy.mall.dto.OmsOrderDeliveryParam;
+import com.lzy.mall.dto.OmsOrderShipmentResult;
+import com.lzy.mall.dto.OmsOrderShipmentResult.Item;
+import com.lzy.mall.model.OmsOrder;
+import com.lzy.mall.model.OmsOrderOperateHistory;
+import com.lzy.mall.service.OmsOrderShipmentService;
+import com.lzy.mall.service.PageCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 订单发货Service实现类
+ * 每批先按订单ID或编号锁定订单，只对仍为待发货的订单执行一条批量更新，并批量插入操作历史；
+ * 订单状态在锁定后才判断，每个订单的处理结果都是确定的，不会因为个别订单状态不对而整批静默失败
+ */
+@Service
+public class OmsOrderShipmentServiceImpl implements OmsOrderShipmentService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OmsOrderShipmentServiceImpl.class);
+
+    @Autowired
+    private OmsOrderDao orderDao;
+    @Autowired
+    private OmsOrderOperateHistoryDao orderOperateHistoryDao;
+    @Autowired
+    private PageCountService pageCountService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Value("${order.shipment.chunkSize:500}")
+    private int chunkSize;
+
+    @Override
+    public int delivery(List<OmsOrderDeliveryParam> deliveryParamList) {
+        int count = 0;
+        for (List<OmsOrderDeliveryParam> chunk : CollUtil.split(deliveryParamList, chunkSize)) {
+            Set<Long> orderIds = chunk.stream().map(OmsOrderDeliveryParam::getOrderId)
+                    .filter(Objects::nonNull).collect(Collectors.toSet());
+            if (orderIds.isEmpty()) {
+                continue;
+            }
+            Set<Long> waitingIds = orderDao.lockForDelivery(orderIds, null).stream()
+                    .filter(order -> OmsOrderTransition.DELIVER.allowFrom(order.getStatus()))
+                    .map(OmsOrder::getId)
+                    .collect(Collectors.toSet());
+            // 同一订单出现多次时只处理第一次
+            List<OmsOrderDeliveryParam> shipList = chunk.stream()
+                    .filter(param -> waitingIds.remove(param.getOrderId()))
+                    .collect(Collectors.toList());
+            count += ship(shipList);
+        }
+        if (count > 0) {
+            pageCountService.evict("oms_order");
+        }
+        return count;
+    }
+
+    @Override
+    public OmsOrderShipmentResult importShipments(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            Asserts.fail("发货文件不能为空");
+        }
+        long startTime = System.currentTimeMillis();
+        List<Item> items = new ArrayList<>();
+        Set<String> seenOrderSns = new HashSet<>();
+        int chunkCount = 0;
+        CsvReadConfig config = CsvReadConfig.defaultConfig();
+        config.setContainsHeader(true);
+        config.setSkipEmptyRows(true);
+        // 直接读取上传流，每次只在内存中保留一批待处理的行
+        try (BufferedReader reader = new BufferedReader(IoUtil.getBomReader(file.getInputStream()))) {
+            CsvParser parser = new CsvParser(reader, config);
+            List<ShipmentRow> chunk = new ArrayList<>(chunkSize);
+            CsvRow csvRow;
+            while ((csvRow = parser.nextRow()) != null) {
+                ShipmentRow row = parseRow(csvRow, seenOrderSns);
+                items.add(row.item);
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    applyChunk(chunk);
+                    chunkCount++;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk);
+                chunkCount++;
+            }
+        } catch (IOException e) {
+            throw new ApiException("读取发货文件失败", e);
+        }
+
+        OmsOrderShipmentResult result = new OmsOrderShipmentResult();
+        result.setFileName(file.getOriginalFilename());
+        result.setTotal(items.size());
+        Map<Integer, Long> resultCount = items.stream()
+                .collect(Collectors.groupingBy(Item::getResult, Collectors.counting()));
+        result.setShippedCount(resultCount.getOrDefault(Item.RESULT_SHIPPED, 0L).intValue());
+        result.setSkippedCount(resultCount.getOrDefault(Item.RESULT_SKIPPED, 0L).intValue());
+        result.setNotFoundCount(resultCount.getOrDefault(Item.RESULT_NOT_FOUND, 0L).intValue());
+        result.setFailCount(resultCount.getOrDefault(Item.RESULT_FAILED, 0L).intValue());
+        result.setItems(items);
+        result.setChunkCount(chunkCount);
+        long elapsedMillis = Math.max(System.currentTimeMillis() - startTime, 1);
+        result.setElapsedMillis(elapsedMillis);
+        result.setRowsPerSecond(Math.round(items.size() * 1000.0 / elapsedMillis * 100) / 100.0);
+        if (result.getShippedCount() > 0) {
+            pageCountService.evict("oms_order");
+        }
+        LOGGER.info("发货文件[{}]处理完成：读取{}行，发货{}，跳过{}，不存在{}，失败{}，共{}批，耗时{}ms，{}行/秒",
+                result.getFileName(), result.getTotal(), result.getShippedCount(), result.getSkippedCount(),
+                result.getNotFoundCount(), result.getFailCount(), chunkCount, elapsedMillis, result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * 解析一行数据，数据不完整或订单编号在文件中重复时直接给出结果，不参与后续处理
+     */
+    private ShipmentRow parseRow(CsvRow csvRow, Set<String> seenOrderSns) {
+        String orderSn = StrUtil.trim(csvRow.getByName("orderSn"));
+        ShipmentRow row = new ShipmentRow(new Item(csvRow.getOriginalLineNumber() + 1, orderSn));
+        row.param.setDeliveryCompany(StrUtil.trim(csvRow.getByName("deliveryCompany")));
+        row.param.setDeliverySn(StrUtil.trim(csvRow.getByName("deliverySn")));
+        if (StrUtil.hasBlank(orderSn, row.param.getDeliveryCompany(), row.param.getDeliverySn())) {
+            row.item.setResult(Item.RESULT_FAILED);
+            row.item.setMessage("订单编号、物流公司、物流单号不能为空");
+        } else if (!seenOrderSns.add(orderSn)) {
+            row.item.setResult(Item.RESULT_SKIPPED);
+            row.item.setMessage("订单编号在文件中重复");
+        }
+        return row;
+    }
+
+    /**
+     * 在一个事务中处理一批数据，失败时整批回滚，只影响本批待发货的行
+     */
+    private void applyChunk(List<ShipmentRow> chunk) {
+        List<ShipmentRow> pendingRows = chunk.stream()
+                .filter(row -> row.item.getResult() == null)
+                .collect(Collectors.toList());
+        if (pendingRows.isEmpty()) {
+            return;
+        }
+        List<ShipmentRow> shipRows = new ArrayList<>(pendingRows.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> orderSns = pendingRows.stream().map(row -> row.item.getOrderSn()).collect(Collectors.toSet());
+                Map<String, OmsOrder> orderMap = orderDao.lockForDelivery(null, orderSns).stream()
+                        .collect(Collectors.toMap(OmsOrder::getOrderSn, Function.identity(), (first, second) -> first));
+                for (ShipmentRow row : pendingRows) {
+                    OmsOrder order = orderMap.get(row.item.getOrderSn());
+                    if (order == null) {
+                        row.item.setResult(Item.RESULT_NOT_FOUND);
+                        row.item.setMessage("订单不存在");
+                        continue;
+                    }
+                    row.item.setOrderId(order.getId());
+                    if (!OmsOrderTransition.DELIVER.allowFrom(order.getStatus())) {
+                        row.item.setResult(Item.RESULT_SKIPPED);
+                        row.item.setMessage("订单状态为" + order.getStatus() + "，不是待发货");
+                        continue;
+                    }
+                    row.param.setOrderId(order.getId());
+                    shipRows.add(row);
+                }
+                ship(shipRows.stream().map(row -> row.param).collect(Collectors.toList()));
+            });
+            shipRows.forEach(row -> row.item.setResult(Item.RESULT_SHIPPED));
+        } catch (Exception e) {
+            LOGGER.warn("批量发货写入失败：{}", e.getMessage());
+            String message = "批量写入失败：" + ExceptionUtil.getRootCauseMessage(e);
+            pendingRows.stream()
+                    .filter(row -> row.item.getResult() == null)
+                    .forEach(row -> {
+                        row.item.setResult(Item.RESULT_FAILED);
+                        row.item.setMessage(message);
+                    });
+        }
+    }
+
+    /**
+     * 更新已锁定且为待发货的订单，并批量记录操作历史
+     */
+    private int ship(List<OmsOrderDeliveryParam> shipList) {
+        if (shipList.isEmpty()) {
+            return 0;
+        }
+        int count = orderDao.delivery(shipList);
+        Date now = new Date();
+        List<OmsOrderOperateHistory> historyList = shipList.stream().map(param -> {
+            OmsOrderOperateHistory history = new OmsOrderOperateHistory();
+            history.setOrderId(param.getOrderId());
+            history.setCreateTime(now);
+            history.setOperateMan("后台管理员");
+            history.setOrderStatus(OmsOrderTransition.DELIVER.getToStatus());
+            history.setNote(OmsOrderTransition.DELIVER.getName());
+            return history;
+        }).collect(Collectors.toList());
+        orderOperateHistoryDao.insertList(historyList);
+        return count;
+    }
+
+    private static class ShipmentRow {
+        private final Item item;
+        private final OmsOrderDeliveryParam param = new OmsOrderDeliveryParam();
+
+        private ShipmentRow(Item item) {
+            this.item = item;
+        }
+    }
+}
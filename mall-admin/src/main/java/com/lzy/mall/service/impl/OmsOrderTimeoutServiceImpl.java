@@ -0,0 +1,126 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.date.DateUtil;
+import com.lzy.mall.bo.OmsOrderTransition;
+import com.lzy.mall.bo.OrderTimeout;
+import com.lzy.mall.dao.OmsOrderOperateHistoryDao;
+import com.lzy.mall.dao.OmsOrderTimeoutDao;
+import com.lzy.mall.mapper.OmsOrderSettingMapper;
+import com.lzy.mall.model.OmsOrder;
+import com.lzy.mall.model.OmsOrderOperateHistory;
+import com.lzy.mall.model.OmsOrderSetting;
+import com.lzy.mall.service.OmsOrderTimeoutService;
+import com.lzy.mall.service.PageCountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 订单超时处理Service实现类
+ */
+@Service
+public class OmsOrderTimeoutServiceImpl implements OmsOrderTimeoutService {
+    /**
+     * 订单设置记录ID
+     */
+    private static final Long ORDER_SETTING_ID = 1L;
+    private static final int ORDER_TYPE_FLASH = 1;
+    @Autowired
+    private OmsOrderTimeoutDao orderTimeoutDao;
+    @Autowired
+    private OmsOrderOperateHistoryDao orderOperateHistoryDao;
+    @Autowired
+    private OmsOrderSettingMapper orderSettingMapper;
+    @Autowired
+    private PageCountService pageCountService;
+
+    @Override
+    public List<OrderTimeout> schedule(int limit) {
+        List<OmsOrder> orderList = orderTimeoutDao.selectUnscheduled(limit);
+        if (orderList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        OmsOrderSetting setting = orderSettingMapper.selectByPrimaryKey(ORDER_SETTING_ID);
+        List<OrderTimeout> timeoutList = new ArrayList<>(orderList.size());
+        for (OmsOrder order : orderList) {
+            Date timeoutTime = setting == null ? null : computeTimeoutTime(order, setting);
+            //无法计算的订单也写入超时时间，避免每次都被选出而占满一批
+            timeoutList.add(new OrderTimeout(order.getId(), order.getStatus(),
+                    timeoutTime == null ? OrderTimeout.NEVER : timeoutTime));
+        }
+        orderTimeoutDao.updateTimeoutTime(timeoutList);
+        return timeoutList;
+    }
+
+    /**
+     * 待付款订单按下单时间加上普通/秒杀订单超时分钟数，已发货订单按发货时间加上自动确认收货天数；
+     * 对应设置为空或时间字段缺失时返回null
+     */
+    private Date computeTimeoutTime(OmsOrder order, OmsOrderSetting setting) {
+        if (order.getStatus() == OrderTimeout.STATUS_UNPAID) {
+            Integer overtime = order.getOrderType() != null && order.getOrderType() == ORDER_TYPE_FLASH
+                    ? setting.getFlashOrderOvertime() : setting.getNormalOrderOvertime();
+            if (overtime == null || order.getCreateTime() == null) {
+                return null;
+            }
+            return DateUtil.offsetMinute(order.getCreateTime(), overtime);
+        }
+        //下单时记录的自动确认收货天数优先
+        Integer confirmDay = order.getAutoConfirmDay() != null ? order.getAutoConfirmDay() : setting.getConfirmOvertime();
+        if (confirmDay == null || order.getDeliveryTime() == null) {
+            return null;
+        }
+        return DateUtil.offsetDay(order.getDeliveryTime(), confirmDay);
+    }
+
+    @Override
+    public List<OrderTimeout> listDue(Integer status, Date afterTime, Long afterId, Date toTime, int limit) {
+        return orderTimeoutDao.selectDue(status, afterTime, afterId, toTime, limit);
+    }
+
+    @Override
+    @Transactional
+    public int expire(Integer status, List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = orderTimeoutDao.lockDue(orderIds, status, new Date());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        OmsOrderTransition transition;
+        int count;
+        if (status == OrderTimeout.STATUS_UNPAID) {
+            count = orderTimeoutDao.closeUnpaid(ids);
+            orderTimeoutDao.releaseStockLock(ids);
+            transition = OmsOrderTransition.TIMEOUT_CLOSE;
+        } else {
+            count = orderTimeoutDao.confirmReceive(ids);
+            transition = OmsOrderTransition.TIMEOUT_CONFIRM;
+        }
+        Date now = new Date();
+        List<OmsOrderOperateHistory> historyList = ids.stream().map(orderId -> {
+            OmsOrderOperateHistory history = new OmsOrderOperateHistory();
+            history.setOrderId(orderId);
+            history.setCreateTime(now);
+            history.setOperateMan("系统");
+            history.setOrderStatus(transition.getToStatus());
+            history.setNote(transition.getName());
+            return history;
+        }).collect(Collectors.toList());
+        orderOperateHistoryDao.insertList(historyList);
+        pageCountService.evict("oms_order");
+        return count;
+    }
+
+    @Override
+    public int reschedule() {
+        return orderTimeoutDao.resetTimeoutTime();
+    }
+}
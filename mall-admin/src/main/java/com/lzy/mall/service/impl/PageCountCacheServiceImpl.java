@@ -0,0 +1,49 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.common.service.RedisService;
+import com.lzy.mall.service.PageCountCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 分页总数缓存管理Service实现类
+ * 缓存key中带有数据表的版本号，表发生写操作时只需递增版本号，旧版本的缓存自然过期
+ */
+@Service
+public class PageCountCacheServiceImpl implements PageCountCacheService {
+    @Autowired
+    private RedisService redisService;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.pageCount}")
+    private String REDIS_KEY_PAGE_COUNT;
+    @Value("${redis.expire.pageCount}")
+    private Long REDIS_EXPIRE_PAGE_COUNT;
+
+    @Override
+    public Long getCount(String table, String filterKey) {
+        Object count = redisService.get(getCountKey(table, filterKey));
+        return count == null ? null : ((Number) count).longValue();
+    }
+
+    @Override
+    public void setCount(String table, String filterKey, long count) {
+        redisService.set(getCountKey(table, filterKey), count, REDIS_EXPIRE_PAGE_COUNT);
+    }
+
+    @Override
+    public void delCount(String table) {
+        redisService.incr(getVersionKey(table), 1);
+    }
+
+    private String getCountKey(String table, String filterKey) {
+        Object version = redisService.get(getVersionKey(table));
+        long tableVersion = version == null ? 0 : ((Number) version).longValue();
+        return REDIS_DATABASE + ":" + REDIS_KEY_PAGE_COUNT + ":" + table + ":" + tableVersion + ":" + filterKey;
+    }
+
+    private String getVersionKey(String table) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_PAGE_COUNT + ":" + table + ":version";
+    }
+}
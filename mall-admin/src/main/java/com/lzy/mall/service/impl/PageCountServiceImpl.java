@@ -0,0 +1,96 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.github.pagehelper.Page;
+import com.lzy.mall.common.api.ApproximatePage;
+import com.lzy.mall.common.util.TransactionUtil;
+import com.lzy.mall.dao.TableStatusDao;
+import com.lzy.mall.service.PageCountCacheService;
+import com.lzy.mall.service.PageCountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 分页总数Service实现类
+ * 1. 无查询条件且开启估算模式时，使用表统计信息中的行数作为总条数，其中包含逻辑删除的记录
+ * 2. 否则按“数据表 + 规范化查询条件”缓存COUNT(*)结果，缓存未命中时才执行计数查询
+ */
+@Service
+public class PageCountServiceImpl implements PageCountService {
+    /**
+     * 无查询条件时使用的缓存key
+     */
+    private static final String NO_FILTER_KEY = "all";
+
+    @Autowired
+    private PageCountCacheService pageCountCacheService;
+    @Autowired
+    private TableStatusDao tableStatusDao;
+    @Value("${pageCount.approximate:false}")
+    private boolean approximate;
+
+    @Override
+    public <T> List<T> fillTotal(List<T> pageList, String table, Object filter, Supplier<Long> counter) {
+        if (!(pageList instanceof Page)) {
+            return pageList;
+        }
+        Page<T> page = (Page<T>) pageList;
+        String filterKey = getFilterKey(filter);
+
+        // 无查询条件的列表使用表统计信息估算总数；统计信息包含逻辑删除的记录，
+        // 扣除它们需要扫描全表计数且每次写入后都要重新计数，因此不扣除，估算值会大于列表实际可见的条数
+        if (approximate && NO_FILTER_KEY.equals(filterKey)) {
+            Long tableRows = tableStatusDao.getTableRows(table);
+            if (tableRows != null) {
+                return new ApproximatePage<>(page.getPageNum(), page.getPageSize(), tableRows, page);
+            }
+        }
+
+        // 优先使用缓存的精确总数
+        Long total = pageCountCacheService.getCount(table, filterKey);
+        if (total == null) {
+            total = counter.get();
+            pageCountCacheService.setCount(table, filterKey, total);
+        }
+        page.setTotal(total);
+        return page;
+    }
+
+    @Override
+    public void evict(String table) {
+        // 事务提交前失效会让并发的列表查询把旧的总数重新写入缓存
+        TransactionUtil.afterCommit(() -> pageCountCacheService.delCount(table));
+    }
+
+    /**
+     * 将查询参数规范化为缓存key：忽略空值字段，按字段名排序后取摘要
+     */
+    private String getFilterKey(Object filter) {
+        if (filter == null) {
+            return NO_FILTER_KEY;
+        }
+        Map<String, Object> filterMap = new TreeMap<>();
+        BeanUtil.beanToMap(filter).forEach((name, value) -> {
+            if (value == null || (value instanceof CharSequence && StrUtil.isBlank((CharSequence) value))) {
+                return;
+            }
+            filterMap.put(name, value);
+        });
+        if (filterMap.isEmpty()) {
+            return NO_FILTER_KEY;
+        }
+        String normalized = filterMap.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining("&"));
+        return SecureUtil.md5(normalized);
+    }
+}
@@ -2,13 +2,13 @@ package com.lzy.mall.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.component.DenormalizeRegistry;
+import com.lzy.mall.component.HomeContentHolder;
 import com.lzy.mall.dto.PmsBrandParam;
 import com.lzy.mall.mapper.PmsBrandMapper;
-import com.lzy.mall.mapper.PmsProductMapper;
 import com.lzy.mall.model.PmsBrand;
 import com.lzy.mall.model.PmsBrandExample;
-import com.lzy.mall.model.PmsProduct;
-import com.lzy.mall.model.PmsProductExample;
+import com.lzy.mall.service.DenormalizeService;
 import com.lzy.mall.service.PmsBrandService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,9 +27,13 @@ public class PmsBrandServiceImpl implements PmsBrandService {
     @Autowired
     private PmsBrandMapper brandMapper;
     
-    // 商品数据访问对象，用于级联更新商品信息
+    // 冗余字段异步更新服务，用于级联更新商品信息
     @Autowired
-    private PmsProductMapper productMapper;
+    private DenormalizeService denormalizeService;
+
+    // 首页内容快照，推荐品牌的信息或显示状态变化后失效
+    @Autowired
+    private HomeContentHolder homeContentHolder;
 
     /**
      * 获取所有品牌列表
@@ -89,17 +93,23 @@ public class PmsBrandServiceImpl implements PmsBrandService {
             pmsBrand.setFirstLetter(pmsBrand.getName().substring(0, 1).toUpperCase());
         }
         
-        // 3. 级联更新：更新关联商品的品牌名称
-        if (pmsBrandParam.getName() != null) {
-            PmsProduct product = new PmsProduct();
-            product.setBrandName(pmsBrand.getName());
-            PmsProductExample example = new PmsProductExample();
-            example.createCriteria().andBrandIdEqualTo(id);
-            productMapper.updateByExampleSelective(product, example);
+        // 3. 级联更新：品牌名称发生变化时提交异步任务分批更新关联商品的品牌名称
+        if (pmsBrandParam.getName() != null && isNameChanged(id, pmsBrand.getName())) {
+            denormalizeService.submit(DenormalizeRegistry.PRODUCT_BRAND_NAME, id, pmsBrand.getName());
         }
         
         // 4. 更新品牌信息到数据库
-        return brandMapper.updateByPrimaryKeySelective(pmsBrand);
+        int count = brandMapper.updateByPrimaryKeySelective(pmsBrand);
+        homeContentHolder.invalidate();
+        return count;
+    }
+
+    /**
+     * 判断品牌名称是否与数据库中的不同，名称不变时不需要更新关联商品
+     */
+    private boolean isNameChanged(Long id, String name) {
+        PmsBrand oldBrand = brandMapper.selectByPrimaryKey(id);
+        return oldBrand == null || !name.equals(oldBrand.getName());
     }
 
     /**
@@ -113,7 +123,9 @@ public class PmsBrandServiceImpl implements PmsBrandService {
     public int deleteBrand(Long id) {
         // 根据主键ID删除品牌记录
         // 注意：需要确保没有商品关联到此品牌，否则可能会导致数据不一致
-        return brandMapper.deleteByPrimaryKey(id);
+        int count = brandMapper.deleteByPrimaryKey(id);
+        homeContentHolder.invalidate();
+        return count;
     }
 
     /**
@@ -133,7 +145,9 @@ public class PmsBrandServiceImpl implements PmsBrandService {
         pmsBrandExample.createCriteria().andIdIn(ids);
         
         // 执行批量删除
-        return brandMapper.deleteByExample(pmsBrandExample);
+        int count = brandMapper.deleteByExample(pmsBrandExample);
+        homeContentHolder.invalidate();
+        return count;
     }
 
     /**
@@ -207,7 +221,9 @@ public class PmsBrandServiceImpl implements PmsBrandService {
         pmsBrandExample.createCriteria().andIdIn(ids);
         
         // 3. 执行批量更新并返回结果
-        return brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        int count = brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        homeContentHolder.invalidate();
+        return count;
     }
 
     /**
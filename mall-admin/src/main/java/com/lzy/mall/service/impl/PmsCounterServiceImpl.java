@@ -0,0 +1,137 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.component.CountDeltaBuffer;
+import com.lzy.mall.component.CountDeltaBuffer.Batch;
+import com.lzy.mall.component.CountDeltaBuffer.Counter;
+import com.lzy.mall.dao.PmsCounterDao;
+import com.lzy.mall.service.PmsCounterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品相关计数列维护Service实现类
+ * 校正时先在Redis中登记分界时间，各节点在下一次写入时读取并按分界时间切分批次；到达分界时间后再按实际数据重新统计，
+ * 统计完成后将分界时间保存为校正水位。各节点写入时丢弃记录时间早于校正水位的批次（已包含在统计结果中），
+ * 校正进行中暂不写入分界时间之前的批次，校正失败或超时后正常写入。
+ */
+@Service
+public class PmsCounterServiceImpl implements PmsCounterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PmsCounterServiceImpl.class);
+    /**
+     * 校正的最长时间，节点在校正过程中退出时，超过该时间后其他节点可以重新校正
+     */
+    private static final long RECONCILE_TIMEOUT_MINUTES = 10;
+    @Autowired
+    private CountDeltaBuffer countDeltaBuffer;
+    @Autowired
+    private PmsCounterDao counterDao;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.counter}")
+    private String REDIS_KEY_COUNTER;
+    @Value("${counter.flushInterval:1000}")
+    private long flushInterval;
+
+    @Override
+    public synchronized void flush() {
+        Long reconciling;
+        long watermark;
+        try {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(Arrays.asList(getReconcilingKey(), getWatermarkKey()));
+            reconciling = values.get(0) != null ? Long.valueOf(values.get(0)) : null;
+            watermark = values.get(1) != null ? Long.parseLong(values.get(1)) : 0;
+        } catch (Exception e) {
+            LOGGER.warn("读取计数校正水位失败，等待下次重试：{}", e.getMessage());
+            return;
+        }
+        if (reconciling != null) {
+            countDeltaBuffer.splitAt(reconciling);
+        }
+        for (Batch batch : countDeltaBuffer.drain()) {
+            if (batch.getLastRecordTime() < watermark) {
+                LOGGER.info("丢弃校正前记录的计数增量：{}", batch.getDeltaMap());
+                continue;
+            }
+            if (reconciling != null && batch.getLastRecordTime() < reconciling) {
+                countDeltaBuffer.restore(batch);
+                continue;
+            }
+            if (batch.getFirstRecordTime() < watermark) {
+                LOGGER.warn("计数增量批次跨越校正水位，校正前记录的部分可能重复计数：{}", batch.getDeltaMap());
+            }
+            write(batch);
+        }
+    }
+
+    /**
+     * 写入一批增量，写入成功的计数列从批次中移除，失败的放回缓冲区等待下次重试
+     */
+    private void write(Batch batch) {
+        Iterator<Map.Entry<Counter, Map<Long, Long>>> iterator = batch.getDeltaMap().entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Counter, Map<Long, Long>> entry = iterator.next();
+            Counter counter = entry.getKey();
+            try {
+                counterDao.addCount(counter.getTable(), counter.getColumn(), entry.getValue());
+                iterator.remove();
+            } catch (Exception e) {
+                LOGGER.warn("写入计数增量失败：{}.{}，等待下次重试", counter.getTable(), counter.getColumn(), e);
+            }
+        }
+        if (!batch.getDeltaMap().isEmpty()) {
+            countDeltaBuffer.restore(batch);
+        }
+    }
+
+    @Override
+    public int reconcile() {
+        //分界时间留出几个写入间隔，保证各节点在分界时间之前读取到分界时间
+        long splitTime = System.currentTimeMillis() + flushInterval * 3;
+        Boolean started = stringRedisTemplate.opsForValue().setIfAbsent(getReconcilingKey(), String.valueOf(splitTime),
+                RECONCILE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        if (!Boolean.TRUE.equals(started)) {
+            LOGGER.info("其他节点正在校正商品计数");
+            return 0;
+        }
+        try {
+            countDeltaBuffer.splitAt(splitTime);
+            long waitMillis = splitTime - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                Thread.sleep(waitMillis);
+            }
+            //统计在分界时间之后执行，分界时间之前提交的修改都已包含在统计结果中
+            int count = counterDao.reconcileProductCount() + counterDao.reconcileAttributeCount();
+            stringRedisTemplate.opsForValue().set(getWatermarkKey(), String.valueOf(splitTime));
+            if (count > 0) {
+                LOGGER.info("商品计数校正完成，校正记录数：{}", count);
+            }
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("商品计数校正被中断");
+            return 0;
+        } finally {
+            stringRedisTemplate.delete(getReconcilingKey());
+        }
+    }
+
+    private String getReconcilingKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_COUNTER + ":reconciling";
+    }
+
+    private String getWatermarkKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_COUNTER + ":watermark";
+    }
+}
@@ -1,14 +1,15 @@
 package com.lzy.mall.service.impl;
 
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.component.DenormalizeRegistry;
+import com.lzy.mall.component.ProductCategoryTreeHolder;
 import com.lzy.mall.dao.PmsProductCategoryAttributeRelationDao;
-import com.lzy.mall.dao.PmsProductCategoryDao;
 import com.lzy.mall.dto.PmsProductCategoryParam;
 import com.lzy.mall.dto.PmsProductCategoryWithChildrenItem;
 import com.lzy.mall.mapper.PmsProductCategoryAttributeRelationMapper;
 import com.lzy.mall.mapper.PmsProductCategoryMapper;
-import com.lzy.mall.mapper.PmsProductMapper;
 import com.lzy.mall.model.*;
+import com.lzy.mall.service.DenormalizeService;
 import com.lzy.mall.service.PmsProductCategoryService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.BeanUtils;
@@ -28,7 +29,7 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
     private PmsProductCategoryMapper productCategoryMapper; // 商品分类Mapper
     
     @Autowired
-    private PmsProductMapper productMapper; // 商品Mapper
+    private DenormalizeService denormalizeService; // 冗余字段异步更新服务
     
     @Autowired
     private PmsProductCategoryAttributeRelationDao productCategoryAttributeRelationDao; // 商品分类属性关系DAO
@@ -37,7 +38,7 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
     private PmsProductCategoryAttributeRelationMapper productCategoryAttributeRelationMapper; // 商品分类属性关系Mapper
     
     @Autowired
-    private PmsProductCategoryDao productCategoryDao; // 商品分类DAO
+    private ProductCategoryTreeHolder productCategoryTreeHolder; // 商品分类树快照
 
     /**
      * 创建商品分类
@@ -67,6 +68,7 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         if(!CollectionUtils.isEmpty(productAttributeIdList)){
             insertRelationList(productCategory.getId(), productAttributeIdList);
         }
+        productCategoryTreeHolder.invalidate();
         return count;
     }
 
@@ -130,12 +132,10 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         // 3. 更新分类层级
         setCategoryLevel(productCategory);
         
-        // 4. 更新关联商品的分类名称
-        PmsProduct product = new PmsProduct();
-        product.setProductCategoryName(productCategory.getName());
-        PmsProductExample example = new PmsProductExample();
-        example.createCriteria().andProductCategoryIdEqualTo(id);
-        productMapper.updateByExampleSelective(product, example);
+        // 4. 分类名称发生变化时提交异步任务分批更新关联商品的分类名称
+        if (productCategory.getName() != null && isNameChanged(id, productCategory.getName())) {
+            denormalizeService.submit(DenormalizeRegistry.PRODUCT_CATEGORY_NAME, id, productCategory.getName());
+        }
         
         // 5. 处理商品分类与属性的关联关系
         // 5.1 先删除原有的关联关系
@@ -149,7 +149,17 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         }
         
         // 6. 更新商品分类信息并返回结果
-        return productCategoryMapper.updateByPrimaryKeySelective(productCategory);
+        int count = productCategoryMapper.updateByPrimaryKeySelective(productCategory);
+        productCategoryTreeHolder.invalidate();
+        return count;
+    }
+
+    /**
+     * 判断分类名称是否与数据库中的不同，名称不变时不需要更新关联商品
+     */
+    private boolean isNameChanged(Long id, String name) {
+        PmsProductCategory oldCategory = productCategoryMapper.selectByPrimaryKey(id);
+        return oldCategory == null || !name.equals(oldCategory.getName());
     }
 
     /**
@@ -203,7 +213,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
     public int delete(Long id) {
         // 1. 根据主键ID删除商品分类记录
         // 注意：需要确保没有子分类或商品关联到此分类
-        return productCategoryMapper.deleteByPrimaryKey(id);
+        int count = productCategoryMapper.deleteByPrimaryKey(id);
+        productCategoryTreeHolder.invalidate();
+        return count;
     }
 
     /**
@@ -248,7 +260,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         example.createCriteria().andIdIn(ids);
         
         // 4. 执行批量更新并返回结果
-        return productCategoryMapper.updateByExampleSelective(productCategory, example);
+        int count = productCategoryMapper.updateByExampleSelective(productCategory, example);
+        productCategoryTreeHolder.invalidate();
+        return count;
     }
 
     /**
@@ -276,7 +290,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         example.createCriteria().andIdIn(ids);
         
         // 4. 执行批量更新并返回结果
-        return productCategoryMapper.updateByExampleSelective(productCategory, example);
+        int count = productCategoryMapper.updateByExampleSelective(productCategory, example);
+        productCategoryTreeHolder.invalidate();
+        return count;
     }
 
     /**
@@ -285,14 +301,13 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
      */
     /**
      * 获取所有一级分类及其子分类（树形结构）
-     * 使用递归方式构建分类的树形结构
+     * 直接返回内存中的分类树快照，不查询数据库，层级不限
      * 
      * @return 包含子分类的商品分类列表（树形结构）
      */
     @Override
     public List<PmsProductCategoryWithChildrenItem> listWithChildren() {
-        // 调用DAO层方法获取分类树
-        return productCategoryDao.listWithChildren();
+        return productCategoryTreeHolder.getTree().getRoots();
     }
 
     /**
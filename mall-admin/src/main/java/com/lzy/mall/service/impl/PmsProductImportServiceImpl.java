@@ -0,0 +1,530 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.text.csv.CsvParser;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lzy.mall.common.exception.ApiException;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.component.CountDeltaBuffer;
+import com.lzy.mall.component.CountDeltaBuffer.Counter;
+import com.lzy.mall.dao.*;
+import com.lzy.mall.datasource.DataSourceContextHolder;
+import com.lzy.mall.datasource.PoolPartition;
+import com.lzy.mall.dto.PmsProductImportResult;
+import com.lzy.mall.dto.PmsProductParam;
+import com.lzy.mall.mapper.PmsBrandMapper;
+import com.lzy.mall.mapper.PmsProductAttributeCategoryMapper;
+import com.lzy.mall.mapper.PmsProductAttributeMapper;
+import com.lzy.mall.mapper.PmsProductCategoryMapper;
+import com.lzy.mall.model.*;
+import com.lzy.mall.service.PageCountService;
+import com.lzy.mall.service.PmsProductImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 商品批量导入Service实现类
+ * 导入在后台线程中按批处理：逐行读取一批数据，使用导入开始时加载的品牌、分类、属性字典并行校验，
+ * 校验通过的商品及其SKU、属性值、价格等在同一个事务中批量插入，失败的行记录行号和原因
+ * 导入吞吐量压测见PmsProductImportLoadTests
+ */
+@Service
+public class PmsProductImportServiceImpl implements PmsProductImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PmsProductImportServiceImpl.class);
+    private static final int STATUS_RUNNING = 0;
+    private static final int STATUS_FINISHED = 1;
+    private static final int STATUS_FAILED = 2;
+    /**
+     * 每个任务最多保留的失败明细数
+     */
+    private static final int MAX_ERRORS = 1000;
+    /**
+     * 已结束任务的保留时间
+     */
+    private static final long TASK_RETENTION_MILLIS = 60 * 60 * 1000L;
+
+    @Autowired
+    private PmsProductDao productDao;
+    @Autowired
+    private PmsMemberPriceDao memberPriceDao;
+    @Autowired
+    private PmsProductLadderDao productLadderDao;
+    @Autowired
+    private PmsProductFullReductionDao productFullReductionDao;
+    @Autowired
+    private PmsSkuStockDao skuStockDao;
+    @Autowired
+    private PmsProductAttributeValueDao productAttributeValueDao;
+    @Autowired
+    private CmsSubjectProductRelationDao subjectProductRelationDao;
+    @Autowired
+    private CmsPrefrenceAreaProductRelationDao prefrenceAreaProductRelationDao;
+    @Autowired
+    private PmsBrandMapper brandMapper;
+    @Autowired
+    private PmsProductCategoryMapper productCategoryMapper;
+    @Autowired
+    private PmsProductAttributeCategoryMapper productAttributeCategoryMapper;
+    @Autowired
+    private PmsProductAttributeMapper productAttributeMapper;
+    @Autowired
+    private PageCountService pageCountService;
+    @Autowired
+    private CountDeltaBuffer countDeltaBuffer;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    @Qualifier("productImportExecutor")
+    private Executor productImportExecutor;
+    @Autowired
+    @Qualifier("productValidateExecutor")
+    private Executor productValidateExecutor;
+    @Value("${product.import.batchSize:500}")
+    private int batchSize;
+
+    private final Map<String, ImportTask> tasks = new ConcurrentHashMap<>();
+
+    @Override
+    public String importProducts(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            Asserts.fail("导入文件不能为空");
+        }
+        String fileName = file.getOriginalFilename();
+        boolean csv = StrUtil.endWithIgnoreCase(fileName, ".csv");
+        // 上传的临时文件在请求结束后会被删除，先转存再交给后台线程读取，后台线程读取完成后删除；
+        // 转存或提交任务失败时没有交给后台线程，在这里删除
+        File tempFile = null;
+        boolean submitted = false;
+        try {
+            tempFile = File.createTempFile("product-import-", csv ? ".csv" : ".jsonl");
+            file.transferTo(tempFile);
+            removeExpiredTasks();
+            ImportTask task = new ImportTask(IdUtil.simpleUUID(), fileName);
+            tasks.put(task.id, task);
+            File importFile = tempFile;
+            try {
+                productImportExecutor.execute(() -> runImport(task, importFile, csv));
+            } catch (RejectedExecutionException e) {
+                tasks.remove(task.id);
+                throw new ApiException("当前导入任务过多，请稍后再试");
+            }
+            submitted = true;
+            return task.id;
+        } catch (IOException e) {
+            throw new ApiException("导入文件保存失败", e);
+        } finally {
+            if (!submitted && tempFile != null) {
+                FileUtil.del(tempFile);
+            }
+        }
+    }
+
+    @Override
+    public PmsProductImportResult getResult(String taskId) {
+        ImportTask task = tasks.get(taskId);
+        if (task == null) {
+            Asserts.fail("导入任务不存在或已过期");
+        }
+        return task.toResult();
+    }
+
+    /**
+     * 执行导入任务，使用bulk分区的连接池，避免占用页面请求的连接
+     */
+    private void runImport(ImportTask task, File file, boolean csv) {
+        DataSourceContextHolder.setPartition(PoolPartition.BULK);
+        try (BufferedReader reader = FileUtil.getUtf8Reader(file)) {
+            ImportLookup lookup = loadLookup();
+            RowReader rowReader = csv ? csvRowReader(reader) : jsonLineRowReader(reader);
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+            ImportRow row;
+            while ((row = rowReader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    processChunk(task, chunk, lookup);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(task, chunk, lookup);
+            }
+            task.finish(STATUS_FINISHED, null);
+        } catch (Exception e) {
+            LOGGER.error("商品导入[{}]异常终止", task.id, e);
+            task.finish(STATUS_FAILED, ExceptionUtil.getSimpleMessage(e));
+        } finally {
+            DataSourceContextHolder.clear();
+            FileUtil.del(file);
+            pageCountService.evict("pms_product");
+            PmsProductImportResult result = task.toResult();
+            LOGGER.info("商品导入[{}]结束：读取{}行，成功{}，失败{}，耗时{}ms，{}个/秒", task.id, result.getTotal(),
+                    result.getSuccessCount(), result.getFailCount(), result.getElapsedMillis(), result.getProductsPerSecond());
+        }
+    }
+
+    /**
+     * 处理一批数据：并行校验、货号查重、单事务批量写入
+     */
+    private void processChunk(ImportTask task, List<ImportRow> chunk, ImportLookup lookup) {
+        // 1. 字典已在内存中，每行校验互不依赖，可以并行执行
+        CompletableFuture<?>[] futures = chunk.stream()
+                .filter(row -> row.error == null)
+                .map(row -> CompletableFuture.runAsync(() -> row.error = validate(row.product, lookup), productValidateExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        // 2. 货号在文件内和数据库中都不能重复，每批只查一次数据库
+        Set<String> productSns = chunk.stream()
+                .filter(row -> row.error == null)
+                .map(row -> row.product.getProductSn())
+                .collect(Collectors.toSet());
+        Set<String> existProductSns = productSns.isEmpty()
+                ? Collections.emptySet() : new HashSet<>(productDao.selectExistProductSn(productSns));
+        List<ImportRow> validRows = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                String productSn = row.product.getProductSn();
+                if (existProductSns.contains(productSn)) {
+                    row.error = "商品货号已存在";
+                } else if (!task.productSns.add(productSn)) {
+                    row.error = "商品货号在文件中重复";
+                }
+            }
+            if (row.error == null) {
+                validRows.add(row);
+            } else {
+                task.addError(row);
+            }
+        }
+
+        // 3. 整批在一个事务中写入，失败时整批回滚并记录到每一行
+        if (!validRows.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertProducts(validRows));
+                task.successCount.addAndGet(validRows.size());
+            } catch (Exception e) {
+                LOGGER.warn("商品导入[{}]批量写入失败：{}", task.id, e.getMessage());
+                String message = "批量写入失败：" + ExceptionUtil.getRootCauseMessage(e);
+                validRows.forEach(row -> {
+                    row.error = message;
+                    task.addError(row);
+                });
+            }
+        }
+        task.total.addAndGet(chunk.size());
+    }
+
+    /**
+     * 校验一行商品数据，通过时补全品牌、分类名称等冗余字段
+     * @return 失败原因，校验通过返回null
+     */
+    private String validate(PmsProductParam product, ImportLookup lookup) {
+        if (StrUtil.isBlank(product.getName())) {
+            return "商品名称不能为空";
+        }
+        if (StrUtil.isBlank(product.getProductSn())) {
+            return "商品货号不能为空";
+        }
+        PmsBrand brand = lookup.brands.get(product.getBrandId());
+        if (brand == null) {
+            return "品牌不存在";
+        }
+        PmsProductCategory category = lookup.categories.get(product.getProductCategoryId());
+        if (category == null) {
+            return "商品分类不存在";
+        }
+        Long attributeCategoryId = product.getProductAttributeCategoryId();
+        if (attributeCategoryId != null && !lookup.attributeCategoryIds.contains(attributeCategoryId)) {
+            return "商品属性分类不存在";
+        }
+        if (isNegative(product.getPrice())) {
+            return "商品价格不能小于0";
+        }
+        if (CollUtil.isNotEmpty(product.getProductAttributeValueList())) {
+            for (PmsProductAttributeValue attributeValue : product.getProductAttributeValueList()) {
+                PmsProductAttribute attribute = lookup.attributes.get(attributeValue.getProductAttributeId());
+                if (attribute == null || !Objects.equals(attribute.getProductAttributeCategoryId(), attributeCategoryId)) {
+                    return "商品属性[" + attributeValue.getProductAttributeId() + "]不存在或不属于该商品属性分类";
+                }
+            }
+        }
+        if (CollUtil.isNotEmpty(product.getSkuStockList())) {
+            Set<String> skuCodes = new HashSet<>();
+            for (PmsSkuStock skuStock : product.getSkuStockList()) {
+                if (isNegative(skuStock.getPrice())) {
+                    return "SKU价格不能小于0";
+                }
+                if (skuStock.getStock() != null && skuStock.getStock() < 0) {
+                    return "SKU库存不能小于0";
+                }
+                if (StrUtil.isNotEmpty(skuStock.getSkuCode()) && !skuCodes.add(skuStock.getSkuCode())) {
+                    return "SKU编码[" + skuStock.getSkuCode() + "]重复";
+                }
+            }
+        }
+        product.setBrandName(brand.getName());
+        product.setProductCategoryName(category.getName());
+        // 批量插入会写入所有字段，状态类字段未填写时按新建商品的默认值处理
+        product.setDeleteStatus(ObjectUtil.defaultIfNull(product.getDeleteStatus(), 0));
+        product.setPublishStatus(ObjectUtil.defaultIfNull(product.getPublishStatus(), 0));
+        product.setNewStatus(ObjectUtil.defaultIfNull(product.getNewStatus(), 0));
+        product.setRecommandStatus(ObjectUtil.defaultIfNull(product.getRecommandStatus(), 0));
+        product.setVerifyStatus(ObjectUtil.defaultIfNull(product.getVerifyStatus(), 0));
+        product.setPreviewStatus(ObjectUtil.defaultIfNull(product.getPreviewStatus(), 0));
+        product.setSort(ObjectUtil.defaultIfNull(product.getSort(), 0));
+        product.setSale(ObjectUtil.defaultIfNull(product.getSale(), 0));
+        return null;
+    }
+
+    private boolean isNegative(BigDecimal value) {
+        return value != null && value.signum() < 0;
+    }
+
+    /**
+     * 批量插入商品及其关联数据，商品ID由批量插入回填
+     */
+    private void insertProducts(List<ImportRow> rows) {
+        List<PmsProduct> products = rows.stream().map(row -> (PmsProduct) row.product).collect(Collectors.toList());
+        productDao.insertList(products);
+        // 在事务提交后按分类累加商品数量
+        countDeltaBuffer.addAll(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, products.stream()
+                .filter(product -> product.getProductCategoryId() != null && product.getDeleteStatus() == 0)
+                .collect(Collectors.groupingBy(PmsProduct::getProductCategoryId, Collectors.counting())));
+
+        List<PmsMemberPrice> memberPriceList = new ArrayList<>();
+        List<PmsProductLadder> productLadderList = new ArrayList<>();
+        List<PmsProductFullReduction> productFullReductionList = new ArrayList<>();
+        List<PmsSkuStock> skuStockList = new ArrayList<>();
+        List<PmsProductAttributeValue> productAttributeValueList = new ArrayList<>();
+        List<CmsSubjectProductRelation> subjectProductRelationList = new ArrayList<>();
+        List<CmsPrefrenceAreaProductRelation> prefrenceAreaProductRelationList = new ArrayList<>();
+        String today = DateUtil.format(new Date(), "yyyyMMdd");
+        for (ImportRow row : rows) {
+            PmsProductParam product = row.product;
+            Long productId = product.getId();
+            relate(memberPriceList, product.getMemberPriceList(), productId, PmsMemberPrice::setProductId);
+            relate(productLadderList, product.getProductLadderList(), productId, PmsProductLadder::setProductId);
+            relate(productFullReductionList, product.getProductFullReductionList(), productId, PmsProductFullReduction::setProductId);
+            relate(skuStockList, product.getSkuStockList(), productId, PmsSkuStock::setProductId);
+            relate(productAttributeValueList, product.getProductAttributeValueList(), productId, PmsProductAttributeValue::setProductId);
+            relate(subjectProductRelationList, product.getSubjectProductRelationList(), productId, CmsSubjectProductRelation::setProductId);
+            relate(prefrenceAreaProductRelationList, product.getPrefrenceAreaProductRelationList(), productId, CmsPrefrenceAreaProductRelation::setProductId);
+            // SKU编码规则与单个创建商品一致：日期(8位) + 商品ID(4位) + 索引(3位)
+            List<PmsSkuStock> skuStocks = product.getSkuStockList();
+            if (CollUtil.isNotEmpty(skuStocks)) {
+                for (int i = 0; i < skuStocks.size(); i++) {
+                    if (StrUtil.isEmpty(skuStocks.get(i).getSkuCode())) {
+                        skuStocks.get(i).setSkuCode(today + String.format("%04d", productId) + String.format("%03d", i + 1));
+                    }
+                }
+            }
+        }
+        insertInBatches(memberPriceList, memberPriceDao::insertList);
+        insertInBatches(productLadderList, productLadderDao::insertList);
+        insertInBatches(productFullReductionList, productFullReductionDao::insertList);
+        insertInBatches(skuStockList, skuStockDao::insertList);
+        insertInBatches(productAttributeValueList, productAttributeValueDao::insertList);
+        insertInBatches(subjectProductRelationList, subjectProductRelationDao::insertList);
+        insertInBatches(prefrenceAreaProductRelationList, prefrenceAreaProductRelationDao::insertList);
+    }
+
+    private <T> void relate(List<T> target, List<T> source, Long productId, BiConsumer<T, Long> setProductId) {
+        if (CollUtil.isEmpty(source)) {
+            return;
+        }
+        for (T item : source) {
+            setProductId.accept(item, productId);
+            target.add(item);
+        }
+    }
+
+    /**
+     * 关联数据的行数可能是商品数的数倍，按批大小拆分，避免单条SQL过长
+     */
+    private <T> void insertInBatches(List<T> list, Consumer<List<T>> insertList) {
+        for (List<T> batch : CollUtil.split(list, batchSize)) {
+            insertList.accept(batch);
+        }
+    }
+
+    /**
+     * 加载校验所需的品牌、分类、属性字典，整个导入任务期间复用
+     */
+    private ImportLookup loadLookup() {
+        ImportLookup lookup = new ImportLookup();
+        brandMapper.selectByExample(new PmsBrandExample())
+                .forEach(brand -> lookup.brands.put(brand.getId(), brand));
+        productCategoryMapper.selectByExample(new PmsProductCategoryExample())
+                .forEach(category -> lookup.categories.put(category.getId(), category));
+        productAttributeCategoryMapper.selectByExample(new PmsProductAttributeCategoryExample())
+                .forEach(attributeCategory -> lookup.attributeCategoryIds.add(attributeCategory.getId()));
+        productAttributeMapper.selectByExample(new PmsProductAttributeExample())
+                .forEach(attribute -> lookup.attributes.put(attribute.getId(), attribute));
+        return lookup;
+    }
+
+    /**
+     * CSV：首行为表头，列名为商品字段名，只能导入商品基本信息
+     */
+    private RowReader csvRowReader(BufferedReader reader) {
+        CsvReadConfig config = CsvReadConfig.defaultConfig();
+        config.setContainsHeader(true);
+        config.setSkipEmptyRows(true);
+        CsvParser parser = new CsvParser(reader, config);
+        return () -> {
+            CsvRow csvRow = parser.nextRow();
+            if (csvRow == null) {
+                return null;
+            }
+            ImportRow row = new ImportRow(csvRow.getOriginalLineNumber() + 1);
+            try {
+                row.product = BeanUtil.toBean(csvRow.getFieldMap(), PmsProductParam.class);
+            } catch (Exception e) {
+                row.error = "数据格式不正确：" + e.getMessage();
+            }
+            return row;
+        };
+    }
+
+    /**
+     * JSON Lines：每行一个与创建商品参数相同结构的JSON，可以包含SKU、属性值、价格等关联数据
+     */
+    private RowReader jsonLineRowReader(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+                if (line == null) {
+                    return null;
+                }
+            } while (StrUtil.isBlank(line));
+            ImportRow row = new ImportRow(lineNumber[0]);
+            try {
+                row.product = objectMapper.readValue(line, PmsProductParam.class);
+            } catch (JsonProcessingException e) {
+                row.error = "JSON格式不正确：" + e.getOriginalMessage();
+            }
+            return row;
+        };
+    }
+
+    private void removeExpiredTasks() {
+        long now = System.currentTimeMillis();
+        tasks.values().removeIf(task -> task.endTime != null && now - task.endTime.getTime() > TASK_RETENTION_MILLIS);
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        /**
+         * 读取下一行，读完返回null
+         */
+        ImportRow next() throws IOException;
+    }
+
+    private static class ImportRow {
+        private final long lineNumber;
+        private PmsProductParam product;
+        private volatile String error;
+
+        private ImportRow(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    private static class ImportLookup {
+        private final Map<Long, PmsBrand> brands = new HashMap<>();
+        private final Map<Long, PmsProductCategory> categories = new HashMap<>();
+        private final Set<Long> attributeCategoryIds = new HashSet<>();
+        private final Map<Long, PmsProductAttribute> attributes = new HashMap<>();
+    }
+
+    private static class ImportTask {
+        private final String id;
+        private final String fileName;
+        private final Date startTime = new Date();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger failCount = new AtomicInteger();
+        private final List<PmsProductImportResult.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        /**
+         * 已导入的货号，只在导入线程中访问
+         */
+        private final Set<String> productSns = new HashSet<>();
+        private volatile int status = STATUS_RUNNING;
+        private volatile String message;
+        private volatile Date endTime;
+
+        private ImportTask(String id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        private void addError(ImportRow row) {
+            failCount.incrementAndGet();
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new PmsProductImportResult.RowError(row.lineNumber,
+                        row.product != null ? row.product.getProductSn() : null, row.error));
+            }
+        }
+
+        private void finish(int status, String message) {
+            this.message = message;
+            this.endTime = new Date();
+            this.status = status;
+        }
+
+        private PmsProductImportResult toResult() {
+            PmsProductImportResult result = new PmsProductImportResult();
+            result.setTaskId(id);
+            result.setFileName(fileName);
+            result.setStatus(status);
+            result.setMessage(message);
+            result.setTotal(total.get());
+            result.setSuccessCount(successCount.get());
+            result.setFailCount(failCount.get());
+            synchronized (errors) {
+                result.setErrors(new ArrayList<>(errors));
+            }
+            result.setStartTime(startTime);
+            result.setEndTime(endTime);
+            long elapsedMillis = Math.max((endTime != null ? endTime.getTime() : System.currentTimeMillis()) - startTime.getTime(), 1);
+            result.setElapsedMillis(elapsedMillis);
+            result.setProductsPerSecond(Math.round(successCount.get() * 1000.0 / elapsedMillis * 100) / 100.0);
+            return result;
+        }
+    }
+}
@@ -3,16 +3,25 @@ package com.lzy.mall.service.impl;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.common.api.CommonPage;
+import com.lzy.mall.component.CountDeltaBuffer;
+import com.lzy.mall.component.CountDeltaBuffer.Counter;
+import com.lzy.mall.component.HomeContentHolder;
+import com.lzy.mall.component.ProductCategoryTreeHolder;
 import com.lzy.mall.dao.*;
 import com.lzy.mall.dto.PmsProductParam;
 import com.lzy.mall.dto.PmsProductQueryParam;
 import com.lzy.mall.dto.PmsProductResult;
 import com.lzy.mall.mapper.*;
 import com.lzy.mall.model.*;
+import com.lzy.mall.service.PageCountService;
 import com.lzy.mall.service.PmsProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -21,6 +30,13 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +99,29 @@ public class PmsProductServiceImpl implements PmsProductService {
     @Autowired
     private PmsProductVertifyRecordDao productVertifyRecordDao;
 
+    // ========== 分页总数相关 ==========
+    @Autowired
+    private PageCountService pageCountService;
+
+    // ========== 商品分类相关 ==========
+    @Autowired
+    private PmsProductCategoryMapper productCategoryMapper;
+    @Autowired
+    private CountDeltaBuffer countDeltaBuffer;
+    @Autowired
+    private ProductCategoryTreeHolder productCategoryTreeHolder;
+
+    // ========== 首页内容相关 ==========
+    @Autowired
+    private HomeContentHolder homeContentHolder;
+
+    // ========== 商品编辑信息加载相关 ==========
+    @Autowired
+    @Qualifier("productLoadExecutor")
+    private Executor productLoadExecutor;
+    @Value("${product.updateInfo.parallel:true}")
+    private boolean updateInfoParallel;
+
     /**
      * 创建商品
      * @param productParam 商品参数
@@ -98,6 +137,9 @@ public class PmsProductServiceImpl implements PmsProductService {
         
         // 2. 获取新创建的商品ID
         Long productId = product.getId();
+        if (isCounted(product.getDeleteStatus())) {
+            countDeltaBuffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, product.getProductCategoryId(), 1);
+        }
         
         // 3. 处理商品价格相关设置
         // 3.1 设置会员价格
@@ -122,6 +164,7 @@ public class PmsProductServiceImpl implements PmsProductService {
         // 6.2 关联优选专区
         relateAndInsertList(prefrenceAreaProductRelationDao, productParam.getPrefrenceAreaProductRelationList(), productId);
         
+        pageCountService.evict("pms_product");
         count = 1; // 操作成功
         return count;
     }
@@ -163,7 +206,89 @@ public class PmsProductServiceImpl implements PmsProductService {
      */
     @Override
     public PmsProductResult getUpdateInfo(Long id) {
-        return productDao.getUpdateInfo(id);
+        // 1. 查询商品基本信息（包含大字段）
+        PmsProduct product = productMapper.selectByPrimaryKey(id);
+        if (product == null) {
+            return null;
+        }
+        PmsProductResult result = new PmsProductResult();
+        BeanUtils.copyProperties(product, result);
+
+        // 2. 每个子表单独查询，避免多表LEFT JOIN产生的笛卡尔积
+        CompletableFuture<PmsProductCategory> categoryFuture = loadAsync(() -> product.getProductCategoryId() == null
+                ? null : productCategoryMapper.selectByPrimaryKey(product.getProductCategoryId()));
+        CompletableFuture<List<PmsProductLadder>> ladderFuture = loadAsync(() -> {
+            PmsProductLadderExample example = new PmsProductLadderExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return productLadderMapper.selectByExample(example);
+        });
+        CompletableFuture<List<PmsProductFullReduction>> fullReductionFuture = loadAsync(() -> {
+            PmsProductFullReductionExample example = new PmsProductFullReductionExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return productFullReductionMapper.selectByExample(example);
+        });
+        CompletableFuture<List<PmsMemberPrice>> memberPriceFuture = loadAsync(() -> {
+            PmsMemberPriceExample example = new PmsMemberPriceExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return memberPriceMapper.selectByExample(example);
+        });
+        CompletableFuture<List<PmsSkuStock>> skuStockFuture = loadAsync(() -> {
+            PmsSkuStockExample example = new PmsSkuStockExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return skuStockMapper.selectByExample(example);
+        });
+        CompletableFuture<List<PmsProductAttributeValue>> attributeValueFuture = loadAsync(() -> {
+            PmsProductAttributeValueExample example = new PmsProductAttributeValueExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return productAttributeValueMapper.selectByExample(example);
+        });
+        CompletableFuture<List<CmsSubjectProductRelation>> subjectFuture = loadAsync(() -> {
+            CmsSubjectProductRelationExample example = new CmsSubjectProductRelationExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return subjectProductRelationMapper.selectByExample(example);
+        });
+        CompletableFuture<List<CmsPrefrenceAreaProductRelation>> prefrenceAreaFuture = loadAsync(() -> {
+            CmsPrefrenceAreaProductRelationExample example = new CmsPrefrenceAreaProductRelationExample();
+            example.createCriteria().andProductIdEqualTo(id);
+            return prefrenceAreaProductRelationMapper.selectByExample(example);
+        });
+
+        // 3. 在内存中组装结果
+        PmsProductCategory category = join(categoryFuture);
+        result.setCateParentId(category == null ? null : category.getParentId());
+        result.setProductLadderList(join(ladderFuture));
+        result.setProductFullReductionList(join(fullReductionFuture));
+        result.setMemberPriceList(join(memberPriceFuture));
+        result.setSkuStockList(join(skuStockFuture));
+        result.setProductAttributeValueList(join(attributeValueFuture));
+        result.setSubjectProductRelationList(join(subjectFuture));
+        result.setPrefrenceAreaProductRelationList(join(prefrenceAreaFuture));
+        return result;
+    }
+
+    /**
+     * 提交子表查询任务
+     * 开启并行加载时在有界线程池中执行，否则在当前线程中顺序执行
+     */
+    private <T> CompletableFuture<T> loadAsync(Supplier<T> loader) {
+        if (!updateInfoParallel) {
+            return CompletableFuture.completedFuture(loader.get());
+        }
+        return CompletableFuture.supplyAsync(loader, productLoadExecutor);
+    }
+
+    /**
+     * 等待子表查询结果，并将异步异常还原为原始的运行时异常
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -179,6 +304,7 @@ public class PmsProductServiceImpl implements PmsProductService {
         // 1. 更新商品基本信息
         PmsProduct product = productParam;
         product.setId(id);
+        countCategoryMove(id, product);
         productMapper.updateByPrimaryKeySelective(product);
         
         // 2. 更新会员价格
@@ -202,10 +328,46 @@ public class PmsProductServiceImpl implements PmsProductService {
         // 8. 更新商品关联的优选专区
         updatePrefrenceAreaProductRelation(id, productParam);
         
+        pageCountService.evict("pms_product");
+        homeContentHolder.invalidate();
         count = 1; // 操作成功
         return count;
     }
     
+    /**
+     * 商品更换分类或删除状态变化时，记录新旧分类的商品数量增量
+     * 读取旧分类时锁定商品行直到事务结束，并发修改同一商品时不会基于同一个旧分类重复记录增量
+     */
+    private void countCategoryMove(Long id, PmsProduct product) {
+        if (product.getProductCategoryId() == null && product.getDeleteStatus() == null) {
+            return;
+        }
+        PmsProduct old = productDao.selectCategoryForUpdate(id);
+        if (old == null) {
+            return;
+        }
+        Long newCategoryId = product.getProductCategoryId() != null ? product.getProductCategoryId() : old.getProductCategoryId();
+        Integer newDeleteStatus = product.getDeleteStatus() != null ? product.getDeleteStatus() : old.getDeleteStatus();
+        boolean oldCounted = isCounted(old.getDeleteStatus());
+        boolean newCounted = isCounted(newDeleteStatus);
+        if (oldCounted == newCounted && Objects.equals(old.getProductCategoryId(), newCategoryId)) {
+            return;
+        }
+        if (oldCounted) {
+            countDeltaBuffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, old.getProductCategoryId(), -1);
+        }
+        if (newCounted) {
+            countDeltaBuffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, newCategoryId, 1);
+        }
+    }
+
+    /**
+     * 商品分类的商品数量只统计未删除的商品
+     */
+    private boolean isCounted(Integer deleteStatus) {
+        return deleteStatus == null || deleteStatus == 0;
+    }
+
     /**
      * 更新商品会员价格
      */
@@ -356,15 +518,43 @@ public class PmsProductServiceImpl implements PmsProductService {
 
     @Override
     public List<PmsProduct> list(PmsProductQueryParam productQueryParam, Integer pageSize, Integer pageNum) {
+        PmsProductExample productExample = new PmsProductExample();
+        buildListCriteria(productExample.createCriteria(), productQueryParam);
+
         // 启动分页插件，设置当前页码和每页大小
         // PageHelper 会拦截接下来的第一个 MyBatis 查询，并自动添加 LIMIT 子句进行分页
-        PageHelper.startPage(pageNum, pageSize);
+        // 关闭count查询，总数由分页总数缓存提供
+        PageHelper.startPage(pageNum, pageSize, false);
+
+        // 执行MyBatis查询：根据构建的Example条件查询PmsProduct列表
+        // 由于之前调用了PageHelper.startPage()，这个查询会自动进行分页
+        List<PmsProduct> productList = productMapper.selectByExample(productExample);
+        return pageCountService.fillTotal(productList, "pms_product", productQueryParam,
+                () -> productMapper.countByExample(productExample));
+    }
 
-        // 创建PmsProductExample对象，用于构建动态查询条件
+    @Override
+    public CommonPage<PmsProduct> list(PmsProductQueryParam productQueryParam, String cursor, Integer pageSize) {
+        CommonPage.checkCursorPageSize(pageSize);
+        Long lastId = CommonPage.decodeCursor(cursor);
         PmsProductExample productExample = new PmsProductExample();
-        // 创建查询条件构建器Criteria
+        productExample.setOrderByClause("id desc");
         PmsProductExample.Criteria criteria = productExample.createCriteria();
+        buildListCriteria(criteria, productQueryParam);
+        // 从上一页最后一条记录之后继续查询
+        if (lastId != null) {
+            criteria.andIdLessThan(lastId);
+        }
+        // 多取一条用于判断是否有下一页，并关闭count查询
+        PageHelper.startPage(1, pageSize + 1, false);
+        List<PmsProduct> productList = productMapper.selectByExample(productExample);
+        return CommonPage.restCursorPage(productList, pageSize, PmsProduct::getId);
+    }
 
+    /**
+     * 根据查询参数构建商品列表查询条件
+     */
+    private void buildListCriteria(PmsProductExample.Criteria criteria, PmsProductQueryParam productQueryParam) {
         // 默认查询条件：商品删除状态为0 (未删除)
         criteria.andDeleteStatusEqualTo(0);
 
@@ -395,10 +585,15 @@ public class PmsProductServiceImpl implements PmsProductService {
         if (productQueryParam.getProductCategoryId() != null) {
             criteria.andProductCategoryIdEqualTo(productQueryParam.getProductCategoryId());
         }
-
-        // 执行MyBatis查询：根据构建的Example条件查询PmsProduct列表
-        // 由于之前调用了PageHelper.startPage()，这个查询会自动进行分页
-        return productMapper.selectByExample(productExample);
+        // 按分类子树筛选：从分类树快照中取出子树的全部分类ID
+        if (productQueryParam.getProductCategorySubtreeId() != null) {
+            Set<Long> subtreeIds = productCategoryTreeHolder.getTree().getSubtreeIds(productQueryParam.getProductCategorySubtreeId());
+            if (subtreeIds.isEmpty()) {
+                criteria.andProductCategoryIdEqualTo(productQueryParam.getProductCategorySubtreeId());
+            } else {
+                criteria.andProductCategoryIdIn(new ArrayList<>(subtreeIds));
+            }
+        }
     }
 
     @Override
@@ -434,6 +629,7 @@ public class PmsProductServiceImpl implements PmsProductService {
         // 5. 批量插入审核记录
         // 调用 productVertifyRecordDao 的 insertList 方法，将所有审核记录批量插入到数据库中
         productVertifyRecordDao.insertList(list);
+        pageCountService.evict("pms_product");
 
         // 6. 返回受影响的行数 (即更新的商品数量)
         return count;
@@ -458,7 +654,10 @@ public class PmsProductServiceImpl implements PmsProductService {
         // 选择性地更新匹配到的记录。'Selective' 意味着只会更新 'record' 对象中非空的字段。
         // 在本例中，只有 'publishStatus' 字段会被更新。
         // 方法返回受影响的行数，即成功更新的商品数量。
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        pageCountService.evict("pms_product");
+        homeContentHolder.invalidate();
+        return count;
     }
 
     @Override
@@ -467,7 +666,9 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setRecommandStatus(recommendStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        pageCountService.evict("pms_product");
+        return count;
     }
 
     @Override
@@ -476,16 +677,27 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setNewStatus(newStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        pageCountService.evict("pms_product");
+        return count;
     }
 
     @Override
     public int updateDeleteStatus(List<Long> ids, Integer deleteStatus) {
+        // 锁定删除状态会发生变化的商品，按分类记录商品数量增量
+        Map<Long, Long> deltas = productDao.selectDeleteStatusChanging(ids, deleteStatus).stream()
+                .filter(product -> product.getProductCategoryId() != null)
+                .collect(Collectors.groupingBy(PmsProduct::getProductCategoryId,
+                        Collectors.summingLong(product -> isCounted(deleteStatus) ? 1L : -1L)));
+        countDeltaBuffer.addAll(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, deltas);
         PmsProduct record = new PmsProduct();
         record.setDeleteStatus(deleteStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        pageCountService.evict("pms_product");
+        homeContentHolder.invalidate();
+        return count;
     }
 
     @Override
@@ -0,0 +1,46 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.bo.CouponApplicabilityIndex;
+import com.lzy.mall.component.CouponApplicabilityHolder;
+import com.lzy.mall.dto.SmsCouponApplyItem;
+import com.lzy.mall.dto.SmsCouponApplyResult;
+import com.lzy.mall.service.SmsCouponApplicabilityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 优惠券适用范围Service实现类
+ */
+@Service
+public class SmsCouponApplicabilityServiceImpl implements SmsCouponApplicabilityService {
+    @Autowired
+    private CouponApplicabilityHolder couponApplicabilityHolder;
+
+    @Override
+    public SmsCouponApplyResult resolve(List<SmsCouponApplyItem> itemList) {
+        CouponApplicabilityIndex index = couponApplicabilityHolder.getIndex();
+        BitSet validBits = couponApplicabilityHolder.getValidBits(index);
+        BitSet allBits = new BitSet();
+        SmsCouponApplyResult result = new SmsCouponApplyResult();
+        for (SmsCouponApplyItem item : itemList) {
+            BitSet bits = index.resolve(item.getProductId(), item.getProductCategoryId());
+            bits.and(validBits);
+            allBits.or(bits);
+            SmsCouponApplyResult.Item resultItem = new SmsCouponApplyResult.Item();
+            resultItem.setProductId(item.getProductId());
+            resultItem.setProductCategoryId(item.getProductCategoryId());
+            resultItem.setCouponIds(index.getCouponIds(bits));
+            result.getItemList().add(resultItem);
+        }
+        result.setCouponList(index.getCoupons(allBits));
+        return result;
+    }
+
+    @Override
+    public void refresh() {
+        couponApplicabilityHolder.invalidate();
+    }
+}
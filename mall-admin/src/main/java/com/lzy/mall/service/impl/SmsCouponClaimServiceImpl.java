@@ -0,0 +1,322 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.date.DateUtil;
+import com.lzy.mall.bo.CouponClaimResult;
+import com.lzy.mall.bo.MemberStatisticsField;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.common.util.RedisScriptUtil;
+import com.lzy.mall.dao.SmsCouponClaimDao;
+import com.lzy.mall.dto.SmsCouponClaimStatus;
+import com.lzy.mall.mapper.SmsCouponMapper;
+import com.lzy.mall.model.SmsCoupon;
+import com.lzy.mall.model.SmsCouponExample;
+import com.lzy.mall.model.SmsCouponHistory;
+import com.lzy.mall.service.SmsCouponClaimService;
+import com.lzy.mall.service.UmsMemberStatisticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 优惠券领取Service实现类
+ * 每张优惠券在Redis中使用一组带相同hash tag的key：coupon（剩余数量、限领数量、领取时间、券码前缀及序号）、
+ * members（会员已领数量）、queue（待写入数据库的领取记录）。
+ * 券码由预热时生成的前缀（预热时间 + 优惠券ID）和每张优惠券递增的序号组成，不会重复；
+ * 领取记录按券码幂等写入，写入后中断导致的重复写入会被跳过。
+ */
+@Service
+public class SmsCouponClaimServiceImpl implements SmsCouponClaimService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmsCouponClaimServiceImpl.class);
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScriptUtil.load("lua/coupon_claim.lua", String.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SNAPSHOT_SCRIPT = RedisScriptUtil.load("lua/coupon_snapshot.lua", List.class);
+    private static final RedisScript<Long> RECONCILE_SCRIPT = RedisScriptUtil.load("lua/coupon_reconcile.lua", Long.class);
+    private static final String COUPON = "coupon";
+    private static final String MEMBERS = "members";
+    private static final String QUEUE = "queue";
+    /**
+     * 每次写入时每张优惠券最多写入的批数，剩余的留到下一次
+     */
+    private static final int MAX_FLUSH_BATCHES = 10;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private SmsCouponMapper couponMapper;
+    @Autowired
+    private SmsCouponClaimDao couponClaimDao;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UmsMemberStatisticsService memberStatisticsService;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.couponClaim}")
+    private String REDIS_KEY_COUPON_CLAIM;
+    @Value("${couponClaim.batchSize:500}")
+    private int batchSize;
+
+    /**
+     * 领取耗时及次数，按结果区分，通过 /actuator/metrics/mall.coupon.claim 查看每秒领取数
+     */
+    private final Map<CouponClaimResult, Timer> claimTimers = new EnumMap<>(CouponClaimResult.class);
+
+    @PostConstruct
+    public void init() {
+        for (CouponClaimResult result : CouponClaimResult.values()) {
+            claimTimers.put(result, Timer.builder("mall.coupon.claim")
+                    .description("优惠券领取耗时及次数")
+                    .tag("result", result.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void preload(Long couponId) {
+        SmsCoupon coupon = couponMapper.selectByPrimaryKey(couponId);
+        if (coupon == null) {
+            Asserts.fail("优惠券不存在");
+        }
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        String couponKey = getKey(couponId, COUPON);
+        hashOperations.putAll(couponKey, getRules(coupon));
+        //已预热的优惠券保留剩余数量、会员已领数量和券码序号，与数据库的差异由校正处理
+        hashOperations.putIfAbsent(couponKey, "prefix", DateUtil.format(new Date(), "yyMMddHHmmss") + couponId + "-");
+        if (hashOperations.putIfAbsent(couponKey, "stock", String.valueOf(nullToZero(coupon.getCount())))) {
+            Map<String, String> memberCounts = new HashMap<>();
+            for (Map<String, Object> row : couponClaimDao.selectMemberClaimCounts(couponId)) {
+                memberCounts.put(String.valueOf(row.get("member_id")), String.valueOf(row.get("claim_count")));
+            }
+            if (!memberCounts.isEmpty()) {
+                hashOperations.putAll(getKey(couponId, MEMBERS), memberCounts);
+            }
+        }
+        stringRedisTemplate.opsForSet().add(getActiveKey(), String.valueOf(couponId));
+    }
+
+    @Override
+    public String claim(Long couponId, Long memberId, String memberNickname, Integer getType) {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        //领取记录中会员昵称放在最后，昵称中包含分隔符时也能正确解析
+        String record = memberId + "\t" + (getType == null ? 1 : getType) + "\t" + now + "\t"
+                + (memberNickname == null ? "" : memberNickname);
+        String reply = stringRedisTemplate.execute(CLAIM_SCRIPT,
+                Arrays.asList(getKey(couponId, COUPON), getKey(couponId, MEMBERS), getKey(couponId, QUEUE)),
+                String.valueOf(memberId), String.valueOf(now), record);
+        CouponClaimResult result = CouponClaimResult.of(reply);
+        claimTimers.get(result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (result != CouponClaimResult.SUCCESS) {
+            Asserts.fail(result.getMessage());
+        }
+        memberStatisticsService.record(memberId, MemberStatisticsField.COUPON_COUNT, 1);
+        return reply;
+    }
+
+    @Override
+    public synchronized int flush() {
+        int total = 0;
+        for (Long couponId : getActiveCouponIds()) {
+            try {
+                total += flush(couponId);
+            } catch (Exception e) {
+                LOGGER.warn("优惠券领取记录写入失败：couponId={}，等待下次重试", couponId, e);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 写入一张优惠券队列头部的领取记录：先在一个事务中写入记录并扣减剩余数量，提交后再从队列中移除；
+     * 移除前中断时下次重新写入同一批记录，已写入的记录按券码跳过，不会重复扣减
+     */
+    private int flush(Long couponId) {
+        ListOperations<String, String> listOperations = stringRedisTemplate.opsForList();
+        String queueKey = getKey(couponId, QUEUE);
+        int total = 0;
+        for (int i = 0; i < MAX_FLUSH_BATCHES; i++) {
+            List<String> records = listOperations.range(queueKey, 0, batchSize - 1);
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            List<SmsCouponHistory> historyList = new ArrayList<>(records.size());
+            for (String record : records) {
+                historyList.add(toHistory(couponId, record));
+            }
+            Integer inserted = transactionTemplate.execute(status -> {
+                int count = couponClaimDao.insertList(historyList);
+                if (count > 0) {
+                    couponClaimDao.deductCount(couponId, count);
+                }
+                return count;
+            });
+            listOperations.trim(queueKey, records.size(), -1);
+            if (inserted != null && inserted < records.size()) {
+                LOGGER.warn("优惠券领取记录已存在，跳过{}条：couponId={}", records.size() - inserted, couponId);
+            }
+            total += records.size();
+            if (records.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private SmsCouponHistory toHistory(Long couponId, String record) {
+        String[] parts = record.split("\t", 5);
+        SmsCouponHistory history = new SmsCouponHistory();
+        history.setCouponId(couponId);
+        history.setCouponCode(parts[0]);
+        history.setMemberId(Long.valueOf(parts[1]));
+        history.setGetType(Integer.valueOf(parts[2]));
+        history.setCreateTime(new Date(Long.parseLong(parts[3])));
+        history.setMemberNickname(parts.length > 4 && !parts[4].isEmpty() ? parts[4] : null);
+        history.setUseStatus(0);
+        return history;
+    }
+
+    @Override
+    public synchronized int reconcile() {
+        //先写入队列中的领取记录，校正时数据库中的剩余数量已扣除全部写入的记录
+        flush();
+        Set<Long> couponIds = getActiveCouponIds();
+        if (couponIds.isEmpty()) {
+            return 0;
+        }
+        couponClaimDao.reconcileReceiveCount(couponIds);
+        Map<Long, SmsCoupon> couponMap = selectCoupons(couponIds).stream()
+                .collect(Collectors.toMap(SmsCoupon::getId, Function.identity()));
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        Date now = new Date();
+        int count = 0;
+        for (Long couponId : couponIds) {
+            long[] snapshot = getSnapshot(couponId);
+            if (snapshot == null) {
+                stringRedisTemplate.opsForSet().remove(getActiveKey(), String.valueOf(couponId));
+                continue;
+            }
+            SmsCoupon coupon = couponMap.get(couponId);
+            if (coupon == null || (coupon.getEndTime() != null && coupon.getEndTime().before(now))) {
+                evictIfIdle(couponId, snapshot);
+                continue;
+            }
+            hashOperations.putAll(getKey(couponId, COUPON), getRules(coupon));
+            long expected = nullToZero(coupon.getCount()) - snapshot[1];
+            long delta = expected - snapshot[0];
+            if (delta != 0) {
+                stringRedisTemplate.execute(RECONCILE_SCRIPT, Collections.singletonList(getKey(couponId, COUPON)),
+                        String.valueOf(delta));
+                LOGGER.warn("优惠券剩余数量校正：couponId={}，{} -> {}", couponId, snapshot[0], expected);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<SmsCouponClaimStatus> listStatus() {
+        Set<Long> couponIds = getActiveCouponIds();
+        List<SmsCouponClaimStatus> statusList = new ArrayList<>();
+        if (couponIds.isEmpty()) {
+            return statusList;
+        }
+        for (SmsCoupon coupon : selectCoupons(couponIds)) {
+            long[] snapshot = getSnapshot(coupon.getId());
+            if (snapshot == null) {
+                continue;
+            }
+            SmsCouponClaimStatus status = new SmsCouponClaimStatus();
+            status.setCouponId(coupon.getId());
+            status.setName(coupon.getName());
+            status.setCount(coupon.getCount());
+            status.setReceiveCount(coupon.getReceiveCount());
+            status.setPerLimit(coupon.getPerLimit());
+            status.setStock(snapshot[0]);
+            status.setQueued(snapshot[1]);
+            statusList.add(status);
+        }
+        return statusList;
+    }
+
+    /**
+     * 限领数量和领取时间，预热及校正时同步到Redis
+     */
+    private Map<String, String> getRules(SmsCoupon coupon) {
+        Map<String, String> rules = new HashMap<>();
+        rules.put("limit", String.valueOf(nullToZero(coupon.getPerLimit())));
+        rules.put("enable_time", String.valueOf(coupon.getEnableTime() == null ? 0 : coupon.getEnableTime().getTime()));
+        rules.put("end_time", String.valueOf(coupon.getEndTime() == null ? 0 : coupon.getEndTime().getTime()));
+        return rules;
+    }
+
+    /**
+     * 读取Redis中的 {剩余数量, 待写入的领取记录数}，未预热时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private long[] getSnapshot(Long couponId) {
+        List<String> snapshot = stringRedisTemplate.execute(SNAPSHOT_SCRIPT,
+                Arrays.asList(getKey(couponId, COUPON), getKey(couponId, QUEUE)));
+        if (snapshot == null || snapshot.isEmpty()) {
+            return null;
+        }
+        return new long[]{Long.parseLong(snapshot.get(0)), Long.parseLong(snapshot.get(1))};
+    }
+
+    /**
+     * 优惠券已过期或已删除时，领取记录全部写入后删除Redis中的预热数据
+     */
+    private void evictIfIdle(Long couponId, long[] snapshot) {
+        if (snapshot[1] > 0) {
+            return;
+        }
+        stringRedisTemplate.delete(Arrays.asList(getKey(couponId, COUPON), getKey(couponId, MEMBERS),
+                getKey(couponId, QUEUE)));
+        stringRedisTemplate.opsForSet().remove(getActiveKey(), String.valueOf(couponId));
+    }
+
+    private List<SmsCoupon> selectCoupons(Collection<Long> couponIds) {
+        SmsCouponExample example = new SmsCouponExample();
+        example.createCriteria().andIdIn(new ArrayList<>(couponIds));
+        return couponMapper.selectByExample(example);
+    }
+
+    private Set<Long> getActiveCouponIds() {
+        Set<String> members = stringRedisTemplate.opsForSet().members(getActiveKey());
+        if (members == null) {
+            return Collections.emptySet();
+        }
+        return members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    private long nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 同一优惠券的key使用 {couponId} 作为hash tag
+     */
+    private String getKey(Long couponId, String type) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_COUPON_CLAIM + ":{" + couponId + "}:" + type;
+    }
+
+    private String getActiveKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_COUPON_CLAIM + ":active";
+    }
+}
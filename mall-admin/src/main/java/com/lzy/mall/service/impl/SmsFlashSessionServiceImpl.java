@@ -0,0 +1,31 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.component.FlashSessionIndexHolder;
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+import com.lzy.mall.service.SmsFlashSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 秒杀场次Service实现类
+ */
+@Service
+public class SmsFlashSessionServiceImpl implements SmsFlashSessionService {
+    @Autowired
+    private FlashSessionIndexHolder flashSessionIndexHolder;
+
+    @Override
+    public SmsFlashSessionDetail getCurrent() {
+        return flashSessionIndexHolder.getCurrent();
+    }
+
+    @Override
+    public SmsFlashSessionDetail getNext() {
+        return flashSessionIndexHolder.getNext();
+    }
+
+    @Override
+    public void refresh() {
+        flashSessionIndexHolder.invalidate();
+    }
+}
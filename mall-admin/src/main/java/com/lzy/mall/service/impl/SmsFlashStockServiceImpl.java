@@ -0,0 +1,306 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.IdUtil;
+import com.lzy.mall.bo.FlashReserveResult;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.common.util.RedisScriptUtil;
+import com.lzy.mall.dao.SmsFlashStockDao;
+import com.lzy.mall.dto.SmsFlashStockStatus;
+import com.lzy.mall.service.SmsFlashStockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀库存Service实现类
+ * 每个秒杀商品关系在Redis中使用一组带相同hash tag的key，集群模式下位于同一个slot，可以在一个脚本中同时操作：
+ * stock（剩余可预留数量、限购数量）、members（会员已购数量）、reservations（预留记录）、
+ * pending（已确认待写回的扣减）、flushing（正在写回的扣减）。
+ * 预留、释放、确认不改变 剩余 + 预留中 + 待写回 + 写回中 的合计，校正时按数据库中的秒杀数量调整剩余数量。
+ */
+@Service
+public class SmsFlashStockServiceImpl implements SmsFlashStockService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmsFlashStockServiceImpl.class);
+    private static final RedisScript<Long> RESERVE_SCRIPT = RedisScriptUtil.load("lua/flash_reserve.lua", Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScriptUtil.load("lua/flash_release.lua", Long.class);
+    private static final RedisScript<Long> CONFIRM_SCRIPT = RedisScriptUtil.load("lua/flash_confirm.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FLUSH_BEGIN_SCRIPT = RedisScriptUtil.load("lua/flash_flush_begin.lua", List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SNAPSHOT_SCRIPT = RedisScriptUtil.load("lua/flash_snapshot.lua", List.class);
+    private static final RedisScript<Long> RECONCILE_SCRIPT = RedisScriptUtil.load("lua/flash_reconcile.lua", Long.class);
+    private static final String STOCK = "stock";
+    private static final String MEMBERS = "members";
+    private static final String RESERVATIONS = "reservations";
+    private static final String PENDING = "pending";
+    private static final String FLUSHING = "flushing";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private SmsFlashStockDao flashStockDao;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.flashStock}")
+    private String REDIS_KEY_FLASH_STOCK;
+    @Value("${flashStock.reservationTimeout:900}")
+    private long reservationTimeout;
+
+    /**
+     * 预留耗时及次数，按结果区分，通过 /actuator/metrics/mall.flash.reserve 查看每秒预留数
+     */
+    private final Map<FlashReserveResult, Timer> reserveTimers = new EnumMap<>(FlashReserveResult.class);
+
+    @PostConstruct
+    public void init() {
+        for (FlashReserveResult result : FlashReserveResult.values()) {
+            reserveTimers.put(result, Timer.builder("mall.flash.reserve")
+                    .description("秒杀库存预留耗时及次数")
+                    .tag("result", result.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public int preload(Long flashPromotionId, Long flashPromotionSessionId) {
+        List<SmsFlashStockStatus> statusList = flashStockDao.selectStatus(flashPromotionId, flashPromotionSessionId, null);
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        for (SmsFlashStockStatus status : statusList) {
+            String stockKey = getKey(status.getRelationId(), STOCK);
+            // 已预热的商品保留剩余数量，与数据库的差异由校正处理
+            hashOperations.putIfAbsent(stockKey, "stock", String.valueOf(nullToZero(status.getPromotionCount())));
+            hashOperations.put(stockKey, "limit", String.valueOf(nullToZero(status.getPromotionLimit())));
+            stringRedisTemplate.opsForSet().add(getActiveKey(), String.valueOf(status.getRelationId()));
+        }
+        return statusList.size();
+    }
+
+    @Override
+    public FlashReserveResult reserve(Long relationId, Long skuId, Long memberId, int quantity, String reservationId) {
+        if (quantity <= 0) {
+            Asserts.fail("预留数量必须大于0");
+        }
+        long start = System.nanoTime();
+        Long code = stringRedisTemplate.execute(RESERVE_SCRIPT,
+                Arrays.asList(getKey(relationId, STOCK), getKey(relationId, MEMBERS), getKey(relationId, RESERVATIONS)),
+                reservationId, String.valueOf(memberId), String.valueOf(skuId), String.valueOf(quantity),
+                String.valueOf(System.currentTimeMillis()));
+        FlashReserveResult result = FlashReserveResult.of(code);
+        reserveTimers.get(result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @Override
+    public boolean release(Long relationId, String reservationId) {
+        Long released = stringRedisTemplate.execute(RELEASE_SCRIPT,
+                Arrays.asList(getKey(relationId, STOCK), getKey(relationId, MEMBERS), getKey(relationId, RESERVATIONS)),
+                reservationId);
+        return released != null && released == 1;
+    }
+
+    @Override
+    public boolean confirm(Long relationId, String reservationId) {
+        Long confirmed = stringRedisTemplate.execute(CONFIRM_SCRIPT,
+                Arrays.asList(getKey(relationId, RESERVATIONS), getKey(relationId, PENDING)),
+                reservationId);
+        return confirmed != null && confirmed == 1;
+    }
+
+    @Override
+    public synchronized long flush() {
+        long total = 0;
+        for (Long relationId : getActiveRelationIds()) {
+            try {
+                total += flush(relationId);
+            } catch (Exception e) {
+                LOGGER.warn("秒杀库存写回失败：relationId={}，等待下次重试", relationId, e);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 写回一个秒杀商品的扣减：待写回的扣减先在Redis中原子地转为写回中并分配批次号，
+     * 再在一个事务中记录批次、扣减SKU库存和秒杀数量，提交后删除写回中的扣减；
+     * 删除前中断时下次按同一批次号重试，批次已记录则不再扣减
+     */
+    @SuppressWarnings("unchecked")
+    private long flush(Long relationId) {
+        List<String> fields = stringRedisTemplate.execute(FLUSH_BEGIN_SCRIPT,
+                Arrays.asList(getKey(relationId, PENDING), getKey(relationId, FLUSHING)), IdUtil.simpleUUID());
+        if (fields == null || fields.isEmpty()) {
+            return 0;
+        }
+        String batchId = null;
+        long total = 0;
+        Map<Long, Long> deductions = new HashMap<>();
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            String field = fields.get(i);
+            String value = fields.get(i + 1);
+            if ("batch".equals(field)) {
+                batchId = value;
+            } else if ("total".equals(field)) {
+                total = Long.parseLong(value);
+            } else if (field.startsWith("sku:")) {
+                deductions.put(Long.valueOf(field.substring(4)), Long.valueOf(value));
+            }
+        }
+        String flushBatchId = batchId;
+        long flushTotal = total;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (flashStockDao.insertFlushLog(flushBatchId, relationId, flushTotal) == 0) {
+                return;
+            }
+            if (!deductions.isEmpty()) {
+                flashStockDao.deductSkuStock(deductions);
+            }
+            flashStockDao.deductPromotionCount(relationId, flushTotal);
+        });
+        stringRedisTemplate.delete(getKey(relationId, FLUSHING));
+        return total;
+    }
+
+    @Override
+    public synchronized int reconcile() {
+        // 先写回已确认的扣减，校正时数据库中的秒杀数量已包含全部写回
+        flush();
+        Set<Long> relationIds = getActiveRelationIds();
+        if (relationIds.isEmpty()) {
+            return 0;
+        }
+        releaseExpiredReservations(relationIds);
+        Map<Long, SmsFlashStockStatus> statusMap = flashStockDao.selectStatus(null, null, relationIds).stream()
+                .collect(Collectors.toMap(SmsFlashStockStatus::getRelationId, Function.identity()));
+        int count = 0;
+        for (Long relationId : relationIds) {
+            SmsFlashStockStatus status = statusMap.get(relationId);
+            if (!fillSnapshot(relationId, status != null ? status : new SmsFlashStockStatus())) {
+                stringRedisTemplate.opsForSet().remove(getActiveKey(), String.valueOf(relationId));
+                continue;
+            }
+            if (status == null || isEnded(status)) {
+                evictIfIdle(relationId, status);
+                continue;
+            }
+            if (status.getFlushing() > 0) {
+                // 写回未完成，等待下次写回成功后再校正
+                continue;
+            }
+            long expected = nullToZero(status.getPromotionCount()) - status.getReserved() - status.getPending();
+            long delta = expected - status.getStock();
+            if (delta != 0) {
+                stringRedisTemplate.execute(RECONCILE_SCRIPT, Collections.singletonList(getKey(relationId, STOCK)),
+                        String.valueOf(delta));
+                LOGGER.warn("秒杀库存校正：relationId={}，剩余可预留数量 {} -> {}", relationId, status.getStock(), expected);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<SmsFlashStockStatus> listStatus() {
+        Set<Long> relationIds = getActiveRelationIds();
+        if (relationIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<SmsFlashStockStatus> statusList = flashStockDao.selectStatus(null, null, relationIds);
+        statusList.removeIf(status -> !fillSnapshot(status.getRelationId(), status));
+        return statusList;
+    }
+
+    /**
+     * 释放超过reservationTimeout秒仍未确认的预留
+     */
+    private void releaseExpiredReservations(Set<Long> relationIds) {
+        long expireTime = System.currentTimeMillis() - reservationTimeout * 1000;
+        HashOperations<String, String, String> hashOperations = stringRedisTemplate.opsForHash();
+        for (Long relationId : relationIds) {
+            int released = 0;
+            for (Map.Entry<String, String> entry : hashOperations.entries(getKey(relationId, RESERVATIONS)).entrySet()) {
+                String[] parts = entry.getValue().split(":");
+                if (parts.length == 4 && Long.parseLong(parts[3]) < expireTime && release(relationId, entry.getKey())) {
+                    released++;
+                }
+            }
+            if (released > 0) {
+                LOGGER.info("释放超时未确认的秒杀库存预留：relationId={}，数量{}", relationId, released);
+            }
+        }
+    }
+
+    /**
+     * 读取Redis中的库存状态填入status，商品未预热时返回false
+     */
+    @SuppressWarnings("unchecked")
+    private boolean fillSnapshot(Long relationId, SmsFlashStockStatus status) {
+        List<String> snapshot = stringRedisTemplate.execute(SNAPSHOT_SCRIPT, Arrays.asList(getKey(relationId, STOCK),
+                getKey(relationId, RESERVATIONS), getKey(relationId, PENDING), getKey(relationId, FLUSHING)));
+        if (snapshot == null || snapshot.isEmpty()) {
+            return false;
+        }
+        status.setStock(Long.valueOf(snapshot.get(0)));
+        status.setReserved(Long.valueOf(snapshot.get(1)));
+        status.setPending(Long.valueOf(snapshot.get(2)));
+        status.setFlushing(Long.valueOf(snapshot.get(3)));
+        return true;
+    }
+
+    /**
+     * 活动已结束或商品已移出活动时，没有未处理的预留和扣减后删除Redis中的库存
+     */
+    private void evictIfIdle(Long relationId, SmsFlashStockStatus status) {
+        if (status != null && status.getReserved() + status.getPending() + status.getFlushing() > 0) {
+            return;
+        }
+        stringRedisTemplate.delete(Arrays.asList(getKey(relationId, STOCK), getKey(relationId, MEMBERS),
+                getKey(relationId, RESERVATIONS), getKey(relationId, PENDING), getKey(relationId, FLUSHING)));
+        stringRedisTemplate.opsForSet().remove(getActiveKey(), String.valueOf(relationId));
+    }
+
+    private boolean isEnded(SmsFlashStockStatus status) {
+        return status.getPromotionEndDate() != null && DateUtil.endOfDay(status.getPromotionEndDate()).before(new Date());
+    }
+
+    private Set<Long> getActiveRelationIds() {
+        Set<String> members = stringRedisTemplate.opsForSet().members(getActiveKey());
+        if (members == null) {
+            return Collections.emptySet();
+        }
+        return members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    private long nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 同一商品的key使用 {relationId} 作为hash tag
+     */
+    private String getKey(Long relationId, String type) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_FLASH_STOCK + ":{" + relationId + "}:" + type;
+    }
+
+    private String getActiveKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_FLASH_STOCK + ":active";
+    }
+}
@@ -0,0 +1,26 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.bo.HomeContentDocument;
+import com.lzy.mall.component.HomeContentHolder;
+import com.lzy.mall.service.SmsHomeContentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 首页内容Service实现类
+ */
+@Service
+public class SmsHomeContentServiceImpl implements SmsHomeContentService {
+    @Autowired
+    private HomeContentHolder homeContentHolder;
+
+    @Override
+    public HomeContentDocument getDocument() {
+        return homeContentHolder.getDocument();
+    }
+
+    @Override
+    public void refresh() {
+        homeContentHolder.invalidate();
+    }
+}
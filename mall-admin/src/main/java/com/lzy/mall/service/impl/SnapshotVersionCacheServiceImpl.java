@@ -0,0 +1,33 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.common.service.RedisService;
+import com.lzy.mall.service.SnapshotVersionCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 内存快照版本号缓存管理Service实现类
+ */
+@Service
+public class SnapshotVersionCacheServiceImpl implements SnapshotVersionCacheService {
+    @Autowired
+    private RedisService redisService;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+
+    @Override
+    public Long getVersion(String cacheKey) {
+        Object version = redisService.get(getVersionKey(cacheKey));
+        return version == null ? 0L : ((Number) version).longValue();
+    }
+
+    @Override
+    public void incrVersion(String cacheKey) {
+        redisService.incr(getVersionKey(cacheKey), 1);
+    }
+
+    private String getVersionKey(String cacheKey) {
+        return REDIS_DATABASE + ":" + cacheKey + ":version";
+    }
+}
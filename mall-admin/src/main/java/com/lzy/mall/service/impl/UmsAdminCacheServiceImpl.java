@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -38,6 +39,8 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
     private String REDIS_KEY_ADMIN;
     @Value("${redis.key.resourceList}")
     private String REDIS_KEY_RESOURCE_LIST;
+    @Value("${redis.key.adminRoleIds}")
+    private String REDIS_KEY_ADMIN_ROLE_IDS;
 
     @Override
     public void delAdmin(Long adminId) {
@@ -54,6 +57,13 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         redisService.del(key);
     }
 
+    @Override
+    public void delRoleIdList(Long adminId) {
+        //资源列表由角色决定，与角色ID列表一起删除
+        redisService.del(Arrays.asList(REDIS_DATABASE + ":" + REDIS_KEY_ADMIN_ROLE_IDS + ":" + adminId,
+                REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":" + adminId));
+    }
+
     @Override
     public void delResourceListByRole(Long roleId) {
         UmsAdminRoleRelationExample example = new UmsAdminRoleRelationExample();
@@ -100,6 +110,23 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         redisService.set(key, admin, REDIS_EXPIRE);
     }
 
+    @Override
+    public List<Long> getRoleIdList(Long adminId) {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_ADMIN_ROLE_IDS + ":" + adminId;
+        List<?> roleIds = (List<?>) redisService.get(key);
+        if (roleIds == null) {
+            return null;
+        }
+        //JSON反序列化后较小的ID为Integer，统一转换为Long
+        return roleIds.stream().map(roleId -> ((Number) roleId).longValue()).collect(Collectors.toList());
+    }
+
+    @Override
+    public void setRoleIdList(Long adminId, List<Long> roleIds) {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_ADMIN_ROLE_IDS + ":" + adminId;
+        redisService.set(key, roleIds, REDIS_EXPIRE);
+    }
+
     @Override
     public List<UmsResource> getResourceList(Long adminId) {
         String key = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":" + adminId;
@@ -4,14 +4,16 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
 import com.lzy.mall.bo.AdminUserDetails;
+import com.lzy.mall.bo.RelationDiff;
 import com.lzy.mall.common.exception.Asserts;
 import com.lzy.mall.common.util.RequestUtil;
+import com.lzy.mall.common.util.TransactionUtil;
+import com.lzy.mall.component.RoleMenuSnapshotHolder;
 import com.lzy.mall.dao.UmsAdminRoleRelationDao;
 import com.lzy.mall.dto.UmsAdminParam;
 import com.lzy.mall.dto.UpdateAdminPasswordParam;
 import com.lzy.mall.mapper.UmsAdminLoginLogMapper;
 import com.lzy.mall.mapper.UmsAdminMapper;
-import com.lzy.mall.mapper.UmsAdminRoleRelationMapper;
 import com.lzy.mall.model.*;
 import com.lzy.mall.security.utils.JwtTokenUtil;
 import com.lzy.mall.security.utils.SpringUtil;
@@ -51,10 +53,10 @@ public class UmsAdminServiceImpl implements UmsAdminService , UserDetailsService
     @Autowired
     private UmsAdminMapper adminMapper;
     @Autowired
-    private UmsAdminRoleRelationMapper adminRoleRelationMapper;
-    @Autowired
     private UmsAdminRoleRelationDao adminRoleRelationDao;
     @Autowired
+    private RoleMenuSnapshotHolder roleMenuSnapshotHolder;
+    @Autowired
     private UmsAdminLoginLogMapper loginLogMapper;
 
     /**
@@ -316,8 +318,8 @@ public class UmsAdminServiceImpl implements UmsAdminService , UserDetailsService
         int count = adminMapper.deleteByPrimaryKey(id);
         // 删除缓存中的管理员信息
         getCacheService().delAdmin(id);
-        // 删除缓存中该管理员的资源列表
-        getCacheService().delResourceList(id);
+        // 删除缓存中该管理员的角色ID列表和资源列表
+        getCacheService().delRoleIdList(id);
         // 返回删除结果
         return count;
     }
@@ -334,32 +336,29 @@ public class UmsAdminServiceImpl implements UmsAdminService , UserDetailsService
     public int updateRole(Long adminId, List<Long> roleIds) {
         // 计算角色数量，如果roleIds为null则为0，否则为roleIds的大小
         int count = roleIds == null ? 0 : roleIds.size();
-        // 先删除原来的关系
-        UmsAdminRoleRelationExample adminRoleRelationExample = new UmsAdminRoleRelationExample();
-        // 设置查询条件：管理员ID等于传入的adminId
-        adminRoleRelationExample.createCriteria().andAdminIdEqualTo(adminId);
-        // 删除该管理员的所有角色关系
-        adminRoleRelationMapper.deleteByExample(adminRoleRelationExample);
-        // 建立新关系
-        if (!CollectionUtils.isEmpty(roleIds)) {
-            // 创建角色关系列表
+        // 锁定管理员，同一管理员的角色分配串行执行
+        if (adminRoleRelationDao.lockAdmin(adminId) == null) {
+            Asserts.fail("管理员不存在");
+        }
+        // 与现有的角色关系比较，只新增和删除发生变化的关系
+        RelationDiff diff = RelationDiff.of(adminRoleRelationDao.getRoleIdList(adminId), roleIds);
+        if (!diff.getToRemove().isEmpty()) {
+            adminRoleRelationDao.deleteList(adminId, diff.getToRemove());
+        }
+        if (!diff.getToAdd().isEmpty()) {
             List<UmsAdminRoleRelation> list = new ArrayList<>();
-            // 遍历角色ID列表
-            for (Long roleId : roleIds) {
-                // 创建新的角色关系对象
+            for (Long roleId : diff.getToAdd()) {
                 UmsAdminRoleRelation roleRelation = new UmsAdminRoleRelation();
-                // 设置管理员ID
                 roleRelation.setAdminId(adminId);
-                // 设置角色ID
                 roleRelation.setRoleId(roleId);
-                // 将角色关系添加到列表中
                 list.add(roleRelation);
             }
-            // 批量插入角色关系
             adminRoleRelationDao.insertList(list);
         }
-        // 删除该管理员的资源列表缓存
-        getCacheService().delResourceList(adminId);
+        // 角色有变化时，事务提交后删除该管理员的角色ID列表和资源列表缓存，其他管理员和角色菜单快照不受影响
+        if (!diff.isEmpty()) {
+            TransactionUtil.afterCommit(() -> getCacheService().delRoleIdList(adminId));
+        }
         // 返回分配的角色数量
         return count;
     }
@@ -372,8 +371,19 @@ public class UmsAdminServiceImpl implements UmsAdminService , UserDetailsService
      */
     @Override
     public List<UmsRole> getRoleList(Long adminId) {
-        // 调用adminRoleRelationDao的getRoleList方法，根据管理员ID查询并返回其拥有的角色列表
-        return adminRoleRelationDao.getRoleList(adminId);
+        // 按管理员的角色ID从内存中的角色菜单快照获取角色列表
+        return roleMenuSnapshotHolder.getSnapshot().getRoleList(getRoleIdList(adminId));
+    }
+
+    @Override
+    public List<Long> getRoleIdList(Long adminId) {
+        List<Long> roleIds = getCacheService().getRoleIdList(adminId);
+        if (roleIds != null) {
+            return roleIds;
+        }
+        roleIds = adminRoleRelationDao.getRoleIdList(adminId);
+        getCacheService().setRoleIdList(adminId, roleIds);
+        return roleIds;
     }
 
     /**
@@ -0,0 +1,370 @@
+package com.lzy.mall.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.github.pagehelper.PageHelper;
+import com.lzy.mall.bo.LedgerCursor;
+import com.lzy.mall.bo.LedgerEntry;
+import com.lzy.mall.bo.LedgerGrantTask;
+import com.lzy.mall.bo.LedgerSnapshot;
+import com.lzy.mall.bo.LedgerType;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.dao.UmsMemberLedgerDao;
+import com.lzy.mall.dto.UmsLedgerGrantParam;
+import com.lzy.mall.dto.UmsMemberLedgerBalance;
+import com.lzy.mall.service.UmsMemberLedgerService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 会员积分、成长值账本Service实现类
+ * 变化记录只追加不修改：事务中追加的记录与业务数据一起写入发件箱表，事务外追加的记录进入Redis写入队列，
+ * 都由定时任务按批写入历史表，写入后中断导致的重复写入按幂等键跳过。
+ * 余额 = 快照余额 + 快照之后的变化记录，读取时只扫描快照之后的少量记录；
+ * 快照按变化记录ID顺序合并，每次只合并到上一次快照时的最大ID，给ID较小但提交较晚的事务留出一个快照间隔的时间。
+ * 批量发放任务由定时任务领取后在ledgerGrantExecutor中执行，只领取线程池有空闲线程执行的任务数。
+ */
+@Service
+public class UmsMemberLedgerServiceImpl implements UmsMemberLedgerService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UmsMemberLedgerServiceImpl.class);
+    private static final int STATUS_FINISHED = 2;
+    private static final int STATUS_FAILED = 4;
+    private static final int MAX_EVENT_KEY_LENGTH = 64;
+    /**
+     * 每次写入最多写入的批数，剩余的留到下一次
+     */
+    private static final int MAX_FLUSH_BATCHES = 10;
+    /**
+     * 每次调度最多领取的发放任务数
+     */
+    private static final int MAX_GRANTS_PER_RUN = 5;
+
+    @Autowired
+    private UmsMemberLedgerDao memberLedgerDao;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    @Qualifier("ledgerGrantExecutor")
+    private ThreadPoolTaskExecutor ledgerGrantExecutor;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.memberLedger}")
+    private String REDIS_KEY_MEMBER_LEDGER;
+    @Value("${memberLedger.batchSize:500}")
+    private int batchSize;
+    @Value("${memberLedger.mergeSize:10000}")
+    private int mergeSize;
+    @Value("${memberLedger.grantChunkSize:1000}")
+    private int grantChunkSize;
+    @Value("${memberLedger.grantMaxRowsPerSecond:5000}")
+    private int grantMaxRowsPerSecond;
+    @Value("${memberLedger.grantStaleSeconds:60}")
+    private int grantStaleSeconds;
+    /**
+     * 发放线程池的空闲线程数，领取任务前获取，任务执行完成后释放
+     */
+    private Semaphore idleGrantThreads;
+
+    @PostConstruct
+    public void init() {
+        idleGrantThreads = new Semaphore(ledgerGrantExecutor.getMaxPoolSize());
+    }
+
+    @Override
+    public void append(List<LedgerEntry> entryList) {
+        if (entryList == null || entryList.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        for (LedgerEntry entry : entryList) {
+            if (entry.getType() == null || entry.getMemberId() == null) {
+                Asserts.fail("账本类型和会员ID不能为空");
+            }
+            if (entry.getChangeCount() == null || entry.getChangeCount() <= 0) {
+                Asserts.fail("改变数量必须大于0");
+            }
+            if (entry.getChangeType() == null || (entry.getChangeType() != 0 && entry.getChangeType() != 1)) {
+                Asserts.fail("改变类型不正确");
+            }
+            if (StrUtil.isEmpty(entry.getEventKey())) {
+                entry.setEventKey(IdUtil.simpleUUID());
+            } else if (entry.getEventKey().length() > MAX_EVENT_KEY_LENGTH) {
+                Asserts.fail("事件幂等键过长");
+            }
+            if (entry.getCreateTime() == null) {
+                entry.setCreateTime(now);
+            }
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 与业务数据在同一事务中提交，提交后Redis不可用也不会丢失记录
+            memberLedgerDao.insertOutbox(entryList);
+            return;
+        }
+        List<String> records = new ArrayList<>(entryList.size());
+        for (LedgerEntry entry : entryList) {
+            records.add(JSONUtil.toJsonStr(entry));
+        }
+        // 没有事务时写入失败直接抛给调用方
+        stringRedisTemplate.opsForList().rightPushAll(getQueueKey(), records);
+    }
+
+    @Override
+    public synchronized int flush() {
+        return flushOutbox() + flushQueue();
+    }
+
+    /**
+     * 写入发件箱中的变化记录：写入历史表和删除发件箱记录在同一事务中完成，不会重复写入
+     */
+    private int flushOutbox() {
+        int total = 0;
+        for (int i = 0; i < MAX_FLUSH_BATCHES; i++) {
+            List<Long> ids = memberLedgerDao.selectOutboxIds(batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer inserted = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (LedgerType type : LedgerType.values()) {
+                    count += memberLedgerDao.moveOutbox(type, ids);
+                }
+                memberLedgerDao.deleteOutbox(ids);
+                return count;
+            });
+            if (inserted != null && inserted < ids.size()) {
+                LOGGER.info("变化记录的幂等键已存在，跳过{}条", ids.size() - inserted);
+            }
+            total += ids.size();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 写入队列头部的变化记录：先在一个事务中写入记录，提交后再从队列中移除；
+     * 移除前中断时下次重新写入同一批记录，已写入的记录按幂等键跳过
+     */
+    private int flushQueue() {
+        ListOperations<String, String> listOperations = stringRedisTemplate.opsForList();
+        String queueKey = getQueueKey();
+        int total = 0;
+        for (int i = 0; i < MAX_FLUSH_BATCHES; i++) {
+            List<String> records = listOperations.range(queueKey, 0, batchSize - 1);
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            Map<LedgerType, List<LedgerEntry>> entryMap = new EnumMap<>(LedgerType.class);
+            for (String record : records) {
+                LedgerEntry entry = JSONUtil.toBean(record, LedgerEntry.class);
+                entryMap.computeIfAbsent(entry.getType(), key -> new ArrayList<>()).add(entry);
+            }
+            Integer inserted = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Map.Entry<LedgerType, List<LedgerEntry>> entry : entryMap.entrySet()) {
+                    count += memberLedgerDao.insertList(entry.getKey(), entry.getValue());
+                }
+                return count;
+            });
+            listOperations.trim(queueKey, records.size(), -1);
+            if (inserted != null && inserted < records.size()) {
+                LOGGER.info("变化记录的幂等键已存在，跳过{}条", records.size() - inserted);
+            }
+            total += records.size();
+            if (records.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public UmsMemberLedgerBalance getBalance(Long memberId) {
+        UmsMemberLedgerBalance balance = new UmsMemberLedgerBalance();
+        balance.setMemberId(memberId);
+        LedgerSnapshot integration = memberLedgerDao.selectSnapshot(LedgerType.INTEGRATION, memberId);
+        balance.setIntegration(getBalance(LedgerType.INTEGRATION, memberId, integration));
+        balance.setIntegrationSnapshotTime(integration == null ? null : integration.getUpdateTime());
+        LedgerSnapshot growth = memberLedgerDao.selectSnapshot(LedgerType.GROWTH, memberId);
+        balance.setGrowth(getBalance(LedgerType.GROWTH, memberId, growth));
+        balance.setGrowthSnapshotTime(growth == null ? null : growth.getUpdateTime());
+        return balance;
+    }
+
+    private long getBalance(LedgerType type, Long memberId, LedgerSnapshot snapshot) {
+        if (snapshot == null) {
+            return memberLedgerDao.sumAfter(type, memberId, 0L);
+        }
+        return snapshot.getBalance() + memberLedgerDao.sumAfter(type, memberId, snapshot.getLastHistoryId());
+    }
+
+    @Override
+    public synchronized int snapshot() {
+        int total = 0;
+        for (LedgerType type : LedgerType.values()) {
+            total += snapshot(type);
+        }
+        return total;
+    }
+
+    /**
+     * 每个事务合并mergeSize个ID范围内的变化记录，快照与进度在同一事务中提交，不会重复合并；
+     * 合并到上一次记录的最大ID后，记录当前的最大ID作为下一次快照的合并终点
+     */
+    private int snapshot(LedgerType type) {
+        int total = 0;
+        while (true) {
+            Integer merged = transactionTemplate.execute(status -> {
+                LedgerCursor cursor = memberLedgerDao.selectCursorForUpdate(type);
+                if (cursor == null) {
+                    LOGGER.warn("{}快照进度未初始化，跳过快照", type);
+                    return null;
+                }
+                long fromId = cursor.getLastHistoryId();
+                if (fromId >= cursor.getHorizonId()) {
+                    long maxId = memberLedgerDao.selectMaxHistoryId(type);
+                    memberLedgerDao.updateCursor(type, fromId, Math.max(maxId, fromId));
+                    return null;
+                }
+                long toId = Math.min(fromId + mergeSize, cursor.getHorizonId());
+                memberLedgerDao.mergeSnapshot(type, fromId, toId);
+                memberLedgerDao.syncMember(type, fromId, toId);
+                memberLedgerDao.updateCursor(type, toId, cursor.getHorizonId());
+                return (int) (toId - fromId);
+            });
+            if (merged == null) {
+                return total;
+            }
+            total += merged;
+        }
+    }
+
+    @Override
+    public Long createGrant(UmsLedgerGrantParam param, String operateMan) {
+        LedgerType.of(param.getLedgerType());
+        if (param.getChangeCount() == null || param.getChangeCount() <= 0) {
+            Asserts.fail("发放数量必须大于0");
+        }
+        LedgerGrantTask task = new LedgerGrantTask();
+        task.setLedgerType(param.getLedgerType());
+        task.setChangeCount(param.getChangeCount());
+        task.setMemberLevelId(param.getMemberLevelId());
+        task.setOperateMan(operateMan);
+        task.setOperateNote(param.getOperateNote());
+        memberLedgerDao.insertGrant(task);
+        return task.getId();
+    }
+
+    @Override
+    public void runPendingGrants() {
+        int limit = Math.min(idleGrantThreads.availablePermits(), MAX_GRANTS_PER_RUN);
+        if (limit == 0) {
+            return;
+        }
+        for (LedgerGrantTask task : memberLedgerDao.selectRunnableGrants(grantStaleSeconds, limit)) {
+            if (!idleGrantThreads.tryAcquire()) {
+                return;
+            }
+            // 其他节点已经领取
+            if (memberLedgerDao.claimGrant(task.getId(), grantStaleSeconds) == 0) {
+                idleGrantThreads.release();
+                continue;
+            }
+            try {
+                ledgerGrantExecutor.execute(() -> {
+                    try {
+                        grant(task);
+                    } finally {
+                        idleGrantThreads.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 已领取的任务超过grantStaleSeconds后由任意节点重新领取
+                idleGrantThreads.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 从任务记录的进度开始按会员ID顺序分批发放，每批的发放记录与进度在同一事务中提交
+     */
+    private void grant(LedgerGrantTask task) {
+        try {
+            LedgerType type = LedgerType.of(task.getLedgerType());
+            long lastId = task.getLastId();
+            while (true) {
+                long start = System.currentTimeMillis();
+                List<Long> memberIds = memberLedgerDao.selectMemberIds(task.getMemberLevelId(), lastId, grantChunkSize);
+                if (memberIds.isEmpty()) {
+                    if (memberLedgerDao.finishGrant(task.getId(), STATUS_FINISHED, null) > 0) {
+                        LOGGER.info("{}批量发放完成：任务ID={}", type, task.getId());
+                    }
+                    return;
+                }
+                long chunkLastId = memberIds.get(memberIds.size() - 1);
+                Boolean active = transactionTemplate.execute(status -> {
+                    int count = memberLedgerDao.insertGrantList(type, task, memberIds);
+                    if (memberLedgerDao.updateGrantProgress(task.getId(), chunkLastId, count) == 0) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(active)) {
+                    LOGGER.info("{}批量发放任务已结束：任务ID={}", type, task.getId());
+                    return;
+                }
+                lastId = chunkLastId;
+                throttle(memberIds.size(), System.currentTimeMillis() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.error("批量发放失败：任务ID={}", task.getId(), e);
+            memberLedgerDao.finishGrant(task.getId(), STATUS_FAILED, StrUtil.maxLength(e.getMessage(), 480));
+        }
+    }
+
+    /**
+     * 按最大发放速率计算本批应占用的时间，执行过快时休眠补足
+     */
+    private void throttle(int rows, long elapsedMillis) throws InterruptedException {
+        long expectedMillis = rows * 1000L / grantMaxRowsPerSecond;
+        if (expectedMillis > elapsedMillis) {
+            Thread.sleep(expectedMillis - elapsedMillis);
+        }
+    }
+
+    @Override
+    public List<LedgerGrantTask> listGrants(Integer status, Integer pageSize, Integer pageNum) {
+        PageHelper.startPage(pageNum, pageSize);
+        return memberLedgerDao.getGrantList(status);
+    }
+
+    @Override
+    public int retryGrant(Long id) {
+        return memberLedgerDao.retryGrant(id);
+    }
+
+    private String getQueueKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_MEMBER_LEDGER + ":queue";
+    }
+}
@@ -0,0 +1,105 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.bo.MemberStatisticsDelta;
+import com.lzy.mall.bo.MemberStatisticsField;
+import com.lzy.mall.component.MemberStatisticsBuffer;
+import com.lzy.mall.dao.UmsMemberStatisticsDao;
+import com.lzy.mall.service.UmsMemberStatisticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 会员统计信息Service实现类
+ * 增量在记录时累加到Redis中的批次（见MemberStatisticsBuffer），写入一批增量的步骤：切换到新的批次，
+ * 读取旧批次的增量，在一个事务中以批次号记录写入并累加统计，提交后删除批次。
+ * 节点在切换批次之后、删除批次之前中断，或者异常退出留下未切换的批次时，任意节点的后续写入会重放登记超过replayDelay秒的批次，
+ * 批次号已记录的只删除批次，不会重复累加。
+ */
+@Service
+public class UmsMemberStatisticsServiceImpl implements UmsMemberStatisticsService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UmsMemberStatisticsServiceImpl.class);
+    private static final List<String> COLUMNS = Arrays.stream(MemberStatisticsField.values())
+            .map(MemberStatisticsField::getColumn).collect(Collectors.toList());
+
+    @Autowired
+    private MemberStatisticsBuffer memberStatisticsBuffer;
+    @Autowired
+    private UmsMemberStatisticsDao memberStatisticsDao;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Value("${memberStatistics.batchSize:500}")
+    private int batchSize;
+    @Value("${memberStatistics.replayDelay:60}")
+    private long replayDelay;
+
+    @Override
+    public void record(Long memberId, MemberStatisticsField field, long delta) {
+        memberStatisticsBuffer.add(memberId, field, delta);
+    }
+
+    @Override
+    public void recordAmount(Long memberId, MemberStatisticsField field, BigDecimal amount) {
+        if (amount != null) {
+            memberStatisticsBuffer.add(memberId, field, field.toUnits(amount));
+        }
+    }
+
+    @Override
+    public synchronized int flush() {
+        replay();
+        String generationId = memberStatisticsBuffer.drain();
+        return generationId == null ? 0 : apply(generationId);
+    }
+
+    /**
+     * 重放登记时间超过replayDelay秒仍未删除的批次，未超过的可能正在由其他节点累加或写入
+     */
+    private void replay() {
+        long expireTime = System.currentTimeMillis() - replayDelay * 1000;
+        for (String generationId : memberStatisticsBuffer.listRegisteredBefore(expireTime)) {
+            int memberCount = apply(generationId);
+            LOGGER.info("重放会员统计增量：batchId={}，会员数{}", generationId, memberCount);
+        }
+    }
+
+    /**
+     * 在一个事务中记录批次号并累加批次中的增量，批次号已存在时只删除批次；
+     * 按会员ID顺序分组写入，多个节点同时写入时加锁顺序一致
+     * @return 本批写入的会员数
+     */
+    private int apply(String batchId) {
+        Map<Long, long[]> deltas = memberStatisticsBuffer.load(batchId);
+        List<MemberStatisticsDelta> deltaList = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((memberId, values) -> {
+            List<Number> fieldValues = new ArrayList<>(values.length);
+            MemberStatisticsField[] fields = MemberStatisticsField.values();
+            for (int i = 0; i < fields.length; i++) {
+                fieldValues.add(fields[i].fromUnits(i < values.length ? values[i] : 0));
+            }
+            deltaList.add(new MemberStatisticsDelta(memberId, fieldValues));
+        });
+        if (deltaList.isEmpty()) {
+            memberStatisticsBuffer.remove(batchId);
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (memberStatisticsDao.insertFlushLog(batchId, deltaList.size()) == 0) {
+                return;
+            }
+            for (int from = 0; from < deltaList.size(); from += batchSize) {
+                memberStatisticsDao.increment(COLUMNS,
+                        deltaList.subList(from, Math.min(from + batchSize, deltaList.size())));
+            }
+        });
+        memberStatisticsBuffer.remove(batchId);
+        return deltaList.size();
+    }
+}
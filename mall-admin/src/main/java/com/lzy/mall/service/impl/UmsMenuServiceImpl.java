@@ -1,18 +1,17 @@
 package com.lzy.mall.service.impl; // 定义该类所属的包，表示它是服务层实现类
 
 import com.github.pagehelper.PageHelper; // 导入PageHelper分页插件，用于简化分页操作
+import com.lzy.mall.component.RoleMenuSnapshotHolder; // 导入菜单快照持有者，菜单树从内存快照中获取
 import com.lzy.mall.dto.UmsMenuNode; // 导入菜单的树形结构数据传输对象
 import com.lzy.mall.mapper.UmsMenuMapper; // 导入菜单数据访问接口，用于与数据库交互
 import com.lzy.mall.model.UmsMenu; // 导入菜单实体类
 import com.lzy.mall.model.UmsMenuExample; // 导入菜单查询条件的Example类
 import com.lzy.mall.service.UmsMenuService; // 导入菜单服务接口
-import org.springframework.beans.BeanUtils; // 导入Spring工具类，用于对象属性的复制
 import org.springframework.beans.factory.annotation.Autowired; // 导入Spring的自动注入注解
 import org.springframework.stereotype.Service; // 导入Spring的服务注解
 
 import java.util.Date; // 导入Java日期类
 import java.util.List; // 导入Java列表工具类
-import java.util.stream.Collectors; // 导入Stream API的收集器，用于集合操作
 
 /**
  * 后台菜单管理Service实现类。
@@ -29,6 +28,10 @@ public class UmsMenuServiceImpl implements UmsMenuService {
     @Autowired
     private UmsMenuMapper menuMapper;
 
+    // 自动注入菜单及角色菜单快照持有者，菜单发生修改后需要使快照失效。
+    @Autowired
+    private RoleMenuSnapshotHolder roleMenuSnapshotHolder;
+
     /**
      * 创建后台菜单。
      * <p>
@@ -44,7 +47,10 @@ public class UmsMenuServiceImpl implements UmsMenuService {
         // 调用私有辅助方法 `updateLevel`，根据菜单的父ID计算并设置其层级（level）。
         updateLevel(umsMenu);
         // 调用Mapper接口的insert方法，将完整的菜单对象插入到数据库中。
-        return menuMapper.insert(umsMenu);
+        int count = menuMapper.insert(umsMenu);
+        // 使菜单快照失效。
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 
     /**
@@ -95,7 +101,10 @@ public class UmsMenuServiceImpl implements UmsMenuService {
         updateLevel(umsMenu);
         // 调用Mapper接口的updateByPrimaryKeySelective方法，
         // 根据主键ID有选择地更新菜单对象中非空的字段。
-        return menuMapper.updateByPrimaryKeySelective(umsMenu);
+        int count = menuMapper.updateByPrimaryKeySelective(umsMenu);
+        // 使菜单快照失效。
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 
     /**
@@ -123,7 +132,10 @@ public class UmsMenuServiceImpl implements UmsMenuService {
     @Override // 标记该方法是实现父接口 UmsMenuService 中的方法
     public int delete(Long id) {
         // 调用Mapper接口的deleteByPrimaryKey方法，根据主键ID删除菜单。
-        return menuMapper.deleteByPrimaryKey(id);
+        int count = menuMapper.deleteByPrimaryKey(id);
+        // 使菜单快照失效。
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 
     /**
@@ -155,33 +167,13 @@ public class UmsMenuServiceImpl implements UmsMenuService {
     /**
      * 获取所有菜单的树形结构列表。
      * <p>
-     * 首先查询所有扁平化的菜单数据，然后通过递归的方式构建成树形结构。
+     * 菜单树在构建菜单快照时已经按父菜单ID建立索引、一次遍历构建完成，这里直接返回内存中的结果。
      *
      * @return 包含根菜单节点及其所有子孙菜单的树形结构列表。
      */
     @Override // 标记该方法是实现父接口 UmsMenuService 中的方法
     public List<UmsMenuNode> treeList() {
-        // 1. 查询所有后台菜单的扁平化列表。
-        // 这里不添加任何条件，表示查询所有菜单记录。
-        List<UmsMenu> menuList = menuMapper.selectByExample(new UmsMenuExample());
-
-        // 2. 使用Java 8 Stream API将扁平列表转换为树形结构。
-        List<UmsMenuNode> result = menuList.stream()
-                // 过滤出所有父ID为0的菜单（即顶级菜单或根菜单）。
-                .filter(menu -> menu.getParentId().equals(0L))
-                // 将每个顶级菜单转换为UmsMenuNode，并递归地设置其所有子菜单。
-                .map(menu -> covertMenuNode(menu, menuList))
-                // 将转换后的UmsMenuNode对象收集成一个列表。
-                .collect(Collectors.toList());
-        // 返回包含树形结构菜单的列表。
-        return result;
-        /**
-         * 总结 treeList() 方法的工作流程可以概括为：
-         * 1.一次性查询所有菜单数据。 (扁平化列表)
-         * 2.筛选出所有顶级菜单。 (作为树的根)
-         * 3.对每个顶级菜单，递归地构建它的子树。 (利用 covertMenuNode 方法的递归特性)
-         * 4.将所有构建好的顶级菜单树收集起来，作为最终结果返回。
-         */
+        return roleMenuSnapshotHolder.getSnapshot().getMenuTree();
     }
 
     /**
@@ -202,37 +194,9 @@ public class UmsMenuServiceImpl implements UmsMenuService {
         umsMenu.setHidden(hidden);
         // 调用Mapper接口的updateByPrimaryKeySelective方法，
         // 根据主键ID有选择地更新菜单的hidden字段。
-        return menuMapper.updateByPrimaryKeySelective(umsMenu);
-    }
-
-    /**
-     * 辅助方法：将 `UmsMenu` 实体转换为 `UmsMenuNode` 树形节点，并递归设置其子节点。
-     * <p>
-     * 这个方法是构建菜单树形结构的核心，它会递归地查找并设置当前菜单的子菜单。
-     *
-     * @param menu     当前需要转换和处理的 `UmsMenu` 对象。
-     * @param menuList 包含所有扁平化菜单的完整列表，用于递归查找子菜单。
-     * @return 转换后的 `UmsMenuNode` 对象，其 `children` 属性已填充（如果存在子菜单）。
-     */
-    private UmsMenuNode covertMenuNode(UmsMenu menu, List<UmsMenu> menuList) {
-        // 1. 创建一个新的UmsMenuNode对象。
-        UmsMenuNode node = new UmsMenuNode();
-        // 2. 将当前UmsMenu对象的所有属性复制到UmsMenuNode对象中。
-        // 这样，UmsMenuNode就继承了UmsMenu的所有基本信息（如ID、名称、路径等）。
-        BeanUtils.copyProperties(menu, node);
-
-        // 3. 递归查找并设置当前节点的子菜单。
-        List<UmsMenuNode> children = menuList.stream()
-                // 从完整的菜单列表中筛选出所有父ID等于当前菜单ID的子菜单。
-                .filter(subMenu -> subMenu.getParentId().equals(menu.getId()))
-                // 对每个找到的子菜单，递归调用covertMenuNode方法，
-                // 将其转换为UmsMenuNode并构建其子树。
-                .map(subMenu -> covertMenuNode(subMenu, menuList))
-                // 将所有转换后的子菜单节点收集成一个列表。
-                .collect(Collectors.toList());
-        // 4. 将构建好的子菜单列表设置到当前UmsMenuNode的children属性中。
-        node.setChildren(children);
-        // 5. 返回构建完成的UmsMenuNode（包含其所有子孙节点）。
-        return node;
+        int count = menuMapper.updateByPrimaryKeySelective(umsMenu);
+        // 使菜单快照失效。
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package com.lzy.mall.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
+import com.lzy.mall.bo.RelationDiff;
+import com.lzy.mall.common.exception.Asserts;
+import com.lzy.mall.common.util.TransactionUtil;
+import com.lzy.mall.component.RoleMenuSnapshotHolder;
 import com.lzy.mall.dao.UmsRoleDao;
+import com.lzy.mall.dto.UmsMenuNode;
 import com.lzy.mall.mapper.UmsRoleMapper;
-import com.lzy.mall.mapper.UmsRoleMenuRelationMapper;
-import com.lzy.mall.mapper.UmsRoleResourceRelationMapper;
 import com.lzy.mall.model.*;
 import com.lzy.mall.service.UmsAdminCacheService;
+import com.lzy.mall.service.UmsAdminService;
 import com.lzy.mall.service.UmsRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,13 +29,13 @@ public class UmsRoleServiceImpl implements UmsRoleService {
     @Autowired
     private UmsRoleMapper roleMapper;
     @Autowired
-    private UmsRoleMenuRelationMapper roleMenuRelationMapper;
-    @Autowired
-    private UmsRoleResourceRelationMapper roleResourceRelationMapper;
-    @Autowired
     private UmsRoleDao roleDao;
     @Autowired
     private UmsAdminCacheService adminCacheService;
+    @Autowired
+    private UmsAdminService adminService;
+    @Autowired
+    private RoleMenuSnapshotHolder roleMenuSnapshotHolder;
 
     /**
      * 添加角色
@@ -47,7 +51,9 @@ public class UmsRoleServiceImpl implements UmsRoleService {
         // 初始化排序字段为0
         role.setSort(0);
         // 插入角色数据到数据库
-        return roleMapper.insert(role);
+        int count = roleMapper.insert(role);
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 
     /**
@@ -61,7 +67,9 @@ public class UmsRoleServiceImpl implements UmsRoleService {
         // 设置要修改的角色ID
         role.setId(id);
         // 更新角色信息（只更新非空字段）
-        return roleMapper.updateByPrimaryKeySelective(role);
+        int count = roleMapper.updateByPrimaryKeySelective(role);
+        roleMenuSnapshotHolder.invalidate();
+        return count;
     }
 
     /**
@@ -78,6 +86,7 @@ public class UmsRoleServiceImpl implements UmsRoleService {
         int count = roleMapper.deleteByExample(example);
         // 删除相关角色的缓存资源列表
         adminCacheService.delResourceListByRoleIds(ids);
+        roleMenuSnapshotHolder.invalidate();
         return count;
     }
 
@@ -118,8 +127,8 @@ public class UmsRoleServiceImpl implements UmsRoleService {
      */
     @Override
     public List<UmsMenu> getMenuList(Long adminId) {
-        // 查询管理员拥有的菜单列表
-        return roleDao.getMenuList(adminId);
+        // 从内存快照中合并管理员所有角色的菜单列表
+        return roleMenuSnapshotHolder.getSnapshot().getMenuList(adminService.getRoleIdList(adminId));
     }
 
     /**
@@ -129,8 +138,18 @@ public class UmsRoleServiceImpl implements UmsRoleService {
      */
     @Override
     public List<UmsMenu> listMenu(Long roleId) {
-        // 查询角色拥有的菜单列表
-        return roleDao.getMenuListByRoleId(roleId);
+        // 从内存快照中获取角色拥有的菜单列表
+        return roleMenuSnapshotHolder.getSnapshot().getRoleMenuList(roleId);
+    }
+
+    /**
+     * 获取角色相关菜单的树形结构
+     * @param roleId 角色ID
+     * @return 菜单树
+     */
+    @Override
+    public List<UmsMenuNode> listMenuTree(Long roleId) {
+        return roleMenuSnapshotHolder.getSnapshot().getRoleMenuTree(roleId);
     }
 
     /**
@@ -152,16 +171,18 @@ public class UmsRoleServiceImpl implements UmsRoleService {
      */
     @Override
     public int allocMenu(Long roleId, List<Long> menuIds) {
-        // 先删除原有的角色菜单关系
-        UmsRoleMenuRelationExample example = new UmsRoleMenuRelationExample();
-        example.createCriteria().andRoleIdEqualTo(roleId);
-        roleMenuRelationMapper.deleteByExample(example);
-        // 批量插入新的角色菜单关系
-        for (Long menuId : menuIds) {
-            UmsRoleMenuRelation relation = new UmsRoleMenuRelation();
-            relation.setRoleId(roleId);
-            relation.setMenuId(menuId);
-            roleMenuRelationMapper.insert(relation);
+        // 锁定角色，同一角色的分配串行执行
+        lockRole(roleId);
+        // 与现有的角色菜单关系比较，只新增和删除发生变化的关系
+        RelationDiff diff = RelationDiff.of(roleDao.getMenuIdList(roleId), menuIds);
+        if (!diff.getToRemove().isEmpty()) {
+            roleDao.deleteMenuRelationList(roleId, diff.getToRemove());
+        }
+        if (!diff.getToAdd().isEmpty()) {
+            roleDao.insertMenuRelationList(roleId, diff.getToAdd());
+        }
+        if (!diff.isEmpty()) {
+            roleMenuSnapshotHolder.invalidate();
         }
         return menuIds.size();
     }
@@ -174,19 +195,26 @@ public class UmsRoleServiceImpl implements UmsRoleService {
      */
     @Override
     public int allocResource(Long roleId, List<Long> resourceIds) {
-        // 先删除原有的角色资源关系
-        UmsRoleResourceRelationExample example = new UmsRoleResourceRelationExample();
-        example.createCriteria().andRoleIdEqualTo(roleId);
-        roleResourceRelationMapper.deleteByExample(example);
-        // 批量插入新的角色资源关系
-        for (Long resourceId : resourceIds) {
-            UmsRoleResourceRelation relation = new UmsRoleResourceRelation();
-            relation.setRoleId(roleId);
-            relation.setResourceId(resourceId);
-            roleResourceRelationMapper.insert(relation);
+        // 锁定角色，同一角色的分配串行执行
+        lockRole(roleId);
+        // 与现有的角色资源关系比较，只新增和删除发生变化的关系
+        RelationDiff diff = RelationDiff.of(roleDao.getResourceIdList(roleId), resourceIds);
+        if (!diff.getToRemove().isEmpty()) {
+            roleDao.deleteResourceRelationList(roleId, diff.getToRemove());
+        }
+        if (!diff.getToAdd().isEmpty()) {
+            roleDao.insertResourceRelationList(roleId, diff.getToAdd());
+        }
+        // 事务提交后删除该角色相关的缓存资源列表
+        if (!diff.isEmpty()) {
+            TransactionUtil.afterCommit(() -> adminCacheService.delResourceListByRole(roleId));
         }
-        // 删除该角色相关的缓存资源列表
-        adminCacheService.delResourceListByRole(roleId);
         return resourceIds.size();
     }
+
+    private void lockRole(Long roleId) {
+        if (roleDao.lockRole(roleId) == null) {
+            Asserts.fail("角色不存在");
+        }
+    }
 }
@@ -0,0 +1,14 @@
+-- 向购物车加入商品，商品信息只在首次加入时写入，数量原子累加
+-- 会员购物车必须带有已加载标记：加载后过期的购物车不再重新创建，避免没有标记的购物车被写入时跳过、丢失修改
+-- KEYS[1] 购物车hash（_：已加载标记；i:SKU ID -> 商品信息；q:SKU ID -> 数量）
+-- ARGV: 过期时间（秒）, 是否要求已加载标记（1->会员购物车；0->游客购物车）, SKU ID1, 商品信息1, 数量1, SKU ID2...
+-- 返回：1->已加入；0->会员购物车未加载（已过期），需要重新加载
+if ARGV[2] == '1' and redis.call('HEXISTS', KEYS[1], '_') == 0 then
+    return 0
+end
+for i = 3, #ARGV, 3 do
+    redis.call('HSETNX', KEYS[1], 'i:' .. ARGV[i], ARGV[i + 1])
+    redis.call('HINCRBY', KEYS[1], 'q:' .. ARGV[i], ARGV[i + 2])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return 1
@@ -0,0 +1,7 @@
+-- 清空购物车，保留已加载标记，避免清空后再次从数据库加载旧数据
+-- KEYS[1] 购物车hash
+-- ARGV: 过期时间（秒）
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], '_', '1')
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return 1
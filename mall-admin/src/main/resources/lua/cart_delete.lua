@@ -0,0 +1,12 @@
+-- 从会员购物车中删除商品，购物车已过期时不重新创建
+-- KEYS[1] 购物车hash
+-- ARGV: 过期时间（秒）, SKU ID1, SKU ID2...
+-- 返回：1->已删除；-1->购物车未加载（已过期），需要重新加载
+if redis.call('HEXISTS', KEYS[1], '_') == 0 then
+    return -1
+end
+for i = 2, #ARGV do
+    redis.call('HDEL', KEYS[1], 'i:' .. ARGV[i], 'q:' .. ARGV[i])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return 1
@@ -0,0 +1,9 @@
+-- 购物车写入数据库后清除待写入标记，写入期间购物车再次被修改（版本号变化）时保留标记，等待下次写入
+-- KEYS[1] 待写入hash（会员ID -> 修改版本号）
+-- ARGV: 会员ID, 写入前读取的版本号
+-- 返回：1->已清除；0->写入期间有新的修改
+if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then
+    redis.call('HDEL', KEYS[1], ARGV[1])
+    return 1
+end
+return 0
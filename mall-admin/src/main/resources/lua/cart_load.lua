@@ -0,0 +1,13 @@
+-- 从数据库加载的购物车写入Redis，购物车已存在（其他请求已加载或已修改）时不覆盖
+-- KEYS[1] 购物车hash（_：已加载标记；i:SKU ID -> 商品信息；q:SKU ID -> 数量）
+-- ARGV: 过期时间（秒）, 字段1, 值1, 字段2, 值2...
+-- 返回：1->已写入；0->购物车已存在
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('HSET', KEYS[1], '_', '1')
+for i = 2, #ARGV, 2 do
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return 1
@@ -0,0 +1,13 @@
+-- 修改会员购物车中商品的数量，购物车已过期时不重新创建
+-- KEYS[1] 购物车hash
+-- ARGV: 过期时间（秒）, SKU ID, 数量
+-- 返回：1->已修改；0->购物车中没有该商品；-1->购物车未加载（已过期），需要重新加载
+if redis.call('HEXISTS', KEYS[1], '_') == 0 then
+    return -1
+end
+if redis.call('HEXISTS', KEYS[1], 'i:' .. ARGV[2]) == 0 then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'q:' .. ARGV[2], ARGV[3])
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+return 1
@@ -0,0 +1,31 @@
+-- 领取优惠券
+-- KEYS[1] 优惠券hash（stock：剩余数量；limit：每人限领数量，0为不限；enable_time、end_time：可领取时间段（毫秒），0为不限；
+--         prefix：券码前缀；seq：券码序号）
+-- KEYS[2] 会员已领hash（会员ID -> 已领取数量）
+-- KEYS[3] 待写入数据库的领取记录list
+-- ARGV: 会员ID, 当前时间（毫秒）, 领取记录中券码之后的部分
+-- 返回：券码；'-1'->未预热；'-2'->已领完；'-3'->超过限领数量；'-4'->不在领取时间内
+local coupon = redis.call('HMGET', KEYS[1], 'stock', 'limit', 'enable_time', 'end_time', 'prefix')
+local stock = tonumber(coupon[1])
+if not stock then
+    return '-1'
+end
+local now = tonumber(ARGV[2])
+local enableTime = tonumber(coupon[3] or '0')
+local endTime = tonumber(coupon[4] or '0')
+if now < enableTime or (endTime > 0 and now >= endTime) then
+    return '-4'
+end
+if stock <= 0 then
+    return '-2'
+end
+local limit = tonumber(coupon[2] or '0')
+local claimed = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+if limit > 0 and claimed >= limit then
+    return '-3'
+end
+redis.call('HINCRBY', KEYS[1], 'stock', -1)
+redis.call('HINCRBY', KEYS[2], ARGV[1], 1)
+local code = coupon[5] .. redis.call('HINCRBY', KEYS[1], 'seq', 1)
+redis.call('RPUSH', KEYS[3], code .. '\t' .. ARGV[3])
+return code
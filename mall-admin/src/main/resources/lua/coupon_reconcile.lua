@@ -0,0 +1,9 @@
+-- 校正优惠券剩余数量
+-- 领取时剩余数量减1的同时追加一条待写入记录，两者之和不受读取快照后的领取影响，按读取快照时算出的差额调整
+-- KEYS[1] 优惠券hash
+-- ARGV: 差额
+-- 返回：调整后的剩余数量，未预热时返回空
+if redis.call('HEXISTS', KEYS[1], 'stock') == 0 then
+    return false
+end
+return redis.call('HINCRBY', KEYS[1], 'stock', ARGV[1])
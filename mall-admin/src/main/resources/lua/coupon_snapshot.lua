@@ -0,0 +1,8 @@
+-- 读取一张优惠券在Redis中的领取状态，用于校正
+-- KEYS[1] 优惠券hash；KEYS[2] 待写入数据库的领取记录list
+-- 返回：{剩余数量, 待写入的领取记录数}，未预热时返回空
+local stock = redis.call('HGET', KEYS[1], 'stock')
+if not stock then
+    return {}
+end
+return {stock, tostring(redis.call('LLEN', KEYS[2]))}
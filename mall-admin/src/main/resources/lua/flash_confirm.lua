@@ -0,0 +1,13 @@
+-- 确认秒杀库存预留（订单已支付），预留转为待写回数据库的扣减，会员已购数量保留
+-- KEYS[1] 预留记录hash；KEYS[2] 待写回hash（sku:SKU ID -> 数量；total -> 总数量）
+-- ARGV: 预留标识
+-- 返回：1->已确认；0->预留不存在（已释放或已确认）
+local reservation = redis.call('HGET', KEYS[1], ARGV[1])
+if not reservation then
+    return 0
+end
+local memberId, skuId, quantity = string.match(reservation, '^(%d+):(%d+):(%d+):')
+redis.call('HDEL', KEYS[1], ARGV[1])
+redis.call('HINCRBY', KEYS[2], 'sku:' .. skuId, tonumber(quantity))
+redis.call('HINCRBY', KEYS[2], 'total', tonumber(quantity))
+return 1
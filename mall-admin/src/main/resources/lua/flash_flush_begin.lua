@@ -0,0 +1,13 @@
+-- 开始写回一批已确认的扣减：待写回hash整体改名为写回中hash并标记批次号
+-- 上一批写回中hash仍存在（上次写回未完成）时原样返回，由调用方按批次号幂等地重新写回
+-- KEYS[1] 待写回hash；KEYS[2] 写回中hash
+-- ARGV: 新的批次号
+-- 返回：写回中hash的全部字段，没有需要写回的扣减时返回空
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    if redis.call('EXISTS', KEYS[1]) == 0 then
+        return {}
+    end
+    redis.call('RENAME', KEYS[1], KEYS[2])
+    redis.call('HSET', KEYS[2], 'batch', ARGV[1])
+end
+return redis.call('HGETALL', KEYS[2])
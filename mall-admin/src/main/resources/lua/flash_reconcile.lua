@@ -0,0 +1,10 @@
+-- 校正剩余可预留数量
+-- 预留、释放、确认都不改变 剩余 + 预留中 + 待写回 + 写回中 的合计，按读取快照时算出的差额调整，
+-- 读取快照后发生的预留、释放不影响校正结果
+-- KEYS[1] 库存hash
+-- ARGV: 差额
+-- 返回：调整后的剩余数量，未预热时返回空
+if redis.call('HEXISTS', KEYS[1], 'stock') == 0 then
+    return false
+end
+return redis.call('HINCRBY', KEYS[1], 'stock', ARGV[1])
@@ -0,0 +1,16 @@
+-- 释放秒杀库存预留，库存和会员已购数量归还
+-- KEYS[1] 库存hash；KEYS[2] 会员已购hash；KEYS[3] 预留记录hash
+-- ARGV: 预留标识
+-- 返回：1->已释放；0->预留不存在（已释放或已确认）
+local reservation = redis.call('HGET', KEYS[3], ARGV[1])
+if not reservation then
+    return 0
+end
+local memberId, skuId, quantity = string.match(reservation, '^(%d+):(%d+):(%d+):')
+quantity = tonumber(quantity)
+redis.call('HDEL', KEYS[3], ARGV[1])
+redis.call('HINCRBY', KEYS[1], 'stock', quantity)
+if redis.call('HINCRBY', KEYS[2], memberId, -quantity) <= 0 then
+    redis.call('HDEL', KEYS[2], memberId)
+end
+return 1
@@ -0,0 +1,26 @@
+-- 秒杀库存预留
+-- KEYS[1] 库存hash（stock：剩余可预留数量；limit：每人限购数量，0为不限）
+-- KEYS[2] 会员已购hash（会员ID -> 已预留及已确认的数量）
+-- KEYS[3] 预留记录hash（预留标识 -> 会员ID:SKU ID:数量:预留时间）
+-- ARGV: 预留标识, 会员ID, SKU ID, 数量, 当前时间（毫秒）
+-- 返回：1->成功（重复预留同一标识也返回1）；-1->未预热；-2->库存不足；-3->超过限购数量
+local stock = tonumber(redis.call('HGET', KEYS[1], 'stock'))
+if not stock then
+    return -1
+end
+if redis.call('HEXISTS', KEYS[3], ARGV[1]) == 1 then
+    return 1
+end
+local quantity = tonumber(ARGV[4])
+if stock < quantity then
+    return -2
+end
+local limit = tonumber(redis.call('HGET', KEYS[1], 'limit') or '0')
+local held = tonumber(redis.call('HGET', KEYS[2], ARGV[2]) or '0')
+if limit > 0 and held + quantity > limit then
+    return -3
+end
+redis.call('HINCRBY', KEYS[1], 'stock', -quantity)
+redis.call('HINCRBY', KEYS[2], ARGV[2], quantity)
+redis.call('HSET', KEYS[3], ARGV[1], ARGV[2] .. ':' .. ARGV[3] .. ':' .. ARGV[4] .. ':' .. ARGV[5])
+return 1
@@ -0,0 +1,17 @@
+-- 读取一个秒杀商品在Redis中的库存状态，用于校正
+-- KEYS[1] 库存hash；KEYS[2] 预留记录hash；KEYS[3] 待写回hash；KEYS[4] 写回中hash
+-- 返回：{剩余可预留数量, 预留中数量, 待写回数量, 写回中数量, 写回中批次号}
+local stock = redis.call('HGET', KEYS[1], 'stock')
+if not stock then
+    return {}
+end
+local reserved = 0
+local reservations = redis.call('HVALS', KEYS[2])
+for i = 1, #reservations do
+    local quantity = string.match(reservations[i], '^%d+:%d+:(%d+):')
+    reserved = reserved + tonumber(quantity)
+end
+local pending = redis.call('HGET', KEYS[3], 'total') or '0'
+local flushing = redis.call('HGET', KEYS[4], 'total') or '0'
+local batch = redis.call('HGET', KEYS[4], 'batch') or ''
+return {stock, tostring(reserved), pending, flushing, batch}
@@ -0,0 +1,91 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.model.SmsCoupon;
+import com.lzy.mall.model.SmsCouponProductCategoryRelation;
+import com.lzy.mall.model.SmsCouponProductRelation;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponApplicabilityIndexTests {
+    /**
+     * 3：全场通用，1000开始；1：指定商品100，1000~2000；2：指定分类10，不限时间；
+     * 4：指定商品，但只配置了分类关系，不适用任何商品
+     */
+    private final CouponApplicabilityIndex index = new CouponApplicabilityIndex(
+            List.of(coupon(3L, 0, 1000L, null), coupon(1L, 2, 1000L, 2000L), coupon(2L, 1, null, null), coupon(4L, 2, null, null)),
+            List.of(productRelation(1L, 100L), productRelation(2L, 100L), productRelation(99L, 100L)),
+            List.of(categoryRelation(2L, 10L), categoryRelation(4L, 10L)));
+
+    @Test
+    void resolvesGlobalProductAndCategoryCoupons() {
+        assertEquals(List.of(1L, 2L, 3L), index.getCouponIds(index.resolve(100L, 10L)));
+        assertEquals(List.of(1L, 3L), index.getCouponIds(index.resolve(100L, 11L)));
+        assertEquals(List.of(2L, 3L), index.getCouponIds(index.resolve(101L, 10L)));
+        assertEquals(List.of(3L), index.getCouponIds(index.resolve(101L, 11L)));
+        assertEquals(List.of(3L), index.getCouponIds(index.resolve(null, null)));
+    }
+
+    @Test
+    void filtersByValidPeriod() {
+        assertEquals(List.of(2L), valid(100L, 10L, 500L));
+        assertEquals(List.of(1L, 2L, 3L), valid(100L, 10L, 1000L));
+        assertEquals(List.of(1L, 2L, 3L), valid(100L, 10L, 1999L));
+        // 结束时间不包含在有效期内
+        assertEquals(List.of(2L, 3L), valid(100L, 10L, 2000L));
+    }
+
+    @Test
+    void nextBoundaryIsNextStartOrEndTime() {
+        assertEquals(1000L, index.getNextBoundary(0L));
+        assertEquals(2000L, index.getNextBoundary(1000L));
+        assertEquals(2000L, index.getNextBoundary(1500L));
+        assertEquals(Long.MAX_VALUE, index.getNextBoundary(2000L));
+    }
+
+    @Test
+    void resolveReturnsCopy() {
+        index.resolve(101L, 11L).clear();
+        assertEquals(List.of(3L), index.getCouponIds(index.resolve(101L, 11L)));
+    }
+
+    @Test
+    void getCouponsInIdOrder() {
+        List<SmsCoupon> coupons = index.getCoupons(index.resolve(100L, 10L));
+        assertEquals(List.of(1L, 2L, 3L), coupons.stream().map(SmsCoupon::getId).collect(Collectors.toList()));
+    }
+
+    private List<Long> valid(Long productId, Long productCategoryId, long now) {
+        BitSet bits = index.resolve(productId, productCategoryId);
+        bits.and(index.getValidBits(now));
+        return index.getCouponIds(bits);
+    }
+
+    private static SmsCoupon coupon(Long id, int useType, Long startTime, Long endTime) {
+        SmsCoupon coupon = new SmsCoupon();
+        coupon.setId(id);
+        coupon.setUseType(useType);
+        coupon.setStartTime(startTime == null ? null : new Date(startTime));
+        coupon.setEndTime(endTime == null ? null : new Date(endTime));
+        return coupon;
+    }
+
+    private static SmsCouponProductRelation productRelation(Long couponId, Long productId) {
+        SmsCouponProductRelation relation = new SmsCouponProductRelation();
+        relation.setCouponId(couponId);
+        relation.setProductId(productId);
+        return relation;
+    }
+
+    private static SmsCouponProductCategoryRelation categoryRelation(Long couponId, Long productCategoryId) {
+        SmsCouponProductCategoryRelation relation = new SmsCouponProductCategoryRelation();
+        relation.setCouponId(couponId);
+        relation.setProductCategoryId(productCategoryId);
+        return relation;
+    }
+}
@@ -0,0 +1,108 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.SmsFlashSessionDetail;
+import com.lzy.mall.dto.SmsFlashSessionProduct;
+import com.lzy.mall.model.SmsFlashPromotion;
+import com.lzy.mall.model.SmsFlashPromotionSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlashSessionIndexTests {
+    /**
+     * 活动1在1月1日~1月3日进行，场次1为10:00~12:00，场次2为22:00~次日02:00，场次3没有商品；
+     * 索引覆盖1月2日、1月3日
+     */
+    private final FlashSessionIndex index = new FlashSessionIndex(
+            List.of(promotion(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 3)),
+                    promotion(2L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 3))),
+            List.of(session(1L, 10, 12), session(2L, 22, 2), session(3L, 14, 16)),
+            List.of(product(1L, 1L), product(1L, 1L), product(1L, 2L)),
+            LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4));
+
+    @Test
+    void findsCurrentSession() {
+        SmsFlashSessionDetail current = index.getCurrent(time(2024, 1, 2, 10, 0));
+        assertNotNull(current);
+        assertEquals(1L, current.getFlashPromotionSessionId());
+        assertEquals(1L, current.getFlashPromotionId());
+        assertEquals(new Date(time(2024, 1, 2, 12, 0)), current.getEndTime());
+        assertEquals(2, current.getProductList().size());
+
+        // 结束时间不包含在场次内
+        assertNull(index.getCurrent(time(2024, 1, 2, 12, 0)));
+        assertNull(index.getCurrent(time(2024, 1, 2, 9, 59)));
+        // 场次3没有商品，不在索引中
+        assertNull(index.getCurrent(time(2024, 1, 2, 15, 0)));
+    }
+
+    @Test
+    void sessionCrossingMidnightEndsNextDay() {
+        SmsFlashSessionDetail current = index.getCurrent(time(2024, 1, 3, 1, 0));
+        assertNotNull(current);
+        assertEquals(2L, current.getFlashPromotionSessionId());
+        assertEquals(new Date(time(2024, 1, 2, 22, 0)), current.getStartTime());
+        assertEquals(new Date(time(2024, 1, 3, 2, 0)), current.getEndTime());
+    }
+
+    @Test
+    void findsNextSession() {
+        SmsFlashSessionDetail next = index.getNext(time(2024, 1, 2, 11, 0));
+        assertEquals(2L, next.getFlashPromotionSessionId());
+        assertEquals(new Date(time(2024, 1, 2, 22, 0)), next.getStartTime());
+        assertEquals(new Date(time(2024, 1, 3, 10, 0)), index.getNext(time(2024, 1, 3, 1, 0)).getStartTime());
+        // 活动在1月3日结束，索引中最后一个场次为1月3日22:00
+        assertNull(index.getNext(time(2024, 1, 3, 22, 0)));
+    }
+
+    @Test
+    void nextBoundaryIsSessionEndOrStart() {
+        assertEquals(time(2024, 1, 2, 10, 0), index.getNextBoundary(time(2024, 1, 2, 0, 0)));
+        assertEquals(time(2024, 1, 2, 12, 0), index.getNextBoundary(time(2024, 1, 2, 11, 0)));
+        assertEquals(time(2024, 1, 2, 22, 0), index.getNextBoundary(time(2024, 1, 2, 12, 0)));
+        assertEquals(time(2024, 1, 3, 2, 0), index.getNextBoundary(time(2024, 1, 3, 1, 0)));
+        // 最后一个场次跨过索引的覆盖范围时，以覆盖范围的结束时间为边界
+        assertEquals(time(2024, 1, 4, 0, 0), index.getNextBoundary(time(2024, 1, 3, 23, 0)));
+    }
+
+    @Test
+    void expiresAtEndOfRange() {
+        assertFalse(index.isExpired(time(2024, 1, 3, 23, 59)));
+        assertTrue(index.isExpired(time(2024, 1, 4, 0, 0)));
+    }
+
+    private static long time(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static SmsFlashPromotion promotion(Long id, LocalDate startDate, LocalDate endDate) {
+        SmsFlashPromotion promotion = new SmsFlashPromotion();
+        promotion.setId(id);
+        promotion.setTitle("promotion" + id);
+        promotion.setStartDate(new Date(time(startDate.getYear(), startDate.getMonthValue(), startDate.getDayOfMonth(), 0, 0)));
+        promotion.setEndDate(new Date(time(endDate.getYear(), endDate.getMonthValue(), endDate.getDayOfMonth(), 0, 0)));
+        return promotion;
+    }
+
+    private static SmsFlashPromotionSession session(Long id, int startHour, int endHour) {
+        SmsFlashPromotionSession session = new SmsFlashPromotionSession();
+        session.setId(id);
+        session.setName("session" + id);
+        session.setStartTime(new Date(time(1970, 1, 1, startHour, 0)));
+        session.setEndTime(new Date(time(1970, 1, 1, endHour, 0)));
+        return session;
+    }
+
+    private static SmsFlashSessionProduct product(Long flashPromotionId, Long flashPromotionSessionId) {
+        SmsFlashSessionProduct product = new SmsFlashSessionProduct();
+        product.setFlashPromotionId(flashPromotionId);
+        product.setFlashPromotionSessionId(flashPromotionSessionId);
+        return product;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lzy.mall.bo;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HomeContentDocumentTests {
+    private final HomeContentDocument document = new HomeContentDocument("{\"a\":1}".getBytes(StandardCharsets.UTF_8), 1000L);
+
+    @Test
+    void etagIsQuotedContentHash() {
+        assertEquals("\"" + document.getContentHash() + "\"", document.getEtag());
+        assertEquals(64, document.getContentHash().length());
+        // 相同内容生成相同的ETag
+        assertEquals(document.getEtag(), new HomeContentDocument("{\"a\":1}".getBytes(StandardCharsets.UTF_8), 2000L).getEtag());
+        assertNotEquals(document.getEtag(), new HomeContentDocument("{\"a\":2}".getBytes(StandardCharsets.UTF_8), 1000L).getEtag());
+    }
+
+    @Test
+    void matchesStrongWeakAndWildcard() {
+        String etag = document.getEtag();
+        assertTrue(document.matches(etag));
+        assertTrue(document.matches("W/" + etag));
+        assertTrue(document.matches("\"other\", " + etag));
+        assertTrue(document.matches("\"other\",W/" + etag));
+        assertTrue(document.matches("*"));
+    }
+
+    @Test
+    void doesNotMatchOtherOrMissingTags() {
+        assertFalse(document.matches(null));
+        assertFalse(document.matches(""));
+        assertFalse(document.matches("\"other\""));
+        // 未加引号的摘要不是合法的ETag
+        assertFalse(document.matches(document.getContentHash()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.lzy.mall.bo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OmsOrderTransitionTests {
+
+    @Test
+    void closeOnlyUnpaidOrders() {
+        assertTrue(OmsOrderTransition.CLOSE.allowFrom(0));
+        for (int status = 1; status <= 5; status++) {
+            assertFalse(OmsOrderTransition.CLOSE.allowFrom(status));
+        }
+        assertEquals(4, OmsOrderTransition.CLOSE.targetStatus(0));
+    }
+
+    @Test
+    void deleteOnlyFinishedOrdersAndKeepsStatus() {
+        assertFalse(OmsOrderTransition.DELETE.allowFrom(0));
+        assertFalse(OmsOrderTransition.DELETE.allowFrom(2));
+        assertTrue(OmsOrderTransition.DELETE.allowFrom(3));
+        assertTrue(OmsOrderTransition.DELETE.allowFrom(5));
+        assertNull(OmsOrderTransition.DELETE.getToStatus());
+        assertEquals(3, OmsOrderTransition.DELETE.targetStatus(3));
+    }
+
+    @Test
+    void receiverInfoCannotChangeAfterDelivery() {
+        assertTrue(OmsOrderTransition.UPDATE_RECEIVER_INFO.allowFrom(0));
+        assertTrue(OmsOrderTransition.UPDATE_RECEIVER_INFO.allowFrom(1));
+        assertFalse(OmsOrderTransition.UPDATE_RECEIVER_INFO.allowFrom(2));
+        assertFalse(OmsOrderTransition.UPDATE_MONEY_INFO.allowFrom(1));
+    }
+
+    @Test
+    void noteCanChangeInEveryStatus() {
+        for (int status = 0; status <= 5; status++) {
+            assertTrue(OmsOrderTransition.UPDATE_NOTE.allowFrom(status));
+            assertEquals(status, OmsOrderTransition.UPDATE_NOTE.targetStatus(status));
+        }
+    }
+
+    @Test
+    void deliveryAndTimeouts() {
+        assertTrue(OmsOrderTransition.DELIVER.allowFrom(1));
+        assertFalse(OmsOrderTransition.DELIVER.allowFrom(2));
+        assertEquals(2, OmsOrderTransition.DELIVER.targetStatus(1));
+        assertEquals(4, OmsOrderTransition.TIMEOUT_CLOSE.targetStatus(0));
+        assertTrue(OmsOrderTransition.TIMEOUT_CONFIRM.allowFrom(2));
+        assertEquals(3, OmsOrderTransition.TIMEOUT_CONFIRM.targetStatus(2));
+    }
+
+    @Test
+    void unknownStatusIsRejected() {
+        for (OmsOrderTransition transition : OmsOrderTransition.values()) {
+            assertFalse(transition.allowFrom(null), transition.name());
+            assertFalse(transition.allowFrom(6), transition.name());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.PmsProductCategoryWithChildrenItem;
+import com.lzy.mall.model.PmsProductCategory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCategoryTreeTests {
+
+    /**
+     * 1 ─┬─ 2 ── 3
+     *    └─ 4
+     * 5
+     * 6的父分类不存在，7、8互为父分类
+     */
+    private final ProductCategoryTree tree = new ProductCategoryTree(List.of(
+            category(1L, 0L), category(2L, 1L), category(3L, 2L), category(4L, 1L), category(5L, 0L),
+            category(6L, 99L), category(7L, 8L), category(8L, 7L)));
+
+    @Test
+    void buildsHierarchyInListOrder() {
+        List<PmsProductCategoryWithChildrenItem> roots = tree.getRoots();
+        assertEquals(List.of(1L, 5L), ids(roots));
+        PmsProductCategoryWithChildrenItem first = roots.get(0);
+        assertEquals("category1", first.getName());
+        assertEquals(List.of(2L, 4L), first.getChildren().stream().map(PmsProductCategory::getId).collect(Collectors.toList()));
+        PmsProductCategoryWithChildrenItem second = (PmsProductCategoryWithChildrenItem) first.getChildren().get(0);
+        assertEquals(3L, second.getChildren().get(0).getId());
+        assertTrue(roots.get(1).getChildren().isEmpty());
+    }
+
+    @Test
+    void precomputesAncestorsAndSubtrees() {
+        assertEquals(List.of(), tree.getAncestorIds(1L));
+        assertEquals(List.of(1L), tree.getAncestorIds(2L));
+        assertEquals(List.of(1L, 2L), tree.getAncestorIds(3L));
+        assertEquals(Set.of(1L, 2L, 3L, 4L), tree.getSubtreeIds(1L));
+        assertEquals(Set.of(2L, 3L), tree.getSubtreeIds(2L));
+        assertEquals(Set.of(5L), tree.getSubtreeIds(5L));
+    }
+
+    @Test
+    void unreachableCategoriesAreLeftOut() {
+        assertEquals(List.of(), tree.getAncestorIds(6L));
+        assertEquals(Set.of(), tree.getSubtreeIds(6L));
+        assertEquals(Set.of(), tree.getSubtreeIds(7L));
+        assertEquals(Set.of(), tree.getSubtreeIds(100L));
+        // 不在树中的分类仍然可以按ID获取
+        assertEquals(6L, tree.getCategory(6L).getId());
+        assertNull(tree.getCategory(100L));
+    }
+
+    @Test
+    void snapshotIsReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> tree.getRoots().clear());
+        assertThrows(UnsupportedOperationException.class, () -> tree.getSubtreeIds(1L).clear());
+        assertThrows(UnsupportedOperationException.class, () -> tree.getAncestorIds(3L).clear());
+    }
+
+    private static List<Long> ids(List<PmsProductCategoryWithChildrenItem> items) {
+        return items.stream().map(PmsProductCategory::getId).collect(Collectors.toList());
+    }
+
+    private static PmsProductCategory category(Long id, Long parentId) {
+        PmsProductCategory category = new PmsProductCategory();
+        category.setId(id);
+        category.setParentId(parentId);
+        category.setName("category" + id);
+        return category;
+    }
+}
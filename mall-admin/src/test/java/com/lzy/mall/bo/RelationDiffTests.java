@@ -0,0 +1,42 @@
+package com.lzy.mall.bo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelationDiffTests {
+
+    @Test
+    void onlyChangedRelationsAreWritten() {
+        RelationDiff diff = RelationDiff.of(List.of(1L, 2L, 3L), Arrays.asList(3L, 4L, 4L, null, 5L));
+        assertEquals(List.of(4L, 5L), List.copyOf(diff.getToAdd()));
+        assertEquals(Set.of(1L, 2L), diff.getToRemove());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    void sameRelationsProduceNoChange() {
+        RelationDiff diff = RelationDiff.of(List.of(1L, 2L), List.of(2L, 1L, 2L));
+        assertTrue(diff.getToAdd().isEmpty());
+        assertTrue(diff.getToRemove().isEmpty());
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void nullTargetRemovesAll() {
+        RelationDiff diff = RelationDiff.of(List.of(1L, 2L), null);
+        assertTrue(diff.getToAdd().isEmpty());
+        assertEquals(Set.of(1L, 2L), diff.getToRemove());
+    }
+
+    @Test
+    void emptyCurrentAddsAll() {
+        RelationDiff diff = RelationDiff.of(List.of(), List.of(3L, 1L));
+        assertEquals(List.of(3L, 1L), List.copyOf(diff.getToAdd()));
+        assertTrue(diff.getToRemove().isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.lzy.mall.bo;
+
+import com.lzy.mall.dto.UmsMenuNode;
+import com.lzy.mall.model.UmsMenu;
+import com.lzy.mall.model.UmsRole;
+import com.lzy.mall.model.UmsRoleMenuRelation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleMenuSnapshotTests {
+    private final List<UmsMenu> menuList = List.of(
+            menu(1L, 0L), menu(2L, 1L), menu(3L, 1L), menu(4L, 2L), menu(5L, 0L), menu(6L, 99L));
+
+    @Test
+    void buildTreeFromFlatList() {
+        List<UmsMenuNode> tree = RoleMenuSnapshot.buildTree(menuList);
+        assertEquals(List.of(1L, 5L), ids(tree));
+        UmsMenuNode root = tree.get(0);
+        assertEquals("menu1", root.getTitle());
+        assertEquals(List.of(2L, 3L), ids(root.getChildren()));
+        assertEquals(List.of(4L), ids(root.getChildren().get(0).getChildren()));
+        assertTrue(root.getChildren().get(1).getChildren().isEmpty());
+        assertTrue(tree.get(1).getChildren().isEmpty());
+    }
+
+    @Test
+    void buildTreeSkipsOrphansAndCycles() {
+        List<UmsMenuNode> tree = RoleMenuSnapshot.buildTree(List.of(menu(1L, 0L), menu(2L, 3L), menu(3L, 2L), menu(4L, 99L)));
+        assertEquals(List.of(1L), ids(tree));
+        assertTrue(tree.get(0).getChildren().isEmpty());
+        assertTrue(RoleMenuSnapshot.buildTree(List.of()).isEmpty());
+    }
+
+    @Test
+    void buildTreeIsReadOnly() {
+        List<UmsMenuNode> tree = RoleMenuSnapshot.buildTree(menuList);
+        assertThrows(UnsupportedOperationException.class, tree::clear);
+        assertThrows(UnsupportedOperationException.class, () -> tree.get(0).getChildren().clear());
+    }
+
+    @Test
+    void mergesMenusOfAllRoles() {
+        RoleMenuSnapshot snapshot = new RoleMenuSnapshot(menuList, List.of(role(1L), role(2L)),
+                List.of(roleMenu(1L, 3L), roleMenu(1L, 1L), roleMenu(2L, 1L), roleMenu(2L, 2L), roleMenu(2L, 100L)));
+
+        assertEquals(List.of(1L, 3L), ids(snapshot.getRoleMenuList(1L)));
+        assertEquals(List.of(1L), ids(snapshot.getRoleMenuTree(1L)));
+        assertEquals(List.of(1L, 2L, 3L), ids(snapshot.getMenuList(List.of(1L, 2L))));
+        // 角色3已删除
+        assertEquals(List.of(2L), snapshot.getRoleList(List.of(2L, 3L)).stream().map(UmsRole::getId).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 2L), ids(snapshot.getMenuList(List.of(2L, 3L))));
+        assertTrue(snapshot.getMenuList(List.of()).isEmpty());
+        assertTrue(snapshot.getRoleMenuTree(3L).isEmpty());
+    }
+
+    private static List<Long> ids(List<? extends UmsMenu> menus) {
+        return menus.stream().map(UmsMenu::getId).collect(Collectors.toList());
+    }
+
+    private static UmsMenu menu(Long id, Long parentId) {
+        UmsMenu menu = new UmsMenu();
+        menu.setId(id);
+        menu.setParentId(parentId);
+        menu.setTitle("menu" + id);
+        return menu;
+    }
+
+    private static UmsRole role(Long id) {
+        UmsRole role = new UmsRole();
+        role.setId(id);
+        return role;
+    }
+
+    private static UmsRoleMenuRelation roleMenu(Long roleId, Long menuId) {
+        UmsRoleMenuRelation relation = new UmsRoleMenuRelation();
+        relation.setRoleId(roleId);
+        relation.setMenuId(menuId);
+        return relation;
+    }
+}
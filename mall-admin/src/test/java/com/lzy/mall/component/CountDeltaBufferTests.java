@@ -0,0 +1,73 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.component.CountDeltaBuffer.Batch;
+import com.lzy.mall.component.CountDeltaBuffer.Counter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountDeltaBufferTests {
+    private final CountDeltaBuffer buffer = new CountDeltaBuffer();
+
+    @Test
+    void drainMergesDeltasAndSkipsZero() {
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 2);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 2L, 1);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 2L, -1);
+        buffer.add(Counter.ATTRIBUTE_CATEGORY_PARAM_COUNT, 3L, -1);
+
+        List<Batch> batchList = buffer.drain();
+        assertEquals(1, batchList.size());
+        Batch batch = batchList.get(0);
+        assertEquals(Map.of(1L, 3L), batch.getDeltaMap().get(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT));
+        assertEquals(Map.of(3L, -1L), batch.getDeltaMap().get(Counter.ATTRIBUTE_CATEGORY_PARAM_COUNT));
+        assertFalse(batch.getDeltaMap().containsKey(Counter.ATTRIBUTE_CATEGORY_ATTRIBUTE_COUNT));
+        assertTrue(batch.getFirstRecordTime() <= batch.getLastRecordTime());
+        assertTrue(buffer.drain().isEmpty());
+    }
+
+    @Test
+    void splitSeparatesDeltasRecordedBeforeAndAfter() throws InterruptedException {
+        long splitTime = System.currentTimeMillis() + 200;
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        buffer.splitAt(splitTime);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        Thread.sleep(splitTime - System.currentTimeMillis() + 10);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 5);
+
+        List<Batch> batchList = buffer.drain();
+        assertEquals(3, batchList.size());
+        assertTrue(batchList.get(0).getLastRecordTime() < splitTime);
+        assertTrue(batchList.get(1).getLastRecordTime() < splitTime);
+        assertEquals(Map.of(1L, 1L), batchList.get(1).getDeltaMap().get(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT));
+        assertTrue(batchList.get(2).getFirstRecordTime() >= splitTime);
+        assertEquals(Map.of(1L, 5L), batchList.get(2).getDeltaMap().get(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT));
+    }
+
+    @Test
+    void splitInThePastIsIgnored() {
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        buffer.splitAt(System.currentTimeMillis() - 1000);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        List<Batch> batchList = buffer.drain();
+        assertEquals(1, batchList.size());
+        assertEquals(Map.of(1L, 2L), batchList.get(0).getDeltaMap().get(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT));
+    }
+
+    @Test
+    void restoredBatchKeepsRecordTimes() {
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+        Batch batch = buffer.drain().get(0);
+        buffer.restore(batch);
+        buffer.add(Counter.PRODUCT_CATEGORY_PRODUCT_COUNT, 1L, 1);
+
+        List<Batch> batchList = buffer.drain();
+        assertEquals(2, batchList.size());
+        assertSame(batch, batchList.get(0));
+        assertTrue(buffer.drain().isEmpty());
+    }
+}
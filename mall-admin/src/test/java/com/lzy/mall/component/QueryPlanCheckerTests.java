@@ -0,0 +1,55 @@
+package com.lzy.mall.component;
+
+import com.lzy.mall.dao.OmsOrderDao;
+import com.lzy.mall.dao.OmsOrderReturnApplyDao;
+import com.lzy.mall.dao.TableStatusDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QueryPlanCheckerTests {
+    private final TableStatusDao tableStatusDao = mock(TableStatusDao.class);
+    private final OmsOrderDao orderDao = mock(OmsOrderDao.class);
+    private final OmsOrderReturnApplyDao returnApplyDao = mock(OmsOrderReturnApplyDao.class);
+
+    @Test
+    void passesWhenRequiredIndexesExist() {
+        when(tableStatusDao.getIndexNames("oms_order")).thenReturn(List.of("PRIMARY",
+                "idx_delete_status_status_create_time", "idx_delete_status_create_time", "idx_order_sn"));
+        when(tableStatusDao.getIndexNames("oms_order_return_apply")).thenReturn(List.of("PRIMARY",
+                "idx_status_create_time", "idx_create_time", "idx_handle_time"));
+        when(orderDao.explainList(any())).thenReturn(List.of());
+        when(returnApplyDao.explainList(any())).thenReturn(List.of());
+
+        checker().run(null);
+        verify(orderDao).explainList(any());
+        verify(returnApplyDao).explainList(any());
+    }
+
+    @Test
+    void failsStartupWhenIndexIsMissing() {
+        when(tableStatusDao.getIndexNames("oms_order")).thenReturn(List.of("PRIMARY",
+                "idx_delete_status_status_create_time", "idx_order_sn"));
+        when(tableStatusDao.getIndexNames("oms_order_return_apply")).thenReturn(List.of("PRIMARY"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> checker().run(null));
+        assertTrue(e.getMessage().contains("oms_order.idx_delete_status_create_time"));
+        assertTrue(e.getMessage().contains("oms_order_return_apply.idx_status_create_time"));
+        assertTrue(e.getMessage().contains("oms_order_return_apply.idx_handle_time"));
+        assertFalse(e.getMessage().contains("idx_order_sn"));
+        verifyNoInteractions(orderDao, returnApplyDao);
+    }
+
+    private QueryPlanChecker checker() {
+        QueryPlanChecker checker = new QueryPlanChecker();
+        ReflectionTestUtils.setField(checker, "tableStatusDao", tableStatusDao);
+        ReflectionTestUtils.setField(checker, "orderDao", orderDao);
+        ReflectionTestUtils.setField(checker, "returnApplyDao", returnApplyDao);
+        return checker;
+    }
+}
@@ -0,0 +1,227 @@
+package com.lzy.mall.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离路由测试
+ * 主库和从库分别是两个H2内存库，每个库的 db_name 表中记录自己的名称，通过查询结果判断实际路由到的库
+ */
+class ReadWriteRoutingDataSourceTests {
+    private DataSource primary;
+    private DataSource replica;
+    private final DataSourceRouteAspect aspect = new DataSourceRouteAspect();
+    private final ProbeService probeService = new ProbeService();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSourceContextHolder.clear();
+        primary = createDatabase("primary");
+        replica = createDatabase("replica1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataSourceContextHolder.clear();
+    }
+
+    @Test
+    void readOnlyMethodRoutesToReplica() throws Throwable {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica1", replica), 30000);
+        probeService.dataSource = routing;
+
+        assertEquals("replica1", invoke("readOnlyQuery"));
+        assertEquals("primary", invoke("query"));
+        // 方法结束后恢复只读标记，不影响后续调用
+        assertNull(DataSourceContextHolder.getReadOnly());
+        assertEquals("primary", currentDatabase(routing));
+    }
+
+    @Test
+    void readOnlyClassAppliesToAllMethods() throws Throwable {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica1", replica), 30000);
+        ReadOnlyProbeService readOnlyService = new ReadOnlyProbeService();
+        readOnlyService.dataSource = routing;
+
+        assertEquals("replica1", invoke(readOnlyService, "query"));
+    }
+
+    @Test
+    void outerCallDecidesRoute() throws Throwable {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica1", replica), 30000);
+        probeService.dataSource = routing;
+        DataSourceContextHolder.setReadOnly(false);
+
+        // 外层已经设置过标记时，内层的@ReadOnly不覆盖
+        assertEquals("primary", invoke("readOnlyQuery"));
+        assertEquals(Boolean.FALSE, DataSourceContextHolder.getReadOnly());
+    }
+
+    @Test
+    void readAfterWriteStaysOnPrimary() throws Throwable {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica1", replica), 30000);
+        probeService.dataSource = routing;
+
+        assertEquals("replica1", invoke("readOnlyQuery"));
+        DataSourceContextHolder.markWritten();
+        assertEquals("primary", invoke("readOnlyQuery"));
+        assertEquals("primary", invoke("readOnlyQuery"));
+
+        // 请求结束清除上下文后恢复使用从库
+        DataSourceContextHolder.clear();
+        assertEquals("replica1", invoke("readOnlyQuery"));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() throws Throwable {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("broken", unavailableDatabase());
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, 30000);
+        probeService.dataSource = routing;
+
+        assertEquals("primary", invoke("readOnlyQuery"));
+        assertEquals("primary", invoke("readOnlyQuery"));
+
+        Map<String, PoolStats> stats = routing.getStats();
+        // 第一次失败后从库被暂停使用，第二次调用不再尝试连接
+        assertEquals(1, stats.get("broken").getFailures());
+        assertEquals(2, stats.get(ReadWriteRoutingDataSource.PRIMARY).getFallbacks());
+        assertEquals(2, stats.get(ReadWriteRoutingDataSource.PRIMARY).getAcquired());
+    }
+
+    @Test
+    void unavailableReplicaIsSkippedForHealthyReplica() throws Throwable {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("broken", unavailableDatabase());
+        replicas.put("replica1", replica);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, 30000);
+        probeService.dataSource = routing;
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica1", invoke("readOnlyQuery"));
+        }
+        assertEquals(0, routing.getStats().get(ReadWriteRoutingDataSource.PRIMARY).getFallbacks());
+    }
+
+    @Test
+    void suspendedReplicaIsRetriedAfterInterval() throws Throwable {
+        FlakyDataSource flaky = new FlakyDataSource(replica);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica1", flaky), 50);
+        probeService.dataSource = routing;
+
+        flaky.available = false;
+        assertEquals("primary", invoke("readOnlyQuery"));
+        flaky.available = true;
+        assertEquals("primary", invoke("readOnlyQuery"));
+        Thread.sleep(100);
+        assertEquals("replica1", invoke("readOnlyQuery"));
+    }
+
+    private Object invoke(String methodName) throws Throwable {
+        return invoke(probeService, methodName);
+    }
+
+    /**
+     * 以切面包裹目标方法的方式调用，等同于经过Spring代理的Service调用
+     */
+    private Object invoke(Object target, String methodName) throws Throwable {
+        Method method = target.getClass().getMethod(methodName);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(target);
+        when(joinPoint.proceed()).thenAnswer(invocation -> method.invoke(target));
+        return aspect.doAround(joinPoint);
+    }
+
+    private static DataSource createDatabase(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS db_name (name VARCHAR(32))");
+            statement.execute("DELETE FROM db_name");
+            statement.execute("INSERT INTO db_name VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    /**
+     * 指向没有监听的端口，获取连接时立即失败
+     */
+    private static DataSource unavailableDatabase() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:tcp://localhost:1/mem:unavailable");
+        return dataSource;
+    }
+
+    private static String currentDatabase(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM db_name")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class ProbeService {
+        private DataSource dataSource;
+
+        @ReadOnly
+        public String readOnlyQuery() {
+            return currentDatabase(dataSource);
+        }
+
+        public String query() {
+            return currentDatabase(dataSource);
+        }
+    }
+
+    @ReadOnly
+    public static class ReadOnlyProbeService {
+        private DataSource dataSource;
+
+        public String query() {
+            return currentDatabase(dataSource);
+        }
+    }
+
+    /**
+     * 可以切换是否可用的数据源，用于模拟从库恢复
+     */
+    private static class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean available = true;
+
+        private FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!available) {
+                throw new SQLException("replica unavailable");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.lzy.mall.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lzy.mall.component.CountDeltaBuffer;
+import com.lzy.mall.dao.*;
+import com.lzy.mall.dto.PmsProductImportResult;
+import com.lzy.mall.dto.PmsProductParam;
+import com.lzy.mall.mapper.*;
+import com.lzy.mall.model.*;
+import com.lzy.mall.service.PageCountService;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 商品批量导入吞吐量压测：生成CSV和JSON Lines文件，经PmsProductImportServiceImpl完整导入，输出每秒导入的商品数
+ * 压测默认不执行，使用 mvn test -Dtest=PmsProductImportLoadTests -DloadTest=true 运行；
+ * 需要已导入mall表结构的MySQL，通过 -Dmysql.url、-Dmysql.username、-Dmysql.password 指定（默认本地mall库、root/root），连接不上时跳过。
+ * 压测插入一个品牌和一个商品分类，导入的商品都是已删除状态，货号以loadtest-import-开头，结束后全部删除
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class PmsProductImportLoadTests {
+    private static final String PRODUCT_SN_PREFIX = "loadtest-import-";
+    private static final int PRODUCTS = Integer.getInteger("loadTest.import.products", 10000);
+    private static final int SKUS = Integer.getInteger("loadTest.import.skus", 3);
+    private static final int MEMBER_PRICES = Integer.getInteger("loadTest.import.memberPrices", 2);
+    private static final int BATCH_SIZE = Integer.getInteger("loadTest.import.batchSize", 500);
+    private static final int VALIDATE_THREADS = Integer.getInteger("loadTest.import.validateThreads", 4);
+
+    private static SingleConnectionDataSource dataSource;
+    private static SqlSessionTemplate sqlSessionTemplate;
+    private static JdbcTemplate jdbcTemplate;
+    private static ThreadPoolTaskExecutor validateExecutor;
+    private static Long brandId;
+    private static Long categoryId;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("mysql.url", "jdbc:mysql://localhost:3306/mall?useUnicode=true&characterEncoding=utf-8&serverTimezone=Asia/Shanghai&useSSL=false&rewriteBatchedStatements=true"),
+                System.getProperty("mysql.username", "root"), System.getProperty("mysql.password", "root"), true);
+        boolean available;
+        try (Connection connection = dataSource.getConnection()) {
+            available = connection.isValid(1);
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "MySQL不可用，跳过压测");
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Resource> mapperLocations = new ArrayList<>();
+        mapperLocations.addAll(Arrays.asList(resolver.getResources("classpath:dao/*.xml")));
+        mapperLocations.addAll(Arrays.asList(resolver.getResources("classpath*:com/**/mapper/*.xml")));
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(mapperLocations.toArray(new Resource[0]));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        validateExecutor = new ThreadPoolTaskExecutor();
+        validateExecutor.setCorePoolSize(VALIDATE_THREADS);
+        validateExecutor.setMaxPoolSize(VALIDATE_THREADS);
+        validateExecutor.setQueueCapacity(1024);
+        validateExecutor.setThreadNamePrefix("product-validate-");
+        validateExecutor.initialize();
+
+        PmsBrand brand = new PmsBrand();
+        brand.setName(PRODUCT_SN_PREFIX + "brand");
+        brand.setShowStatus(0);
+        sqlSessionTemplate.getMapper(PmsBrandMapper.class).insertSelective(brand);
+        brandId = brand.getId();
+        PmsProductCategory category = new PmsProductCategory();
+        category.setName(PRODUCT_SN_PREFIX + "category");
+        category.setParentId(0L);
+        category.setLevel(0);
+        category.setProductCount(0);
+        category.setShowStatus(0);
+        sqlSessionTemplate.getMapper(PmsProductCategoryMapper.class).insertSelective(category);
+        categoryId = category.getId();
+    }
+
+    @AfterEach
+    void deleteImported() {
+        for (String table : Arrays.asList("pms_sku_stock", "pms_member_price")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE product_id IN (SELECT id FROM pms_product WHERE product_sn LIKE ?)",
+                    PRODUCT_SN_PREFIX + "%");
+        }
+        jdbcTemplate.update("DELETE FROM pms_product WHERE product_sn LIKE ?", PRODUCT_SN_PREFIX + "%");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (brandId != null) {
+            jdbcTemplate.update("DELETE FROM pms_brand WHERE id = ?", brandId);
+        }
+        if (categoryId != null) {
+            jdbcTemplate.update("DELETE FROM pms_product_category WHERE id = ?", categoryId);
+        }
+        if (validateExecutor != null) {
+            validateExecutor.shutdown();
+        }
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void csvThroughput() {
+        StringBuilder content = new StringBuilder("name,productSn,brandId,productCategoryId,price,stock,deleteStatus\n");
+        for (int i = 0; i < PRODUCTS; i++) {
+            content.append("商品").append(i).append(',').append(PRODUCT_SN_PREFIX).append("csv-").append(i).append(',')
+                    .append(brandId).append(',').append(categoryId).append(",99.00,100,1\n");
+        }
+        runImport("products.csv", content.toString());
+    }
+
+    @Test
+    void jsonLinesThroughput() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < PRODUCTS; i++) {
+            content.append(objectMapper.writeValueAsString(product(i))).append('\n');
+        }
+        runImport("products.jsonl", content.toString());
+    }
+
+    /**
+     * 导入任务在当前线程中执行，返回时已导入完成
+     */
+    private void runImport(String fileName, String content) {
+        PmsProductImportServiceImpl importService = new PmsProductImportServiceImpl();
+        ReflectionTestUtils.setField(importService, "productDao", sqlSessionTemplate.getMapper(PmsProductDao.class));
+        ReflectionTestUtils.setField(importService, "memberPriceDao", sqlSessionTemplate.getMapper(PmsMemberPriceDao.class));
+        ReflectionTestUtils.setField(importService, "productLadderDao", sqlSessionTemplate.getMapper(PmsProductLadderDao.class));
+        ReflectionTestUtils.setField(importService, "productFullReductionDao", sqlSessionTemplate.getMapper(PmsProductFullReductionDao.class));
+        ReflectionTestUtils.setField(importService, "skuStockDao", sqlSessionTemplate.getMapper(PmsSkuStockDao.class));
+        ReflectionTestUtils.setField(importService, "productAttributeValueDao", sqlSessionTemplate.getMapper(PmsProductAttributeValueDao.class));
+        ReflectionTestUtils.setField(importService, "subjectProductRelationDao", sqlSessionTemplate.getMapper(CmsSubjectProductRelationDao.class));
+        ReflectionTestUtils.setField(importService, "prefrenceAreaProductRelationDao", sqlSessionTemplate.getMapper(CmsPrefrenceAreaProductRelationDao.class));
+        ReflectionTestUtils.setField(importService, "brandMapper", sqlSessionTemplate.getMapper(PmsBrandMapper.class));
+        ReflectionTestUtils.setField(importService, "productCategoryMapper", sqlSessionTemplate.getMapper(PmsProductCategoryMapper.class));
+        ReflectionTestUtils.setField(importService, "productAttributeCategoryMapper", sqlSessionTemplate.getMapper(PmsProductAttributeCategoryMapper.class));
+        ReflectionTestUtils.setField(importService, "productAttributeMapper", sqlSessionTemplate.getMapper(PmsProductAttributeMapper.class));
+        ReflectionTestUtils.setField(importService, "pageCountService", mock(PageCountService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(importService, "countDeltaBuffer", new CountDeltaBuffer());
+        ReflectionTestUtils.setField(importService, "transactionTemplate", new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(importService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(importService, "productImportExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(importService, "productValidateExecutor", validateExecutor);
+        ReflectionTestUtils.setField(importService, "batchSize", BATCH_SIZE);
+
+        String taskId = importService.importProducts(new MockMultipartFile("file", fileName, null,
+                content.getBytes(StandardCharsets.UTF_8)));
+        PmsProductImportResult result = importService.getResult(taskId);
+        System.out.printf("%s：导入%d个商品（每批%d行，%d个校验线程），成功%d，失败%d，耗时%dms，%.2f个/秒%n",
+                fileName, result.getTotal(), BATCH_SIZE, VALIDATE_THREADS, result.getSuccessCount(), result.getFailCount(),
+                result.getElapsedMillis(), result.getProductsPerSecond());
+        assertEquals(PRODUCTS, result.getTotal().intValue());
+        assertEquals(PRODUCTS, result.getSuccessCount().intValue(), () -> String.valueOf(result.getErrors()));
+    }
+
+    private PmsProductParam product(int index) {
+        PmsProductParam product = new PmsProductParam();
+        product.setName("商品" + index);
+        product.setProductSn(PRODUCT_SN_PREFIX + "jsonl-" + index);
+        product.setBrandId(brandId);
+        product.setProductCategoryId(categoryId);
+        product.setPrice(new BigDecimal("99.00"));
+        product.setStock(100);
+        product.setDeleteStatus(1);
+        List<PmsSkuStock> skuStockList = new ArrayList<>();
+        for (int i = 0; i < SKUS; i++) {
+            PmsSkuStock skuStock = new PmsSkuStock();
+            skuStock.setPrice(new BigDecimal("99.00"));
+            skuStock.setStock(100);
+            skuStock.setSpData("[{\"key\":\"颜色\",\"value\":\"颜色" + i + "\"}]");
+            skuStockList.add(skuStock);
+        }
+        product.setSkuStockList(skuStockList);
+        List<PmsMemberPrice> memberPriceList = new ArrayList<>();
+        for (int i = 0; i < MEMBER_PRICES; i++) {
+            PmsMemberPrice memberPrice = new PmsMemberPrice();
+            memberPrice.setMemberLevelId((long) (i + 1));
+            memberPrice.setMemberLevelName("level" + i);
+            memberPrice.setMemberPrice(new BigDecimal("95.00"));
+            memberPriceList.add(memberPrice);
+        }
+        product.setMemberPriceList(memberPriceList);
+        return product;
+    }
+}
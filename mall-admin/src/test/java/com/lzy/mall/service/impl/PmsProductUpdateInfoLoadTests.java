@@ -0,0 +1,208 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.dao.PmsProductDao;
+import com.lzy.mall.dto.PmsProductResult;
+import com.lzy.mall.mapper.*;
+import com.lzy.mall.model.*;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 商品编辑信息查询对比压测：按子表分别查询（PmsProductServiceImpl.getUpdateInfo）与原多表LEFT JOIN（PmsProductDao.getUpdateInfo）
+ * 压测默认不执行，使用 mvn test -Dtest=PmsProductUpdateInfoLoadTests -DloadTest=true 运行；
+ * 需要已导入mall表结构的MySQL，通过 -Dmysql.url、-Dmysql.username、-Dmysql.password 指定（默认本地mall库、root/root），连接不上时跳过。
+ * 压测插入一个带有多条子表记录的已删除商品，结束后删除；两种方式在同一个连接上顺序执行，
+ * 通过会话的Bytes_sent统计服务端返回的字节数，输出平均耗时和每次查询返回的字节数
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class PmsProductUpdateInfoLoadTests {
+    private static final int LADDERS = Integer.getInteger("loadTest.product.ladders", 3);
+    private static final int FULL_REDUCTIONS = Integer.getInteger("loadTest.product.fullReductions", 3);
+    private static final int MEMBER_PRICES = Integer.getInteger("loadTest.product.memberPrices", 5);
+    private static final int SKUS = Integer.getInteger("loadTest.product.skus", 24);
+    private static final int ATTRIBUTE_VALUES = Integer.getInteger("loadTest.product.attributeValues", 12);
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = Integer.getInteger("loadTest.product.iterations", 200);
+
+    private static SingleConnectionDataSource dataSource;
+    private static SqlSessionTemplate sqlSessionTemplate;
+    private static JdbcTemplate jdbcTemplate;
+    private static Long productId;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("mysql.url", "jdbc:mysql://localhost:3306/mall?useUnicode=true&characterEncoding=utf-8&serverTimezone=Asia/Shanghai&useSSL=false"),
+                System.getProperty("mysql.username", "root"), System.getProperty("mysql.password", "root"), true);
+        boolean available;
+        try (Connection connection = dataSource.getConnection()) {
+            available = connection.isValid(1);
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "MySQL不可用，跳过压测");
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Resource> mapperLocations = new ArrayList<>();
+        mapperLocations.addAll(Arrays.asList(resolver.getResources("classpath:dao/*.xml")));
+        mapperLocations.addAll(Arrays.asList(resolver.getResources("classpath*:com/**/mapper/*.xml")));
+        SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setMapperLocations(mapperLocations.toArray(new Resource[0]));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        productId = insertProduct();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (productId != null) {
+            for (String table : Arrays.asList("pms_product_ladder", "pms_product_full_reduction", "pms_member_price",
+                    "pms_sku_stock", "pms_product_attribute_value")) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE product_id = ?", productId);
+            }
+            jdbcTemplate.update("DELETE FROM pms_product WHERE id = ?", productId);
+        }
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void perCollectionQueriesReturnSameResultWithFewerBytes() {
+        PmsProductServiceImpl productService = new PmsProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productMapper", sqlSessionTemplate.getMapper(PmsProductMapper.class));
+        ReflectionTestUtils.setField(productService, "productCategoryMapper", sqlSessionTemplate.getMapper(PmsProductCategoryMapper.class));
+        ReflectionTestUtils.setField(productService, "productLadderMapper", sqlSessionTemplate.getMapper(PmsProductLadderMapper.class));
+        ReflectionTestUtils.setField(productService, "productFullReductionMapper", sqlSessionTemplate.getMapper(PmsProductFullReductionMapper.class));
+        ReflectionTestUtils.setField(productService, "memberPriceMapper", sqlSessionTemplate.getMapper(PmsMemberPriceMapper.class));
+        ReflectionTestUtils.setField(productService, "skuStockMapper", sqlSessionTemplate.getMapper(PmsSkuStockMapper.class));
+        ReflectionTestUtils.setField(productService, "productAttributeValueMapper", sqlSessionTemplate.getMapper(PmsProductAttributeValueMapper.class));
+        ReflectionTestUtils.setField(productService, "subjectProductRelationMapper", sqlSessionTemplate.getMapper(CmsSubjectProductRelationMapper.class));
+        ReflectionTestUtils.setField(productService, "prefrenceAreaProductRelationMapper", sqlSessionTemplate.getMapper(CmsPrefrenceAreaProductRelationMapper.class));
+        // 单连接上顺序执行，才能用会话的Bytes_sent统计
+        ReflectionTestUtils.setField(productService, "updateInfoParallel", false);
+        PmsProductDao productDao = sqlSessionTemplate.getMapper(PmsProductDao.class);
+
+        PmsProductResult split = productService.getUpdateInfo(productId);
+        PmsProductResult joined = productDao.getUpdateInfo(productId);
+        assertEquals(LADDERS, split.getProductLadderList().size());
+        assertEquals(FULL_REDUCTIONS, split.getProductFullReductionList().size());
+        assertEquals(MEMBER_PRICES, split.getMemberPriceList().size());
+        assertEquals(SKUS, split.getSkuStockList().size());
+        assertEquals(ATTRIBUTE_VALUES, split.getProductAttributeValueList().size());
+        assertEquals(joined.getProductLadderList().size(), split.getProductLadderList().size());
+        assertEquals(joined.getProductFullReductionList().size(), split.getProductFullReductionList().size());
+        assertEquals(joined.getMemberPriceList().size(), split.getMemberPriceList().size());
+        assertEquals(joined.getSkuStockList().size(), split.getSkuStockList().size());
+        assertEquals(joined.getProductAttributeValueList().size(), split.getProductAttributeValueList().size());
+
+        long splitBytes = measure("按子表分别查询", productService::getUpdateInfo);
+        long joinedBytes = measure("多表LEFT JOIN", productDao::getUpdateInfo);
+        System.out.printf("  LEFT JOIN返回%d行（子表记录数之积），按子表查询共返回%d行%n",
+                LADDERS * FULL_REDUCTIONS * MEMBER_PRICES * SKUS * ATTRIBUTE_VALUES,
+                1 + LADDERS + FULL_REDUCTIONS + MEMBER_PRICES + SKUS + ATTRIBUTE_VALUES);
+        assertTrue(splitBytes < joinedBytes, "按子表查询返回的字节数应少于LEFT JOIN");
+    }
+
+    /**
+     * 预热后执行ITERATIONS次查询，输出平均耗时和每次查询服务端返回的字节数，返回每次的字节数
+     */
+    private long measure(String name, LongFunction<PmsProductResult> loader) {
+        for (int i = 0; i < WARMUP; i++) {
+            loader.apply(productId);
+        }
+        // 读取Bytes_sent本身返回的字节数，从统计中扣除
+        long before = bytesSent();
+        long statusBytes = bytesSent() - before;
+        long startBytes = bytesSent();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            loader.apply(productId);
+        }
+        long elapsed = System.nanoTime() - start;
+        long perQuery = (bytesSent() - startBytes - statusBytes) / ITERATIONS;
+        System.out.printf("%s：%d次，平均%.3fms，每次返回%d字节%n", name, ITERATIONS,
+                TimeUnit.NANOSECONDS.toMicros(elapsed) / 1000.0 / ITERATIONS, perQuery);
+        return perQuery;
+    }
+
+    private static long bytesSent() {
+        return jdbcTemplate.queryForObject("SHOW SESSION STATUS LIKE 'Bytes_sent'",
+                (resultSet, rowNum) -> resultSet.getLong(2));
+    }
+
+    private static Long insertProduct() {
+        PmsProduct product = new PmsProduct();
+        product.setName("loadtest-update-info");
+        product.setProductSn("loadtest-update-info");
+        product.setDeleteStatus(1);
+        product.setPublishStatus(0);
+        product.setPrice(new BigDecimal("100.00"));
+        product.setDescription("loadtest");
+        product.setDetailHtml("<p>loadtest</p>");
+        sqlSessionTemplate.getMapper(PmsProductMapper.class).insertSelective(product);
+        Long id = product.getId();
+        for (int i = 0; i < LADDERS; i++) {
+            PmsProductLadder ladder = new PmsProductLadder();
+            ladder.setProductId(id);
+            ladder.setCount(i + 2);
+            ladder.setDiscount(new BigDecimal("0.90"));
+            ladder.setPrice(BigDecimal.ZERO);
+            sqlSessionTemplate.getMapper(PmsProductLadderMapper.class).insert(ladder);
+        }
+        for (int i = 0; i < FULL_REDUCTIONS; i++) {
+            PmsProductFullReduction fullReduction = new PmsProductFullReduction();
+            fullReduction.setProductId(id);
+            fullReduction.setFullPrice(BigDecimal.valueOf(100L * (i + 1)));
+            fullReduction.setReducePrice(BigDecimal.valueOf(10L * (i + 1)));
+            sqlSessionTemplate.getMapper(PmsProductFullReductionMapper.class).insert(fullReduction);
+        }
+        for (int i = 0; i < MEMBER_PRICES; i++) {
+            PmsMemberPrice memberPrice = new PmsMemberPrice();
+            memberPrice.setProductId(id);
+            memberPrice.setMemberLevelId((long) (i + 1));
+            memberPrice.setMemberPrice(new BigDecimal("95.00"));
+            memberPrice.setMemberLevelName("level" + i);
+            sqlSessionTemplate.getMapper(PmsMemberPriceMapper.class).insert(memberPrice);
+        }
+        for (int i = 0; i < SKUS; i++) {
+            PmsSkuStock skuStock = new PmsSkuStock();
+            skuStock.setProductId(id);
+            skuStock.setSkuCode("loadtest-" + i);
+            skuStock.setPrice(new BigDecimal("100.00"));
+            skuStock.setStock(100);
+            skuStock.setSpData("[{\"key\":\"颜色\",\"value\":\"颜色" + i + "\"}]");
+            sqlSessionTemplate.getMapper(PmsSkuStockMapper.class).insert(skuStock);
+        }
+        for (int i = 0; i < ATTRIBUTE_VALUES; i++) {
+            PmsProductAttributeValue attributeValue = new PmsProductAttributeValue();
+            attributeValue.setProductId(id);
+            attributeValue.setProductAttributeId((long) (i + 1));
+            attributeValue.setValue("属性值" + i);
+            sqlSessionTemplate.getMapper(PmsProductAttributeValueMapper.class).insert(attributeValue);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,129 @@
+package com.lzy.mall.service.impl;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 基于本地Redis的压测
+ * 压测默认不执行，使用 mvn test -Dtest=类名 -DloadTest=true 运行；
+ * Redis地址通过 -Dredis.host、-Dredis.port 指定（默认localhost:6379），连接不上时跳过。
+ * 压测只使用 REDIS_DATABASE 前缀下的key，结束后删除
+ */
+abstract class RedisLoadTestSupport {
+    protected static final String REDIS_DATABASE = "mall-loadtest";
+
+    protected static LettuceConnectionFactory connectionFactory;
+    protected static StringRedisTemplate stringRedisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        boolean available;
+        try {
+            available = "PONG".equals(stringRedisTemplate.execute(connection -> connection.ping(), true));
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "本地Redis不可用，跳过压测");
+        clean();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            try {
+                clean();
+            } catch (Exception e) {
+                // Redis不可用时没有需要清理的数据
+            }
+            connectionFactory.destroy();
+        }
+    }
+
+    protected static void clean() {
+        Set<String> keys = stringRedisTemplate.keys(REDIS_DATABASE + ":*");
+        if (keys != null && !keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+
+    /**
+     * 用threads个线程并发执行total次task，参数为执行序号，返回耗时（纳秒）
+     */
+    protected static long runConcurrently(int threads, int total, IntConsumer task) throws InterruptedException {
+        return runAtRate(threads, total, 0, task);
+    }
+
+    /**
+     * 用threads个线程按每秒ratePerSecond次的速度执行total次task，第i次在开始后 i / ratePerSecond 秒时执行；
+     * ratePerSecond为0时不限速。返回耗时（纳秒）
+     */
+    protected static long runAtRate(int threads, int total, int ratePerSecond, IntConsumer task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong startTime = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                        if (ratePerSecond > 0) {
+                            long due = startTime.get() + i * 1_000_000_000L / ratePerSecond;
+                            long wait = due - System.nanoTime();
+                            if (wait > 0) {
+                                LockSupport.parkNanos(wait);
+                            }
+                        }
+                        task.accept(i);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+        ready.await();
+        startTime.set(System.nanoTime());
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES), "压测未在10分钟内结束");
+        long elapsed = System.nanoTime() - startTime.get();
+        assertNull(failure.get(), () -> "压测执行失败：" + failure.get());
+        return elapsed;
+    }
+
+    /**
+     * 输出吞吐量，返回每秒执行次数
+     */
+    protected static double report(String name, int total, long elapsedNanos) {
+        double perSecond = total * 1_000_000_000.0 / elapsedNanos;
+        System.out.printf("%s：%d次，耗时%dms，%.0f次/秒%n", name, total, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond);
+        return perSecond;
+    }
+}
@@ -0,0 +1,158 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.bo.CouponClaimResult;
+import com.lzy.mall.common.exception.ApiException;
+import com.lzy.mall.service.UmsMemberStatisticsService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 优惠券领取压测
+ * 按每秒10000次（-DloadTest.coupon.rate）的速度并发领取同一张优惠券，
+ * 校验达到目标速度，且剩余数量、每人限领数量、券码在并发下都不出错
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class SmsCouponClaimLoadTests extends RedisLoadTestSupport {
+    private static final String REDIS_KEY_COUPON_CLAIM = "sms:couponClaim";
+    private static final long COUPON_ID = 1L;
+    private static final String CODE_PREFIX = "LT1-";
+    private static final int RATE = Integer.getInteger("loadTest.coupon.rate", 10_000);
+    private static final int REQUESTS = Integer.getInteger("loadTest.coupon.requests", 100_000);
+    private static final int STOCK = Integer.getInteger("loadTest.coupon.stock", 60_000);
+    private static final int MEMBERS = Integer.getInteger("loadTest.coupon.members", 40_000);
+    private static final int LIMIT = 2;
+    private static final int THREADS = Integer.getInteger("loadTest.threads", 64);
+
+    private SimpleMeterRegistry meterRegistry;
+    private SmsCouponClaimServiceImpl couponClaimService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        couponClaimService = new SmsCouponClaimServiceImpl();
+        ReflectionTestUtils.setField(couponClaimService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(couponClaimService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(couponClaimService, "memberStatisticsService",
+                mock(UmsMemberStatisticsService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(couponClaimService, "REDIS_DATABASE", REDIS_DATABASE);
+        ReflectionTestUtils.setField(couponClaimService, "REDIS_KEY_COUPON_CLAIM", REDIS_KEY_COUPON_CLAIM);
+        couponClaimService.init();
+        // 与预热写入的数据相同
+        Map<String, String> coupon = new HashMap<>();
+        coupon.put("stock", String.valueOf(STOCK));
+        coupon.put("limit", String.valueOf(LIMIT));
+        coupon.put("enable_time", "0");
+        coupon.put("end_time", "0");
+        coupon.put("prefix", CODE_PREFIX);
+        stringRedisTemplate.opsForHash().putAll(getKey("coupon"), coupon);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clean();
+    }
+
+    @Test
+    void claimsAtTargetRateKeepLimitsAndStock() throws InterruptedException {
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        Map<Long, AtomicLong> memberClaims = new ConcurrentHashMap<>();
+        AtomicLong failures = new AtomicLong();
+
+        long elapsed = runAtRate(THREADS, REQUESTS, RATE, i -> {
+            long memberId = ThreadLocalRandom.current().nextInt(MEMBERS);
+            try {
+                String code = couponClaimService.claim(COUPON_ID, memberId, "member" + memberId, 1);
+                assertTrue(codes.add(code), "券码重复：" + code);
+                memberClaims.computeIfAbsent(memberId, key -> new AtomicLong()).incrementAndGet();
+            } catch (ApiException e) {
+                failures.incrementAndGet();
+            }
+        });
+
+        double perSecond = report("优惠券领取（目标" + RATE + "次/秒）", REQUESTS, elapsed);
+        for (CouponClaimResult result : CouponClaimResult.values()) {
+            Timer timer = timer(result);
+            System.out.printf("  %s：%d次，平均%.3fms，最大%.3fms%n", result, timer.count(),
+                    timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS));
+        }
+        // 领取跟不上发起的速度时请求会积压，整体速度低于目标
+        assertTrue(perSecond >= RATE * 0.95, String.format("未达到目标速度：%.0f次/秒", perSecond));
+
+        long successCount = codes.size();
+        assertEquals(REQUESTS, successCount + failures.get());
+        assertEquals(0, timer(CouponClaimResult.NOT_PRELOADED).count());
+        assertEquals(0, timer(CouponClaimResult.NOT_IN_PERIOD).count());
+
+        long stock = Long.parseLong((String) stringRedisTemplate.opsForHash().get(getKey("coupon"), "stock"));
+        assertTrue(stock >= 0, "剩余数量为负：" + stock);
+        assertEquals(STOCK, successCount + stock);
+        assertEquals(String.valueOf(successCount), stringRedisTemplate.opsForHash().get(getKey("coupon"), "seq"));
+
+        // 每条领取记录都进入待写入队列，券码与领取结果一致
+        List<String> queue = stringRedisTemplate.opsForList().range(getKey("queue"), 0, -1);
+        assertNotNull(queue);
+        assertEquals(successCount, queue.size());
+        Set<String> queuedCodes = ConcurrentHashMap.newKeySet();
+        for (String record : queue) {
+            queuedCodes.add(record.substring(0, record.indexOf('\t')));
+        }
+        assertEquals(codes, queuedCodes);
+
+        Map<Object, Object> claimedMap = stringRedisTemplate.opsForHash().entries(getKey("members"));
+        assertEquals(memberClaims.size(), claimedMap.size());
+        memberClaims.forEach((memberId, count) -> {
+            long claimed = Long.parseLong((String) claimedMap.get(String.valueOf(memberId)));
+            assertEquals(count.get(), claimed, "会员" + memberId + "的已领数量不一致");
+            assertTrue(claimed <= LIMIT, "会员" + memberId + "超过限领数量：" + claimed);
+        });
+    }
+
+    @Test
+    void sameMemberClaimsConcurrentlyWithinLimit() throws InterruptedException {
+        AtomicLong successCount = new AtomicLong();
+        int members = 100;
+        int requests = members * 50;
+        runConcurrently(THREADS, requests, i -> {
+            try {
+                // 每个会员同时发起50次领取
+                couponClaimService.claim(COUPON_ID, (long) (i % members), null, 1);
+                successCount.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals(CouponClaimResult.LIMIT_EXCEEDED.getMessage(), e.getMessage());
+            }
+        });
+
+        assertEquals((long) members * LIMIT, successCount.get());
+        assertEquals(members * LIMIT, timer(CouponClaimResult.SUCCESS).count());
+        assertEquals(requests - members * LIMIT, timer(CouponClaimResult.LIMIT_EXCEEDED).count());
+        Map<Object, Object> claimedMap = stringRedisTemplate.opsForHash().entries(getKey("members"));
+        assertEquals(members, claimedMap.size());
+        claimedMap.values().forEach(claimed -> assertEquals(String.valueOf(LIMIT), claimed));
+    }
+
+    private Timer timer(CouponClaimResult result) {
+        return meterRegistry.find("mall.coupon.claim").tag("result", result.name()).timer();
+    }
+
+    private String getKey(String type) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_COUPON_CLAIM + ":{" + COUPON_ID + "}:" + type;
+    }
+}
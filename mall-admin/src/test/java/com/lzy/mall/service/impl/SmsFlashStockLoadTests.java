@@ -0,0 +1,128 @@
+package com.lzy.mall.service.impl;
+
+import com.lzy.mall.bo.FlashReserveResult;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 秒杀库存预留压测
+ * 大量会员并发抢购同一个秒杀商品，输出每秒预留数，并校验库存不超卖、不超过每人限购数量
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class SmsFlashStockLoadTests extends RedisLoadTestSupport {
+    private static final String REDIS_KEY_FLASH_STOCK = "sms:flashStock";
+    private static final long RELATION_ID = 1L;
+    private static final long SKU_ID = 1L;
+    private static final int STOCK = Integer.getInteger("loadTest.flash.stock", 20_000);
+    private static final int LIMIT = 3;
+    private static final int MEMBERS = Integer.getInteger("loadTest.flash.members", 50_000);
+    private static final int REQUESTS = Integer.getInteger("loadTest.flash.requests", 200_000);
+    private static final int THREADS = Integer.getInteger("loadTest.threads", 64);
+
+    private SimpleMeterRegistry meterRegistry;
+    private SmsFlashStockServiceImpl flashStockService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flashStockService = new SmsFlashStockServiceImpl();
+        ReflectionTestUtils.setField(flashStockService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(flashStockService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(flashStockService, "REDIS_DATABASE", REDIS_DATABASE);
+        ReflectionTestUtils.setField(flashStockService, "REDIS_KEY_FLASH_STOCK", REDIS_KEY_FLASH_STOCK);
+        flashStockService.init();
+        // 与预热写入的数据相同
+        stringRedisTemplate.opsForHash().put(getKey("stock"), "stock", String.valueOf(STOCK));
+        stringRedisTemplate.opsForHash().put(getKey("stock"), "limit", String.valueOf(LIMIT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clean();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws InterruptedException {
+        AtomicLongArray resultCounts = new AtomicLongArray(FlashReserveResult.values().length);
+        AtomicLong reservedQuantity = new AtomicLong();
+        Map<Long, AtomicLong> memberQuantity = new ConcurrentHashMap<>();
+
+        long elapsed = runConcurrently(THREADS, REQUESTS, i -> {
+            long memberId = ThreadLocalRandom.current().nextInt(MEMBERS);
+            int quantity = 1 + i % 2;
+            FlashReserveResult result = flashStockService.reserve(RELATION_ID, SKU_ID, memberId, quantity, "r" + i);
+            resultCounts.incrementAndGet(result.ordinal());
+            if (result == FlashReserveResult.SUCCESS) {
+                reservedQuantity.addAndGet(quantity);
+                memberQuantity.computeIfAbsent(memberId, key -> new AtomicLong()).addAndGet(quantity);
+            }
+        });
+
+        report("秒杀库存预留", REQUESTS, elapsed);
+        for (FlashReserveResult result : FlashReserveResult.values()) {
+            Timer timer = meterRegistry.find("mall.flash.reserve").tag("result", result.name()).timer();
+            System.out.printf("  %s：%d次，平均%.3fms，最大%.3fms%n", result, resultCounts.get(result.ordinal()),
+                    timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS));
+        }
+
+        assertEquals(0, resultCounts.get(FlashReserveResult.NOT_PRELOADED.ordinal()));
+        long remaining = Long.parseLong((String) stringRedisTemplate.opsForHash().get(getKey("stock"), "stock"));
+        assertTrue(remaining >= 0, "剩余库存为负：" + remaining);
+        assertTrue(reservedQuantity.get() <= STOCK, "超卖：" + reservedQuantity.get());
+        assertEquals(STOCK, reservedQuantity.get() + remaining);
+        if (REQUESTS > 2L * STOCK) {
+            // 请求量远大于库存时，只会剩下不足一次预留的数量
+            assertTrue(remaining < 2, "库存未售罄：" + remaining);
+        }
+
+        long successCount = resultCounts.get(FlashReserveResult.SUCCESS.ordinal());
+        assertEquals(successCount, stringRedisTemplate.opsForHash().size(getKey("reservations")));
+        Map<Object, Object> heldMap = stringRedisTemplate.opsForHash().entries(getKey("members"));
+        assertEquals(memberQuantity.size(), heldMap.size());
+        memberQuantity.forEach((memberId, quantity) -> {
+            long held = Long.parseLong((String) heldMap.get(String.valueOf(memberId)));
+            assertEquals(quantity.get(), held, "会员" + memberId + "的已购数量不一致");
+            assertTrue(held <= LIMIT, "会员" + memberId + "超过限购数量：" + held);
+        });
+    }
+
+    @Test
+    void repeatedReservationIdIsReservedOnce() throws InterruptedException {
+        AtomicLong successCount = new AtomicLong();
+        long elapsed = runConcurrently(THREADS, REQUESTS / 10, i -> {
+            // 每个预留标识被10个请求重复提交
+            FlashReserveResult result = flashStockService.reserve(RELATION_ID, SKU_ID, i / 10L, 1, "r" + i / 10);
+            if (result == FlashReserveResult.SUCCESS) {
+                successCount.incrementAndGet();
+            }
+        });
+        report("重复提交的秒杀库存预留", REQUESTS / 10, elapsed);
+
+        long reservations = stringRedisTemplate.opsForHash().size(getKey("reservations"));
+        long remaining = Long.parseLong((String) stringRedisTemplate.opsForHash().get(getKey("stock"), "stock"));
+        assertEquals(STOCK, reservations + remaining);
+        assertEquals(Math.min(REQUESTS / 100, STOCK), reservations);
+        if (REQUESTS / 100 <= STOCK) {
+            // 重复提交已预留的标识同样返回成功
+            assertEquals(REQUESTS / 10, successCount.get());
+        }
+    }
+
+    private String getKey(String type) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_FLASH_STOCK + ":{" + RELATION_ID + "}:" + type;
+    }
+}
@@ -0,0 +1,18 @@
+package com.lzy.mall.common.api;
+
+import com.github.pagehelper.Page;
+
+import java.util.List;
+
+/**
+ * 总条数为估算值的分页结果
+ * 当总条数来自表统计信息而不是COUNT(*)时使用，{@link CommonPage#restPage(List)} 会据此将 totalExact 标记为false
+ */
+public class ApproximatePage<E> extends Page<E> {
+
+    public ApproximatePage(int pageNum, int pageSize, long approximateTotal, List<E> list) {
+        super(pageNum, pageSize, false);
+        addAll(list);
+        setTotal(approximateTotal);
+    }
+}
@@ -1,9 +1,14 @@
 package com.lzy.mall.common.api;
 
 import com.github.pagehelper.PageInfo;
+import com.lzy.mall.common.exception.Asserts;
 import org.springframework.data.domain.Page;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 通用分页数据封装类
@@ -27,10 +32,31 @@ public class CommonPage<T> {
      * 总条数
      */
     private Long total;
+    /**
+     * 总条数是否精确（为false时表示总条数来自表统计信息的估算值，包含逻辑删除的记录）
+     */
+    private Boolean totalExact;
     /**
      * 分页数据
      */
     private List<T> list;
+    /**
+     * 下一页游标（游标分页模式下使用，为空表示没有下一页）
+     */
+    private String nextCursor;
+    /**
+     * 是否还有下一页（游标分页模式下使用）
+     */
+    private Boolean hasNext;
+
+    /**
+     * 游标版本前缀，用于后续调整游标格式时兼容旧游标
+     */
+    private static final String CURSOR_PREFIX = "v1:";
+    /**
+     * 游标分页每页数量上限
+     */
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     /**
      * 将PageHelper(常用于 MyBatis)分页后的list转为分页信息
@@ -65,6 +91,9 @@ public class CommonPage<T> {
         //将获取到的数据列表设置到 result 的 list 字段中。
         result.setList(pageInfo.getList());
 
+        //总条数为估算值的分页结果会被包装为 ApproximatePage，其余情况均为精确值。
+        result.setTotalExact(!(list instanceof ApproximatePage));
+
         //返回构建并填充好所有分页信息的 CommonPage 对象。
         return result;
     }
@@ -82,9 +111,67 @@ public class CommonPage<T> {
         result.setPageSize(pageInfo.getSize());
         result.setTotal(pageInfo.getTotalElements());
         result.setList(pageInfo.getContent());
+        result.setTotalExact(true);
+        return result;
+    }
+
+    /**
+     * 将游标分页查询结果转为分页信息
+     * 查询时需多取一条记录（pageSize + 1）用于判断是否存在下一页，游标分页模式下不返回总条数
+     * @param list 按排序键查询出的数据，最多 pageSize + 1 条
+     * @param pageSize 每页数量
+     * @param sortKey 获取排序键的方法，最后一条记录的排序键会编码为下一页游标
+     */
+    public static <T> CommonPage<T> restCursorPage(List<T> list, int pageSize, Function<T, Long> sortKey) {
+        checkCursorPageSize(pageSize);
+        CommonPage<T> result = new CommonPage<T>();
+        boolean hasNext = list.size() > pageSize;
+        List<T> pageList = hasNext ? new ArrayList<>(list.subList(0, pageSize)) : list;
+        result.setPageSize(pageSize);
+        result.setList(pageList);
+        result.setHasNext(hasNext);
+        if (hasNext) {
+            result.setNextCursor(encodeCursor(sortKey.apply(pageList.get(pageList.size() - 1))));
+        }
         return result;
     }
 
+    /**
+     * 校验游标分页的每页数量，需在按 pageSize + 1 查询之前调用
+     */
+    public static void checkCursorPageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            Asserts.fail("每页数量必须在1~" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+    }
+
+    /**
+     * 将排序键编码为不透明的游标字符串
+     */
+    public static String encodeCursor(Long sortKey) {
+        String raw = CURSOR_PREFIX + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，返回其中的排序键；游标为空时返回null表示从第一页开始
+     */
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.startsWith(CURSOR_PREFIX)) {
+                return Long.valueOf(raw.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // 非法的Base64或数字格式，统一按无效游标处理
+        }
+        Asserts.fail("分页游标无效");
+        return null;
+    }
+
     public Integer getPageNum() {
         return pageNum;
     }
@@ -124,4 +211,28 @@ public class CommonPage<T> {
     public void setTotal(Long total) {
         this.total = total;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Boolean getTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(Boolean totalExact) {
+        this.totalExact = totalExact;
+    }
 }
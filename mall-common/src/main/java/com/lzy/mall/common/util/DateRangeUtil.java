@@ -0,0 +1,79 @@
+package com.lzy.mall.common.util;
+
+import com.lzy.mall.common.exception.Asserts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * 时间区间工具类
+ * 将“2018-10”、“2018-10-11”这类时间前缀转换为半开区间[begin, end)，
+ * 用于替代 create_time LIKE '2018-10-11%' 这类无法使用索引的查询条件
+ */
+public class DateRangeUtil {
+
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 获取时间前缀对应区间的开始时间（包含）
+     */
+    public static Date getPrefixBegin(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return toDate(parseBegin(prefix));
+    }
+
+    /**
+     * 获取时间前缀对应区间的结束时间（不包含）
+     */
+    public static Date getPrefixEnd(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        LocalDateTime begin = parseBegin(prefix);
+        return toDate(begin.plus(1, getPrefixUnit(prefix.trim())));
+    }
+
+    private static LocalDateTime parseBegin(String prefix) {
+        String value = prefix.trim();
+        // 只支持到年、月、日、时、分、秒为止的前缀
+        getPrefixUnit(value);
+        // 用最小值补全前缀后按完整格式解析
+        String template = "0000-01-01 00:00:00";
+        try {
+            return LocalDateTime.parse(value + template.substring(value.length()), SECOND_FORMATTER);
+        } catch (DateTimeParseException e) {
+            Asserts.fail("时间格式不正确：" + prefix);
+            return null;
+        }
+    }
+
+    private static ChronoUnit getPrefixUnit(String value) {
+        switch (value.length()) {
+            case 4:
+                return ChronoUnit.YEARS;
+            case 7:
+                return ChronoUnit.MONTHS;
+            case 10:
+                return ChronoUnit.DAYS;
+            case 13:
+                return ChronoUnit.HOURS;
+            case 16:
+                return ChronoUnit.MINUTES;
+            case 19:
+                return ChronoUnit.SECONDS;
+            default:
+                Asserts.fail("时间格式不正确：" + value);
+                return null;
+        }
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
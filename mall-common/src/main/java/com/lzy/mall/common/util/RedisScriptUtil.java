@@ -0,0 +1,24 @@
+package com.lzy.mall.common.util;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+/**
+ * Redis Lua脚本工具类
+ */
+public class RedisScriptUtil {
+
+    /**
+     * 从classpath加载Lua脚本，脚本的SHA1在首次执行时计算，之后以EVALSHA执行
+     * @param path       脚本在classpath中的路径
+     * @param resultType 脚本返回值类型
+     */
+    public static <T> RedisScript<T> load(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
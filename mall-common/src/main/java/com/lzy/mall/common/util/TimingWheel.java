@@ -0,0 +1,197 @@
+package com.lzy.mall.common.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * 每层由wheelSize个槽组成，最底层每个槽覆盖tickMs毫秒，上一层每个槽覆盖下一层的总跨度；
+ * 超出本层跨度的任务放入上一层，时间推进到上一层某个槽的起点时，把槽内任务重新分配到下层。
+ * 添加任务为O(1)，推进时间只处理经过的槽，不需要按到期时间排序全部任务。
+ * 非线程安全，添加任务和推进时间应在同一个线程中进行。
+ */
+public class TimingWheel<T> {
+    private final Level<T> root;
+    /**
+     * 落在最底层当前槽内、尚未到期的任务；一个槽覆盖tickMs毫秒，槽内的任务逐个按到期时间取出
+     */
+    private final List<Entry<T>> current = new ArrayList<>();
+    /**
+     * 最近一次推进到的时间
+     */
+    private long now;
+    private int size;
+
+    /**
+     * @param tickMs    最底层每个槽覆盖的毫秒数
+     * @param wheelSize 每层的槽数
+     * @param startTime 起始时间（毫秒）
+     */
+    public TimingWheel(long tickMs, int wheelSize, long startTime) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs必须大于0，wheelSize必须大于1");
+        }
+        this.root = new Level<>(tickMs, wheelSize, startTime);
+        this.now = startTime;
+    }
+
+    /**
+     * 添加任务
+     * @return 任务已到期（到期时间不晚于最近一次推进到的时间）时不会加入并返回false，由调用方立即处理
+     */
+    public boolean add(long expireTime, T task) {
+        if (expireTime <= now) {
+            return false;
+        }
+        Entry<T> entry = new Entry<>(expireTime, task);
+        if (!root.add(entry)) {
+            current.add(entry);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 把时间推进到now，返回期间到期的任务
+     */
+    public List<T> advance(long now) {
+        if (now > this.now) {
+            this.now = now;
+        }
+        List<T> expired = new ArrayList<>();
+        if (size == 0) {
+            //没有任务时直接跳到now所在的槽，避免长时间空闲后逐槽推进
+            root.jumpTo(now);
+            return expired;
+        }
+        while (root.currentTime + root.tickMs <= now) {
+            long time = root.currentTime + root.tickMs;
+            root.currentTime = time;
+            if (root.overflowWheel != null) {
+                root.overflowWheel.cascade(time, root, current);
+            }
+            root.drain(time, current);
+        }
+        //当前槽内到期时间晚于now的任务留到下一次推进，不会提前取出
+        Iterator<Entry<T>> iterator = current.iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (entry.expireTime <= now) {
+                expired.add(entry.task);
+                iterator.remove();
+            }
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * 当前未到期的任务数
+     */
+    public int size() {
+        return size;
+    }
+
+    private static class Entry<T> {
+        private final long expireTime;
+        private final T task;
+
+        private Entry(long expireTime, T task) {
+            this.expireTime = expireTime;
+            this.task = task;
+        }
+    }
+
+    private static class Level<T> {
+        private final long tickMs;
+        private final int wheelSize;
+        /**
+         * 本层的总跨度
+         */
+        private final long interval;
+        private final List<List<Entry<T>>> buckets;
+        /**
+         * 当前时间，始终为tickMs的整数倍
+         */
+        private long currentTime;
+        private Level<T> overflowWheel;
+
+        private Level(long tickMs, int wheelSize, long startTime) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            this.currentTime = startTime - startTime % tickMs;
+        }
+
+        /**
+         * @return 任务落在本层当前槽内时不加入并返回false
+         */
+        private boolean add(Entry<T> entry) {
+            if (entry.expireTime < currentTime + tickMs) {
+                return false;
+            }
+            if (entry.expireTime < currentTime + interval) {
+                //跨度内每个槽只对应一段时间，不会出现不同圈的任务落入同一个槽
+                bucket(entry.expireTime).add(entry);
+                return true;
+            }
+            if (overflowWheel == null) {
+                overflowWheel = new Level<>(interval, wheelSize, currentTime);
+            }
+            return overflowWheel.add(entry);
+        }
+
+        private List<Entry<T>> bucket(long time) {
+            return buckets.get((int) ((time / tickMs) % wheelSize));
+        }
+
+        /**
+         * 时间推进到本层槽的起点时，先让更上层把任务分配下来，再把本层当前槽的任务重新放入最底层，
+         * 落在最底层当前槽内的任务放入current
+         */
+        private void cascade(long time, Level<T> root, List<Entry<T>> current) {
+            if (time % tickMs != 0) {
+                return;
+            }
+            currentTime = time;
+            if (overflowWheel != null) {
+                overflowWheel.cascade(time, root, current);
+            }
+            List<Entry<T>> bucket = bucket(time);
+            if (bucket.isEmpty()) {
+                return;
+            }
+            List<Entry<T>> entries = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<T> entry : entries) {
+                if (!root.add(entry)) {
+                    current.add(entry);
+                }
+            }
+        }
+
+        /**
+         * 把最底层当前槽的全部任务移入current
+         */
+        private void drain(long time, List<Entry<T>> current) {
+            List<Entry<T>> bucket = bucket(time);
+            current.addAll(bucket);
+            bucket.clear();
+        }
+
+        private void jumpTo(long now) {
+            long time = now - now % tickMs;
+            if (time > currentTime) {
+                currentTime = time;
+            }
+            if (overflowWheel != null) {
+                overflowWheel.jumpTo(now);
+            }
+        }
+    }
+}
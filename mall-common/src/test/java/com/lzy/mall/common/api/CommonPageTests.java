@@ -0,0 +1,75 @@
+package com.lzy.mall.common.api;
+
+import com.lzy.mall.common.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommonPageTests {
+
+    @Test
+    void cursorRoundTrip() {
+        for (long sortKey : new long[]{0L, 1L, 42L, Long.MAX_VALUE, -1L}) {
+            String cursor = CommonPage.encodeCursor(sortKey);
+            assertFalse(cursor.contains("="));
+            assertEquals(sortKey, CommonPage.decodeCursor(cursor));
+        }
+    }
+
+    @Test
+    void emptyCursorStartsFromFirstPage() {
+        assertNull(CommonPage.decodeCursor(null));
+        assertNull(CommonPage.decodeCursor(""));
+    }
+
+    @Test
+    void invalidCursorFails() {
+        assertThrows(ApiException.class, () -> CommonPage.decodeCursor("not base64!"));
+        assertThrows(ApiException.class, () -> CommonPage.decodeCursor(encode("42")));
+        assertThrows(ApiException.class, () -> CommonPage.decodeCursor(encode("v2:42")));
+        assertThrows(ApiException.class, () -> CommonPage.decodeCursor(encode("v1:abc")));
+    }
+
+    @Test
+    void restCursorPageWithNextPage() {
+        CommonPage<Long> page = CommonPage.restCursorPage(List.of(9L, 8L, 7L, 6L), 3, Function.identity());
+        assertEquals(List.of(9L, 8L, 7L), page.getList());
+        assertEquals(3, page.getPageSize());
+        assertTrue(page.getHasNext());
+        assertEquals(7L, CommonPage.decodeCursor(page.getNextCursor()));
+        assertNull(page.getTotal());
+    }
+
+    @Test
+    void restCursorPageOnLastPage() {
+        CommonPage<Long> full = CommonPage.restCursorPage(List.of(3L, 2L, 1L), 3, Function.identity());
+        assertEquals(List.of(3L, 2L, 1L), full.getList());
+        assertFalse(full.getHasNext());
+        assertNull(full.getNextCursor());
+
+        CommonPage<Long> empty = CommonPage.restCursorPage(List.of(), 3, Function.identity());
+        assertTrue(empty.getList().isEmpty());
+        assertFalse(empty.getHasNext());
+        assertNull(empty.getNextCursor());
+    }
+
+    @Test
+    void invalidCursorPageSizeFails() {
+        assertThrows(ApiException.class, () -> CommonPage.checkCursorPageSize(null));
+        assertThrows(ApiException.class, () -> CommonPage.checkCursorPageSize(0));
+        assertThrows(ApiException.class, () -> CommonPage.checkCursorPageSize(-1));
+        assertThrows(ApiException.class, () -> CommonPage.checkCursorPageSize(CommonPage.MAX_CURSOR_PAGE_SIZE + 1));
+        CommonPage.checkCursorPageSize(1);
+        CommonPage.checkCursorPageSize(CommonPage.MAX_CURSOR_PAGE_SIZE);
+        assertThrows(ApiException.class, () -> CommonPage.restCursorPage(List.of(1L), 0, Function.identity()));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
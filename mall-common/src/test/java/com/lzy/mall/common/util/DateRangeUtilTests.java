@@ -0,0 +1,56 @@
+package com.lzy.mall.common.util;
+
+import com.lzy.mall.common.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateRangeUtilTests {
+
+    @Test
+    void emptyPrefixHasNoRange() {
+        assertNull(DateRangeUtil.getPrefixBegin(null));
+        assertNull(DateRangeUtil.getPrefixEnd(null));
+        assertNull(DateRangeUtil.getPrefixBegin(""));
+        assertNull(DateRangeUtil.getPrefixEnd(""));
+    }
+
+    @Test
+    void prefixIsConvertedToHalfOpenRange() {
+        assertRange("2018", LocalDateTime.of(2018, 1, 1, 0, 0), LocalDateTime.of(2019, 1, 1, 0, 0));
+        assertRange("2018-10", LocalDateTime.of(2018, 10, 1, 0, 0), LocalDateTime.of(2018, 11, 1, 0, 0));
+        assertRange("2018-12", LocalDateTime.of(2018, 12, 1, 0, 0), LocalDateTime.of(2019, 1, 1, 0, 0));
+        assertRange("2018-10-11", LocalDateTime.of(2018, 10, 11, 0, 0), LocalDateTime.of(2018, 10, 12, 0, 0));
+        assertRange("2018-10-31", LocalDateTime.of(2018, 10, 31, 0, 0), LocalDateTime.of(2018, 11, 1, 0, 0));
+        assertRange("2018-10-11 23", LocalDateTime.of(2018, 10, 11, 23, 0), LocalDateTime.of(2018, 10, 12, 0, 0));
+        assertRange("2018-10-11 12:30", LocalDateTime.of(2018, 10, 11, 12, 30), LocalDateTime.of(2018, 10, 11, 12, 31));
+        assertRange("2018-10-11 12:30:59", LocalDateTime.of(2018, 10, 11, 12, 30, 59), LocalDateTime.of(2018, 10, 11, 12, 31));
+    }
+
+    @Test
+    void surroundingBlanksAreIgnored() {
+        assertRange(" 2018-10 ", LocalDateTime.of(2018, 10, 1, 0, 0), LocalDateTime.of(2018, 11, 1, 0, 0));
+    }
+
+    @Test
+    void invalidPrefixFails() {
+        assertThrows(ApiException.class, () -> DateRangeUtil.getPrefixBegin("2018-1"));
+        assertThrows(ApiException.class, () -> DateRangeUtil.getPrefixEnd("2018-10-1"));
+        assertThrows(ApiException.class, () -> DateRangeUtil.getPrefixBegin("2018-13"));
+        assertThrows(ApiException.class, () -> DateRangeUtil.getPrefixBegin("2018/10/11"));
+        assertThrows(ApiException.class, () -> DateRangeUtil.getPrefixBegin("2018-10-11 12:30:59.1"));
+    }
+
+    private static void assertRange(String prefix, LocalDateTime begin, LocalDateTime end) {
+        assertEquals(toDate(begin), DateRangeUtil.getPrefixBegin(prefix), prefix);
+        assertEquals(toDate(end), DateRangeUtil.getPrefixEnd(prefix), prefix);
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
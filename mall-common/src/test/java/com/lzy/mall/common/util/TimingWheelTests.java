@@ -0,0 +1,118 @@
+package com.lzy.mall.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(10, 1, 0));
+    }
+
+    @Test
+    void expiredTaskIsNotAdded() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 100);
+        assertFalse(wheel.add(100, "a"));
+        assertFalse(wheel.add(50, "b"));
+        assertEquals(0, wheel.size());
+
+        wheel.advance(150);
+        assertFalse(wheel.add(150, "c"));
+        assertTrue(wheel.add(151, "d"));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void tasksExpireAtTheirTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        // 分别落在最底层当前槽、最底层其他槽、第二层和更上层
+        assertTrue(wheel.add(5, "a"));
+        assertTrue(wheel.add(25, "b"));
+        assertTrue(wheel.add(100, "c"));
+        assertTrue(wheel.add(1000, "d"));
+        assertEquals(4, wheel.size());
+
+        assertEquals(Collections.emptyList(), wheel.advance(4));
+        assertEquals(List.of("a"), wheel.advance(5));
+        assertEquals(Collections.emptyList(), wheel.advance(24));
+        assertEquals(List.of("b"), wheel.advance(25));
+        assertEquals(Collections.emptyList(), wheel.advance(99));
+        assertEquals(List.of("c"), wheel.advance(100));
+        assertEquals(Collections.emptyList(), wheel.advance(999));
+        assertEquals(List.of("d"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advanceReturnsAllTasksDueInBetween() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 0);
+        for (int i = 1; i <= 200; i++) {
+            wheel.add(i * 7L, i);
+        }
+        List<Integer> expired = wheel.advance(700);
+        assertEquals(100, expired.size());
+        assertEquals(100, wheel.size());
+        assertEquals(new HashSet<>(expired), new HashSet<>(rangeClosed(1, 100)));
+    }
+
+    @Test
+    void idleWheelJumpsToNow() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        assertEquals(Collections.emptyList(), wheel.advance(1_000_000));
+        assertFalse(wheel.add(1_000_000, "late"));
+        assertTrue(wheel.add(1_000_015, "a"));
+        assertEquals(Collections.emptyList(), wheel.advance(1_000_014));
+        assertEquals(List.of("a"), wheel.advance(1_000_015));
+    }
+
+    @Test
+    void neverExpiresEarlyOrLosesTasks() {
+        Random random = new Random(42);
+        long start = 1_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(50, 8, start);
+        Map<Long, Integer> pending = new HashMap<>();
+        long now = start;
+        int added = 0;
+        int expiredCount = 0;
+        while (now < start + 200_000) {
+            for (int i = 0; i < 5; i++) {
+                long expireTime = now + 1 + random.nextInt(random.nextBoolean() ? 100 : 50_000);
+                if (wheel.add(expireTime, expireTime)) {
+                    pending.merge(expireTime, 1, Integer::sum);
+                    added++;
+                }
+            }
+            now += random.nextInt(120);
+            for (Long expireTime : wheel.advance(now)) {
+                assertTrue(expireTime <= now, "任务提前到期：" + expireTime + " > " + now);
+                Integer count = pending.get(expireTime);
+                assertNotNull(count, "取出了未添加的任务：" + expireTime);
+                if (count == 1) {
+                    pending.remove(expireTime);
+                } else {
+                    pending.put(expireTime, count - 1);
+                }
+                expiredCount++;
+            }
+            for (Long expireTime : pending.keySet()) {
+                assertTrue(expireTime > now, "任务到期后未取出：" + expireTime + " <= " + now);
+            }
+        }
+        assertEquals(added - expiredCount, wheel.size());
+        assertEquals(added - expiredCount, wheel.advance(now + 50_000).size());
+        assertEquals(0, wheel.size());
+    }
+
+    private static List<Integer> rangeClosed(int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}